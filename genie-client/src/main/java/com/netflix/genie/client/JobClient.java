@@ -32,6 +32,7 @@ import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -39,15 +40,23 @@ import okhttp3.RequestBody;
 import okio.BufferedSink;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.validator.constraints.NotEmpty;
+import retrofit2.Call;
 import retrofit2.Response;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Client library for the Job Service.
@@ -60,6 +69,9 @@ public class JobClient extends BaseGenieClient {
     private static final String STATUS = "status";
     private static final String ATTACHMENT = "attachment";
     private static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
+    private static final String STDOUT = "stdout";
+    private static final String STDERR = "stderr";
+    private static final long RECONNECT_DELAY = 1000L;
 
     private final JobService jobService;
 
@@ -217,6 +229,68 @@ public class JobClient extends BaseGenieClient {
         return jobList;
     }
 
+    /**
+     * Method to iterate over all the jobs from Genie for the query parameters specified. The jobs are fetched a page at
+     * a time as the iterator reaches them. Each page is found by seeking after the cursor of the previous one so
+     * walking many pages doesn't get slower the further it gets and no counts are made.
+     *
+     * @param id          id for job
+     * @param name        name of job (can be a SQL-style pattern such as HIVE%)
+     * @param user        user who submitted job
+     * @param statuses    statuses of jobs to find
+     * @param tags        tags for the job
+     * @param clusterName the name of the cluster
+     * @param clusterId   the id of the cluster
+     * @param commandName the name of the command run by the job
+     * @param commandId   the id of the command run by the job
+     * @param minStarted  The time which the job had to start after in order to be return (inclusive)
+     * @param maxStarted  The time which the job had to start before in order to be returned (exclusive)
+     * @param minFinished The time which the job had to finish after in order to be return (inclusive)
+     * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
+     * @param pageSize    The number of jobs to fetch at a time
+     * @return An iterator over the jobs, most recently created first. Errors fetching a page are thrown from the
+     * iterator as {@link UncheckedIOException}.
+     */
+    public Iterator<JobSearchResult> getJobsIterator(
+        final String id,
+        final String name,
+        final String user,
+        final Set<String> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Long minStarted,
+        final Long maxStarted,
+        final Long minFinished,
+        final Long maxFinished,
+        final int pageSize
+    ) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return new JobSearchResultIterator(
+            after -> jobService.getJobs(
+                id,
+                name,
+                user,
+                statuses,
+                tags,
+                clusterName,
+                clusterId,
+                commandName,
+                commandId,
+                minStarted,
+                maxStarted,
+                minFinished,
+                maxFinished,
+                after,
+                pageSize
+            )
+        );
+    }
+
     /**
      * Method to get a job from Genie.
      *
@@ -356,6 +430,50 @@ public class JobClient extends BaseGenieClient {
         return jobService.getJobStderr(jobId).execute().body().byteStream();
     }
 
+    /**
+     * Method to follow the stdout of a job, streaming it as it grows until the job is done.
+     *
+     * @param jobId The id of the job whose stdout is desired.
+     * @return An inputstream to the stdout contents which ends once the job is finished and all of it has been read.
+     */
+    public InputStream followJobStdout(final String jobId) {
+        return this.followJobOutput(jobId, STDOUT, 0L);
+    }
+
+    /**
+     * Method to follow the stderr of a job, streaming it as it grows until the job is done.
+     *
+     * @param jobId The id of the job whose stderr is desired.
+     * @return An inputstream to the stderr contents which ends once the job is finished and all of it has been read.
+     */
+    public InputStream followJobStderr(final String jobId) {
+        return this.followJobOutput(jobId, STDERR, 0L);
+    }
+
+    /**
+     * Method to follow a file in the output directory of a job, streaming it as it grows until the job is done.
+     * <p>
+     * Whenever the server ends the stream before the job is finished, or nothing is received for longer than the read
+     * timeout, the stream reconnects and resumes from the number of bytes read so far.
+     *
+     * @param jobId  The id of the job whose output is desired.
+     * @param path   The path of the file relative to the job directory. e.g. stdout
+     * @param offset The offset in bytes into the file to start streaming from.
+     * @return An inputstream to the file contents which ends once the job is finished and all of it has been read.
+     */
+    public InputStream followJobOutput(final String jobId, final String path, final long offset) {
+        if (StringUtils.isEmpty(jobId)) {
+            throw new IllegalArgumentException("Missing required parameter: jobId.");
+        }
+        if (StringUtils.isEmpty(path)) {
+            throw new IllegalArgumentException("Missing required parameter: path.");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative.");
+        }
+        return new JobOutputInputStream(jobId, path, offset);
+    }
+
     /**
      * Method to fetch the status of a job.
      *
@@ -450,4 +568,139 @@ public class JobClient extends BaseGenieClient {
         final long pollTime = 10000;
         return waitForCompletion(jobId, blockTimeout, pollTime);
     }
+
+    /**
+     * Iterator over job search results which fetches the next page, seeking after the cursor in the next link of the
+     * current one, when the current page runs out.
+     */
+    private class JobSearchResultIterator implements Iterator<JobSearchResult> {
+
+        private final Function<String, Call<JsonNode>> pageCalls;
+        private Iterator<JobSearchResult> page = Collections.emptyIterator();
+        // Empty rather than null so the first page is also found by seeking
+        private String after = "";
+        private boolean hasNextPage = true;
+
+        JobSearchResultIterator(final Function<String, Call<JsonNode>> pageCalls) {
+            this.pageCalls = pageCalls;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.page.hasNext() && this.hasNextPage) {
+                this.fetchNextPage();
+            }
+            return this.page.hasNext();
+        }
+
+        @Override
+        public JobSearchResult next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.page.next();
+        }
+
+        private void fetchNextPage() {
+            try {
+                final JsonNode body = this.pageCalls.apply(this.after).execute().body();
+                final List<JobSearchResult> jobs = new ArrayList<>();
+                for (final JsonNode objNode : body.path("_embedded").path("jobSearchResultList")) {
+                    jobs.add(treeToValue(objNode, JobSearchResult.class));
+                }
+                // The cursor to seek after is opaque so it's taken from the next link rather than the last job
+                final HttpUrl next = HttpUrl.parse(body.path("_links").path("next").path("href").asText());
+                this.after = next == null ? null : next.queryParameter("after");
+                this.hasNextPage = !jobs.isEmpty() && this.after != null;
+                this.page = jobs.iterator();
+            } catch (final IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+
+    /**
+     * Stream of a job output file which reconnects from where it left off until the job is finished.
+     */
+    private class JobOutputInputStream extends InputStream {
+        private final String jobId;
+        private final String path;
+        private long offset;
+        private InputStream current;
+        private boolean finishedBeforeConnecting;
+        private boolean receivedSinceConnecting;
+        private boolean done;
+
+        JobOutputInputStream(final String jobId, final String path, final long offset) {
+            this.jobId = jobId;
+            this.path = path;
+            this.offset = offset;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int read = this.read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!this.done) {
+                if (this.current == null) {
+                    // Once the job is finished the next stream has everything that's left and ends with the file
+                    this.finishedBeforeConnecting = getJobStatus(this.jobId).isFinished();
+                    this.current = jobService
+                        .followJobOutput(this.jobId, this.path, this.offset)
+                        .execute()
+                        .body()
+                        .byteStream();
+                    this.receivedSinceConnecting = false;
+                }
+                int read;
+                try {
+                    read = this.current.read(b, off, len);
+                } catch (final SocketTimeoutException ste) {
+                    // Nothing new for a while. Reconnect in case the stream was dropped along the way
+                    read = -1;
+                }
+                if (read > 0) {
+                    this.offset += read;
+                    this.receivedSinceConnecting = true;
+                    return read;
+                }
+                this.closeCurrent();
+                this.done = this.finishedBeforeConnecting;
+                if (!this.done && !this.receivedSinceConnecting) {
+                    // Don't hammer the server if it keeps ending the stream without sending anything
+                    try {
+                        Thread.sleep(RECONNECT_DELAY);
+                    } catch (final InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while following output of " + this.jobId);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.done = true;
+            this.closeCurrent();
+        }
+
+        private void closeCurrent() throws IOException {
+            if (this.current != null) {
+                try {
+                    this.current.close();
+                } finally {
+                    this.current = null;
+                }
+            }
+        }
+    }
 }
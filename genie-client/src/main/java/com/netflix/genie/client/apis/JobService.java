@@ -112,6 +112,47 @@ public interface JobService {
         @Query("maxFinished") final Long maxFinished
     );
 
+    /**
+     * Method to get a page of jobs from Genie which come after a given job. Pages are found by seeking after the last
+     * job of the previous page instead of by offset and the jobs are never counted.
+     *
+     * @param id          id for job
+     * @param name        name of job (can be a SQL-style pattern such as HIVE%)
+     * @param user        user who submitted job
+     * @param statuses    statuses of jobs to find
+     * @param tags        tags for the job
+     * @param clusterName the name of the cluster
+     * @param clusterId   the id of the cluster
+     * @param commandName the name of the command run by the job
+     * @param commandId   the id of the command run by the job
+     * @param minStarted  The time which the job had to start after in order to be return (inclusive)
+     * @param maxStarted  The time which the job had to start before in order to be returned (exclusive)
+     * @param minFinished The time which the job had to finish after in order to be return (inclusive)
+     * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
+     * @param after       The cursor from the next link of the previous page. Empty for the first page.
+     * @param size        The maximum number of jobs in the page
+     *
+     * @return A callable object.
+     */
+    @GET(JOBS_URL_SUFFIX)
+    Call<JsonNode> getJobs(
+        @Query("id") final String id,
+        @Query("name") final String name,
+        @Query("user") final String user,
+        @Query("status") final Set<String> statuses,
+        @Query("tag") final Set<String> tags,
+        @Query("clusterName") final String clusterName,
+        @Query("clusterId") final String clusterId,
+        @Query("commandName") final String commandName,
+        @Query("commandId") final String commandId,
+        @Query("minStarted") final Long minStarted,
+        @Query("maxStarted") final Long maxStarted,
+        @Query("minFinished") final Long minFinished,
+        @Query("maxFinished") final Long maxFinished,
+        @Query("after") final String after,
+        @Query("size") final int size
+    );
+
     /**
      * Method to fetch a single job from Genie.
      *
@@ -141,6 +182,22 @@ public interface JobService {
     @GET(JOBS_URL_SUFFIX + "/{id}/output/stderr")
     Call<ResponseBody> getJobStderr(@Path("id") final String jobId);
 
+    /**
+     * Method to follow a file in the output directory of a job, streaming it as it grows until the job is done.
+     *
+     * @param jobId  The id of the job whose output is desired.
+     * @param path   The path of the file relative to the job directory.
+     * @param offset The offset in bytes into the file to start streaming from.
+     * @return A callable object.
+     */
+    @Streaming
+    @GET(JOBS_URL_SUFFIX + "/{id}/output/{path}?follow=true")
+    Call<ResponseBody> followJobOutput(
+        @Path("id") final String jobId,
+        @Path(value = "path", encoded = true) final String path,
+        @Query("offset") final long offset
+    );
+
     /**
      * Method to get Job status.
      *
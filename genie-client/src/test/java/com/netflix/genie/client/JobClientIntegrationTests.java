@@ -47,6 +47,7 @@ import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -409,6 +410,59 @@ public class JobClientIntegrationTests extends GenieClientsIntegrationTestsBase
         Assert.assertTrue(jobs.size() >= 2);
     }
 
+    /**
+     * Method to test iterating over jobs a page at a time.
+     *
+     * @throws Exception If there is a problem.
+     */
+    @Test
+    public void testCanIterateJobs() throws Exception {
+
+        createClusterAndCommandForTest();
+
+        final List<ClusterCriteria> clusterCriteriaList
+            = Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("laptop")));
+
+        final Set<String> commandCriteria = Sets.newHashSet("bash");
+
+        final String user = UUID.randomUUID().toString();
+        final Set<String> jobIds = Sets.newHashSet();
+        for (int i = 0; i < 3; i++) {
+            final JobRequest jobRequest = new JobRequest.Builder(
+                JOB_NAME,
+                user,
+                JOB_VERSION,
+                "-c 'echo HELLO WORLD!!!'",
+                clusterCriteriaList,
+                commandCriteria
+            )
+                .withId(UUID.randomUUID().toString())
+                .withDisableLogArchival(true)
+                .build();
+            jobIds.add(jobClient.submitJob(jobRequest));
+        }
+
+        final Iterator<JobSearchResult> jobs = jobClient.getJobsIterator(
+            null,
+            null,
+            user,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            2
+        );
+        final Set<String> foundIds = Sets.newHashSet();
+        jobs.forEachRemaining(job -> foundIds.add(job.getId()));
+        Assert.assertEquals(jobIds, foundIds);
+    }
+
     /**
      * Method to test getJobs with params function.
      *
@@ -617,6 +671,55 @@ public class JobClientIntegrationTests extends GenieClientsIntegrationTestsBase
         Assert.assertEquals("HELLO WORLD!!!", sb.toString());
     }
 
+    /**
+     * Method to test following the stdout of a job while it runs.
+     *
+     * @throws Exception If there is a problem.
+     */
+    @Test
+    public void testCanFollowJobStdout() throws Exception {
+
+        createClusterAndCommandForTest();
+
+        final List<ClusterCriteria> clusterCriteriaList
+            = Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("laptop")));
+
+        final Set<String> commandCriteria = Sets.newHashSet("bash");
+
+        final JobRequest jobRequest1 = new JobRequest.Builder(
+            JOB_NAME,
+            JOB_USER,
+            JOB_VERSION,
+            "-c 'echo HELLO; sleep 5; echo WORLD'",
+            clusterCriteriaList,
+            commandCriteria
+        )
+            .withId(UUID.randomUUID().toString())
+            .withDisableLogArchival(true)
+            .build();
+
+        final String jobId = jobClient.submitJob(jobRequest1);
+
+        // Wait for the job to start so its output directory is there to follow
+        while (jobClient.getJobStatus(jobId) == JobStatus.INIT) {
+            Thread.sleep(500);
+        }
+
+        final InputStream inputStream1 = jobClient.followJobStdout(jobId);
+        final BufferedReader reader1 = new BufferedReader(new InputStreamReader(inputStream1, "UTF-8"));
+        final StringBuilder sb = new StringBuilder();
+        String line;
+        while ((line = reader1.readLine()) != null) {
+            sb.append(line);
+        }
+
+        reader1.close();
+        inputStream1.close();
+
+        Assert.assertEquals("HELLOWORLD", sb.toString());
+        Assert.assertTrue(jobClient.getJobStatus(jobId).isFinished());
+    }
+
     /**
      * Method to test get stdout function.
      *
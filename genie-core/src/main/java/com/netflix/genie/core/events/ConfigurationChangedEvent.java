@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.events;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import javax.validation.constraints.NotNull;
+import java.util.Optional;
+
+/**
+ * Event fired once a change to an application, cluster or command has been committed to the data store. Used by any
+ * in memory view of the configuration (e.g. routing indexes or caches) to know when it needs to be refreshed.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class ConfigurationChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = -4021733561467386722L;
+
+    @Getter
+    private final ConfigurationType type;
+    private final String id;
+
+    /**
+     * Constructor.
+     *
+     * @param type   The type of resource which changed
+     * @param id     The id of the resource which changed. Null if potentially all resources of the type changed.
+     * @param source The source object which generated this event
+     */
+    public ConfigurationChangedEvent(
+        @NotNull final ConfigurationType type,
+        final String id,
+        @NotNull final Object source
+    ) {
+        super(source);
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Get the id of the resource which changed.
+     *
+     * @return The id or empty if all resources of the given type should be considered changed
+     */
+    public Optional<String> getId() {
+        return Optional.ofNullable(this.id);
+    }
+}
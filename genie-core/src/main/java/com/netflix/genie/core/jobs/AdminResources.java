@@ -17,11 +17,14 @@
  */
 package com.netflix.genie.core.jobs;
 
+import lombok.Getter;
+
 /**
  * The three possible Admin resources in Genie.
  *
  * @author amsharma
  */
+@Getter
 public enum AdminResources {
 
     /**
@@ -31,15 +34,29 @@ public enum AdminResources {
     /**
      * Application Entity.
      **/
-    APPLICATION,
+    APPLICATION(JobConstants.APPLICATION_PATH_VAR, "Application"),
 
     /**
      * Command Entity.
      **/
-    COMMAND,
+    COMMAND(JobConstants.COMMAND_PATH_VAR, "Command"),
 
     /**
      * Cluster Entity.
      **/
-    CLUSTER
+    CLUSTER(JobConstants.CLUSTER_PATH_VAR, "Cluster");
+
+    private final String pathVar;
+    private final String label;
+
+    /**
+     * Constructor.
+     *
+     * @param pathVar The name of the directory under the genie directory of a job holding entities of this type
+     * @param label   The human readable name of the entity type
+     */
+    AdminResources(final String pathVar, final String label) {
+        this.pathVar = pathVar;
+        this.label = label;
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import lombok.Getter;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A file a job needs which is to be fetched from a remote location into the job directory.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+public class FileDownload {
+
+    private final GenieFileTransferService fileTransferService;
+    private final String srcRemotePath;
+    private final String dstLocalPath;
+
+    /**
+     * Constructor.
+     *
+     * @param fileTransferService The file transfer service to fetch the file with
+     * @param srcRemotePath       Path of the file in the remote location to be fetched
+     * @param dstLocalPath        Local path where the file needs to be placed
+     */
+    public FileDownload(
+        @NotNull final GenieFileTransferService fileTransferService,
+        @NotBlank final String srcRemotePath,
+        @NotBlank final String dstLocalPath
+    ) {
+        this.fileTransferService = fileTransferService;
+        this.srcRemotePath = srcRemotePath;
+        this.dstLocalPath = dstLocalPath;
+    }
+}
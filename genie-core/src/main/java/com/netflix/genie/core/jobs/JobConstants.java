@@ -50,6 +50,11 @@ public final class JobConstants {
      **/
     public static final String JOB_EXECUTION_DTO_KEY = "jexecdto";
 
+    /**
+     * Key used for look up of the list of files to download for a job in a Context Map for workflows.
+     **/
+    public static final String FILE_DOWNLOADS_KEY = "downloads";
+
     /**
      * The launcher script name that genie creates to setup a job for running.
      **/
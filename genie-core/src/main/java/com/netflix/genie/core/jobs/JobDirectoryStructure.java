@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Creates the directory structure of a job working directory for its cluster, command and applications.
+ * <p>
+ * Directories which already exist, such as the genie directory of a retried job or one shared by an application
+ * listed twice, are left as they are.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class JobDirectoryStructure {
+
+    private static final String GENIE_DIR = JobConstants.GENIE_PATH_VAR + JobConstants.FILE_PATH_DELIMITER;
+
+    /**
+     * Create the directories of the job and its empty standard output and error files in its working directory.
+     *
+     * @param jobExecEnv The execution environment of the job
+     * @throws GenieException If the directory structure couldn't be created
+     */
+    public void create(@NotNull final JobExecutionEnvironment jobExecEnv) throws GenieException {
+        final Path jobDir = jobExecEnv.getJobWorkingDir().toPath();
+        final List<String> directories = this.getDirectories(jobExecEnv);
+        Path current = jobDir;
+        try {
+            Files.createDirectories(jobDir);
+            for (final String directory : directories) {
+                current = jobDir.resolve(directory);
+                Files.createDirectories(current);
+            }
+            current = jobDir.resolve(JobConstants.STDOUT_LOG_FILE_NAME);
+            createFile(current);
+            current = jobDir.resolve(JobConstants.STDERR_LOG_FILE_NAME);
+            createFile(current);
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Could not create " + current, ioe);
+        }
+    }
+
+    /**
+     * Get the directories of the job.
+     *
+     * @param jobExecEnv The execution environment of the job
+     * @return The directories of the job relative to its working directory with parents before their children
+     * @throws GenieException If one of the entities has no id
+     */
+    protected List<String> getDirectories(@NotNull final JobExecutionEnvironment jobExecEnv) throws GenieException {
+        final String clusterId = jobExecEnv
+            .getCluster()
+            .getId()
+            .orElseThrow(() -> new GeniePreconditionException("No cluster id found"));
+        final String commandId = jobExecEnv
+            .getCommand()
+            .getId()
+            .orElseThrow(() -> new GeniePreconditionException("No command id found"));
+
+        final ImmutableList.Builder<String> directories = ImmutableList.builder();
+        directories.add(JobConstants.GENIE_PATH_VAR);
+        directories.add(GENIE_DIR + JobConstants.LOGS_PATH_VAR);
+        directories.add(GENIE_DIR + JobConstants.APPLICATION_PATH_VAR);
+        directories.add(GENIE_DIR + JobConstants.COMMAND_PATH_VAR);
+        directories.add(GENIE_DIR + JobConstants.CLUSTER_PATH_VAR);
+        addEntity(directories, AdminResources.CLUSTER, clusterId, false);
+        for (final Application application : jobExecEnv.getApplications()) {
+            final String applicationId = application
+                .getId()
+                .orElseThrow(() -> new GeniePreconditionException("Application without id"));
+            addEntity(directories, AdminResources.APPLICATION, applicationId, true);
+        }
+        addEntity(directories, AdminResources.COMMAND, commandId, false);
+        return directories.build();
+    }
+
+    private static void addEntity(
+        final ImmutableList.Builder<String> directories,
+        final AdminResources type,
+        final String id,
+        final boolean hasDependencies
+    ) {
+        final String entityDir = GENIE_DIR + type.getPathVar() + JobConstants.FILE_PATH_DELIMITER + id;
+        directories.add(entityDir);
+        directories.add(entityDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.CONFIG_FILE_PATH_PREFIX);
+        if (hasDependencies) {
+            directories.add(entityDir + JobConstants.FILE_PATH_DELIMITER + JobConstants.DEPENDENCY_FILE_PATH_PREFIX);
+        }
+    }
+
+    private static void createFile(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            Files.createFile(file);
+        }
+    }
+}
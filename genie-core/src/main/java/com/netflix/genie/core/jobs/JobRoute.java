@@ -0,0 +1,59 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * A candidate placement for a job. The cluster the job could run on along with the command (and the applications for
+ * that command) which would be used to run the job on that cluster.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+public class JobRoute {
+
+    private final Cluster cluster;
+    private final Command command;
+    private final List<Application> applications;
+
+    /**
+     * Constructor.
+     *
+     * @param cluster      The cluster the job would run on
+     * @param command      The command the job would use on the cluster
+     * @param applications The applications, in order, which should be setup for the command
+     */
+    public JobRoute(
+        @NotNull final Cluster cluster,
+        @NotNull final Command command,
+        @NotNull final List<Application> applications
+    ) {
+        this.cluster = cluster;
+        this.command = command;
+        this.applications = ImmutableList.copyOf(applications);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.dto.search.JobSearchResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of jobs found by seeking along with the opaque cursor to pass back in order to get the page after it.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class JobSearchSlice extends SliceImpl<JobSearchResult> {
+
+    private static final long serialVersionUID = 2616327465214396263L;
+
+    private final String nextCursor;
+
+    /**
+     * Constructor.
+     *
+     * @param content    The jobs in this page
+     * @param page       The size and sort of the page
+     * @param nextCursor The cursor to get the next page with. Null if this is the last page.
+     */
+    public JobSearchSlice(
+        @NotNull final List<JobSearchResult> content,
+        @NotNull final Pageable page,
+        @Nullable final String nextCursor
+    ) {
+        super(content, page, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the cursor to get the page after this one with.
+     *
+     * @return The cursor or empty if this is the last page
+     */
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(this.nextCursor);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.JobRequest;
+import lombok.Getter;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * A job which has been accepted and routed but is waiting on this node until there is enough memory free to run it.
+ * Holds everything needed to schedule the job so it can be written to disk and the queue restored after a restart.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+public class QueuedJob {
+
+    private final String jobId;
+    private final JobRequest jobRequest;
+    private final Cluster cluster;
+    private final Command command;
+    private final List<Application> applications;
+    private final int memory;
+    private final long queuedTime;
+
+    /**
+     * Constructor.
+     *
+     * @param jobId        The id of the job
+     * @param jobRequest   The job request
+     * @param cluster      The cluster the job will run on
+     * @param command      The command the job will run
+     * @param applications The applications, in order, needed by the command
+     * @param memory       The memory in MB the job will use
+     * @param queuedTime   When the job was queued in milliseconds since the epoch
+     */
+    @JsonCreator
+    public QueuedJob(
+        @JsonProperty("jobId") @NotNull final String jobId,
+        @JsonProperty("jobRequest") @NotNull final JobRequest jobRequest,
+        @JsonProperty("cluster") @NotNull final Cluster cluster,
+        @JsonProperty("command") @NotNull final Command command,
+        @JsonProperty("applications") @NotNull final List<Application> applications,
+        @JsonProperty("memory") final int memory,
+        @JsonProperty("queuedTime") final long queuedTime
+    ) {
+        this.jobId = jobId;
+        this.jobRequest = jobRequest;
+        this.cluster = cluster;
+        this.command = command;
+        this.applications = ImmutableList.copyOf(applications);
+        this.memory = memory;
+        this.queuedTime = queuedTime;
+    }
+}
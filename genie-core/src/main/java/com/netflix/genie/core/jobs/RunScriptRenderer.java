@@ -0,0 +1,270 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.ConfigDTO;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Renders the sections of the job launcher script from precompiled templates.
+ * <p>
+ * The sections for a cluster, command or application only depend on that entity so they are rendered once per
+ * version of the entity (its id and update time) and cached. The job specific section is rendered into a buffer
+ * reused by each thread and copied to the script writer without building intermediate strings.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class RunScriptRenderer {
+
+    /**
+     * The default maximum number of rendered entity sections to cache.
+     */
+    public static final int DEFAULT_MAX_CACHED_SECTIONS = 1_000;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String JOB_DIR_REFERENCE = "${" + JobConstants.GENIE_JOB_DIR_ENV_VAR + "}";
+    private static final String GENIE_DIR_REFERENCE
+        = JOB_DIR_REFERENCE + JobConstants.FILE_PATH_DELIMITER + JobConstants.GENIE_PATH_VAR;
+    private static final int WRITE_CHUNK_SIZE = 4096;
+
+    private static final RunScriptTemplate JOB_DIR_TEMPLATE = RunScriptTemplate.compile(
+        export(JobConstants.GENIE_JOB_DIR_ENV_VAR, "{{jobDir}}")
+    );
+    private static final String APPLICATION_DIR_SECTION = export(
+        JobConstants.GENIE_APPLICATION_DIR_ENV_VAR,
+        GENIE_DIR_REFERENCE + JobConstants.FILE_PATH_DELIMITER + JobConstants.APPLICATION_PATH_VAR
+    );
+    private static final RunScriptTemplate COMMAND_TEMPLATE = RunScriptTemplate.compile(
+        export(
+            JobConstants.GENIE_COMMAND_DIR_ENV_VAR,
+            GENIE_DIR_REFERENCE
+                + JobConstants.FILE_PATH_DELIMITER
+                + JobConstants.COMMAND_PATH_VAR
+                + JobConstants.FILE_PATH_DELIMITER
+                + "{{id}}"
+        )
+            + export(JobConstants.GENIE_COMMAND_ID_ENV_VAR, "{{id}}")
+            + export(JobConstants.GENIE_COMMAND_NAME_ENV_VAR, "{{name}}")
+    );
+    private static final RunScriptTemplate CLUSTER_TEMPLATE = RunScriptTemplate.compile(
+        export(
+            JobConstants.GENIE_CLUSTER_DIR_ENV_VAR,
+            GENIE_DIR_REFERENCE
+                + JobConstants.FILE_PATH_DELIMITER
+                + JobConstants.CLUSTER_PATH_VAR
+                + JobConstants.FILE_PATH_DELIMITER
+                + "{{id}}"
+        )
+            + export(JobConstants.GENIE_CLUSTER_ID_ENV_VAR, "{{id}}")
+            + export(JobConstants.GENIE_CLUSTER_NAME_ENV_VAR, "{{name}}")
+    );
+    private static final RunScriptTemplate JOB_TEMPLATE = RunScriptTemplate.compile(
+        export(JobConstants.GENIE_JOB_ID_ENV_VAR, "{{id}}")
+            + export(JobConstants.GENIE_JOB_NAME_ENV_VAR, "{{name}}")
+            + JobConstants.EXPORT
+            + JobConstants.GENIE_JOB_MEMORY_ENV_VAR
+            + JobConstants.EQUALS_SYMBOL
+            + "{{memory}}"
+            + LINE_SEPARATOR
+            + LINE_SEPARATOR
+            + "export GENIE_VERSION=3"
+            + LINE_SEPARATOR
+            + LINE_SEPARATOR
+    );
+    private static final RunScriptTemplate SETUP_FILE_TEMPLATE = RunScriptTemplate.compile(
+        "# Sourcing setup file from {{type}}: {{id}}"
+            + LINE_SEPARATOR
+            + JobConstants.SOURCE
+            + GENIE_DIR_REFERENCE
+            + JobConstants.FILE_PATH_DELIMITER
+            + "{{pathVar}}"
+            + JobConstants.FILE_PATH_DELIMITER
+            + "{{id}}"
+            + JobConstants.FILE_PATH_DELIMITER
+            + "{{fileName}}"
+            + LINE_SEPARATOR
+            + LINE_SEPARATOR
+    );
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    private static final ThreadLocal<char[]> CHUNK = ThreadLocal.withInitial(() -> new char[WRITE_CHUNK_SIZE]);
+
+    private final Cache<String, String> sections;
+
+    /**
+     * Constructor which caches up to {@link #DEFAULT_MAX_CACHED_SECTIONS} rendered sections.
+     */
+    public RunScriptRenderer() {
+        this(DEFAULT_MAX_CACHED_SECTIONS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxCachedSections The maximum number of rendered entity sections to cache
+     */
+    public RunScriptRenderer(final int maxCachedSections) {
+        this.sections = CacheBuilder.newBuilder().maximumSize(maxCachedSections).build();
+    }
+
+    /**
+     * Write the environment variables for the job, its cluster, command and applications to the launcher script.
+     *
+     * @param writer              The writer of the launcher script
+     * @param jobExecEnv          The execution environment of the job
+     * @param jobWorkingDirectory The canonical path of the working directory of the job
+     * @throws GenieException If there is a problem rendering the environment
+     * @throws IOException    If there is a problem writing to the launcher script
+     */
+    public void writeEnvironment(
+        @NotNull final Writer writer,
+        @NotNull final JobExecutionEnvironment jobExecEnv,
+        @NotNull final String jobWorkingDirectory
+    ) throws GenieException, IOException {
+        final String jobId = jobExecEnv
+            .getJobRequest()
+            .getId()
+            .orElseThrow(() -> new GeniePreconditionException("No job id found. Unable to continue"));
+        final Command command = jobExecEnv.getCommand();
+        final String commandId = command.getId().orElseThrow(() -> new GenieServerException("No command id"));
+        final Cluster cluster = jobExecEnv.getCluster();
+        final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id"));
+
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        JOB_DIR_TEMPLATE.render(buffer, jobWorkingDirectory);
+        buffer.append(APPLICATION_DIR_SECTION);
+        buffer.append(
+            this.getSection(
+                AdminResources.COMMAND,
+                commandId,
+                command.getUpdated(),
+                "environment",
+                () -> COMMAND_TEMPLATE.render(new StringBuilder(), commandId, command.getName()).toString()
+            )
+        );
+        buffer.append(
+            this.getSection(
+                AdminResources.CLUSTER,
+                clusterId,
+                cluster.getUpdated(),
+                "environment",
+                () -> CLUSTER_TEMPLATE.render(new StringBuilder(), clusterId, cluster.getName()).toString()
+            )
+        );
+        JOB_TEMPLATE.render(buffer, jobId, jobExecEnv.getJobRequest().getName(), jobExecEnv.getMemory());
+        write(writer, buffer);
+    }
+
+    /**
+     * Write the snippet sourcing the setup file of the given entity to the launcher script.
+     *
+     * @param writer The writer of the launcher script
+     * @param type   The type of the entity
+     * @param entity The cluster, command or application with a setup file
+     * @throws GenieException If the entity has no id or setup file
+     * @throws IOException    If there is a problem writing to the launcher script
+     */
+    public void writeSetupFile(
+        @NotNull final Writer writer,
+        @NotNull final AdminResources type,
+        @NotNull final ConfigDTO entity
+    ) throws GenieException, IOException {
+        final String id = entity.getId().orElseThrow(() -> new GeniePreconditionException("No id found"));
+        final String setupFile = entity
+            .getSetupFile()
+            .orElseThrow(() -> new GeniePreconditionException("No setup file found for " + id));
+        final String fileName = setupFile.substring(setupFile.lastIndexOf(JobConstants.FILE_PATH_DELIMITER) + 1);
+
+        writer.write(
+            this.getSection(
+                type,
+                id,
+                entity.getUpdated(),
+                "setupFile",
+                () -> SETUP_FILE_TEMPLATE
+                    .render(new StringBuilder(), type.getLabel(), id, type.getPathVar(), fileName)
+                    .toString()
+            )
+        );
+    }
+
+    private String getSection(
+        final AdminResources type,
+        final String id,
+        final Optional<Date> updated,
+        final String section,
+        final Callable<String> renderer
+    ) throws GenieException {
+        try {
+            // Without an update time there is no way to tell when the entity changes so don't cache it
+            if (!updated.isPresent()) {
+                return renderer.call();
+            }
+            final String key = type + ":" + id + ":" + updated.get().getTime() + ":" + section;
+            return this.sections.get(key, renderer);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof GenieException) {
+                throw (GenieException) e.getCause();
+            }
+            throw new GenieServerException("Unable to render the " + section + " of " + type + " " + id, e.getCause());
+        } catch (final GenieException ge) {
+            throw ge;
+        } catch (final Exception e) {
+            throw new GenieServerException("Unable to render the " + section + " of " + type + " " + id, e);
+        }
+    }
+
+    private static void write(final Writer writer, final StringBuilder buffer) throws IOException {
+        final char[] chunk = CHUNK.get();
+        for (int start = 0; start < buffer.length(); start += chunk.length) {
+            final int end = Math.min(start + chunk.length, buffer.length());
+            buffer.getChars(start, end, chunk, 0);
+            writer.write(chunk, 0, end - start);
+        }
+    }
+
+    private static String export(final String variable, final String value) {
+        return JobConstants.EXPORT
+            + variable
+            + JobConstants.EQUALS_SYMBOL
+            + JobConstants.DOUBLE_QUOTE_SYMBOL
+            + value
+            + JobConstants.DOUBLE_QUOTE_SYMBOL
+            + LINE_SEPARATOR
+            + LINE_SEPARATOR;
+    }
+}
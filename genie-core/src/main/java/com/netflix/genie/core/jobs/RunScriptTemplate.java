@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A section of the job launcher script compiled once into literal text and variable slots. Variables are written as
+ * {@code {{name}}} in the template source so they don't clash with shell variable expansion. Rendering only appends
+ * the literals and the supplied values to a buffer so no intermediate strings are created per job.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public final class RunScriptTemplate {
+
+    private static final String VARIABLE_START = "{{";
+    private static final String VARIABLE_END = "}}";
+
+    private final String[] literals;
+    private final int[] slots;
+    private final List<String> variables;
+
+    private RunScriptTemplate(final String[] literals, final int[] slots, final List<String> variables) {
+        this.literals = literals;
+        this.slots = slots;
+        this.variables = variables;
+    }
+
+    /**
+     * Compile the given template source.
+     *
+     * @param template The template source with variables written as {@code {{name}}}
+     * @return The compiled template
+     * @throws IllegalArgumentException If a variable in the template isn't closed or has no name
+     */
+    public static RunScriptTemplate compile(@NotNull final String template) {
+        final List<String> literals = new ArrayList<>();
+        final List<Integer> slots = new ArrayList<>();
+        final List<String> variables = new ArrayList<>();
+
+        int position = 0;
+        int start = template.indexOf(VARIABLE_START);
+        while (start >= 0) {
+            final int end = template.indexOf(VARIABLE_END, start + VARIABLE_START.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed variable at index " + start + " of template " + template);
+            }
+            final String variable = template.substring(start + VARIABLE_START.length(), end).trim();
+            if (variable.isEmpty()) {
+                throw new IllegalArgumentException("Variable without a name at index " + start);
+            }
+            if (!variables.contains(variable)) {
+                variables.add(variable);
+            }
+            literals.add(template.substring(position, start));
+            slots.add(variables.indexOf(variable));
+            position = end + VARIABLE_END.length();
+            start = template.indexOf(VARIABLE_START, position);
+        }
+        literals.add(template.substring(position));
+
+        return new RunScriptTemplate(
+            literals.toArray(new String[literals.size()]),
+            slots.stream().mapToInt(Integer::intValue).toArray(),
+            ImmutableList.copyOf(variables)
+        );
+    }
+
+    /**
+     * Get the names of the variables of this template in the order their values must be passed to
+     * {@link #render(StringBuilder, Object...)}, which is the order they first appear in the template.
+     *
+     * @return The variable names
+     */
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Append this template to the buffer filling in the given values.
+     *
+     * @param buffer The buffer to append to
+     * @param values The values of the variables in the order returned by {@link #getVariables()}
+     * @return The buffer
+     * @throws GenieException If the number of values doesn't match the number of variables
+     */
+    public StringBuilder render(
+        @NotNull final StringBuilder buffer,
+        @NotNull final Object... values
+    ) throws GenieException {
+        if (values.length != this.variables.size()) {
+            throw new GenieServerException(
+                "Expected values for " + this.variables + " but got " + values.length + " values"
+            );
+        }
+        for (int i = 0; i < this.slots.length; i++) {
+            buffer.append(this.literals[i]).append(values[this.slots[i]]);
+        }
+        return buffer.append(this.literals[this.slots.length]);
+    }
+}
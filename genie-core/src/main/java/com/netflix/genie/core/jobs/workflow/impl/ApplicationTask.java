@@ -24,6 +24,7 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -48,17 +49,23 @@ public class ApplicationTask extends GenieBaseTask {
 
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final RunScriptRenderer runScriptRenderer;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use for recording any metrics
-     * @param fts      File transfer service
+     * @param registry          The metrics registry to use for recording any metrics
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      */
-    public ApplicationTask(@NotNull final Registry registry,
-                           @NotNull final GenieFileTransferService fts) {
+    public ApplicationTask(
+        @NotNull final Registry registry,
+        @NotNull final GenieFileTransferService fts,
+        @NotNull final RunScriptRenderer runScriptRenderer
+    ) {
         this.timer = registry.timer("genie.jobs.tasks.applicationTask.timer");
         this.fts = fts;
+        this.runScriptRenderer = runScriptRenderer;
     }
 
     /**
@@ -74,9 +81,6 @@ public class ApplicationTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
             log.info("Starting Application Task for job {}", jobExecEnv.getJobRequest().getId());
 
@@ -87,27 +91,6 @@ public class ApplicationTask extends GenieBaseTask {
                         .getId()
                         .orElseThrow(() -> new GeniePreconditionException("Application without id"));
 
-                    // Create the directory for this application under applications in the cwd
-                    createEntityInstanceDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
-                    // Create the config directory for this id
-                    createEntityInstanceConfigDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
-                    // Create the dependencies directory for this id
-                    createEntityInstanceDependenciesDirectory(
-                        genieDir,
-                        applicationId,
-                        AdminResources.APPLICATION
-                    );
-
                     // Get the setup file if specified and add it as source command in launcher script
                     final Optional<String> setupFile = application.getSetupFile();
                     if (setupFile.isPresent()) {
@@ -120,14 +103,9 @@ public class ApplicationTask extends GenieBaseTask {
                                 FileType.SETUP,
                                 AdminResources.APPLICATION
                             );
-                            this.fts.getFile(applicationSetupFile, localPath);
+                            super.downloadFile(context, this.fts, applicationSetupFile, localPath);
 
-                            super.generateSetupFileSourceSnippet(
-                                applicationId,
-                                "Application:",
-                                localPath,
-                                writer,
-                                jobWorkingDirectory);
+                            this.runScriptRenderer.writeSetupFile(writer, AdminResources.APPLICATION, application);
                         }
                     }
 
@@ -140,7 +118,7 @@ public class ApplicationTask extends GenieBaseTask {
                             FileType.DEPENDENCIES,
                             AdminResources.APPLICATION
                         );
-                        fts.getFile(dependencyFile, localPath);
+                        super.downloadFile(context, this.fts, dependencyFile, localPath);
                     }
 
                     // Iterate over and get all configuration files
@@ -152,7 +130,7 @@ public class ApplicationTask extends GenieBaseTask {
                             FileType.CONFIG,
                             AdminResources.APPLICATION
                         );
-                        fts.getFile(configFile, localPath);
+                        super.downloadFile(context, this.fts, configFile, localPath);
                     }
                 }
             }
@@ -23,6 +23,7 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -47,17 +48,23 @@ public class ClusterTask extends GenieBaseTask {
 
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final RunScriptRenderer runScriptRenderer;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use
-     * @param fts File transfer service
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      */
-    public ClusterTask(@NotNull final Registry registry,
-            @NotNull final GenieFileTransferService fts) {
+    public ClusterTask(
+        @NotNull final Registry registry,
+        @NotNull final GenieFileTransferService fts,
+        @NotNull final RunScriptRenderer runScriptRenderer
+    ) {
         this.timer = registry.timer("genie.jobs.tasks.clusterTask.timer");
         this.fts = fts;
+        this.runScriptRenderer = runScriptRenderer;
     }
 
     /**
@@ -70,9 +77,6 @@ public class ClusterTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
             log.info("Starting Cluster Task for job {}", jobExecEnv.getJobRequest().getId());
 
@@ -81,20 +85,6 @@ public class ClusterTask extends GenieBaseTask {
                 .getId()
                 .orElseThrow(() -> new GeniePreconditionException("No cluster id found"));
 
-            // Create the directory for this application under applications in the cwd
-            createEntityInstanceDirectory(
-                genieDir,
-                clusterId,
-                AdminResources.CLUSTER
-            );
-
-            // Create the config directory for this id
-            createEntityInstanceConfigDirectory(
-                genieDir,
-                clusterId,
-                AdminResources.CLUSTER
-            );
-
             // Get the set up file for cluster and add it to source in launcher script
             final Optional<String> setupFile = jobExecEnv.getCluster().getSetupFile();
             if (setupFile.isPresent()) {
@@ -108,14 +98,9 @@ public class ClusterTask extends GenieBaseTask {
                         AdminResources.CLUSTER
                     );
 
-                    fts.getFile(clusterSetupFile, localPath);
+                    super.downloadFile(context, this.fts, clusterSetupFile, localPath);
 
-                    super.generateSetupFileSourceSnippet(
-                        clusterId,
-                        "Cluster:",
-                        localPath,
-                        writer,
-                        jobWorkingDirectory);
+                    this.runScriptRenderer.writeSetupFile(writer, AdminResources.CLUSTER, jobExecEnv.getCluster());
                 }
             }
 
@@ -128,7 +113,7 @@ public class ClusterTask extends GenieBaseTask {
                     FileType.CONFIG,
                     AdminResources.CLUSTER
                 );
-                fts.getFile(configFile, localPath);
+                super.downloadFile(context, this.fts, configFile, localPath);
             }
             log.info("Finished Cluster Task for job {}", jobExecEnv.getJobRequest().getId());
         } finally {
@@ -23,6 +23,7 @@ import com.netflix.genie.core.jobs.AdminResources;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -47,16 +48,23 @@ public class CommandTask extends GenieBaseTask {
 
     private final Timer timer;
     private final GenieFileTransferService fts;
+    private final RunScriptRenderer runScriptRenderer;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer service
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      */
-    public CommandTask(@NotNull final Registry registry, @NotNull final GenieFileTransferService fts) {
+    public CommandTask(
+        @NotNull final Registry registry,
+        @NotNull final GenieFileTransferService fts,
+        @NotNull final RunScriptRenderer runScriptRenderer
+    ) {
         this.timer = registry.timer("genie.jobs.tasks.commandTask.timer");
         this.fts = fts;
+        this.runScriptRenderer = runScriptRenderer;
     }
 
     /**
@@ -69,9 +77,6 @@ public class CommandTask extends GenieBaseTask {
             final JobExecutionEnvironment jobExecEnv =
                 (JobExecutionEnvironment) context.get(JobConstants.JOB_EXECUTION_ENV_KEY);
             final String jobWorkingDirectory = jobExecEnv.getJobWorkingDir().getCanonicalPath();
-            final String genieDir = jobWorkingDirectory
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.GENIE_PATH_VAR;
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
 
             log.info("Starting Command Task for job {}", jobExecEnv.getJobRequest().getId());
@@ -81,20 +86,6 @@ public class CommandTask extends GenieBaseTask {
                 .getId()
                 .orElseThrow(() -> new GeniePreconditionException("No command id found"));
 
-            // Create the directory for this command under command dir in the cwd
-            createEntityInstanceDirectory(
-                genieDir,
-                commandId,
-                AdminResources.COMMAND
-            );
-
-            // Create the config directory for this id
-            createEntityInstanceConfigDirectory(
-                genieDir,
-                commandId,
-                AdminResources.COMMAND
-            );
-
             // Get the setup file if specified and add it as source command in launcher script
             final Optional<String> setupFile = jobExecEnv.getCommand().getSetupFile();
             if (setupFile.isPresent()) {
@@ -108,14 +99,9 @@ public class CommandTask extends GenieBaseTask {
                         AdminResources.COMMAND
                     );
 
-                    fts.getFile(commandSetupFile, localPath);
+                    super.downloadFile(context, this.fts, commandSetupFile, localPath);
 
-                    super.generateSetupFileSourceSnippet(
-                        commandId,
-                        "Command:",
-                        localPath,
-                        writer,
-                        jobWorkingDirectory);
+                    this.runScriptRenderer.writeSetupFile(writer, AdminResources.COMMAND, jobExecEnv.getCommand());
                 }
             }
 
@@ -128,7 +114,7 @@ public class CommandTask extends GenieBaseTask {
                     FileType.CONFIG,
                     AdminResources.COMMAND
                 );
-                fts.getFile(configFile, localPath);
+                super.downloadFile(context, this.fts, configFile, localPath);
             }
             log.info("Finished Command Task for job {}", jobExecEnv.getJobRequest().getId());
         } finally {
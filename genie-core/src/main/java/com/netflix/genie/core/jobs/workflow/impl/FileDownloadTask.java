@@ -0,0 +1,160 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow.impl;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.FileDownload;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the workflow task which fetches all the files the previous tasks collected for a job (setup files,
+ * configs and dependencies of the cluster, command, applications and job request) concurrently.
+ * <p>
+ * The downloads are run on a shared, bounded executor which limits the concurrent downloads across all jobs on the
+ * node. At most a configurable number of downloads of a single job run at once so one job with many files can't starve
+ * the others. The run script is written by the previous tasks in order so it doesn't depend on the order the
+ * downloads complete in.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class FileDownloadTask extends GenieBaseTask {
+
+    private final ExecutorService executorService;
+    private final int maxConcurrentDownloadsPerJob;
+    private final Timer timer;
+
+    /**
+     * Constructor.
+     *
+     * @param executorService              The bounded executor shared by the downloads of all the jobs
+     * @param maxConcurrentDownloadsPerJob The maximum number of files of a single job to download at once
+     * @param registry                     The metrics registry to use
+     */
+    public FileDownloadTask(
+        @NotNull final ExecutorService executorService,
+        @Min(1) final int maxConcurrentDownloadsPerJob,
+        @NotNull final Registry registry
+    ) {
+        this.executorService = executorService;
+        this.maxConcurrentDownloadsPerJob = maxConcurrentDownloadsPerJob;
+        this.timer = registry.timer("genie.jobs.tasks.fileDownloadTask.timer");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void executeTask(@NotNull final Map<String, Object> context) throws GenieException, IOException {
+        final long start = System.nanoTime();
+        try {
+            // Remove the list so any task after this one fetches its files right away
+            final List<FileDownload> downloads = (List<FileDownload>) context.remove(JobConstants.FILE_DOWNLOADS_KEY);
+            if (downloads == null || downloads.isEmpty()) {
+                return;
+            }
+
+            // When several files have the same destination the last one wins as it would if fetched in order
+            final Map<String, FileDownload> downloadsByPath = new LinkedHashMap<>();
+            for (final FileDownload download : downloads) {
+                downloadsByPath.remove(download.getDstLocalPath());
+                downloadsByPath.put(download.getDstLocalPath(), download);
+            }
+
+            log.info("Downloading {} files", downloadsByPath.size());
+            this.download(new ArrayList<>(downloadsByPath.values()));
+        } finally {
+            this.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void download(final List<FileDownload> downloads) throws GenieException {
+        final Semaphore permits = new Semaphore(this.maxConcurrentDownloadsPerJob);
+        final List<Future<?>> futures = new ArrayList<>(downloads.size());
+        try {
+            for (final FileDownload download : downloads) {
+                permits.acquire();
+                if (futures.stream().anyMatch(this::isFailed)) {
+                    // No point fetching the rest of the files as the job can't run anyway
+                    permits.release();
+                    break;
+                }
+                futures.add(
+                    this.executorService.submit(
+                        () -> {
+                            try {
+                                download
+                                    .getFileTransferService()
+                                    .getFile(download.getSrcRemotePath(), download.getDstLocalPath());
+                                return null;
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException ie) {
+            // The job was killed. Let the workflow see the interrupt and stop.
+            log.info("Interrupted while downloading the job files");
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof GenieException) {
+                throw (GenieException) cause;
+            }
+            throw new GenieServerException("Failed to download the job files due to: " + cause.getMessage(), cause);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private boolean isFailed(final Future<?> future) {
+        if (!future.isDone()) {
+            return false;
+        }
+        try {
+            future.get();
+            return false;
+        } catch (final InterruptedException | ExecutionException e) {
+            return true;
+        }
+    }
+}
@@ -20,16 +20,18 @@ package com.netflix.genie.core.jobs.workflow.impl;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.AdminResources;
+import com.netflix.genie.core.jobs.FileDownload;
 import com.netflix.genie.core.jobs.FileType;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 
 import javax.validation.constraints.NotNull;
 import java.io.File;
-import java.io.IOException;
-import java.io.Writer;
+import java.util.List;
+import java.util.Map;
 
 /**
  * An abstract class that all classes that implement a workflow task should inherit from. Provides some
@@ -66,23 +68,9 @@ public abstract class GenieBaseTask implements WorkflowTask {
         final AdminResources adminResources
     ) throws GenieException {
 
-        String entityPathVar = null;
+        final String entityPathVar = adminResources.getPathVar();
         String filePathVar = null;
 
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            default:
-                break;
-        }
-
         switch (fileType) {
             case CONFIG:
                 filePathVar = JobConstants.CONFIG_FILE_PATH_PREFIX;
@@ -118,136 +106,6 @@ public abstract class GenieBaseTask implements WorkflowTask {
         return localPath.toString();
     }
 
-    /**
-     * Helper method to create the directory for a particular application, cluster or command in the
-     * current working directory for the job.
-     *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
-     * @param adminResources The type of entity Application, Cluster or Command
-     *
-     * @throws GenieException If there is any problem
-     */
-    protected void createEntityInstanceDirectory(
-        @NotBlank
-        final String genieDir,
-        @NotBlank
-        final String id,
-        @NotNull
-        final AdminResources adminResources
-    ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
-        }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id);
-    }
-
-    /**
-     * Helper method to create the config directory for a particular application, cluster or command in the
-     * current working directory for the job.
-     *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
-     * @param adminResources The type of entity Application, Cluster or Command
-     *
-     * @throws GenieException If there is any problem
-     */
-    protected void createEntityInstanceConfigDirectory(
-        @NotBlank
-        final String genieDir,
-        @NotBlank
-        final String id,
-        @NotNull
-        final AdminResources adminResources
-    ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
-        }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.CONFIG_FILE_PATH_PREFIX);
-    }
-
-    /**
-     * Helper method to create the dependency directory for a particular application, cluster or command in the
-     * current working directory for the job.
-     *
-     * @param genieDir The genie directory in the cwd for the job
-     * @param id The id of entity instance
-     * @param adminResources The type of entity Application, Cluster or Command
-     *
-     * @throws GenieException If there is any problem
-     */
-    protected void createEntityInstanceDependenciesDirectory(
-        @NotBlank
-        final String genieDir,
-        @NotBlank
-        final String id,
-        @NotNull
-        final AdminResources adminResources
-    ) throws GenieException {
-        String entityPathVar = null;
-
-        switch (adminResources) {
-            case APPLICATION:
-                entityPathVar = JobConstants.APPLICATION_PATH_VAR;
-                break;
-            case COMMAND:
-                entityPathVar = JobConstants.COMMAND_PATH_VAR;
-                break;
-            case CLUSTER:
-                entityPathVar = JobConstants.CLUSTER_PATH_VAR;
-                break;
-            // TODO The @NotNull validation will make sure we never reach default, but checkstyle forces a default.
-            default:
-        }
-
-        this.createDirectory(
-            genieDir
-                + JobConstants.FILE_PATH_DELIMITER
-                + entityPathVar
-                + JobConstants.FILE_PATH_DELIMITER
-                + id
-                + JobConstants.FILE_PATH_DELIMITER
-                + JobConstants.DEPENDENCY_FILE_PATH_PREFIX);
-    }
-
     /**
      * Helper method to create directories on local filesystem.
      *
@@ -264,21 +122,33 @@ public abstract class GenieBaseTask implements WorkflowTask {
         }
     }
 
-    protected void generateSetupFileSourceSnippet(
-        final String id,
-        final String type,
-        final String filePath,
-        final Writer writer,
-        final String jobWorkingDirectory
-    ) throws IOException {
-        writer.write("# Sourcing setup file from " + type + " " + id + System.lineSeparator());
-
-        writer.write(
-            JobConstants.SOURCE
-                + filePath.replace(jobWorkingDirectory, "${" + JobConstants.GENIE_JOB_DIR_ENV_VAR + "}")
-                + System.lineSeparator());
-
-        // Append new line
-        writer.write(System.lineSeparator());
+    /**
+     * Helper method to fetch a file to a local path. If the workflow downloads the files of the job together (the
+     * context contains a list of files to download) the file is added to that list to be fetched later along with the
+     * other files of the job. Otherwise the file is fetched right away.
+     *
+     * @param context       The context of the job workflow
+     * @param fts           The file transfer service to fetch the file with
+     * @param srcRemotePath Path of the file in the remote location to be fetched
+     * @param dstLocalPath  Local path where the file needs to be placed
+     * @throws GenieException If there is any problem fetching the file
+     */
+    @SuppressWarnings("unchecked")
+    protected void downloadFile(
+        @NotNull
+        final Map<String, Object> context,
+        @NotNull
+        final GenieFileTransferService fts,
+        @NotBlank
+        final String srcRemotePath,
+        @NotBlank
+        final String dstLocalPath
+    ) throws GenieException {
+        final List<FileDownload> downloads = (List<FileDownload>) context.get(JobConstants.FILE_DOWNLOADS_KEY);
+        if (downloads != null) {
+            downloads.add(new FileDownload(fts, srcRemotePath, dstLocalPath));
+        } else {
+            fts.getFile(srcRemotePath, dstLocalPath);
+        }
     }
 }
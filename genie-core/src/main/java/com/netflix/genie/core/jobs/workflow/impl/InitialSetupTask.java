@@ -17,19 +17,17 @@
  */
 package com.netflix.genie.core.jobs.workflow.impl;
 
-import com.netflix.genie.common.dto.Cluster;
-import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
-import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobDirectoryStructure;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.validation.constraints.NotNull;
-import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Map;
@@ -44,18 +42,25 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class InitialSetupTask extends GenieBaseTask {
 
-    private static final String GENIE_VERSION_EXPORT = "export GENIE_VERSION=3";
-    private static final String LINE_SEPARATOR = System.lineSeparator();
-
     private final Timer timer;
+    private final RunScriptRenderer runScriptRenderer;
+    private final JobDirectoryStructure jobDirectoryStructure;
 
     /**
      * Constructor.
      *
-     * @param registry The metrics registry to use
+     * @param registry              The metrics registry to use
+     * @param runScriptRenderer     The renderer of the launcher script sections
+     * @param jobDirectoryStructure The creator of the job directory structure
      */
-    public InitialSetupTask(@NotNull final Registry registry) {
+    public InitialSetupTask(
+        @NotNull final Registry registry,
+        @NotNull final RunScriptRenderer runScriptRenderer,
+        @NotNull final JobDirectoryStructure jobDirectoryStructure
+    ) {
         this.timer = registry.timer("genie.jobs.tasks.initialSetupTask.timer");
+        this.runScriptRenderer = runScriptRenderer;
+        this.jobDirectoryStructure = jobDirectoryStructure;
     }
 
     /**
@@ -75,258 +80,15 @@ public class InitialSetupTask extends GenieBaseTask {
                 .orElseThrow(() -> new GeniePreconditionException("No job id found. Unable to continue"));
             log.info("Starting Initial Setup Task for job {}", jobId);
 
-            this.createJobDirStructure(jobWorkingDirectory);
-
-            // set the env variables in the launcher script
-            this.createJobDirEnvironmentVariables(writer, jobWorkingDirectory);
-            this.createApplicationEnvironmentVariables(writer);
-
-            // create environment variables for the command
-            final Command command = jobExecEnv.getCommand();
-            this.createCommandEnvironmentVariables(writer, command);
+            // create the directories of the job for its cluster, command and applications
+            this.jobDirectoryStructure.create(jobExecEnv);
 
-            // create environment variables for the cluster
-            final Cluster cluster = jobExecEnv.getCluster();
-            this.createClusterEnvironmentVariables(writer, cluster);
-
-            // create environment variable for the job itself
-            this.createJobEnvironmentVariables(
-                writer,
-                jobId,
-                jobExecEnv.getJobRequest().getName(),
-                jobExecEnv.getMemory()
-            );
-
-            //Export the Genie Version
-            writer.write(GENIE_VERSION_EXPORT);
-            writer.write(LINE_SEPARATOR);
-            writer.write(LINE_SEPARATOR);
+            // set the env variables for the job, its command and cluster and the genie version in the launcher script
+            this.runScriptRenderer.writeEnvironment(writer, jobExecEnv, jobWorkingDirectory);
 
             log.info("Finished Initial Setup Task for job {}", jobId);
         } finally {
             this.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
-
-    private void createJobDirStructure(final String jobWorkingDirectory) throws GenieException, IOException {
-        // create top level directory structure for the job
-
-        // Genie Directory {basedir/genie}
-        this.createDirectory(jobWorkingDirectory + JobConstants.FILE_PATH_DELIMITER + JobConstants.GENIE_PATH_VAR);
-
-        // Genie Logs directory {basedir/genie/logs}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.LOGS_PATH_VAR);
-
-        // Genie applications directory {basedir/genie/applications}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.APPLICATION_PATH_VAR);
-
-        // Genie command directory {basedir/genie/command}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.COMMAND_PATH_VAR);
-
-        // Genie cluster directory {basedir/genie/cluster}
-        this.createDirectory(jobWorkingDirectory
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.CLUSTER_PATH_VAR);
-
-        // Create std out file
-        final File stdout = new File(jobWorkingDirectory, JobConstants.STDOUT_LOG_FILE_NAME);
-        if (!stdout.exists() && !stdout.createNewFile()) {
-            throw new GenieServerException("Unable to create std out file at " + stdout);
-        }
-        final File stderr = new File(jobWorkingDirectory, JobConstants.STDERR_LOG_FILE_NAME);
-        if (!stderr.exists() && !stderr.createNewFile()) {
-            throw new GenieServerException("Unable to create std err file at " + stderr);
-        }
-    }
-
-    private void createJobDirEnvironmentVariables(final Writer writer, final String jobWorkingDirectory)
-        throws GenieException, IOException {
-        // set environment variable for the job directory
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobWorkingDirectory
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-    }
-
-    private void createApplicationEnvironmentVariables(final Writer writer)
-        throws GenieException, IOException {
-        // create environment variable for the application directory
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_APPLICATION_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.APPLICATION_PATH_VAR
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-    }
-
-    private void createCommandEnvironmentVariables(final Writer writer, final Command command)
-        throws GenieException, IOException {
-        final String commandId = command.getId().orElseThrow(() -> new GenieServerException("No command id"));
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_COMMAND_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.COMMAND_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + commandId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_COMMAND_ID_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + commandId
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_COMMAND_NAME_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + command.getName()
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-    }
-
-    private void createClusterEnvironmentVariables(final Writer writer, final Cluster cluster)
-        throws GenieException, IOException {
-        final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id"));
-
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_CLUSTER_DIR_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + "${"
-            + JobConstants.GENIE_JOB_DIR_ENV_VAR
-            + "}"
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.GENIE_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + JobConstants.CLUSTER_PATH_VAR
-            + JobConstants.FILE_PATH_DELIMITER
-            + clusterId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_CLUSTER_ID_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + clusterId
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_CLUSTER_NAME_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + cluster.getName()
-                + JobConstants.DOUBLE_QUOTE_SYMBOL
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(System.lineSeparator());
-    }
-
-    private void createJobEnvironmentVariables(
-        final Writer writer,
-        final String jobId,
-        final String jobName,
-        final int memory
-    ) throws GenieException, IOException {
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_ID_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobId
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(System.lineSeparator());
-
-        // create environment variable for the job name
-        writer.write(JobConstants.EXPORT
-            + JobConstants.GENIE_JOB_NAME_ENV_VAR
-            + JobConstants.EQUALS_SYMBOL
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + jobName
-            + JobConstants.DOUBLE_QUOTE_SYMBOL
-            + LINE_SEPARATOR);
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-
-        // create environment variable for the job name
-        writer.write(
-            JobConstants.EXPORT
-                + JobConstants.GENIE_JOB_MEMORY_ENV_VAR
-                + JobConstants.EQUALS_SYMBOL
-                + memory
-                + LINE_SEPARATOR
-        );
-
-        // Append new line
-        writer.write(LINE_SEPARATOR);
-    }
 }
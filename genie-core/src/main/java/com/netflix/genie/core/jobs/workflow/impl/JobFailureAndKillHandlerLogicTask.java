@@ -39,6 +39,9 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class JobFailureAndKillHandlerLogicTask extends GenieBaseTask {
 
+    private static final String JOB_FAILURE_AND_KILL_HANDLER_LOGIC
+        = JobConstants.JOB_FAILURE_AND_KILL_HANDLER_LOGIC + System.lineSeparator();
+
     private final Timer timer;
 
     /**
@@ -64,7 +67,7 @@ public class JobFailureAndKillHandlerLogicTask extends GenieBaseTask {
             final Writer writer = (Writer) context.get(JobConstants.WRITER_KEY);
 
             // Append logic for handling job kill signal
-            writer.write(JobConstants.JOB_FAILURE_AND_KILL_HANDLER_LOGIC + System.lineSeparator());
+            writer.write(JOB_FAILURE_AND_KILL_HANDLER_LOGIC);
             log.info("Finished Job Failure and Kill Handler Task for job {}", jobExecEnv.getJobRequest().getId());
         } finally {
             final long finish = System.nanoTime();
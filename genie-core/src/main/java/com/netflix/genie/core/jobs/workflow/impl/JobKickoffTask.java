@@ -24,6 +24,7 @@ import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
+import com.netflix.genie.core.services.JobProcessLauncher;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +36,7 @@ import org.apache.commons.lang3.SystemUtils;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.support.RetryTemplate;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
@@ -44,7 +46,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -65,6 +69,8 @@ public class JobKickoffTask extends GenieBaseTask {
     private final Timer timer;
     private final Registry registry;
     private final RetryTemplate retryTemplate;
+    private final JobProcessLauncher jobProcessLauncher;
+    private final Set<String> knownUsers = ConcurrentHashMap.newKeySet();
 
     /**
      * Constructor.
@@ -81,11 +87,33 @@ public class JobKickoffTask extends GenieBaseTask {
         @NotNull final Executor executor,
         @NotNull final String hostname,
         @NotNull final Registry registry
+    ) {
+        this(runAsUserEnabled, userCreationEnabled, executor, hostname, null, registry);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param runAsUserEnabled    Flag that tells if job should be run as user specified in the request
+     * @param userCreationEnabled Flag that tells if the user specified should be created
+     * @param executor            An executor object used to run jobs
+     * @param hostname            Hostname for the node the job is running on
+     * @param jobProcessLauncher  The backend to launch the job processes with or null to fork them from this process
+     * @param registry            The metrics registry to use
+     */
+    public JobKickoffTask(
+        final boolean runAsUserEnabled,
+        final boolean userCreationEnabled,
+        @NotNull final Executor executor,
+        @NotNull final String hostname,
+        @Nullable final JobProcessLauncher jobProcessLauncher,
+        @NotNull final Registry registry
     ) {
         this.isRunAsUserEnabled = runAsUserEnabled;
         this.isUserCreationEnabled = userCreationEnabled;
         this.executor = executor;
         this.hostname = hostname;
+        this.jobProcessLauncher = jobProcessLauncher;
         this.registry = registry;
         this.timer = registry.timer("genie.jobs.tasks.jobKickoffTask.timer");
         retryTemplate = new RetryTemplate();
@@ -122,58 +150,31 @@ public class JobKickoffTask extends GenieBaseTask {
             if (isUserCreationEnabled) {
                 createUser(user, jobRequest.getGroup().orElse(null));
             }
-            // Set the ownership to the user and run as the user, if enabled
-            final List<String> command = new ArrayList<>();
-            if (isRunAsUserEnabled) {
-                changeOwnershipOfDirectory(jobWorkingDirectory, user);
-
-                // This is needed because the genie.log file is still generated as the user running Genie system.
-                makeDirGroupWritable(jobWorkingDirectory + "/genie/logs");
-                command.add("sudo");
-                command.add("-u");
-                command.add(user);
-            }
-
-            // If the OS is linux use setsid to launch the process so that the entire process tree
-            // is launched in process group id which is the same as the pid of the parent process
-            if (SystemUtils.IS_OS_LINUX) {
-                command.add("setsid");
-            }
-
             final String runScript = jobWorkingDirectory
                 + JobConstants.FILE_PATH_DELIMITER
                 + JobConstants.GENIE_JOB_LAUNCHER_SCRIPT;
-            command.add(runScript);
-
-
-            // Cannot convert to executor because it does not provide an api to get process id.
-            final ProcessBuilder pb = new ProcessBuilder(command)
-                .directory(jobExecEnv.getJobWorkingDir())
-                .redirectOutput(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH))
-                .redirectError(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH));
-
-            //
-            // Check if file can be executed. This is to fix issue where execution of the run script fails because
-            // the file may be used by some other program
-            //
-            canExecute(runScript);
-            try {
-                final Process process = pb.start();
-                final int processId = this.getProcessId(process);
-                final Calendar calendar = Calendar.getInstance(UTC);
-                calendar.add(Calendar.SECOND, jobRequest.getTimeout().orElse(JobRequest.DEFAULT_TIMEOUT_DURATION));
-                final JobExecution jobExecution = new JobExecution
-                    .Builder(this.hostname)
-                    .withId(jobId)
-                    .withProcessId(processId)
-                    .withCheckDelay(jobExecEnv.getCommand().getCheckDelay())
-                    .withTimeout(calendar.getTime())
-                    .withMemory(jobExecEnv.getMemory())
-                    .build();
-                context.put(JobConstants.JOB_EXECUTION_DTO_KEY, jobExecution);
-            } catch (final IOException ie) {
-                throw new GenieServerException("Unable to start command " + String.valueOf(command), ie);
+            final int processId;
+            if (this.jobProcessLauncher != null) {
+                canExecute(runScript);
+                processId = this.jobProcessLauncher.launch(
+                    jobExecEnv.getJobWorkingDir(),
+                    this.isRunAsUserEnabled ? user : null
+                );
+            } else {
+                processId = this.forkJob(jobExecEnv, jobWorkingDirectory, runScript, user);
             }
+
+            final Calendar calendar = Calendar.getInstance(UTC);
+            calendar.add(Calendar.SECOND, jobRequest.getTimeout().orElse(JobRequest.DEFAULT_TIMEOUT_DURATION));
+            final JobExecution jobExecution = new JobExecution
+                .Builder(this.hostname)
+                .withId(jobId)
+                .withProcessId(processId)
+                .withCheckDelay(jobExecEnv.getCommand().getCheckDelay())
+                .withTimeout(calendar.getTime())
+                .withMemory(jobExecEnv.getMemory())
+                .build();
+            context.put(JobConstants.JOB_EXECUTION_DTO_KEY, jobExecution);
             log.info("Finished Job Kickoff Task for job {}", jobId);
         } finally {
             final long finish = System.nanoTime();
@@ -181,6 +182,50 @@ public class JobKickoffTask extends GenieBaseTask {
         }
     }
 
+    private int forkJob(
+        final JobExecutionEnvironment jobExecEnv,
+        final String jobWorkingDirectory,
+        final String runScript,
+        final String user
+    ) throws GenieException {
+        // Set the ownership to the user and run as the user, if enabled
+        final List<String> command = new ArrayList<>();
+        if (isRunAsUserEnabled) {
+            changeOwnershipOfDirectory(jobWorkingDirectory, user);
+
+            // This is needed because the genie.log file is still generated as the user running Genie system.
+            makeDirGroupWritable(jobWorkingDirectory + "/genie/logs");
+            command.add("sudo");
+            command.add("-u");
+            command.add(user);
+        }
+
+        // If the OS is linux use setsid to launch the process so that the entire process tree
+        // is launched in process group id which is the same as the pid of the parent process
+        if (SystemUtils.IS_OS_LINUX) {
+            command.add("setsid");
+        }
+        command.add(runScript);
+
+        // Cannot convert to executor because it does not provide an api to get process id.
+        final ProcessBuilder pb = new ProcessBuilder(command)
+            .directory(jobExecEnv.getJobWorkingDir())
+            .redirectOutput(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH))
+            .redirectError(new File(jobExecEnv.getJobWorkingDir() + JobConstants.GENIE_LOG_PATH));
+
+        //
+        // Check if file can be executed. This is to fix issue where execution of the run script fails because
+        // the file may be used by some other program
+        //
+        canExecute(runScript);
+        try {
+            final Process process = pb.start();
+            return this.getProcessId(process);
+        } catch (final IOException ie) {
+            throw new GenieServerException("Unable to start command " + String.valueOf(command), ie);
+        }
+    }
+
     private boolean canExecute(final String runScriptFile) {
         try {
             return retryTemplate.execute(c -> {
@@ -208,14 +253,26 @@ public class JobKickoffTask extends GenieBaseTask {
     }
 
     /**
-     * Create user on the system. Synchronized to prevent multiple threads from trying to create user at the same time.
+     * Create user on the system. Users already known to exist are skipped without running any command. Otherwise
+     * synchronized to prevent multiple threads from trying to create user at the same time.
      *
      * @param user  user id
      * @param group group id
      * @throws GenieException If there is any problem.
      */
-    protected synchronized void createUser(final String user, final String group) throws GenieException {
+    protected void createUser(final String user, final String group) throws GenieException {
+        if (this.knownUsers.contains(user)) {
+            return;
+        }
+        synchronized (this) {
+            if (!this.knownUsers.contains(user)) {
+                this.createUserIfMissing(user, group);
+                this.knownUsers.add(user);
+            }
+        }
+    }
 
+    private void createUserIfMissing(final String user, final String group) throws GenieException {
         // First check if user already exists
         final CommandLine idCheckCommandLine = new CommandLine("id").addArgument("-u").addArgument(user);
 
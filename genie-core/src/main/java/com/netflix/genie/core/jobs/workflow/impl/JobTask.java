@@ -95,7 +95,7 @@ public class JobTask extends GenieBaseTask {
                             + JobConstants.FILE_PATH_DELIMITER
                             + jobSetupFile.substring(jobSetupFile.lastIndexOf(JobConstants.FILE_PATH_DELIMITER) + 1);
 
-                    fts.getFile(jobSetupFile, localPath);
+                    super.downloadFile(context, this.fts, jobSetupFile, localPath);
 
                     writer.write("# Sourcing setup file specified in job request" + System.lineSeparator());
                     writer.write(
@@ -115,7 +115,7 @@ public class JobTask extends GenieBaseTask {
                         + JobConstants.FILE_PATH_DELIMITER
                         + dependencyFile.substring(dependencyFile.lastIndexOf(JobConstants.FILE_PATH_DELIMITER) + 1);
 
-                    fts.getFile(dependencyFile, localPath);
+                    super.downloadFile(context, this.fts, dependencyFile, localPath);
                 }
             }
 
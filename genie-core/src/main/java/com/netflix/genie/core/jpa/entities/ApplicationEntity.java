@@ -20,6 +20,7 @@ package com.netflix.genie.core.jpa.entities;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.ApplicationStatus;
 import com.netflix.genie.common.exceptions.GenieException;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -85,6 +86,16 @@ public class ApplicationEntity extends SetupFileEntity {
     @ManyToMany(mappedBy = "applications", fetch = FetchType.LAZY)
     private Set<CommandEntity> commands = new HashSet<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "application_tags",
+        joinColumns = @JoinColumn(name = "application_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> indexedTags = new HashSet<>();
+
     /**
      * Default constructor.
      */
@@ -169,4 +180,12 @@ public class ApplicationEntity extends SetupFileEntity {
 
         return builder.build();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Set<String> getIndexedTags() {
+        return this.indexedTags;
+    }
 }
@@ -22,6 +22,7 @@ import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -89,6 +90,16 @@ public class ClusterEntity extends SetupFileEntity {
     @OrderColumn(name = "command_order", nullable = false)
     private List<CommandEntity> commands = new ArrayList<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "cluster_tags",
+        joinColumns = @JoinColumn(name = "cluster_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> indexedTags = new HashSet<>();
+
     /**
      * Default Constructor.
      */
@@ -209,4 +220,12 @@ public class ClusterEntity extends SetupFileEntity {
 
         return builder.build();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Set<String> getIndexedTags() {
+        return this.indexedTags;
+    }
 }
@@ -21,6 +21,7 @@ import com.netflix.genie.common.dto.Command;
 import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.validator.constraints.Length;
@@ -110,6 +111,16 @@ public class CommandEntity extends SetupFileEntity {
     @ManyToMany(mappedBy = "commands", fetch = FetchType.LAZY)
     private Set<ClusterEntity> clusters = new HashSet<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "command_tags",
+        joinColumns = @JoinColumn(name = "command_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> indexedTags = new HashSet<>();
+
     /**
      * Default Constructor.
      */
@@ -247,4 +258,12 @@ public class CommandEntity extends SetupFileEntity {
 
         return builder.build();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Set<String> getIndexedTags() {
+        return this.indexedTags;
+    }
 }
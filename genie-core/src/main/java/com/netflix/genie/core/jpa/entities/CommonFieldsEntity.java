@@ -128,6 +128,24 @@ public class CommonFieldsEntity extends BaseEntity {
                 .orElse("")
                 + TAG_DELIMITER;
         }
+
+        // Keep the normalized copy in step modifying it in place so only the tags which changed are written
+        final Set<String> indexedTags = this.getIndexedTags();
+        if (indexedTags != null) {
+            final Set<String> newTags = tags == null ? Sets.newHashSet() : tags;
+            indexedTags.retainAll(newTags);
+            indexedTags.addAll(newTags);
+        }
+    }
+
+    /**
+     * Get the normalized copy of the tags which is stored one row per tag so tag searches can use an index.
+     * Entities which are searched by tag override this to return their mapped tag collection.
+     *
+     * @return The mutable collection of indexed tags or null if this entity doesn't keep one
+     */
+    protected Set<String> getIndexedTags() {
+        return null;
     }
 
     /**
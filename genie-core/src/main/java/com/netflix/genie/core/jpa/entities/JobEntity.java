@@ -19,13 +19,16 @@ package com.netflix.genie.core.jpa.entities;
 
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobStatus;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.validator.constraints.Length;
 
 import javax.annotation.Nullable;
 import javax.persistence.Basic;
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -46,8 +49,10 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Representation of the state of a Genie 3.0 job.
@@ -63,6 +68,11 @@ import java.util.Optional;
     @NamedQuery(
         name = JobEntity.QUERY_GET_STATUS_BY_ID,
         query = "select j.status from JobEntity j where j.id = :id"
+    ),
+    @NamedQuery(
+        name = JobEntity.QUERY_COUNT_BY_STATUS_CLUSTER,
+        query = "select j.cluster.id, count(j) from JobEntity j "
+            + "where j.status in :statuses and j.cluster is not null group by j.cluster.id"
     )
 })
 public class JobEntity extends CommonFieldsEntity {
@@ -70,6 +80,10 @@ public class JobEntity extends CommonFieldsEntity {
      * Query name to get job status.
      */
     public static final String QUERY_GET_STATUS_BY_ID = "getStatusById";
+    /**
+     * Query name to count jobs by statuses for each cluster.
+     */
+    public static final String QUERY_COUNT_BY_STATUS_CLUSTER = "countByStatusCluster";
     /**
      * Used as default version when one not entered.
      */
@@ -143,6 +157,16 @@ public class JobEntity extends CommonFieldsEntity {
     @OrderColumn(name = "application_order", nullable = false)
     private List<ApplicationEntity> applications = new ArrayList<>();
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+        name = "job_tags",
+        joinColumns = @JoinColumn(name = "job_id", referencedColumnName = "id")
+    )
+    @Column(name = "tag", nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> indexedTags = new HashSet<>();
+
     /**
      * Default Constructor.
      */
@@ -361,4 +385,12 @@ public class JobEntity extends CommonFieldsEntity {
 
         return builder.build();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Set<String> getIndexedTags() {
+        return this.indexedTags;
+    }
 }
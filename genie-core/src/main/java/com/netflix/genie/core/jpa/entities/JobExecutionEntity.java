@@ -54,18 +54,37 @@ import java.util.TimeZone;
 @NamedQueries({
     @NamedQuery(
         name = JobExecutionEntity.QUERY_FIND_BY_STATUS_HOST,
-        query = "select e.job from JobExecutionEntity e where e.job.status in :statuses and e.hostName = :hostName"
+        query = "select e.id, j.status from JobExecutionEntity e join e.job j"
+            + " where j.status in :statuses and e.hostName = :hostName"
+    ),
+    @NamedQuery(
+        name = JobExecutionEntity.QUERY_FIND_EXECUTIONS_BY_STATUS_HOST,
+        query = "select e.id, e.processId, e.checkDelay, e.timeout, e.memory from JobExecutionEntity e join e.job j"
+            + " where j.status in :statuses and e.hostName = :hostName"
+    ),
+    @NamedQuery(
+        name = JobExecutionEntity.QUERY_FIND_JOBS_BY_STATUS_HOST,
+        query = "select e from JobExecutionEntity e join fetch e.job j"
+            + " where j.status in :statuses and e.hostName = :hostName"
     ),
     @NamedQuery(
         name = JobExecutionEntity.QUERY_FIND_HOSTS_BY_STATUS,
-        query = "select distinct e.hostName from JobExecutionEntity e where e.job.status in :statuses"
+        query = "select distinct e.hostName from JobExecutionEntity e join e.job j where j.status in :statuses"
     )
 })
 public class JobExecutionEntity extends BaseEntity {
     /**
-     * Query name to find jobs by statuses and host.
+     * Query name to find the ids and statuses of jobs by statuses and host.
      */
     public static final String QUERY_FIND_BY_STATUS_HOST = "findByStatusHost";
+    /**
+     * Query name to find the execution information needed to monitor jobs by statuses and host.
+     */
+    public static final String QUERY_FIND_EXECUTIONS_BY_STATUS_HOST = "findExecutionsByStatusHost";
+    /**
+     * Query name to find the executions by statuses and host along with their jobs.
+     */
+    public static final String QUERY_FIND_JOBS_BY_STATUS_HOST = "findJobsByStatusHost";
     /**
      * Query name to find hosts by statuses.
      */
@@ -18,8 +18,14 @@ package com.netflix.genie.core.jpa.repositories;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.validation.constraints.NotNull;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Application repository.
  *
@@ -27,4 +33,16 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface JpaApplicationRepository extends JpaRepository<ApplicationEntity, String>, JpaSpecificationExecutor {
+
+    /**
+     * Returns the applications with the given ids along with their configs and dependencies in one query.
+     *
+     * @param ids The ids of the applications
+     * @return The applications which exist in no particular order
+     */
+    @Query(
+        "select distinct a from ApplicationEntity a left join fetch a.configs left join fetch a.dependencies"
+            + " where a.id in :ids"
+    )
+    List<ApplicationEntity> findWithFilesByIdIn(@Param("ids") @NotNull final Collection<String> ids);
 }
@@ -16,8 +16,11 @@
 package com.netflix.genie.core.jpa.repositories;
 
 import com.netflix.genie.core.jpa.entities.JobRequestEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.validation.constraints.NotNull;
@@ -34,12 +37,14 @@ import java.util.List;
 public interface JpaJobRequestRepository extends JpaRepository<JobRequestEntity, String>, JpaSpecificationExecutor {
 
     /**
-     * Returns all job requests created before the given date.
+     * Returns the ids of the oldest job requests created before the given date.
      *
      * @param date The date before which all job requests were created.
-     * @return List of job requests
+     * @param page The page of ids to return. Only the size is expected to be used as deleted ids drop out
+     * @return List of job request ids ordered by creation time
      */
-    List<JobRequestEntity> findByCreatedBefore(@NotNull final Date date);
+    @Query("select r.id from JobRequestEntity r where r.created < :date order by r.created")
+    List<String> findIdsCreatedBefore(@Param("date") @NotNull final Date date, @NotNull final Pageable page);
 
     /**
      * Deletes all job requests for the given ids.
@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Helper used by the JPA configuration services to broadcast {@link ConfigurationChangedEvent}s. If a transaction is
+ * active the event is held until the transaction commits so that listeners never see changes which end up being
+ * rolled back.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+class ConfigurationChangePublisher {
+
+    private final ApplicationEventPublisher publisher;
+    private final ConfigurationType type;
+
+    /**
+     * Constructor.
+     *
+     * @param publisher The application event publisher to use
+     * @param type      The type of configuration resource the events published will refer to
+     */
+    ConfigurationChangePublisher(
+        @NotNull final ApplicationEventPublisher publisher,
+        @NotNull final ConfigurationType type
+    ) {
+        this.publisher = publisher;
+        this.type = type;
+    }
+
+    /**
+     * Publish a change for the resource with the given id.
+     *
+     * @param id The id of the resource that changed. Null if all resources of the type should be considered changed.
+     */
+    void publish(final String id) {
+        final ConfigurationChangedEvent event = new ConfigurationChangedEvent(this.type, id, this);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        publishEvent(event);
+                    }
+                }
+            );
+        } else {
+            this.publishEvent(event);
+        }
+    }
+
+    private void publishEvent(final ConfigurationChangedEvent event) {
+        log.debug("Publishing change of {} {}", this.type, event.getId().orElse("*"));
+        this.publisher.publishEvent(event);
+    }
+}
@@ -32,6 +32,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ConfigurationType;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
@@ -42,6 +43,7 @@ import com.netflix.genie.core.services.ApplicationService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -75,19 +77,23 @@ public class JpaApplicationServiceImpl implements ApplicationService {
     private final ObjectMapper mapper = new ObjectMapper();
     private final JpaApplicationRepository applicationRepo;
     private final JpaCommandRepository commandRepo;
+    private final ConfigurationChangePublisher changePublisher;
 
     /**
      * Default constructor.
      *
      * @param applicationRepo The application repository to use
      * @param commandRepo     The command repository to use
+     * @param eventPublisher  The event publisher to use to broadcast application changes
      */
     public JpaApplicationServiceImpl(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         this.applicationRepo = applicationRepo;
         this.commandRepo = commandRepo;
+        this.changePublisher = new ConfigurationChangePublisher(eventPublisher, ConfigurationType.APPLICATION);
     }
 
     /**
@@ -200,6 +206,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
             this.checkCommands(applicationEntity);
         }
         this.applicationRepo.deleteAll();
+        this.changePublisher.publish(null);
     }
 
     /**
@@ -214,6 +221,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final ApplicationEntity applicationEntity = this.findApplication(id);
         this.checkCommands(applicationEntity);
         this.applicationRepo.delete(applicationEntity);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -227,6 +235,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> configs
     ) throws GenieException {
         this.findApplication(id).getConfigs().addAll(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -252,6 +261,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> configs
     ) throws GenieException {
         this.findApplication(id).setConfigs(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -263,6 +273,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final String id
     ) throws GenieException {
         this.findApplication(id).getConfigs().clear();
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -276,6 +287,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final String config
     ) throws GenieException {
         this.findApplication(id).getConfigs().remove(config);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -289,6 +301,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> dependencies
     ) throws GenieException {
         this.findApplication(id).getDependencies().addAll(dependencies);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -314,6 +327,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> dependencies
     ) throws GenieException {
         this.findApplication(id).setDependencies(dependencies);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -325,6 +339,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final String id
     ) throws GenieException {
         this.findApplication(id).getDependencies().clear();
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -338,6 +353,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final String dependency
     ) throws GenieException {
         this.findApplication(id).getDependencies().remove(dependency);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -354,6 +370,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> appTags = app.getTags();
         appTags.addAll(tags);
         app.setTags(appTags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -379,6 +396,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> tags
     ) throws GenieException {
         this.findApplication(id).setTags(tags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -390,6 +408,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final String id
     ) throws GenieException {
         this.findApplication(id).setTags(Sets.newHashSet());
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -406,6 +425,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         final Set<String> tags = app.getTags();
         tags.remove(tag);
         app.setTags(tags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -463,6 +483,7 @@ public class JpaApplicationServiceImpl implements ApplicationService {
         entity.setType(type.isPresent() ? type.get() : null);
 
         this.applicationRepo.save(entity);
+        this.changePublisher.publish(entity.getId());
     }
 
     private void checkCommands(
@@ -34,6 +34,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ConfigurationType;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
@@ -43,6 +44,7 @@ import com.netflix.genie.core.services.ClusterService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -77,19 +79,23 @@ public class JpaClusterServiceImpl implements ClusterService {
     private final ObjectMapper mapper = new ObjectMapper();
     private final JpaClusterRepository clusterRepo;
     private final JpaCommandRepository commandRepo;
+    private final ConfigurationChangePublisher changePublisher;
 
     /**
      * Default constructor - initialize all required dependencies.
      *
      * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param commandRepo    The command repository to use.
+     * @param eventPublisher The event publisher to use to broadcast cluster changes
      */
     public JpaClusterServiceImpl(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         this.clusterRepo = clusterRepo;
         this.commandRepo = commandRepo;
+        this.changePublisher = new ConfigurationChangePublisher(eventPublisher, ConfigurationType.CLUSTER);
     }
 
     /**
@@ -260,6 +266,7 @@ public class JpaClusterServiceImpl implements ClusterService {
             }
         }
         this.clusterRepo.delete(clusterEntity);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -274,6 +281,7 @@ public class JpaClusterServiceImpl implements ClusterService {
     ) throws GenieException {
         log.debug("called");
         this.findCluster(id).getConfigs().addAll(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -301,6 +309,7 @@ public class JpaClusterServiceImpl implements ClusterService {
     ) throws GenieException {
         log.debug("called with id {} and configs {}", id, configs);
         this.findCluster(id).setConfigs(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -312,6 +321,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         this.findCluster(id).getConfigs().clear();
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -328,6 +338,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> clusterTags = cluster.getTags();
         clusterTags.addAll(tags);
         cluster.setTags(clusterTags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -353,6 +364,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> tags
     ) throws GenieException {
         this.findCluster(id).setTags(tags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -364,6 +376,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         this.findCluster(id).setTags(Sets.newHashSet());
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -380,6 +393,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final Set<String> tags = cluster.getTags();
         tags.remove(tag);
         cluster.setTags(tags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -400,6 +414,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         for (final String commandId : commandIds) {
             clusterEntity.addCommand(this.commandRepo.findOne(commandId));
         }
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -442,6 +457,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         commandIds.forEach(commandId -> commandEntities.add(this.commandRepo.findOne(commandId)));
 
         clusterEntity.setCommands(commandEntities);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -453,6 +469,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         final String id
     ) throws GenieException {
         this.findCluster(id).removeAllCommands();
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -472,6 +489,7 @@ public class JpaClusterServiceImpl implements ClusterService {
         } else {
             throw new GenieNotFoundException("No command with id " + cmdId + " exists.");
         }
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -503,5 +521,6 @@ public class JpaClusterServiceImpl implements ClusterService {
         clusterEntity.setSetupFile(setupFile.isPresent() ? setupFile.get() : null);
 
         this.clusterRepo.save(clusterEntity);
+        this.changePublisher.publish(clusterEntity.getId());
     }
 }
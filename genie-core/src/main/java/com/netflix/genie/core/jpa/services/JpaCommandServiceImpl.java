@@ -34,6 +34,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.ConfigurationType;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
@@ -46,6 +47,7 @@ import com.netflix.genie.core.services.CommandService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
@@ -81,22 +83,26 @@ public class JpaCommandServiceImpl implements CommandService {
     private final JpaCommandRepository commandRepo;
     private final JpaApplicationRepository appRepo;
     private final JpaClusterRepository clusterRepo;
+    private final ConfigurationChangePublisher changePublisher;
 
     /**
      * Default constructor.
      *
      * @param commandRepo the command repository to use
      * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param clusterRepo    the cluster repository to use
+     * @param eventPublisher the event publisher to use to broadcast command changes
      */
     public JpaCommandServiceImpl(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
         this.commandRepo = commandRepo;
         this.appRepo = appRepo;
         this.clusterRepo = clusterRepo;
+        this.changePublisher = new ConfigurationChangePublisher(eventPublisher, ConfigurationType.COMMAND);
     }
 
     /**
@@ -240,6 +246,7 @@ public class JpaCommandServiceImpl implements CommandService {
             clusterEntities.forEach(clusterEntity -> clusterEntity.removeCommand(commandEntity));
         }
         this.commandRepo.delete(commandEntity);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -253,6 +260,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> configs
     ) throws GenieException {
         this.findCommand(id).getConfigs().addAll(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -278,6 +286,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> configs
     ) throws GenieException {
         this.findCommand(id).setConfigs(configs);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -289,6 +298,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final String id
     ) throws GenieException {
         this.findCommand(id).getConfigs().clear();
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -302,6 +312,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final String config
     ) throws GenieException {
         this.findCommand(id).getConfigs().remove(config);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -318,6 +329,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> commandTags = command.getTags();
         commandTags.addAll(tags);
         command.setTags(commandTags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -343,6 +355,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> tags
     ) throws GenieException {
         this.findCommand(id).setTags(tags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -354,6 +367,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final String id
     ) throws GenieException {
         this.findCommand(id).setTags(Sets.newHashSet());
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -370,6 +384,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final Set<String> commandTags = command.getTags();
         commandTags.remove(tag);
         command.setTags(commandTags);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -390,6 +405,7 @@ public class JpaCommandServiceImpl implements CommandService {
         for (final String appId : applicationIds) {
             commandEntity.addApplication(this.appRepo.findOne(appId));
         }
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -411,6 +427,7 @@ public class JpaCommandServiceImpl implements CommandService {
         applicationIds.forEach(appId -> applicationEntities.add(this.appRepo.findOne(appId)));
 
         commandEntity.setApplications(applicationEntities);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -439,6 +456,7 @@ public class JpaCommandServiceImpl implements CommandService {
         final String id
     ) throws GenieException {
         this.findCommand(id).setApplications(null);
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -458,6 +476,7 @@ public class JpaCommandServiceImpl implements CommandService {
         } else {
             throw new GenieNotFoundException("No application with id " + id + " exists.");
         }
+        this.changePublisher.publish(id);
     }
 
     /**
@@ -520,5 +539,6 @@ public class JpaCommandServiceImpl implements CommandService {
         commandEntity.setMemory(memory.isPresent() ? memory.get() : null);
 
         this.commandRepo.save(commandEntity);
+        this.changePublisher.publish(commandEntity.getId());
     }
 }
@@ -28,7 +28,6 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
-import com.netflix.genie.core.jpa.entities.BaseEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity;
@@ -45,6 +44,7 @@ import com.netflix.genie.core.jpa.repositories.JpaJobRequestRepository;
 import com.netflix.genie.core.services.JobPersistenceService;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nullable;
@@ -53,7 +53,6 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * JPA implementation of the job persistence service.
@@ -296,9 +295,11 @@ public class JpaJobPersistenceServiceImpl implements JobPersistenceService {
      * {@inheritDoc}
      */
     @Override
-    public long deleteAllJobsCreatedBeforeDate(@NotNull final Date date) {
-        final List<JobRequestEntity> requests = jobRequestRepo.findByCreatedBefore(date);
-        final List<String> ids = requests.stream().map(BaseEntity::getId).collect(Collectors.toList());
+    public long deleteBatchOfJobsCreatedBeforeDate(@NotNull final Date date, @Min(1) final int batchSize) {
+        final List<String> ids = jobRequestRepo.findIdsCreatedBefore(date, new PageRequest(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0L;
+        }
         jobExecutionRepo.deleteByIdIn(ids);
         jobMetadataRepository.deleteByIdIn(ids);
         jobRepo.deleteByIdIn(ids);
@@ -0,0 +1,172 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.jpa.entities.ApplicationEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity_;
+import com.netflix.genie.core.jpa.entities.CommandEntity;
+import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
+import com.netflix.genie.core.jpa.specifications.JpaClusterSpecs;
+import com.netflix.genie.core.services.JobRoutingService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ListJoin;
+import javax.persistence.criteria.Root;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Jpa implementation of the Job Routing Service. Resolves the clusters and their commands for a job request in a
+ * single query instead of one query per cluster criterion followed by one per chosen cluster.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+@Transactional(readOnly = true)
+public class JpaJobRoutingServiceImpl implements JobRoutingService {
+
+    private final JpaApplicationRepository applicationRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationRepo The application repository to use
+     */
+    public JpaJobRoutingServiceImpl(final JpaApplicationRepository applicationRepo) {
+        this.applicationRepo = applicationRepo;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobRoute> getJobRoutes(
+        @NotNull(message = "No job request provided. Unable to route.")
+        final JobRequest jobRequest
+    ) throws GenieException {
+        log.debug("Called");
+        final List<ClusterCriteria> clusterCriterias = jobRequest.getClusterCriterias();
+
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        final Root<ClusterEntity> root = query.from(ClusterEntity.class);
+        final ListJoin<ClusterEntity, CommandEntity> commands = root.join(ClusterEntity_.commands);
+        query
+            .multiselect(root, commands, commands.index())
+            .where(
+                JpaClusterSpecs.getClusterAndCommandCriteriaPredicate(
+                    root,
+                    commands,
+                    query,
+                    cb,
+                    clusterCriterias,
+                    jobRequest.getCommandCriteria()
+                )
+            )
+            .orderBy(cb.asc(root.get(ClusterEntity_.id)), cb.asc(commands.index()));
+
+        // The commands are ordered by priority within each cluster so the first one seen for a cluster wins
+        final Map<ClusterEntity, CommandEntity> candidates = new LinkedHashMap<>();
+        for (final Tuple tuple : this.entityManager.createQuery(query).getResultList()) {
+            candidates.putIfAbsent(tuple.get(0, ClusterEntity.class), tuple.get(1, CommandEntity.class));
+        }
+
+        // The criteria are in priority order so pick out the candidates which match the first one possible
+        for (final ClusterCriteria clusterCriteria : clusterCriterias) {
+            final Set<String> tags = clusterCriteria
+                .getTags()
+                .stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+            final List<Map.Entry<ClusterEntity, CommandEntity>> matches = candidates
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().getTags().containsAll(tags))
+                .collect(Collectors.toList());
+
+            if (!matches.isEmpty()) {
+                final List<Application> requestedApplications = this.getRequestedApplications(jobRequest);
+                final List<JobRoute> routes = new ArrayList<>();
+                for (final Map.Entry<ClusterEntity, CommandEntity> match : matches) {
+                    final CommandEntity commandEntity = match.getValue();
+                    routes.add(
+                        new JobRoute(
+                            match.getKey().getDTO(),
+                            commandEntity.getDTO(),
+                            jobRequest.getApplications().isEmpty()
+                                ? commandEntity
+                                .getApplications()
+                                .stream()
+                                .map(ApplicationEntity::getDTO)
+                                .collect(Collectors.toList())
+                                : requestedApplications
+                        )
+                    );
+                }
+                return routes;
+            }
+        }
+
+        // If we've gotten to here no clusters were found so return empty list
+        return new ArrayList<>();
+    }
+
+    private List<Application> getRequestedApplications(final JobRequest jobRequest) throws GenieException {
+        final List<String> ids = jobRequest.getApplications();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        final Map<String, ApplicationEntity> applicationEntities = this.applicationRepo
+            .findWithFilesByIdIn(ids)
+            .stream()
+            .collect(Collectors.toMap(ApplicationEntity::getId, applicationEntity -> applicationEntity));
+        // Keep the order the applications were requested in
+        final List<Application> applications = new ArrayList<>();
+        for (final String id : ids) {
+            final ApplicationEntity applicationEntity = applicationEntities.get(id);
+            if (applicationEntity == null) {
+                throw new GenieNotFoundException("No application with id " + id + " exists.");
+            }
+            applications.add(applicationEntity.getDTO());
+        }
+        return applications;
+    }
+}
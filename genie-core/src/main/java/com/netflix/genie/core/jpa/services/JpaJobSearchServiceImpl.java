@@ -17,6 +17,7 @@
  */
 package com.netflix.genie.core.jpa.services;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
@@ -28,6 +29,8 @@ import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobSearchSlice;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
@@ -50,20 +53,28 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -76,6 +87,13 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class JpaJobSearchServiceImpl implements JobSearchService {
 
+    // Only columns which are never null and never change once the job is created keep a job at the same position
+    private static final Set<String> SEEK_PROPERTIES
+        = ImmutableSet.of(JobEntity_.created.getName(), JobEntity_.id.getName());
+
+    // Separates the creation time of the last job of a page from its id in the cursor of the next page
+    private static final String CURSOR_SEPARATOR = ":";
+
     private final JpaJobRepository jobRepository;
     private final JpaJobRequestRepository jobRequestRepository;
     private final JpaJobExecutionRepository jobExecutionRepository;
@@ -127,16 +145,96 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
         final Date minFinished,
         final Date maxFinished,
         @NotNull final Pageable page
+    ) {
+        return this.findJobs(
+            id,
+            jobName,
+            user,
+            statuses,
+            tags,
+            clusterName,
+            clusterId,
+            commandName,
+            commandId,
+            minStarted,
+            maxStarted,
+            minFinished,
+            maxFinished,
+            page,
+            true
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<JobSearchResult> findJobs(
+        final String id,
+        final String jobName,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @NotNull final Pageable page,
+        final boolean count
     ) {
         log.debug("called");
 
         final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
-        final CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        final Root<JobEntity> root = countQuery.from(JobEntity.class);
+        final ClusterEntity cluster = clusterId == null ? null : this.clusterRepository.findOne(clusterId);
+        final CommandEntity command = commandId == null ? null : this.commandRepository.findOne(commandId);
+
+        long total = 0;
+        if (count) {
+            final CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            final Root<JobEntity> countRoot = countQuery.from(JobEntity.class);
+            countQuery.select(cb.count(countRoot)).where(
+                JpaJobSpecs.getFindPredicate(
+                    countRoot,
+                    countQuery,
+                    cb,
+                    id,
+                    jobName,
+                    user,
+                    statuses,
+                    tags,
+                    clusterName,
+                    cluster,
+                    commandName,
+                    command,
+                    minStarted,
+                    maxStarted,
+                    minFinished,
+                    maxFinished
+                )
+            );
+            total = this.entityManager.createQuery(countQuery).getSingleResult();
+
+            // Use the count to make sure we even need to make this query
+            if (total == 0) {
+                return new PageImpl<>(Lists.newArrayList());
+            }
+        }
+
+        final CriteriaQuery<JobSearchResult> contentQuery = cb.createQuery(JobSearchResult.class);
+        final Root<JobEntity> root = contentQuery.from(JobEntity.class);
 
-        final Predicate whereClause = JpaJobSpecs
-            .getFindPredicate(
+        // Without the count fetch one more job than the page holds to find out if there is a next page
+        final List<JobSearchResult> results = this.getJobSearchResults(
+            contentQuery,
+            root,
+            cb,
+            JpaJobSpecs.getFindPredicate(
                 root,
+                contentQuery,
                 cb,
                 id,
                 jobName,
@@ -144,79 +242,199 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
                 statuses,
                 tags,
                 clusterName,
-                clusterId == null ? null : this.clusterRepository.findOne(clusterId),
+                cluster,
                 commandName,
-                commandId == null ? null : this.commandRepository.findOne(commandId),
+                command,
                 minStarted,
                 maxStarted,
                 minFinished,
                 maxFinished
-            );
+            ),
+            this.getOrders(root, cb, page.getSort()),
+            page.getOffset(),
+            count ? page.getPageSize() : page.getPageSize() + 1
+        );
+
+        if (!count) {
+            total = page.getOffset() + results.size();
+            if (results.size() > page.getPageSize()) {
+                results.remove(results.size() - 1);
+            }
+        }
+        return new PageImpl<>(results, page, total);
+    }
 
-        countQuery.select(cb.count(root)).where(whereClause);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobSearchSlice findJobsAfter(
+        final String id,
+        final String jobName,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @Nullable final String after,
+        @NotNull final Pageable page
+    ) throws GenieException {
+        log.debug("Called to find jobs after {}", after);
 
-        final Long count = this.entityManager.createQuery(countQuery).getSingleResult();
+        final Sort sort = this.getSeekSort(page.getSort());
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Tuple> contentQuery = cb.createTupleQuery();
+        final Root<JobEntity> root = contentQuery.from(JobEntity.class);
 
-        // Use the count to make sure we even need to make this query
-        if (count > 0) {
-            final CriteriaQuery<JobSearchResult> contentQuery = cb.createQuery(JobSearchResult.class);
-            contentQuery.from(JobEntity.class);
+        final List<Predicate> predicates = new ArrayList<>();
+        predicates.add(
+            JpaJobSpecs.getFindPredicate(
+                root,
+                contentQuery,
+                cb,
+                id,
+                jobName,
+                user,
+                statuses,
+                tags,
+                clusterName,
+                clusterId == null ? null : this.clusterRepository.findOne(clusterId),
+                commandName,
+                commandId == null ? null : this.commandRepository.findOne(commandId),
+                minStarted,
+                maxStarted,
+                minFinished,
+                maxFinished
+            )
+        );
+        if (after != null) {
+            predicates.add(this.getAfterPredicate(root, cb, sort, after));
+        }
 
-            contentQuery.multiselect(
-                root.get(JobEntity_.id),
-                root.get(JobEntity_.name),
-                root.get(JobEntity_.user),
-                root.get(JobEntity_.status),
-                root.get(JobEntity_.started),
-                root.get(JobEntity_.finished),
-                root.get(JobEntity_.clusterName),
-                root.get(JobEntity_.commandName)
-            );
+        final Path<String> idPath = root.get(JobEntity_.id);
+        final Path<String> namePath = root.get(JobEntity_.name);
+        final Path<String> userPath = root.get(JobEntity_.user);
+        final Path<JobStatus> statusPath = root.get(JobEntity_.status);
+        final Path<Date> startedPath = root.get(JobEntity_.started);
+        final Path<Date> finishedPath = root.get(JobEntity_.finished);
+        final Path<String> clusterNamePath = root.get(JobEntity_.clusterName);
+        final Path<String> commandNamePath = root.get(JobEntity_.commandName);
+        final Path<Date> createdPath = root.get(JobEntity_.created);
+        contentQuery.multiselect(
+            idPath,
+            namePath,
+            userPath,
+            statusPath,
+            startedPath,
+            finishedPath,
+            clusterNamePath,
+            commandNamePath,
+            createdPath
+        );
+        contentQuery.where(cb.and(predicates.toArray(new Predicate[predicates.size()])));
+        contentQuery.orderBy(this.getOrders(root, cb, sort));
+
+        // Fetch one more job than the page holds to find out if there is a next page
+        final List<Tuple> rows = this.entityManager
+            .createQuery(contentQuery)
+            .setMaxResults(page.getPageSize() + 1)
+            .getResultList();
+        final boolean hasNext = rows.size() > page.getPageSize();
+        if (hasNext) {
+            rows.remove(rows.size() - 1);
+        }
+        final List<JobSearchResult> results = rows
+            .stream()
+            .map(
+                row -> new JobSearchResult(
+                    row.get(idPath),
+                    row.get(namePath),
+                    row.get(userPath),
+                    row.get(statusPath),
+                    row.get(startedPath),
+                    row.get(finishedPath),
+                    row.get(clusterNamePath),
+                    row.get(commandNamePath)
+                )
+            )
+            .collect(Collectors.toList());
+        final String nextCursor;
+        if (hasNext) {
+            final Tuple last = rows.get(rows.size() - 1);
+            nextCursor = this.encodeCursor(last.get(createdPath), last.get(idPath));
+        } else {
+            nextCursor = null;
+        }
+        return new JobSearchSlice(results, page, nextCursor);
+    }
 
-            contentQuery.where(whereClause);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Job> getAllActiveJobsOnHost(@NotBlank final String hostName) {
+        log.debug("Called with hostname {}", hostName);
 
-            final Sort sort = page.getSort();
-            final List<Order> orders = new ArrayList<>();
-            sort.iterator().forEachRemaining(
-                order -> {
-                    if (order.isAscending()) {
-                        orders.add(cb.asc(root.get(order.getProperty())));
-                    } else {
-                        orders.add(cb.desc(root.get(order.getProperty())));
-                    }
-                }
-            );
+        final TypedQuery<JobExecutionEntity> query = entityManager
+            .createNamedQuery(JobExecutionEntity.QUERY_FIND_JOBS_BY_STATUS_HOST, JobExecutionEntity.class);
+        query.setParameter("statuses", JobStatus.getActiveStatuses());
+        query.setParameter("hostName", hostName);
+
+        return query
+            .getResultList()
+            .stream()
+            .map(execution -> execution.getJob().getDTO())
+            .collect(Collectors.toSet());
+    }
 
-            contentQuery.orderBy(orders);
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, JobStatus> getAllActiveJobStatusesOnHost(@NotBlank final String hostName) {
+        log.debug("Called with hostname {}", hostName);
 
-            final List<JobSearchResult> results = this.entityManager
-                .createQuery(contentQuery)
-                .setFirstResult(page.getOffset())
-                .setMaxResults(page.getPageSize())
-                .getResultList();
+        final TypedQuery<Object[]> query = entityManager
+            .createNamedQuery(JobExecutionEntity.QUERY_FIND_BY_STATUS_HOST, Object[].class);
+        query.setParameter("statuses", JobStatus.getActiveStatuses());
+        query.setParameter("hostName", hostName);
 
-            return new PageImpl<>(results, page, count);
-        } else {
-            return new PageImpl<>(Lists.newArrayList());
-        }
+        return query
+            .getResultList()
+            .stream()
+            .collect(Collectors.toMap(row -> (String) row[0], row -> (JobStatus) row[1]));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Set<Job> getAllActiveJobsOnHost(@NotBlank final String hostName) {
+    public Set<JobExecution> getAllRunningJobExecutionsOnHost(@NotBlank final String hostName) {
         log.debug("Called with hostname {}", hostName);
 
-        final TypedQuery<JobEntity> query = entityManager
-            .createNamedQuery(JobExecutionEntity.QUERY_FIND_BY_STATUS_HOST, JobEntity.class);
-        query.setParameter("statuses", JobStatus.getActiveStatuses());
+        final TypedQuery<Object[]> query = entityManager
+            .createNamedQuery(JobExecutionEntity.QUERY_FIND_EXECUTIONS_BY_STATUS_HOST, Object[].class);
+        query.setParameter("statuses", EnumSet.of(JobStatus.RUNNING));
         query.setParameter("hostName", hostName);
 
         return query
             .getResultList()
             .stream()
-            .map(JobEntity::getDTO)
+            .map(
+                row -> new JobExecution.Builder(hostName)
+                    .withId((String) row[0])
+                    .withProcessId((Integer) row[1])
+                    .withCheckDelay((Long) row[2])
+                    .withTimeout((Date) row[3])
+                    .withMemory((Integer) row[4])
+                    .build()
+            )
             .collect(Collectors.toSet());
     }
 
@@ -234,6 +452,23 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
         return query.getResultList();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getActiveJobCountsByCluster() {
+        log.debug("Called");
+
+        final TypedQuery<Object[]> query = entityManager
+            .createNamedQuery(JobEntity.QUERY_COUNT_BY_STATUS_CLUSTER, Object[].class);
+        query.setParameter("statuses", JobStatus.getActiveStatuses());
+
+        return query
+            .getResultList()
+            .stream()
+            .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -363,4 +598,154 @@ public class JpaJobSearchServiceImpl implements JobSearchService {
             throw new GenieNotFoundException("No job execution found for id " + jobId);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasJobsCreatedBefore(@NotNull final Date date) {
+        final CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        final CriteriaQuery<String> query = cb.createQuery(String.class);
+        final Root<JobEntity> root = query.from(JobEntity.class);
+        query.select(root.get(JobEntity_.id));
+        query.where(cb.lessThan(root.get(JobEntity_.created), date));
+        return !this.entityManager
+            .createQuery(query)
+            .setMaxResults(1)
+            .getResultList()
+            .isEmpty();
+    }
+
+    private List<JobSearchResult> getJobSearchResults(
+        final CriteriaQuery<JobSearchResult> query,
+        final Root<JobEntity> root,
+        final CriteriaBuilder cb,
+        final Predicate whereClause,
+        final List<Order> orders,
+        final int offset,
+        final int limit
+    ) {
+        query.multiselect(
+            root.get(JobEntity_.id),
+            root.get(JobEntity_.name),
+            root.get(JobEntity_.user),
+            root.get(JobEntity_.status),
+            root.get(JobEntity_.started),
+            root.get(JobEntity_.finished),
+            root.get(JobEntity_.clusterName),
+            root.get(JobEntity_.commandName)
+        );
+        query.where(whereClause);
+        query.orderBy(orders);
+
+        return this.entityManager
+            .createQuery(query)
+            .setFirstResult(offset)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    private List<Order> getOrders(final Root<JobEntity> root, final CriteriaBuilder cb, final Sort sort) {
+        final List<Order> orders = new ArrayList<>();
+        if (sort != null) {
+            sort.iterator().forEachRemaining(
+                order -> {
+                    if (order.isAscending()) {
+                        orders.add(cb.asc(root.get(order.getProperty())));
+                    } else {
+                        orders.add(cb.desc(root.get(order.getProperty())));
+                    }
+                }
+            );
+        }
+        return orders;
+    }
+
+    /**
+     * Get the sort to seek through jobs with. This is the sort of the page, or by descending creation time if there
+     * is none, with the id added in the direction of the last order so every job has a unique position.
+     * <p>
+     * Only the creation time and id can be sorted on. A job whose value for any other property is null or changes
+     * between pages would be skipped or returned twice.
+     */
+    private Sort getSeekSort(final Sort sort) throws GeniePreconditionException {
+        if (sort == null) {
+            return new Sort(Sort.Direction.DESC, JobEntity_.created.getName(), JobEntity_.id.getName());
+        }
+        for (final Sort.Order order : sort) {
+            if (!SEEK_PROPERTIES.contains(order.getProperty())) {
+                throw new GeniePreconditionException(
+                    "Can't page after a job when sorting by " + order.getProperty() + ". Only " + SEEK_PROPERTIES
+                        + " can be sorted by."
+                );
+            }
+        }
+        Sort.Direction direction = Sort.Direction.DESC;
+        for (final Sort.Order order : sort) {
+            if (JobEntity_.id.getName().equals(order.getProperty())) {
+                return sort;
+            }
+            direction = order.getDirection();
+        }
+        return sort.and(new Sort(direction, JobEntity_.id.getName()));
+    }
+
+    /**
+     * Get a predicate selecting the jobs which come after the cursor in the given sort. For a sort on (a, b) this is
+     * {@code a > :a OR (a = :a AND b > :b)} with the comparisons flipped for descending orders.
+     * <p>
+     * The cursor carries the values rather than the job itself being read back so paging carries on even if the last
+     * job of the previous page has been deleted since.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate getAfterPredicate(
+        final Root<JobEntity> root,
+        final CriteriaBuilder cb,
+        final Sort sort,
+        final String after
+    ) throws GeniePreconditionException {
+        final Date created;
+        final String afterId;
+        try {
+            final String cursor = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            final int separator = cursor.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0 || separator == cursor.length() - 1) {
+                throw new GeniePreconditionException("Malformed cursor " + after + " to page after");
+            }
+            created = new Date(Long.parseLong(cursor.substring(0, separator)));
+            afterId = cursor.substring(separator + 1);
+        } catch (final IllegalArgumentException iae) {
+            throw new GeniePreconditionException("Malformed cursor " + after + " to page after", iae);
+        }
+
+        final List<Sort.Order> orders = Lists.newArrayList(sort);
+        final List<Comparable> values = orders
+            .stream()
+            .map(order -> JobEntity_.id.getName().equals(order.getProperty()) ? afterId : created)
+            .collect(Collectors.toList());
+
+        final List<Predicate> orPredicates = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            final Sort.Order order = orders.get(i);
+            final Comparable value = values.get(i);
+            final List<Predicate> andPredicates = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                andPredicates.add(cb.equal(root.get(orders.get(j).getProperty()), values.get(j)));
+            }
+            final Expression<Comparable> path = root.get(order.getProperty());
+            andPredicates.add(order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value));
+            orPredicates.add(cb.and(andPredicates.toArray(new Predicate[andPredicates.size()])));
+        }
+        return cb.or(orPredicates.toArray(new Predicate[orPredicates.size()]));
+    }
+
+    /**
+     * Encode the creation time and id of the last job of a page into the opaque cursor of the next page.
+     */
+    private String encodeCursor(final Date created, final String jobId) {
+        return Base64
+            .getUrlEncoder()
+            .withoutPadding()
+            .encodeToString((created.getTime() + CURSOR_SEPARATOR + jobId).getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -77,11 +77,15 @@ public final class JpaApplicationSpecs {
                         .collect(Collectors.toList());
                 predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
             }
-            if (tags != null && !tags.isEmpty()) {
+            if (JpaSpecificationUtils.hasTags(tags)) {
                 predicates.add(
-                    cb.like(
-                        root.get(ApplicationEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
+                    JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        root,
+                        ApplicationEntity.class,
+                        ApplicationEntity_.indexedTags,
+                        tags
                     )
                 );
             }
@@ -25,6 +25,7 @@ import com.netflix.genie.core.jpa.entities.CommandEntity_;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
@@ -78,11 +79,15 @@ public final class JpaClusterSpecs {
             if (maxUpdateTime != null) {
                 predicates.add(cb.lessThan(root.get(ClusterEntity_.updated), maxUpdateTime));
             }
-            if (tags != null && !tags.isEmpty()) {
+            if (JpaSpecificationUtils.hasTags(tags)) {
                 predicates.add(
-                    cb.like(
-                        root.get(ClusterEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
+                    JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        root,
+                        ClusterEntity.class,
+                        ClusterEntity_.indexedTags,
+                        tags
                     )
                 );
             }
@@ -119,22 +124,30 @@ public final class JpaClusterSpecs {
 
             predicates.add(cb.equal(root.get(ClusterEntity_.status), ClusterStatus.UP));
 
-            if (clusterCriteria != null && clusterCriteria.getTags() != null && !clusterCriteria.getTags().isEmpty()) {
+            if (clusterCriteria != null && JpaSpecificationUtils.hasTags(clusterCriteria.getTags())) {
                 predicates.add(
-                    cb.like(
-                        root.get(ClusterEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(clusterCriteria.getTags())
+                    JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        root,
+                        ClusterEntity.class,
+                        ClusterEntity_.indexedTags,
+                        clusterCriteria.getTags()
                     )
                 );
             }
 
             predicates.add(cb.equal(commands.get(CommandEntity_.status), CommandStatus.ACTIVE));
 
-            if (commandCriteria != null && !commandCriteria.isEmpty()) {
+            if (JpaSpecificationUtils.hasTags(commandCriteria)) {
                 predicates.add(
-                    cb.like(
-                        commands.get(CommandEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(commandCriteria)
+                    JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        commands,
+                        CommandEntity.class,
+                        CommandEntity_.indexedTags,
+                        commandCriteria
                     )
                 );
             }
@@ -143,6 +156,65 @@ public final class JpaClusterSpecs {
         };
     }
 
+    /**
+     * Get a predicate which selects all the (cluster, command) pairs where the cluster is up and matches any of the
+     * given cluster criteria and the command is active and matches the command criteria.
+     *
+     * @param root             The cluster root of the query
+     * @param commands         The join from the clusters to their commands
+     * @param cq               The query the predicate is for
+     * @param cb               The criteria builder to use
+     * @param clusterCriterias The cluster criteria any of which the cluster must match
+     * @param commandCriteria  The command criteria the command must match
+     * @return The predicate
+     */
+    public static Predicate getClusterAndCommandCriteriaPredicate(
+        final Root<ClusterEntity> root,
+        final Join<ClusterEntity, CommandEntity> commands,
+        final AbstractQuery<?> cq,
+        final CriteriaBuilder cb,
+        final List<ClusterCriteria> clusterCriterias,
+        final Set<String> commandCriteria
+    ) {
+        final List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get(ClusterEntity_.status), ClusterStatus.UP));
+
+        // If any criterion has no tags every up cluster matches so no need to filter on the tags
+        if (clusterCriterias != null
+            && clusterCriterias.stream().allMatch(criteria -> JpaSpecificationUtils.hasTags(criteria.getTags()))) {
+            final List<Predicate> orPredicates = clusterCriterias
+                .stream()
+                .map(
+                    criteria -> JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        root,
+                        ClusterEntity.class,
+                        ClusterEntity_.indexedTags,
+                        criteria.getTags()
+                    )
+                )
+                .collect(Collectors.toList());
+            predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
+        }
+
+        predicates.add(cb.equal(commands.get(CommandEntity_.status), CommandStatus.ACTIVE));
+        if (JpaSpecificationUtils.hasTags(commandCriteria)) {
+            predicates.add(
+                JpaSpecificationUtils.getTagsPredicate(
+                    cb,
+                    cq,
+                    commands,
+                    CommandEntity.class,
+                    CommandEntity_.indexedTags,
+                    commandCriteria
+                )
+            );
+        }
+
+        return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+    }
+
     /**
      * Get all the clusters given the specified parameters.
      *
@@ -78,11 +78,15 @@ public final class JpaCommandSpecs {
                         .collect(Collectors.toList());
                 predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
             }
-            if (tags != null && !tags.isEmpty()) {
+            if (JpaSpecificationUtils.hasTags(tags)) {
                 predicates.add(
-                    cb.like(
-                        root.get(CommandEntity_.tags),
-                        JpaSpecificationUtils.getTagLikeString(tags)
+                    JpaSpecificationUtils.getTagsPredicate(
+                        cb,
+                        cq,
+                        root,
+                        CommandEntity.class,
+                        CommandEntity_.indexedTags,
+                        tags
                     )
                 );
             }
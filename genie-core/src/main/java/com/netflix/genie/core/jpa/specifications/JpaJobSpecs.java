@@ -22,6 +22,7 @@ import com.netflix.genie.core.jpa.entities.JobEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity_;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.persistence.criteria.AbstractQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
@@ -49,6 +50,7 @@ public final class JpaJobSpecs {
      * Generate a criteria query predicate for a where clause based on the given parameters.
      *
      * @param root        The root to use
+     * @param cq          The query the predicate is for
      * @param cb          The criteria builder to use
      * @param id          The job id
      * @param name        The job name
@@ -67,6 +69,7 @@ public final class JpaJobSpecs {
      */
     public static Predicate getFindPredicate(
         final Root<JobEntity> root,
+        final AbstractQuery<?> cq,
         final CriteriaBuilder cb,
         final String id,
         final String name,
@@ -100,8 +103,10 @@ public final class JpaJobSpecs {
                     .collect(Collectors.toList());
             predicates.add(cb.or(orPredicates.toArray(new Predicate[orPredicates.size()])));
         }
-        if (tags != null && !tags.isEmpty()) {
-            predicates.add(cb.like(root.get(JobEntity_.tags), JpaSpecificationUtils.getTagLikeString(tags)));
+        if (JpaSpecificationUtils.hasTags(tags)) {
+            predicates.add(
+                JpaSpecificationUtils.getTagsPredicate(cb, cq, root, JobEntity.class, JobEntity_.indexedTags, tags)
+            );
         }
         if (cluster != null) {
             predicates.add(cb.equal(root.get(JobEntity_.cluster), cluster));
@@ -17,11 +17,22 @@
  */
 package com.netflix.genie.core.jpa.specifications;
 
-import com.netflix.genie.core.jpa.entities.CommonFieldsEntity;
+import com.netflix.genie.core.jpa.entities.BaseEntity;
+import com.netflix.genie.core.jpa.entities.BaseEntity_;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import javax.persistence.metamodel.SetAttribute;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Utility methods for the specification classes.
@@ -31,29 +42,55 @@ import java.util.Set;
  */
 public final class JpaSpecificationUtils {
 
-    private static final char PERCENT = '%';
-
     protected JpaSpecificationUtils() {
     }
 
     /**
-     * Get the sorted like statement for tags used in specification queries.
+     * Get a predicate which matches entities having all the given tags. The tags are matched in one uncorrelated
+     * subquery against the entity's normalized tag table which is indexed by (tag, id):
+     * {@code id IN (SELECT id FROM <entity>_tags WHERE tag IN (:tags) GROUP BY id HAVING COUNT(DISTINCT tag) = :n)}.
+     * This lets the database find the ids through the tag index once instead of probing the tag table per row.
+     *
+     * @param cb          The criteria builder to use
+     * @param query       The query the predicate is for. Used to create the subquery.
+     * @param entity      The path to the entity which must have the tags
+     * @param entityClass The class of the entity
+     * @param indexedTags The indexed tags collection of the entity
+     * @param tags        The tags the entity must have. Blank tags are ignored. Not null.
+     * @param <E>         The type of the entity
+     * @return The predicate
+     */
+    public static <E extends BaseEntity> Predicate getTagsPredicate(
+        @NotNull final CriteriaBuilder cb,
+        @NotNull final AbstractQuery<?> query,
+        @NotNull final Path<E> entity,
+        @NotNull final Class<E> entityClass,
+        @NotNull final SetAttribute<E, String> indexedTags,
+        @NotNull final Set<String> tags
+    ) {
+        final List<String> matchingTags = tags
+            .stream()
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .collect(Collectors.toList());
+
+        final Subquery<String> tagged = query.subquery(String.class);
+        final Root<E> taggedRoot = tagged.from(entityClass);
+        final SetJoin<E, String> taggedTags = taggedRoot.join(indexedTags);
+        tagged.select(taggedRoot.get(BaseEntity_.id));
+        tagged.where(taggedTags.in(matchingTags));
+        tagged.groupBy(taggedRoot.get(BaseEntity_.id));
+        tagged.having(cb.equal(cb.countDistinct(taggedTags), (long) matchingTags.size()));
+        return entity.get(BaseEntity_.id).in(tagged);
+    }
+
+    /**
+     * Whether any of the given tags is not blank and would therefore restrict a tag search.
      *
-     * @param tags The tags to use. Not null.
-     * @return The tags sorted while ignoring case delimited with percent symbol.
+     * @param tags The tags to check
+     * @return true if at least one tag is not blank
      */
-    public static String getTagLikeString(@NotNull final Set<String> tags) {
-        final StringBuilder builder = new StringBuilder();
-        tags.stream()
-                .filter(StringUtils::isNotBlank)
-                .sorted(String.CASE_INSENSITIVE_ORDER)
-                .forEach(
-                    tag -> builder
-                        .append(PERCENT)
-                        .append(CommonFieldsEntity.TAG_DELIMITER)
-                        .append(tag)
-                        .append(CommonFieldsEntity.TAG_DELIMITER)
-                );
-        return builder.append(PERCENT).toString();
+    public static boolean hasTags(final Set<String> tags) {
+        return tags != null && tags.stream().anyMatch(StringUtils::isNotBlank);
     }
 }
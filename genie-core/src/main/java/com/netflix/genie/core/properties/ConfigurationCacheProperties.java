@@ -0,0 +1,52 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for the in memory cache of applications, clusters and commands read by the configuration services.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class ConfigurationCacheProperties {
+
+    private boolean enabled;
+
+    @Min(value = 1L, message = "The maximum size of the configuration cache must be at least one entry")
+    private long maxSize = 10_000L;
+
+    @Min(value = 1L, message = "The configuration cache TTL must be at least one millisecond")
+    private long ttl = 60_000L;
+
+    /**
+     * Whether to relay configuration changes to the other nodes over Redis so their caches are invalidated as soon
+     * as a change is made instead of when the cached entries expire. Requires genie.redis.enabled.
+     */
+    private boolean redisInvalidationEnabled;
+
+    @NotEmpty(message = "The Redis channel to relay configuration changes over is required")
+    private String redisChannel = "genie.configuration.changes";
+}
@@ -0,0 +1,50 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for the local cache of job dependencies downloaded from remote locations.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class FileCacheProperties {
+    @NotEmpty(message = "File cache location is required")
+    private String location = "file:///tmp/genie/cache";
+
+    @Min(value = 1L, message = "The maximum size of the file cache must be at least one byte")
+    private long maxSize = 10_737_418_240L;
+
+    /**
+     * Whether to hard link cached files into job directories instead of copying them. The job directory then shares
+     * the inode of the cached file, so a job can change the file for every later job. Only enable this when all jobs
+     * are trusted. Ignored when genie.jobs.users.runAsUserEnabled is set.
+     */
+    private boolean hardLinkEnabled;
+
+    @Min(value = 0L, message = "The revalidation TTL of cached files can't be negative")
+    private long revalidationTtl = 60_000L;
+}
@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties related to archiving job directories once jobs are done.
+ * <p>
+ * Streaming archival reads the job directory as the Genie user. It is ignored when jobs run as their users, in which
+ * case the directory is archived with tar through sudo as before.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsArchiveProperties {
+
+    private boolean streamingEnabled;
+
+    @Min(value = 1, message = "At least one thread is needed to compress the archive")
+    private int compressionThreads = 4;
+
+    @Min(value = 65_536, message = "The compression block size must be at least 64 KiB")
+    private int blockSize = 1_048_576;
+}
@@ -0,0 +1,46 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for the in memory cache of job statuses and hosts read by clients polling for job progress.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsCacheProperties {
+
+    private boolean enabled;
+
+    @Min(value = 1L, message = "The maximum size of the job cache must be at least one entry")
+    private long maxSize = 100_000L;
+
+    /**
+     * How long in milliseconds the status of an active job running on another node is cached. Finished statuses
+     * never change and the statuses of jobs running on this node are invalidated whenever this node changes them.
+     */
+    @Min(value = 0L, message = "The active job status TTL can't be negative")
+    private long activeStatusTtl = 2_000L;
+}
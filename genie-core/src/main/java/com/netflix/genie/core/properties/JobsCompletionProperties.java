@@ -0,0 +1,52 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Properties related to the work done once a job completes.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsCompletionProperties {
+
+    private boolean pipelineEnabled;
+
+    @Min(0)
+    private long shutdownTimeout = 30_000L;
+
+    @NotNull
+    private JobsCompletionStageProperties status = new JobsCompletionStageProperties(4, 1_000);
+
+    @NotNull
+    private JobsCompletionStageProperties cleanup = new JobsCompletionStageProperties(2, 1_000);
+
+    @NotNull
+    private JobsCompletionStageProperties archival = new JobsCompletionStageProperties(4, 1_000);
+
+    @NotNull
+    private JobsCompletionStageProperties notification = new JobsCompletionStageProperties(2, 1_000);
+}
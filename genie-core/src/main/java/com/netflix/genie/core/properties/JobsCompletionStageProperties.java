@@ -0,0 +1,53 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for one stage of the job completion pipeline.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class JobsCompletionStageProperties {
+
+    @Min(value = 1, message = "A stage needs at least one thread")
+    private int threads = 1;
+
+    @Min(value = 1, message = "A stage needs to be able to queue at least one job")
+    private int queueCapacity = 1_000;
+
+    /**
+     * Constructor.
+     *
+     * @param threads       The number of threads working on the stage
+     * @param queueCapacity The most jobs which can wait for the stage
+     */
+    public JobsCompletionStageProperties(final int threads, final int queueCapacity) {
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+}
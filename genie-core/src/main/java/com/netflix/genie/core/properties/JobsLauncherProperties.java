@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for how the processes of jobs are launched on a node.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsLauncherProperties {
+    private boolean helperEnabled;
+
+    @NotEmpty(message = "The path of the installed launcher helper script is required")
+    private String helperPath = "/usr/local/bin/genie-launcher-helper";
+
+    @Min(value = 1, message = "The launcher helper must be given some time to answer")
+    private long helperTimeout = 300_000L;
+
+    @Min(value = 1, message = "At least one job must be allowed to launch at a time on the node")
+    private int maxConcurrent = 4;
+}
@@ -0,0 +1,47 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties related to how running jobs are monitored on a node.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsMonitoringProperties {
+
+    private boolean procEnabled = true;
+
+    @Min(value = 0L, message = "The maximum age of a process sweep can't be negative")
+    private long procSweepMaxAge = 1_000L;
+
+    private boolean sweeperEnabled;
+
+    @Min(value = 1L, message = "The sweeper tick duration must be at least one millisecond")
+    private long sweeperTickDuration = 1_000L;
+
+    @Min(value = 1, message = "The sweeper wheel must have at least one bucket")
+    private int sweeperWheelSize = 512;
+}
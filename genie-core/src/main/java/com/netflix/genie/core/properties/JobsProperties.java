@@ -31,12 +31,27 @@ import javax.validation.constraints.NotNull;
 @Getter
 @Setter
 public class JobsProperties {
+    @NotNull
+    private JobsArchiveProperties archive = new JobsArchiveProperties();
+
+    @NotNull
+    private JobsCacheProperties cache = new JobsCacheProperties();
+
     @NotNull
     private JobsCleanupProperties cleanup = new JobsCleanupProperties();
 
+    @NotNull
+    private JobsCompletionProperties completion = new JobsCompletionProperties();
+
+    @NotNull
+    private JobsDownloadsProperties downloads = new JobsDownloadsProperties();
+
     @NotNull
     private JobsForwardingProperties forwarding = new JobsForwardingProperties();
 
+    @NotNull
+    private JobsLauncherProperties launcher = new JobsLauncherProperties();
+
     @NotNull
     private JobsLocationsProperties locations = new JobsLocationsProperties();
 
@@ -46,6 +61,15 @@ public class JobsProperties {
     @NotNull
     private JobsMemoryProperties memory = new JobsMemoryProperties();
 
+    @NotNull
+    private JobsMonitoringProperties monitoring = new JobsMonitoringProperties();
+
+    @NotNull
+    private JobsQueueProperties queue = new JobsQueueProperties();
+
+    @NotNull
+    private JobsRoutingProperties routing = new JobsRoutingProperties();
+
     @NotNull
     private JobsUsersProperties users = new JobsUsersProperties();
 }
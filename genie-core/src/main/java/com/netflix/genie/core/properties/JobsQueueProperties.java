@@ -0,0 +1,49 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties for queueing jobs on a node until there is enough memory free to run them.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsQueueProperties {
+
+    private boolean enabled;
+
+    @NotEmpty(message = "Queue location is required")
+    private String location = "file:///tmp/genie/queue/";
+
+    @Min(value = 1, message = "The queue must be able to hold at least one job")
+    private int maxSize = 1_000;
+
+    @Min(value = 1L, message = "Jobs must be able to wait in the queue for at least one millisecond")
+    private long maxWait = 3_600_000L;
+
+    @Min(value = 1L, message = "The dispatch interval must be at least one millisecond")
+    private long dispatchInterval = 1_000L;
+}
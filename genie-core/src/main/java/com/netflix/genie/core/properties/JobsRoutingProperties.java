@@ -0,0 +1,61 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.google.common.collect.Lists;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Properties related to how jobs are routed to a cluster, command and applications.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class JobsRoutingProperties {
+
+    private boolean indexEnabled = true;
+
+    @Min(value = 1L, message = "The routing index refresh interval must be at least one millisecond")
+    private long indexRefreshInterval = 60_000L;
+
+    /**
+     * The cluster load balancers to ask in order until one selects a cluster. One of leastActiveJobs,
+     * powerOfTwoChoices, weighted or random. A random choice is always the final fallback.
+     */
+    @NotEmpty(message = "At least one cluster load balancer is required")
+    private List<String> loadBalancers = Lists.newArrayList("random");
+
+    @Min(value = 1L, message = "The cluster load refresh interval must be at least one millisecond")
+    private long clusterLoadRefreshInterval = 10_000L;
+
+    @NotEmpty(message = "The cluster weight tag prefix is required")
+    private String clusterWeightTagPrefix = "weight:";
+
+    @NotNull
+    private Map<String, Integer> clusterWeights = new HashMap<>();
+}
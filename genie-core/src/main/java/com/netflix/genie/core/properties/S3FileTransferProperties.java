@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Properties controlling how files are transferred to and from S3.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Getter
+@Setter
+public class S3FileTransferProperties {
+
+    private boolean parallelEnabled;
+
+    @Min(value = 5_242_880L, message = "The part size can't be less than the 5 MB minimum part size of S3")
+    private long partSize = 67_108_864L;
+
+    @Min(value = 5_242_880L, message = "The multipart threshold can't be less than the 5 MB minimum part size of S3")
+    private long multipartThreshold = 134_217_728L;
+
+    @Min(value = 1, message = "At least one part must be transferred at a time")
+    private int maxConcurrency = 10;
+}
@@ -33,10 +33,11 @@ import java.util.List;
 public interface ClusterLoadBalancer {
 
     /**
-     * Return best cluster to run job on.
+     * Return best cluster to run job on. A load balancer which only sometimes has a preference may return null when it
+     * has none so the next load balancer in a chain can decide.
      *
      * @param clusters The list of available clusters to choose from
-     * @return the "best" cluster to run job on
+     * @return the "best" cluster to run job on or null if there is no preference
      * @throws GenieException if there is any error
      */
     Cluster selectCluster(final List<Cluster> clusters) throws GenieException;
@@ -18,6 +18,12 @@
 package com.netflix.genie.core.services;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 
 /**
  * API to handle file transfer for genie jobs. There will be an implementation for different files systems
@@ -57,6 +63,34 @@ public interface FileTransfer {
      */
     void putFile(String srcLocalPath, String dstRemotePath) throws GenieException;
 
+    /**
+     * Puts the content written by the given writer to a remote location without needing it in a local file first.
+     * The content is only kept at the destination if the writer completes successfully.
+     * <p>
+     * Implementations which can't stream should override this. By default the content is written to a temporary
+     * file which is then put with {@link #putFile(String, String)} and deleted.
+     *
+     * @param contentWriter The writer producing the content to put
+     * @param dstRemotePath Destination path of the content
+     * @throws GenieException exception in case of an error
+     */
+    default void putStream(final ContentWriter contentWriter, final String dstRemotePath) throws GenieException {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("genie", ".put");
+            try (final OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+                contentWriter.write(out);
+            }
+            this.putFile(tempFile.getAbsolutePath(), dstRemotePath);
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Unable to write content for " + dstRemotePath, ioe);
+        } finally {
+            if (tempFile != null && !tempFile.delete()) {
+                tempFile.deleteOnExit();
+            }
+        }
+    }
+
     /**
      * Returns the last modified time of the file with the given path.
      * @param path location of the file
@@ -64,4 +98,22 @@ public interface FileTransfer {
      * @throws GenieException exception in case of IO error
      */
     long getLastModifiedTime(String path) throws GenieException;
+
+    /**
+     * Writes the content to put to a remote location.
+     *
+     * @author tgianos
+     * @since 3.1.0
+     */
+    @FunctionalInterface
+    interface ContentWriter {
+
+        /**
+         * Write all the content to the given stream. The stream mustn't be closed.
+         *
+         * @param out The stream to write to
+         * @throws IOException on error writing the content
+         */
+        void write(OutputStream out) throws IOException;
+    }
 }
@@ -126,10 +126,13 @@ public interface JobPersistenceService {
     ) throws GenieException;
 
     /**
-     * This method will delete all jobs whose created time is less than date.
+     * This method will delete up to batch size of the oldest jobs whose created time is less than date. Each call
+     * is its own transaction so callers should call it repeatedly until it returns less than the batch size to
+     * delete all the jobs.
      *
-     * @param date The date before which all jobs should be deleted
+     * @param date      The date before which all jobs should be deleted
+     * @param batchSize The maximum number of jobs to delete
      * @return the number of deleted jobs
      */
-    long deleteAllJobsCreatedBeforeDate(@NotNull final Date date);
+    long deleteBatchOfJobsCreatedBeforeDate(@NotNull final Date date, @Min(1) final int batchSize);
 }
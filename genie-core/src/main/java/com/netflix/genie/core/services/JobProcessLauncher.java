@@ -0,0 +1,45 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+import com.netflix.genie.common.exceptions.GenieException;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+
+/**
+ * Interface for backends which start the launcher script of a job as a separate process.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public interface JobProcessLauncher {
+
+    /**
+     * Start the launcher script in the working directory of the job in its own process group. The output of the
+     * script is written to the genie log of the job.
+     *
+     * @param jobWorkingDir The working directory of the job containing the launcher script
+     * @param user          The user to run the job as who will be given ownership of the working directory or null to
+     *                      run the job as the user running Genie
+     * @return The process id of the launched job
+     * @throws GenieException If the job couldn't be launched
+     */
+    int launch(@NotNull final File jobWorkingDir, @Nullable final String user) throws GenieException;
+}
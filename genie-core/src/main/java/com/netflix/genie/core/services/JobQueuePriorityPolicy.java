@@ -0,0 +1,32 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+import com.netflix.genie.core.jobs.QueuedJob;
+
+import java.util.Comparator;
+
+/**
+ * The order in which jobs waiting in the queue on a node are admitted once memory frees up. Jobs which compare lower
+ * are admitted first.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public interface JobQueuePriorityPolicy extends Comparator<QueuedJob> {
+}
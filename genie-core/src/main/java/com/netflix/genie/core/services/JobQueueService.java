@@ -0,0 +1,56 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.QueuedJob;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A queue of jobs accepted by this node which are waiting until there is enough memory free to run them. Queued jobs
+ * stay in the INIT state until they are scheduled.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Validated
+public interface JobQueueService {
+
+    /**
+     * Add a job to the queue. The job will be scheduled once its memory can be reserved.
+     *
+     * @param queuedJob The job to queue
+     * @return true if the job was queued, false if the queue is full
+     * @throws GenieException if the job can't be saved to the queue
+     */
+    boolean enqueue(@NotNull final QueuedJob queuedJob) throws GenieException;
+
+    /**
+     * Schedule as many of the queued jobs, in priority order, as there is memory for.
+     */
+    void dispatch();
+
+    /**
+     * Get the number of jobs currently waiting in the queue.
+     *
+     * @return The number of queued jobs
+     */
+    int getQueueDepth();
+}
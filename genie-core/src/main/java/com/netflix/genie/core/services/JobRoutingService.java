@@ -0,0 +1,51 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services;
+
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobRoute;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Service which resolves the cluster, command and applications a job request could run with.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Validated
+public interface JobRoutingService {
+
+    /**
+     * Get all the routes the given job request could take. The cluster criteria of the request are evaluated in order
+     * and the routes returned are those for the first criterion which matched at least one cluster which is up and has
+     * an active command matching the command criteria. For each cluster the first matching command (in the order the
+     * commands are attached to the cluster) is used.
+     *
+     * @param jobRequest The job request to route. Not null.
+     * @return The candidate routes. One per cluster. Empty if the job can't be run anywhere.
+     * @throws GenieException If there is an error resolving the routes
+     */
+    List<JobRoute> getJobRoutes(
+        @NotNull(message = "No job request provided. Unable to route.")
+        final JobRequest jobRequest
+    ) throws GenieException;
+}
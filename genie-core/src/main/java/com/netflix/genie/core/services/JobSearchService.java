@@ -26,14 +26,17 @@ import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSearchSlice;
 import org.hibernate.validator.constraints.NotBlank;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.Nullable;
 import javax.validation.constraints.NotNull;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -81,14 +84,122 @@ public interface JobSearchService {
         @NotNull final Pageable page
     );
 
+    /**
+     * Search for jobs which match the given filter criteria optionally skipping the count of all matching jobs.
+     * <p>
+     * When the count is skipped the total of the returned page is only a lower bound which guarantees whether there
+     * is a next page.
+     *
+     * @param id          id for job
+     * @param name        name of job (can be a SQL-style pattern such as HIVE%)
+     * @param user        user who submitted job
+     * @param statuses    statuses of job
+     * @param tags        tags for the job
+     * @param clusterName name of cluster for job
+     * @param clusterId   id of cluster for job
+     * @param commandName name of the command run in the job
+     * @param commandId   id of the command run in the job
+     * @param minStarted  The time which the job had to start after in order to be return (inclusive)
+     * @param maxStarted  The time which the job had to start before in order to be returned (exclusive)
+     * @param minFinished The time which the job had to finish after in order to be return (inclusive)
+     * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
+     * @param page        Page information of job to get
+     * @param count       Whether to count all the jobs which match the criteria
+     * @return Metadata information on jobs which match the criteria
+     */
+    Page<JobSearchResult> findJobs(
+        final String id,
+        final String name,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @NotNull final Pageable page,
+        final boolean count
+    );
+
+    /**
+     * Search for the jobs which match the given filter criteria and come after the cursor in the sort order of the
+     * page. The job id is used to break ties in the sort order.
+     * <p>
+     * Unlike paging by offset the jobs before the given one aren't scanned so walking all the matching jobs a page at a
+     * time costs the same for every page. The jobs are never counted. The page number of the page is ignored. The
+     * page can only be sorted by the creation time and id of the jobs as they never change or are null.
+     *
+     * @param id          id for job
+     * @param name        name of job (can be a SQL-style pattern such as HIVE%)
+     * @param user        user who submitted job
+     * @param statuses    statuses of job
+     * @param tags        tags for the job
+     * @param clusterName name of cluster for job
+     * @param clusterId   id of cluster for job
+     * @param commandName name of the command run in the job
+     * @param commandId   id of the command run in the job
+     * @param minStarted  The time which the job had to start after in order to be return (inclusive)
+     * @param maxStarted  The time which the job had to start before in order to be returned (exclusive)
+     * @param minFinished The time which the job had to finish after in order to be return (inclusive)
+     * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
+     * @param after       The opaque cursor returned with the previous page. Null to get the first page.
+     * @param page        Size and sort of the page of jobs to get
+     * @return Metadata information on the jobs after the cursor which match the criteria and the cursor of the next
+     * page
+     * @throws GenieException If the cursor is malformed or the page is sorted by another property
+     */
+    JobSearchSlice findJobsAfter(
+        final String id,
+        final String name,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @Nullable final String after,
+        @NotNull final Pageable page
+    ) throws GenieException;
+
     /**
      * Given a hostname return a set of all the jobs currently active on that host.
+     * <p>
+     * This loads every job in full, though in a single query. Prefer {@link #getAllActiveJobStatusesOnHost(String)}
+     * or {@link #getAllRunningJobExecutionsOnHost(String)} when only the ids, statuses or execution information is
+     * needed.
      *
      * @param hostName The host name to search for. Not null or empty.
      * @return All the jobs active on the host as a set of Job objects
      */
     Set<Job> getAllActiveJobsOnHost(@NotBlank final String hostName);
 
+    /**
+     * Given a hostname return the current status of every job currently active on that host.
+     *
+     * @param hostName The host name to search for. Not null or empty.
+     * @return The statuses of the jobs active on the host keyed by job id
+     */
+    Map<String, JobStatus> getAllActiveJobStatusesOnHost(@NotBlank final String hostName);
+
+    /**
+     * Given a hostname return the execution information of every job currently running on that host. Only the
+     * fields needed to monitor the job process (id, host name, process id, check delay, timeout and memory) are
+     * populated.
+     *
+     * @param hostName The host name to search for. Not null or empty.
+     * @return The executions of the jobs running on the host
+     */
+    Set<JobExecution> getAllRunningJobExecutionsOnHost(@NotBlank final String hostName);
+
     /**
      * Get a list of host names which are currently have active jobs in the Genie cluster.
      *
@@ -96,6 +207,13 @@ public interface JobSearchService {
      */
     List<String> getAllHostsWithActiveJobs();
 
+    /**
+     * Get the number of active jobs on each cluster which has any across the whole Genie cluster.
+     *
+     * @return The number of active jobs keyed by cluster id
+     */
+    Map<String, Long> getActiveJobCountsByCluster();
+
     /**
      * Get job information for given job id.
      *
@@ -167,4 +285,13 @@ public interface JobSearchService {
      * @throws GenieException If the job isn't found or any other error
      */
     String getJobHost(@NotBlank final String jobId) throws GenieException;
+
+    /**
+     * Find out whether any job was created before the given date. Stops at the first such job so it's cheap even when
+     * many jobs match.
+     *
+     * @param date The date to check for jobs created before
+     * @return True if at least one job was created before the date
+     */
+    boolean hasJobsCreatedBefore(@NotNull final Date date);
 }
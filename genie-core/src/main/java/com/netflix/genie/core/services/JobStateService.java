@@ -35,6 +35,17 @@ public interface JobStateService extends JobMetricsService {
     void schedule(final String jobId, final JobRequest jobRequest, final Cluster cluster, final Command command,
                   final List<Application> applications, final int memory);
 
+    /**
+     * Atomically reserve memory for the job if the total used memory would stay within the limit. The memory counts as
+     * used until the job is done.
+     *
+     * @param jobId     job id
+     * @param memory    job memory
+     * @param maxMemory the most memory all the jobs on the node may use
+     * @return true if the memory was reserved, false if there isn't enough free or the job doesn't exist
+     */
+    boolean reserveMemory(final String jobId, final int memory, final int maxMemory);
+
     /**
      * Called when the job is done.
      * @param jobId job id
@@ -13,13 +13,15 @@
 
 package com.netflix.genie.core.services.impl;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalNotification;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.FileCacheProperties;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.FileTransferFactory;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
@@ -31,54 +33,140 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Caches the downloaded file from the remote location.
+ * <p>
+ * Entries are weighed by their size on disk and the least recently used ones are evicted once the total size exceeds
+ * the configured maximum. Files are keyed by their remote location and each download gets its own file named after a
+ * hash of that location so the cache is rebuilt from the files left in the cache location when the service starts.
+ * While a file is being placed in a job directory its entry is pinned. A file which is evicted or replaced while pinned
+ * is only deleted once the last job using it is done. Files bigger than the whole cache are never cached. They are
+ * downloaded and moved straight into the job directory.
+ * <p>
+ * Cached files are copied into the job directories by default. When enabled, they are hard linked instead so jobs
+ * sharing a dependency share a single copy on disk. A hard link is the same inode as the cached file, so whoever owns
+ * the job directory can change the ownership, permissions and contents of the cached file for every later job. Linking
+ * is therefore only safe when all jobs run as the Genie user and are trusted, and it is never used when jobs run as the
+ * user who submitted them since their job directories are chown'd to that user. Files are also copied when the cache
+ * and job directories are on different file systems.
+ * <p>
+ * A cached file is only checked against its remote location once the revalidation TTL since it was last checked has
+ * passed. Each file is loaded at most once at a time and loading one file never blocks requests for another.
  * Created by amajumdar on 7/22/16.
  */
 @Slf4j
 public class CacheGenieFileTransferService extends GenieFileTransferService {
+    private static final String DOWNLOAD_SUFFIX = ".download";
+    // The hash of the remote location, followed by a suffix unique to the download
+    private static final Pattern CACHE_FILE_NAME_PATTERN
+        = Pattern.compile("^([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})(\\.[0-9a-f]{32})?$");
+    private static final long WEIGHT_UNIT = 1_024L;
+
     //File cache location
     private final String baseCacheLocation;
     //File transfer service to get/put files on a local system
     private final FileTransfer localFileTransfer;
-    //File cache
-    private final LoadingCache<String, File> fileCache = CacheBuilder.newBuilder()
-            .recordStats()
-            .build(
-                    new CacheLoader<String, File>() {
-                        public File load(
-                                @NotNull
-                                final String path) throws GenieException {
-                            return loadFile(path);
-                        }
-                    });
+    //Whether to hard link cached files into the job directories instead of copying them. Never when running as users.
+    private final boolean hardLinkEnabled;
+    //How long in milliseconds a cached file is used before checking its remote location again
+    private final long revalidationTtl;
+    //Maximum weight of the cache. Files weighing more are never cached.
+    private final long maximumWeight;
+    //File cache keyed by the hash of the remote location of the cached file
+    private final Cache<String, CacheEntry> fileCache;
+    //Total size in bytes of the cached files
+    private final AtomicLong cacheSize = new AtomicLong();
+
+    private final Counter hitBytes;
+    private final Counter missBytes;
+    private final Counter evictions;
+    private final Counter evictedBytes;
+    private final Counter linkedBytes;
+    private final Counter copiedBytes;
+    private final Counter revalidations;
+
+    /**
+     * Constructor.
+     *
+     * @param fileTransferFactory file transfer implementation factory
+     * @param fileCacheProperties file cache location, size, freshness and how cached files are placed in job
+     *                            directories
+     * @param localFileTransfer   Local file transfer service
+     * @param registry            spectator registry
+     * @throws GenieException If there is any problem
+     */
+    public CacheGenieFileTransferService(
+            @NotNull final FileTransferFactory fileTransferFactory,
+            @NotNull final FileCacheProperties fileCacheProperties,
+            @NotNull final FileTransfer localFileTransfer,
+            @NotNull final Registry registry) throws GenieException {
+        this(fileTransferFactory, fileCacheProperties, localFileTransfer, false, registry);
+    }
 
     /**
      * Constructor.
      *
      * @param fileTransferFactory file transfer implementation factory
-     * @param baseCacheLocation file cache location
-     * @param localFileTransfer Local file transfer service
-     * @param registry spectator registry
+     * @param fileCacheProperties file cache location, size, freshness and how cached files are placed in job
+     *                            directories
+     * @param localFileTransfer   Local file transfer service
+     * @param runAsUserEnabled    Whether jobs run as the user who submitted them. Cached files are always copied if so.
+     * @param registry            spectator registry
      * @throws GenieException If there is any problem
      */
     public CacheGenieFileTransferService(
             @NotNull final FileTransferFactory fileTransferFactory,
-            @NotNull final String baseCacheLocation,
+            @NotNull final FileCacheProperties fileCacheProperties,
             @NotNull final FileTransfer localFileTransfer,
+            final boolean runAsUserEnabled,
             @NotNull final Registry registry) throws GenieException {
         super(fileTransferFactory);
-        this.baseCacheLocation = createDirectories(baseCacheLocation).toString();
+        this.baseCacheLocation = createDirectories(fileCacheProperties.getLocation()).toString();
         this.localFileTransfer = localFileTransfer;
+        if (fileCacheProperties.isHardLinkEnabled() && runAsUserEnabled) {
+            log.warn("Hard linking cached files is disabled as jobs run as their users. Cached files will be copied.");
+        }
+        this.hardLinkEnabled = fileCacheProperties.isHardLinkEnabled() && !runAsUserEnabled;
+        this.revalidationTtl = fileCacheProperties.getRevalidationTtl();
+        this.maximumWeight = (fileCacheProperties.getMaxSize() + WEIGHT_UNIT - 1) / WEIGHT_UNIT;
+        this.fileCache = CacheBuilder.newBuilder()
+            // A single segment so the least recently used entries are evicted across the whole cache
+            .concurrencyLevel(1)
+            .maximumWeight(this.maximumWeight)
+            .weigher((String key, CacheEntry entry) -> getWeight(entry.length))
+            .removalListener(this::onRemoval)
+            .recordStats()
+            .build();
+        this.hitBytes = registry.counter("genie.jobs.file.cache.hitBytes.rate");
+        this.missBytes = registry.counter("genie.jobs.file.cache.missBytes.rate");
+        this.evictions = registry.counter("genie.jobs.file.cache.evictions.rate");
+        this.evictedBytes = registry.counter("genie.jobs.file.cache.evictedBytes.rate");
+        this.linkedBytes = registry.counter("genie.jobs.file.cache.linkedBytes.rate");
+        this.copiedBytes = registry.counter("genie.jobs.file.cache.copiedBytes.rate");
+        this.revalidations = registry.counter("genie.jobs.file.cache.revalidations.rate");
         registry.gauge("genie.jobs.file.cache.hitRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().hitRate());
+                (ToDoubleFunction<Cache<String, CacheEntry>>) value -> value.stats().hitRate());
         registry.gauge("genie.jobs.file.cache.missRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().missRate());
+                (ToDoubleFunction<Cache<String, CacheEntry>>) value -> value.stats().missRate());
         registry.gauge("genie.jobs.file.cache.loadExceptionRate", fileCache,
-                (ToDoubleFunction<LoadingCache<String, File>>) value -> value.stats().loadExceptionRate());
+                (ToDoubleFunction<Cache<String, CacheEntry>>) value -> value.stats().loadExceptionRate());
+        registry.gauge("genie.jobs.file.cache.entries.gauge", fileCache,
+                (ToDoubleFunction<Cache<String, CacheEntry>>) Cache::size);
+        registry.gauge("genie.jobs.file.cache.size.gauge", cacheSize);
+        loadCachedFiles();
     }
 
     /**
@@ -95,28 +183,97 @@ public class CacheGenieFileTransferService extends GenieFileTransferService {
             final String dstLocalPath
     ) throws GenieException {
         log.debug("Called with src path {} and destination path {}", srcRemotePath, dstLocalPath);
-        File cachedFile = null;
+        final String cacheKey = getCacheKey(srcRemotePath);
+        final AtomicBoolean loaded = new AtomicBoolean();
+        CacheEntry entry = null;
         try {
-            cachedFile = fileCache.get(srcRemotePath);
-            // Before using the cached file check if the real file has been modified after we have cached
-            final long lastModifiedTime = getFileTransfer(srcRemotePath).getLastModifiedTime(srcRemotePath);
-            if (lastModifiedTime > cachedFile.lastModified()) {
-                synchronized (this) {
-                    // Check the modification time again because threads that were waiting for a file might have
-                    // been refreshed by a previous thread.
-                    if (lastModifiedTime > cachedFile.lastModified()) {
-                        fileCache.invalidate(srcRemotePath);
-                        deleteFile(cachedFile);
-                        cachedFile = fileCache.get(srcRemotePath);
+            try {
+                entry = getPinnedCacheEntry(cacheKey, srcRemotePath, loaded);
+                // Before using a previously cached file which is no longer fresh check if the real file has been
+                // modified after we have cached it
+                final long now = System.currentTimeMillis();
+                if (entry != null && !loaded.get() && now - entry.lastValidated >= revalidationTtl) {
+                    revalidations.increment();
+                    final long lastModifiedTime = getFileTransfer(srcRemotePath).getLastModifiedTime(srcRemotePath);
+                    if (lastModifiedTime > entry.file.lastModified()) {
+                        // Only remove the entry this thread saw so threads racing on the same stale entry don't
+                        // discard the refreshed one. All of them then wait on the single reload of the file.
+                        fileCache.asMap().remove(cacheKey, entry);
+                        final CacheEntry staleEntry = entry;
+                        entry = null;
+                        unpin(staleEntry);
+                        entry = getPinnedCacheEntry(cacheKey, srcRemotePath, loaded);
+                    } else {
+                        entry.lastValidated = now;
                     }
                 }
+            } catch (Exception e) {
+                if (e instanceof ExecutionException && e.getCause() instanceof UncachableFileException) {
+                    if (loaded.get()) {
+                        moveUncachableFile(((UncachableFileException) e.getCause()).file, dstLocalPath);
+                    } else {
+                        // Another job downloaded it at the same time and is moving it into its own directory
+                        getFileTransfer(srcRemotePath).getFile(srcRemotePath, dstLocalPath);
+                    }
+                    return;
+                }
+                final String message = String.format("Failed getting the file %s", srcRemotePath);
+                log.error(message);
+                throw new GenieServerException(message, e);
+            }
+            if (entry == null) {
+                // The file was evicted by other files before it could be used so bypass the cache
+                log.warn("Cached copy of {} was evicted before use. Downloading it directly.", srcRemotePath);
+                getFileTransfer(srcRemotePath).getFile(srcRemotePath, dstLocalPath);
+                return;
+            }
+            if (!loaded.get()) {
+                hitBytes.increment(entry.length);
+            }
+            materializeFile(entry.file, dstLocalPath);
+        } finally {
+            if (entry != null) {
+                unpin(entry);
+            }
+        }
+    }
+
+    /**
+     * Get the total size in bytes of the files currently in the cache.
+     *
+     * @return The size of the cache in bytes
+     */
+    public long getCacheSize() {
+        return cacheSize.get();
+    }
+
+    /**
+     * Place a cached file at the given local path. The file is hard linked, sharing its inode with the cache, when
+     * enabled and possible. Otherwise it is copied and made writable again.
+     *
+     * @param cachedFile   The file in the cache
+     * @param dstLocalPath Local path where the file needs to be placed
+     * @throws GenieException If the file can't be linked or copied
+     */
+    protected void materializeFile(final File cachedFile, final String dstLocalPath) throws GenieException {
+        final long length = cachedFile.length();
+        if (hardLinkEnabled) {
+            final Path dstPath = new File(dstLocalPath).toPath();
+            try {
+                Files.deleteIfExists(dstPath);
+                Files.createLink(dstPath, cachedFile.toPath());
+                linkedBytes.increment(length);
+                return;
+            } catch (final IOException | UnsupportedOperationException | SecurityException e) {
+                // Most likely the cache and the job directory are on different file systems
+                log.debug("Unable to link {} to {}. Copying it instead.", cachedFile, dstLocalPath, e);
             }
-        } catch (Exception e) {
-            final String message = String.format("Failed getting the file %s", srcRemotePath);
-            log.error(message);
-            throw new GenieServerException(message, e);
         }
         localFileTransfer.getFile(cachedFile.getPath(), dstLocalPath);
+        if (!new File(dstLocalPath).setWritable(true)) {
+            log.warn("Unable to make {} writable", dstLocalPath);
+        }
+        copiedBytes.increment(length);
     }
 
     protected void deleteFile(final File file) throws IOException {
@@ -139,19 +296,228 @@ public class CacheGenieFileTransferService extends GenieFileTransferService {
 
     /**
      * Loads the file given the path and stores it under the cache location with file name as UUID string created using
-     * the path.
+     * the path followed by a suffix unique to this download. The file is downloaded to a temporary name first and then
+     * atomically moved into place so a partial download is never mistaken for a cached file.
+     *
      * @param path Path of the file to be loaded
      * @return loaded file
      * @throws GenieException Exception if the file does not load
      */
     protected File loadFile(final String path) throws GenieException {
-        final byte[] pathBytes = path.getBytes(Charset.forName("UTF-8"));
-        final String pathUUID = UUID.nameUUIDFromBytes(pathBytes).toString();
-        final String cacheFilePath = String.format("%s/%s", baseCacheLocation, pathUUID);
+        final String cacheFilePath = String.format(
+            "%s/%s.%s", baseCacheLocation, getCacheKey(path), UUID.randomUUID().toString().replace("-", "")
+        );
         final File cacheFile = new File(cacheFilePath);
-        if (!cacheFile.exists()) {
-            getFileTransfer(path).getFile(path, cacheFilePath);
+        final String downloadFilePath = cacheFilePath + DOWNLOAD_SUFFIX;
+        getFileTransfer(path).getFile(path, downloadFilePath);
+        try {
+            Files.move(
+                new File(downloadFilePath).toPath(),
+                cacheFile.toPath(),
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Failed moving the downloaded file " + path + " into the cache", ioe);
+        }
+        // Files may be shared by several jobs through hard links so make sure no job can modify them
+        if (!cacheFile.setWritable(false, false)) {
+            log.warn("Unable to make the cached file {} read only", cacheFile);
         }
         return cacheFile;
     }
+
+    /**
+     * Adds the files left in the cache location by a previous run back into the cache, least recently used first, and
+     * deletes any incomplete downloads. Files beyond the maximum size of the cache are evicted right away.
+     *
+     * @throws GenieException If the cache location can't be read
+     */
+    protected void loadCachedFiles() throws GenieException {
+        final File[] existingFiles = new File(baseCacheLocation).listFiles();
+        if (existingFiles == null) {
+            throw new GenieServerException("Unable to list the files in the cache location " + baseCacheLocation);
+        }
+        final List<File> cachedFiles = new ArrayList<>();
+        for (final File file : existingFiles) {
+            if (!file.isFile()) {
+                continue;
+            }
+            final String name = file.getName();
+            if (name.endsWith(DOWNLOAD_SUFFIX)
+                && CACHE_FILE_NAME_PATTERN.matcher(name.substring(0, name.length() - DOWNLOAD_SUFFIX.length()))
+                .matches()) {
+                try {
+                    deleteFile(file);
+                } catch (final IOException ioe) {
+                    log.error("Unable to delete incomplete download {}", file, ioe);
+                }
+            } else if (CACHE_FILE_NAME_PATTERN.matcher(name).matches()) {
+                cachedFiles.add(file);
+            }
+        }
+        cachedFiles.sort(Comparator.comparingLong(this::getLastAccessTime));
+        for (final File cachedFile : cachedFiles) {
+            final Matcher matcher = CACHE_FILE_NAME_PATTERN.matcher(cachedFile.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+            // Files from a previous run are revalidated the first time they're used. Older files for the same
+            // location are replaced, and so deleted, by newer ones.
+            final CacheEntry entry = new CacheEntry(cachedFile, 0L);
+            cacheSize.addAndGet(entry.length);
+            fileCache.put(matcher.group(1), entry);
+        }
+        log.info("Loaded {} files totaling {} bytes into the file cache", fileCache.size(), cacheSize.get());
+    }
+
+    /**
+     * Get the entry for the file, loading it if needed, and pin it so its file isn't deleted while in use.
+     *
+     * @return The pinned entry or null if it was evicted before it could be pinned
+     */
+    private CacheEntry getPinnedCacheEntry(
+        final String cacheKey,
+        final String path,
+        final AtomicBoolean loaded
+    ) throws ExecutionException {
+        // The cache only runs one loader per key at a time, other callers for the same key wait for its result
+        final CacheEntry entry = fileCache.get(
+            cacheKey,
+            () -> {
+                loaded.set(true);
+                final File file = loadFile(path);
+                missBytes.increment(file.length());
+                if (getWeight(file.length()) > maximumWeight) {
+                    // It would only be evicted right away so hand it to the caller instead of caching it
+                    throw new UncachableFileException(file);
+                }
+                final CacheEntry loadedEntry = new CacheEntry(file, System.currentTimeMillis());
+                cacheSize.addAndGet(loadedEntry.length);
+                return loadedEntry;
+            }
+        );
+        return entry.pin() ? entry : null;
+    }
+
+    private void unpin(final CacheEntry entry) {
+        if (entry.unpin()) {
+            deleteCachedFile(entry);
+        }
+    }
+
+    private void onRemoval(final RemovalNotification<String, CacheEntry> notification) {
+        final CacheEntry entry = notification.getValue();
+        if (entry == null) {
+            return;
+        }
+        cacheSize.addAndGet(-entry.length);
+        if (notification.wasEvicted()) {
+            log.debug("Evicting {} of {} bytes from the file cache", entry.file, entry.length);
+            evictions.increment();
+            evictedBytes.increment(entry.length);
+        }
+        // Evicted and replaced files are deleted once no job is using them
+        if (entry.retire()) {
+            deleteCachedFile(entry);
+        }
+    }
+
+    private void deleteCachedFile(final CacheEntry entry) {
+        try {
+            deleteFile(entry.file);
+        } catch (final IOException ioe) {
+            log.error("Unable to delete cached file {}", entry.file, ioe);
+        }
+    }
+
+    private void moveUncachableFile(final File file, final String dstLocalPath) throws GenieException {
+        log.debug("{} is bigger than the whole cache. Moving it to {} without caching it.", file, dstLocalPath);
+        try {
+            Files.move(file.toPath(), new File(dstLocalPath).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException ioe) {
+            try {
+                deleteFile(file);
+            } catch (final IOException deleteException) {
+                log.error("Unable to delete downloaded file {}", file, deleteException);
+            }
+            throw new GenieServerException("Failed moving the downloaded file " + file + " to " + dstLocalPath, ioe);
+        }
+        if (!new File(dstLocalPath).setWritable(true)) {
+            log.warn("Unable to make {} writable", dstLocalPath);
+        }
+    }
+
+    private String getCacheKey(final String path) {
+        return UUID.nameUUIDFromBytes(path.getBytes(Charset.forName("UTF-8"))).toString();
+    }
+
+    private int getWeight(final long length) {
+        return (int) Math.min(Integer.MAX_VALUE, (length + WEIGHT_UNIT - 1) / WEIGHT_UNIT);
+    }
+
+    private long getLastAccessTime(final File file) {
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class).lastAccessTime().toMillis();
+        } catch (final IOException ioe) {
+            return file.lastModified();
+        }
+    }
+
+    /**
+     * A cached file along with its size when it was cached, when it was last checked against its remote location and
+     * how many jobs are using it.
+     */
+    private static final class CacheEntry {
+        private final File file;
+        private final long length;
+        private volatile long lastValidated;
+        private int users;
+        private boolean retired;
+
+        private CacheEntry(final File file, final long lastValidated) {
+            this.file = file;
+            this.length = file.length();
+            this.lastValidated = lastValidated;
+        }
+
+        /**
+         * @return Whether the entry was pinned. False once it has been removed from the cache.
+         */
+        private synchronized boolean pin() {
+            if (this.retired) {
+                return false;
+            }
+            this.users++;
+            return true;
+        }
+
+        /**
+         * @return Whether the file should be deleted now as this was the last user of a removed entry
+         */
+        private synchronized boolean unpin() {
+            this.users--;
+            return this.retired && this.users == 0;
+        }
+
+        /**
+         * @return Whether the file should be deleted now as no one is using it
+         */
+        private synchronized boolean retire() {
+            this.retired = true;
+            return this.users == 0;
+        }
+    }
+
+    /**
+     * Thrown by the loader for a downloaded file too big to ever fit in the cache.
+     */
+    private static final class UncachableFileException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final transient File file;
+
+        private UncachableFileException(final File file) {
+            super("File " + file + " is bigger than the whole cache");
+            this.file = file;
+        }
+    }
 }
@@ -0,0 +1,376 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.github.fge.jsonpatch.JsonPatch;
+import com.google.common.collect.ImmutableSet;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An application service which caches the applications and the commands of the applications read through another
+ * application service. All other calls, including every change, are delegated as is.
+ * <p>
+ * Cached entries are invalidated when a {@link ConfigurationChangedEvent} is received and expire after a fixed time
+ * regardless. See {@link CachingClusterServiceImpl}.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class CachingApplicationServiceImpl implements ApplicationService {
+
+    private final ApplicationService applicationService;
+    private final ConfigurationCache<String, Application> applications;
+    private final ConfigurationCache<Pair<String, Set<CommandStatus>>, Set<Command>> applicationCommands;
+
+    /**
+     * Constructor.
+     *
+     * @param applicationService The application service to read through and delegate all changes to
+     * @param maxSize            The maximum number of entries to keep in each cache
+     * @param ttl                How long in milliseconds to keep an entry after it was loaded
+     * @param registry           The metrics registry to use
+     */
+    public CachingApplicationServiceImpl(
+        @NotNull final ApplicationService applicationService,
+        final long maxSize,
+        final long ttl,
+        @NotNull final Registry registry
+    ) {
+        this.applicationService = applicationService;
+        this.applications = new ConfigurationCache<>("applications", maxSize, ttl, registry);
+        this.applicationCommands = new ConfigurationCache<>("applicationCommands", maxSize, ttl, registry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createApplication(
+        @NotNull(message = "No application entered to create.")
+        @Valid
+        final Application app
+    ) throws GenieException {
+        return this.applicationService.createApplication(app);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Application getApplication(
+        @NotBlank(message = "No id entered. Unable to get")
+        final String id
+    ) throws GenieException {
+        return this.applications.get(id, () -> this.applicationService.getApplication(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<Application> getApplications(
+        final String name,
+        final String user,
+        final Set<ApplicationStatus> statuses,
+        final Set<String> tags,
+        final String type,
+        final Pageable pageable
+    ) {
+        return this.applicationService.getApplications(name, user, statuses, tags, type, pageable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateApplication(
+        @NotBlank(message = "No application id entered. Unable to update.")
+        final String id,
+        @NotNull(message = "No application information entered. Unable to update.")
+        @Valid
+        final Application updateApp
+    ) throws GenieException {
+        this.applicationService.updateApplication(id, updateApp);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void patchApplication(@NotBlank final String id, @NotNull final JsonPatch patch) throws GenieException {
+        this.applicationService.patchApplication(id, patch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAllApplications() throws GenieException {
+        this.applicationService.deleteAllApplications();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteApplication(
+        @NotBlank(message = "No application id entered. Unable to delete.")
+        final String id
+    ) throws GenieException {
+        this.applicationService.deleteApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addConfigsToApplication(
+        @NotBlank(message = "No application id entered. Unable to add configurations.")
+        final String id,
+        @NotEmpty(message = "No configuration files entered.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.applicationService.addConfigsToApplication(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getConfigsForApplication(
+        @NotBlank(message = "No application id entered. Unable to get configs.")
+        final String id
+    ) throws GenieException {
+        return this.applicationService.getConfigsForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateConfigsForApplication(
+        @NotBlank(message = "No application id entered. Unable to update configurations.")
+        final String id,
+        @NotNull(message = "No configs entered. Unable to update. If you want, use delete API.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.applicationService.updateConfigsForApplication(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllConfigsForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove configs.")
+        final String id
+    ) throws GenieException {
+        this.applicationService.removeAllConfigsForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeConfigForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove configuration.")
+        final String id,
+        @NotBlank(message = "No config entered. Unable to remove.")
+        final String config
+    ) throws GenieException {
+        this.applicationService.removeConfigForApplication(id, config);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addDependenciesForApplication(
+        @NotBlank(message = "No application id entered. Unable to add dependencies.")
+        final String id,
+        @NotEmpty(message = "No dependencies entered. Unable to add dependencies.")
+        final Set<String> dependencies
+    ) throws GenieException {
+        this.applicationService.addDependenciesForApplication(id, dependencies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getDependenciesForApplication(
+        @NotBlank(message = "No application id entered. Unable to get dependencies.")
+        final String id
+    ) throws GenieException {
+        return this.applicationService.getDependenciesForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateDependenciesForApplication(
+        @NotBlank(message = "No application id entered. Unable to update dependencies.")
+        final String id,
+        @NotNull(message = "No dependencies entered. Unable to update.")
+        final Set<String> dependencies
+    ) throws GenieException {
+        this.applicationService.updateDependenciesForApplication(id, dependencies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllDependenciesForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove dependencies.")
+        final String id
+    ) throws GenieException {
+        this.applicationService.removeAllDependenciesForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeDependencyForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove dependency.")
+        final String id,
+        @NotBlank(message = "No dependency entered. Unable to remove dependency.")
+        final String dependency
+    ) throws GenieException {
+        this.applicationService.removeDependencyForApplication(id, dependency);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTagsForApplication(
+        @NotBlank(message = "No application id entered. Unable to add tags.")
+        final String id,
+        @NotEmpty(message = "No tags entered. Unable to add.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.applicationService.addTagsForApplication(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getTagsForApplication(
+        @NotBlank(message = "No application id entered. Cannot retrieve tags.")
+        final String id
+    ) throws GenieException {
+        return this.applicationService.getTagsForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateTagsForApplication(
+        @NotBlank(message = "No application id entered. Unable to update tags.")
+        final String id,
+        @NotNull(message = "No tags entered unable to update tags.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.applicationService.updateTagsForApplication(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllTagsForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove tags.")
+        final String id
+    ) throws GenieException {
+        this.applicationService.removeAllTagsForApplication(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeTagForApplication(
+        @NotBlank(message = "No application id entered. Unable to remove tag.")
+        final String id,
+        @NotBlank(message = "No tag entered. Unable to remove.")
+        final String tag
+    ) throws GenieException {
+        this.applicationService.removeTagForApplication(id, tag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Command> getCommandsForApplication(
+        @NotBlank(message = "No application id entered. Unable to get commands.")
+        final String id,
+        final Set<CommandStatus> statuses
+    ) throws GenieException {
+        return this.applicationCommands.get(
+            Pair.of(id, statuses == null ? null : ImmutableSet.copyOf(statuses)),
+            () -> ImmutableSet.copyOf(this.applicationService.getCommandsForApplication(id, statuses))
+        );
+    }
+
+    /**
+     * Invalidate the cached applications and relationships affected by a configuration change.
+     *
+     * @param event The event describing the change
+     */
+    @EventListener
+    public void onConfigurationChanged(final ConfigurationChangedEvent event) {
+        log.debug("Invalidating cached applications for {} {}", event.getType(), event.getId());
+        if (event.getType() == ConfigurationType.APPLICATION) {
+            final Optional<String> id = event.getId();
+            if (id.isPresent()) {
+                this.applications.invalidate(id.get());
+            } else {
+                this.applications.invalidateAll();
+            }
+        }
+        // Commands can be added to or removed from an application from either side
+        this.applicationCommands.invalidateAll();
+    }
+}
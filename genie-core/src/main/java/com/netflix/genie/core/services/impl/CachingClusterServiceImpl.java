@@ -0,0 +1,369 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.github.fge.jsonpatch.JsonPatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A cluster service which caches the clusters and the commands of the clusters read through another cluster service
+ * so the frequent lookups done while serving and running jobs don't each go to the database. All other calls,
+ * including every change, are delegated as is.
+ * <p>
+ * Cached entries are invalidated when a {@link ConfigurationChangedEvent} is received and expire after a fixed time
+ * regardless, which bounds how long a change made through another node can go unseen when changes aren't relayed
+ * between the nodes.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class CachingClusterServiceImpl implements ClusterService {
+
+    private final ClusterService clusterService;
+    private final ConfigurationCache<String, Cluster> clusters;
+    private final ConfigurationCache<Pair<String, Set<CommandStatus>>, List<Command>> clusterCommands;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterService The cluster service to read through and delegate all changes to
+     * @param maxSize        The maximum number of entries to keep in each cache
+     * @param ttl            How long in milliseconds to keep an entry after it was loaded
+     * @param registry       The metrics registry to use
+     */
+    public CachingClusterServiceImpl(
+        @NotNull final ClusterService clusterService,
+        final long maxSize,
+        final long ttl,
+        @NotNull final Registry registry
+    ) {
+        this.clusterService = clusterService;
+        this.clusters = new ConfigurationCache<>("clusters", maxSize, ttl, registry);
+        this.clusterCommands = new ConfigurationCache<>("clusterCommands", maxSize, ttl, registry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createCluster(
+        @NotNull(message = "No cluster entered. Unable to create.")
+        @Valid
+        final Cluster cluster
+    ) throws GenieException {
+        return this.clusterService.createCluster(cluster);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster getCluster(
+        @NotBlank(message = "No id entered. Unable to get.")
+        final String id
+    ) throws GenieException {
+        return this.clusters.get(id, () -> this.clusterService.getCluster(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<Cluster> getClusters(
+        final String name,
+        final Set<ClusterStatus> statuses,
+        final Set<String> tags,
+        final Date minUpdateTime,
+        final Date maxUpdateTime,
+        final Pageable page
+    ) {
+        return this.clusterService.getClusters(name, statuses, tags, minUpdateTime, maxUpdateTime, page);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Cluster> chooseClusterForJobRequest(
+        @NotNull(message = "JobRequest object is null. Unable to continue.")
+        final JobRequest jobRequest
+    ) throws GenieException {
+        return this.clusterService.chooseClusterForJobRequest(jobRequest);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateCluster(
+        @NotBlank(message = "No cluster id entered. Unable to update.")
+        final String id,
+        @NotNull(message = "No cluster information entered. Unable to update.")
+        @Valid
+        final Cluster updateCluster
+    ) throws GenieException {
+        this.clusterService.updateCluster(id, updateCluster);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void patchCluster(@NotBlank final String id, @NotNull final JsonPatch patch) throws GenieException {
+        this.clusterService.patchCluster(id, patch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAllClusters() throws GenieException {
+        this.clusterService.deleteAllClusters();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteCluster(
+        @NotBlank(message = "No id entered unable to delete.")
+        final String id
+    ) throws GenieException {
+        this.clusterService.deleteCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addConfigsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to add configurations.")
+        final String id,
+        @NotEmpty(message = "No configuration files entered. Unable to add.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.clusterService.addConfigsForCluster(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getConfigsForCluster(
+        @NotBlank(message = "No cluster id sent. Cannot retrieve configurations.")
+        final String id
+    ) throws GenieException {
+        return this.clusterService.getConfigsForCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateConfigsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to update configurations.")
+        final String id,
+        @NotEmpty(message = "No configs entered. Unable to update.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.clusterService.updateConfigsForCluster(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllConfigsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to remove configs.")
+        final String id
+    ) throws GenieException {
+        this.clusterService.removeAllConfigsForCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTagsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to add tags.")
+        final String id,
+        @NotEmpty(message = "No tags entered. Unable to add to tags.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.clusterService.addTagsForCluster(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getTagsForCluster(
+        @NotBlank(message = "No cluster id sent. Cannot retrieve tags.")
+        final String id
+    ) throws GenieException {
+        return this.clusterService.getTagsForCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateTagsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to update tags.")
+        final String id,
+        @NotEmpty(message = "No tags entered. Unable to update.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.clusterService.updateTagsForCluster(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllTagsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to remove tags.")
+        final String id
+    ) throws GenieException {
+        this.clusterService.removeAllTagsForCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeTagForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to remove tag.")
+        final String id,
+        @NotBlank(message = "No tag entered. Unable to remove.")
+        final String tag
+    ) throws GenieException {
+        this.clusterService.removeTagForCluster(id, tag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addCommandsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to add commands.")
+        final String id,
+        @NotEmpty(message = "No command ids entered. Unable to add commands.")
+        final List<String> commandIds
+    ) throws GenieException {
+        this.clusterService.addCommandsForCluster(id, commandIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Command> getCommandsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to get commands.")
+        final String id,
+        final Set<CommandStatus> statuses
+    ) throws GenieException {
+        return this.clusterCommands.get(
+            Pair.of(id, statuses == null ? null : ImmutableSet.copyOf(statuses)),
+            () -> ImmutableList.copyOf(this.clusterService.getCommandsForCluster(id, statuses))
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setCommandsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to update commands.")
+        final String id,
+        @NotNull(message = "No command ids entered. Unable to update commands.")
+        final List<String> commandIds
+    ) throws GenieException {
+        this.clusterService.setCommandsForCluster(id, commandIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllCommandsForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to remove commands.")
+        final String id
+    ) throws GenieException {
+        this.clusterService.removeAllCommandsForCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeCommandForCluster(
+        @NotBlank(message = "No cluster id entered. Unable to remove command.")
+        final String id,
+        @NotBlank(message = "No command id entered. Unable to remove command.")
+        final String cmdId
+    ) throws GenieException {
+        this.clusterService.removeCommandForCluster(id, cmdId);
+    }
+
+    /**
+     * Invalidate the cached clusters and relationships affected by a configuration change.
+     *
+     * @param event The event describing the change
+     */
+    @EventListener
+    public void onConfigurationChanged(final ConfigurationChangedEvent event) {
+        log.debug("Invalidating cached clusters for {} {}", event.getType(), event.getId());
+        if (event.getType() == ConfigurationType.CLUSTER) {
+            final Optional<String> id = event.getId();
+            if (id.isPresent()) {
+                this.clusters.invalidate(id.get());
+            } else {
+                this.clusters.invalidateAll();
+            }
+        }
+        // Commands can be added to or removed from a cluster from either side and change status on their own
+        this.clusterCommands.invalidateAll();
+    }
+}
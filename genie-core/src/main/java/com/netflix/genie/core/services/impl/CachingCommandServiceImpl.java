@@ -0,0 +1,384 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.github.fge.jsonpatch.JsonPatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.validator.constraints.NotBlank;
+import org.hibernate.validator.constraints.NotEmpty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A command service which caches the commands and the applications and clusters of the commands read through another
+ * command service. All other calls, including every change, are delegated as is.
+ * <p>
+ * Cached entries are invalidated when a {@link ConfigurationChangedEvent} is received and expire after a fixed time
+ * regardless. See {@link CachingClusterServiceImpl}.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class CachingCommandServiceImpl implements CommandService {
+
+    private final CommandService commandService;
+    private final ConfigurationCache<String, Command> commands;
+    private final ConfigurationCache<String, List<Application>> commandApplications;
+    private final ConfigurationCache<Pair<String, Set<ClusterStatus>>, Set<Cluster>> commandClusters;
+
+    /**
+     * Constructor.
+     *
+     * @param commandService The command service to read through and delegate all changes to
+     * @param maxSize        The maximum number of entries to keep in each cache
+     * @param ttl            How long in milliseconds to keep an entry after it was loaded
+     * @param registry       The metrics registry to use
+     */
+    public CachingCommandServiceImpl(
+        @NotNull final CommandService commandService,
+        final long maxSize,
+        final long ttl,
+        @NotNull final Registry registry
+    ) {
+        this.commandService = commandService;
+        this.commands = new ConfigurationCache<>("commands", maxSize, ttl, registry);
+        this.commandApplications = new ConfigurationCache<>("commandApplications", maxSize, ttl, registry);
+        this.commandClusters = new ConfigurationCache<>("commandClusters", maxSize, ttl, registry);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String createCommand(
+        @NotNull(message = "No command entered. Unable to create.")
+        @Valid
+        final Command command
+    ) throws GenieException {
+        return this.commandService.createCommand(command);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Command getCommand(
+        @NotBlank(message = "No id entered unable to get.")
+        final String id
+    ) throws GenieException {
+        return this.commands.get(id, () -> this.commandService.getCommand(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<Command> getCommands(
+        final String name,
+        final String user,
+        final Set<CommandStatus> statuses,
+        final Set<String> tags,
+        final Pageable page
+    ) {
+        return this.commandService.getCommands(name, user, statuses, tags, page);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateCommand(
+        @NotBlank(message = "No id entered. Unable to update.")
+        final String id,
+        @NotNull(message = "No command information entered. Unable to update.")
+        @Valid
+        final Command updateCommand
+    ) throws GenieException {
+        this.commandService.updateCommand(id, updateCommand);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void patchCommand(@NotBlank final String id, @NotNull final JsonPatch patch) throws GenieException {
+        this.commandService.patchCommand(id, patch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteAllCommands() throws GenieException {
+        this.commandService.deleteAllCommands();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteCommand(
+        @NotBlank(message = "No id entered. Unable to delete.")
+        final String id
+    ) throws GenieException {
+        this.commandService.deleteCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addConfigsForCommand(
+        @NotBlank(message = "No command id entered. Unable to add configurations.")
+        final String id,
+        @NotEmpty(message = "No configuration files entered. Unable to add.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.commandService.addConfigsForCommand(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getConfigsForCommand(
+        @NotBlank(message = "No command id entered. Unable to get configs.")
+        final String id
+    ) throws GenieException {
+        return this.commandService.getConfigsForCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateConfigsForCommand(
+        @NotBlank(message = "No command id entered. Unable to update configurations.")
+        final String id,
+        @NotEmpty(message = "No configs entered. Unable to update.")
+        final Set<String> configs
+    ) throws GenieException {
+        this.commandService.updateConfigsForCommand(id, configs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllConfigsForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove configs.")
+        final String id
+    ) throws GenieException {
+        this.commandService.removeAllConfigsForCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeConfigForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove configuration.")
+        final String id,
+        @NotBlank(message = "No config entered. Unable to remove.")
+        final String config
+    ) throws GenieException {
+        this.commandService.removeConfigForCommand(id, config);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addTagsForCommand(
+        @NotBlank(message = "No command id entered. Unable to add tags.")
+        final String id,
+        @NotEmpty(message = "No tags entered. Unable to add.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.commandService.addTagsForCommand(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getTagsForCommand(
+        @NotBlank(message = "No command id sent. Cannot retrieve tags.")
+        final String id
+    ) throws GenieException {
+        return this.commandService.getTagsForCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateTagsForCommand(
+        @NotBlank(message = "No command id entered. Unable to update tags.")
+        final String id,
+        @NotEmpty(message = "No tags entered. Unable to update.")
+        final Set<String> tags
+    ) throws GenieException {
+        this.commandService.updateTagsForCommand(id, tags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeAllTagsForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove tags.")
+        final String id
+    ) throws GenieException {
+        this.commandService.removeAllTagsForCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeTagForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove tag.")
+        final String id,
+        @NotBlank(message = "No tag entered. Unable to remove.")
+        final String tag
+    ) throws GenieException {
+        this.commandService.removeTagForCommand(id, tag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addApplicationsForCommand(
+        @NotBlank(message = "No command id entered. Unable to add applications.")
+        final String id,
+        @NotEmpty(message = "No application ids entered. Unable to add applications.")
+        final List<String> applicationIds
+    ) throws GenieException {
+        this.commandService.addApplicationsForCommand(id, applicationIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setApplicationsForCommand(
+        @NotBlank(message = "No command id entered. Unable to set applications.")
+        final String id,
+        @NotNull(message = "No application ids entered. Unable to set applications.")
+        final List<String> applicationIds
+    ) throws GenieException {
+        this.commandService.setApplicationsForCommand(id, applicationIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Application> getApplicationsForCommand(
+        @NotBlank(message = "No command id entered. Unable to get applications.")
+        final String id
+    ) throws GenieException {
+        return this.commandApplications.get(
+            id,
+            () -> ImmutableList.copyOf(this.commandService.getApplicationsForCommand(id))
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeApplicationsForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove applications.")
+        final String id
+    ) throws GenieException {
+        this.commandService.removeApplicationsForCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeApplicationForCommand(
+        @NotBlank(message = "No command id entered. Unable to remove application.")
+        final String id,
+        @NotBlank(message = "No application id entered. Unable to remove application.")
+        final String appId
+    ) throws GenieException {
+        this.commandService.removeApplicationForCommand(id, appId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Cluster> getClustersForCommand(
+        @NotBlank(message = "No command id entered. Unable to get clusters.")
+        final String id,
+        final Set<ClusterStatus> statuses
+    ) throws GenieException {
+        return this.commandClusters.get(
+            Pair.of(id, statuses == null ? null : ImmutableSet.copyOf(statuses)),
+            () -> ImmutableSet.copyOf(this.commandService.getClustersForCommand(id, statuses))
+        );
+    }
+
+    /**
+     * Invalidate the cached commands and relationships affected by a configuration change.
+     *
+     * @param event The event describing the change
+     */
+    @EventListener
+    public void onConfigurationChanged(final ConfigurationChangedEvent event) {
+        log.debug("Invalidating cached commands for {} {}", event.getType(), event.getId());
+        if (event.getType() == ConfigurationType.COMMAND) {
+            final Optional<String> id = event.getId();
+            if (id.isPresent()) {
+                this.commands.invalidate(id.get());
+            } else {
+                this.commands.invalidateAll();
+            }
+        }
+        // Relationships can be changed from either side and the related entities change on their own
+        this.commandApplications.invalidateAll();
+        this.commandClusters.invalidateAll();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobMetadata;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.services.JobPersistenceService;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A job persistence service which invalidates the statuses cached in a {@link JobStatusCache} whenever they are
+ * changed through another job persistence service it delegates all calls to.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class CachingJobPersistenceServiceImpl implements JobPersistenceService {
+
+    private final JobPersistenceService jobPersistenceService;
+    private final JobStatusCache jobStatusCache;
+
+    /**
+     * Constructor.
+     *
+     * @param jobPersistenceService The job persistence service to delegate all calls to
+     * @param jobStatusCache        The cache of job statuses and hosts to invalidate
+     */
+    public CachingJobPersistenceServiceImpl(
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final JobStatusCache jobStatusCache
+    ) {
+        this.jobPersistenceService = jobPersistenceService;
+        this.jobStatusCache = jobStatusCache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void createJob(
+        @NotNull final JobRequest jobRequest,
+        @NotNull final JobMetadata jobMetadata,
+        @NotNull final Job job,
+        @NotNull final JobExecution jobExecution
+    ) throws GenieException {
+        this.jobPersistenceService.createJob(jobRequest, jobMetadata, job, jobExecution);
+        final String id = job.getId().orElse(null);
+        if (id != null) {
+            this.jobStatusCache.invalidateStatus(id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateJobWithRuntimeEnvironment(
+        @NotBlank final String jobId,
+        @NotBlank final String clusterId,
+        @NotBlank final String commandId,
+        @NotNull final List<String> applicationIds,
+        @Min(1) final int memory
+    ) throws GenieException {
+        this.jobPersistenceService.updateJobWithRuntimeEnvironment(
+            jobId,
+            clusterId,
+            commandId,
+            applicationIds,
+            memory
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateJobStatus(
+        @NotBlank(message = "No job id entered. Unable to update.") final String id,
+        @NotNull(message = "Status cannot be null.") final JobStatus jobStatus,
+        @NotBlank(message = "Status message cannot be empty.") final String statusMsg
+    ) throws GenieException {
+        try {
+            this.jobPersistenceService.updateJobStatus(id, jobStatus, statusMsg);
+        } finally {
+            this.jobStatusCache.invalidateStatus(id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJobRunningInformation(
+        @NotBlank final String id,
+        @Min(value = 0, message = "Must be no lower than zero") final int processId,
+        @Min(value = 1, message = "Must be at least 1 millisecond, preferably much more") final long checkDelay,
+        @NotNull final Date timeout
+    ) throws GenieException {
+        try {
+            this.jobPersistenceService.setJobRunningInformation(id, processId, checkDelay, timeout);
+        } finally {
+            this.jobStatusCache.invalidateStatus(id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJobCompletionInformation(
+        @NotBlank(message = "No job id entered. Unable to update.") final String id,
+        final int exitCode,
+        @NotNull(message = "No job status entered. Unable to update") final JobStatus status,
+        @NotBlank(message = "Status message can't be blank. Unable to update") final String statusMessage,
+        @Nullable final Long stdOutSize,
+        @Nullable final Long stdErrSize
+    ) throws GenieException {
+        try {
+            this.jobPersistenceService.setJobCompletionInformation(
+                id,
+                exitCode,
+                status,
+                statusMessage,
+                stdOutSize,
+                stdErrSize
+            );
+        } finally {
+            this.jobStatusCache.invalidateStatus(id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long deleteBatchOfJobsCreatedBeforeDate(@NotNull final Date date, @Min(1) final int batchSize) {
+        final long deleted = this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, batchSize);
+        if (deleted > 0) {
+            this.jobStatusCache.invalidateAll();
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobSearchResult;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobSearchSlice;
+import com.netflix.genie.core.services.JobSearchService;
+import org.hibernate.validator.constraints.NotBlank;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A job search service which answers the status and host lookups clients poll with from a {@link JobStatusCache}
+ * and reads through another job search service on a miss. All other calls are delegated as is.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class CachingJobSearchServiceImpl implements JobSearchService {
+
+    private final JobSearchService jobSearchService;
+    private final JobStatusCache jobStatusCache;
+
+    /**
+     * Constructor.
+     *
+     * @param jobSearchService The job search service to read through and delegate all other calls to
+     * @param jobStatusCache   The cache of job statuses and hosts to use
+     */
+    public CachingJobSearchServiceImpl(
+        @NotNull final JobSearchService jobSearchService,
+        @NotNull final JobStatusCache jobStatusCache
+    ) {
+        this.jobSearchService = jobSearchService;
+        this.jobStatusCache = jobStatusCache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<JobSearchResult> findJobs(
+        final String id,
+        final String name,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @NotNull final Pageable page
+    ) {
+        return this.jobSearchService.findJobs(
+            id,
+            name,
+            user,
+            statuses,
+            tags,
+            clusterName,
+            clusterId,
+            commandName,
+            commandId,
+            minStarted,
+            maxStarted,
+            minFinished,
+            maxFinished,
+            page
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Page<JobSearchResult> findJobs(
+        final String id,
+        final String name,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @NotNull final Pageable page,
+        final boolean count
+    ) {
+        return this.jobSearchService.findJobs(
+            id,
+            name,
+            user,
+            statuses,
+            tags,
+            clusterName,
+            clusterId,
+            commandName,
+            commandId,
+            minStarted,
+            maxStarted,
+            minFinished,
+            maxFinished,
+            page,
+            count
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobSearchSlice findJobsAfter(
+        final String id,
+        final String name,
+        final String user,
+        final Set<JobStatus> statuses,
+        final Set<String> tags,
+        final String clusterName,
+        final String clusterId,
+        final String commandName,
+        final String commandId,
+        final Date minStarted,
+        final Date maxStarted,
+        final Date minFinished,
+        final Date maxFinished,
+        @Nullable final String after,
+        @NotNull final Pageable page
+    ) throws GenieException {
+        return this.jobSearchService.findJobsAfter(
+            id,
+            name,
+            user,
+            statuses,
+            tags,
+            clusterName,
+            clusterId,
+            commandName,
+            commandId,
+            minStarted,
+            maxStarted,
+            minFinished,
+            maxFinished,
+            after,
+            page
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Job> getAllActiveJobsOnHost(@NotBlank final String hostName) {
+        return this.jobSearchService.getAllActiveJobsOnHost(hostName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, JobStatus> getAllActiveJobStatusesOnHost(@NotBlank final String hostName) {
+        return this.jobSearchService.getAllActiveJobStatusesOnHost(hostName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<JobExecution> getAllRunningJobExecutionsOnHost(@NotBlank final String hostName) {
+        return this.jobSearchService.getAllRunningJobExecutionsOnHost(hostName);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getAllHostsWithActiveJobs() {
+        return this.jobSearchService.getAllHostsWithActiveJobs();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getActiveJobCountsByCluster() {
+        return this.jobSearchService.getActiveJobCountsByCluster();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Job getJob(@NotBlank(message = "No id entered. Unable to get job.") final String id) throws GenieException {
+        return this.jobSearchService.getJob(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobStatus getJobStatus(@NotBlank final String id) throws GenieException {
+        return this.jobStatusCache.getStatus(id, () -> this.jobSearchService.getJobStatus(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobRequest getJobRequest(@NotBlank final String id) throws GenieException {
+        return this.jobSearchService.getJobRequest(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JobExecution getJobExecution(@NotBlank final String id) throws GenieException {
+        return this.jobSearchService.getJobExecution(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster getJobCluster(@NotBlank final String id) throws GenieException {
+        return this.jobSearchService.getJobCluster(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Command getJobCommand(@NotBlank final String id) throws GenieException {
+        return this.jobSearchService.getJobCommand(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Application> getJobApplications(@NotBlank final String id) throws GenieException {
+        return this.jobSearchService.getJobApplications(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getJobHost(@NotBlank final String jobId) throws GenieException {
+        return this.jobStatusCache.getHost(jobId, () -> this.jobSearchService.getJobHost(jobId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasJobsCreatedBefore(@NotNull final Date date) {
+        return this.jobSearchService.hasJobsCreatedBefore(date);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * A load balancer which asks each load balancer in a chain in turn until one selects a cluster. The cluster selected
+ * is counted in the cluster load cache, if there is one, so load aware balancers see it before the next refresh.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class ChainedClusterLoadBalancerImpl implements ClusterLoadBalancer {
+
+    private final List<ClusterLoadBalancer> loadBalancers;
+    private final ClusterLoadCache clusterLoadCache;
+
+    /**
+     * Constructor.
+     *
+     * @param loadBalancers    The load balancers to ask in order. The last one should always select a cluster
+     * @param clusterLoadCache The cache to record the selected cluster in or null if none of the load balancers use it
+     */
+    public ChainedClusterLoadBalancerImpl(
+        @NotNull final List<ClusterLoadBalancer> loadBalancers,
+        final ClusterLoadCache clusterLoadCache
+    ) {
+        this.loadBalancers = ImmutableList.copyOf(loadBalancers);
+        this.clusterLoadCache = clusterLoadCache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster selectCluster(final List<Cluster> clusters) throws GenieException {
+        if (clusters == null || clusters.isEmpty()) {
+            throw new GeniePreconditionException("No cluster configuration found for supplied cluster criteria");
+        }
+
+        for (final ClusterLoadBalancer loadBalancer : this.loadBalancers) {
+            final Cluster cluster = loadBalancer.selectCluster(clusters);
+            if (cluster != null) {
+                log.debug("{} selected cluster {}", loadBalancer.getClass().getSimpleName(), cluster.getName());
+                if (this.clusterLoadCache != null) {
+                    cluster.getId().ifPresent(this.clusterLoadCache::recordSelection);
+                }
+                return cluster;
+            }
+        }
+        throw new GenieServerException("None of the cluster load balancers selected a cluster");
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in memory count of the active jobs on each cluster for the load aware cluster load balancers to use so selecting a
+ * cluster doesn't require a query.
+ * <p>
+ * The counts for all the clusters are periodically reloaded with a single query. In between, every cluster selected
+ * through this node is counted straight away so a burst of submissions doesn't all go to the same cluster.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class ClusterLoadCache {
+
+    private final JobSearchService jobSearchService;
+    private volatile Map<String, AtomicLong> activeJobs = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final Timer refreshTimer;
+    private final Counter refreshFailureCounter;
+
+    /**
+     * Constructor. Schedules the periodic refresh of the counts with the task scheduler.
+     *
+     * @param jobSearchService The job search service to count the active jobs with
+     * @param scheduler        The task scheduler to schedule the periodic refresh with
+     * @param refreshInterval  How often to reload the counts in milliseconds
+     * @param registry         The metrics registry to use
+     */
+    public ClusterLoadCache(
+        @NotNull final JobSearchService jobSearchService,
+        @NotNull final TaskScheduler scheduler,
+        final long refreshInterval,
+        @NotNull final Registry registry
+    ) {
+        this.jobSearchService = jobSearchService;
+        this.refreshTimer = registry.timer("genie.jobs.clusters.load.refresh.timer");
+        this.refreshFailureCounter = registry.counter("genie.jobs.clusters.load.refreshFailure.rate");
+
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval);
+    }
+
+    /**
+     * Get the number of active jobs on the given cluster.
+     *
+     * @param clusterId The id of the cluster
+     * @return The number of active jobs
+     */
+    public long getActiveJobs(@NotNull final String clusterId) {
+        final AtomicLong count = this.activeJobs.get(clusterId);
+        return count == null ? 0L : count.get();
+    }
+
+    /**
+     * Count a job as selected to run on the given cluster until the next refresh.
+     *
+     * @param clusterId The id of the cluster
+     */
+    public void recordSelection(@NotNull final String clusterId) {
+        this.activeJobs.computeIfAbsent(clusterId, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Reload the counts of active jobs for all the clusters.
+     */
+    public void refresh() {
+        final long start = System.nanoTime();
+        try {
+            final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+            this.jobSearchService
+                .getActiveJobCountsByCluster()
+                .forEach((clusterId, count) -> counts.put(clusterId, new AtomicLong(count)));
+            this.activeJobs = counts;
+        } catch (final RuntimeException e) {
+            // Keep the previous counts and try again next time
+            log.error("Unable to refresh the active job counts of the clusters", e);
+            this.refreshFailureCounter.increment();
+        } finally {
+            this.refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
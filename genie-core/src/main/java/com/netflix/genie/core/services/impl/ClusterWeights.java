@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.common.dto.Cluster;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The relative capacity of clusters used by the cluster load balancers. A weight can be configured for a cluster by
+ * its id or name or set by tagging the cluster with the weight tag prefix followed by the weight e.g. weight:4.
+ * Configured weights take precedence over tags.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class ClusterWeights {
+
+    private final String tagPrefix;
+    private final Map<String, Integer> weights;
+
+    /**
+     * Constructor.
+     *
+     * @param tagPrefix The prefix of the tag holding a cluster's weight
+     * @param weights   The configured weights keyed by cluster id or name
+     */
+    public ClusterWeights(@NotNull final String tagPrefix, @NotNull final Map<String, Integer> weights) {
+        this.tagPrefix = tagPrefix;
+        this.weights = ImmutableMap.copyOf(weights);
+    }
+
+    /**
+     * Get the weight of the given cluster if it has one.
+     *
+     * @param cluster The cluster
+     * @return The weight of the cluster, always positive, or empty if it has none
+     */
+    public Optional<Integer> getWeight(@NotNull final Cluster cluster) {
+        final Integer configured = cluster.getId().map(this.weights::get).orElse(this.weights.get(cluster.getName()));
+        if (configured != null && configured > 0) {
+            return Optional.of(configured);
+        }
+
+        for (final String tag : cluster.getTags()) {
+            if (tag.startsWith(this.tagPrefix)) {
+                final int weight = NumberUtils.toInt(tag.substring(this.tagPrefix.length()));
+                if (weight > 0) {
+                    return Optional.of(weight);
+                }
+                log.debug("Ignoring invalid weight tag {} on cluster {}", tag, cluster.getName());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get the weight of the given cluster or one if it has none.
+     *
+     * @param cluster The cluster
+     * @return The weight of the cluster
+     */
+    public int getWeightOrDefault(@NotNull final Cluster cluster) {
+        return this.getWeight(cluster).orElse(1);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read through cache of configuration lookups used by the caching configuration services. Invalidation is safe
+ * against concurrent loads: a value loaded from the data store before an invalidation is never left in the cache
+ * after it, so a reader racing a change can't pin the old value until it expires.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the cached values
+ * @author tgianos
+ * @since 3.1.0
+ */
+class ConfigurationCache<K, V> {
+
+    private final Cache<K, V> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param name     The name of the cache used in the metric names
+     * @param maxSize  The maximum number of entries to keep
+     * @param ttl      How long in milliseconds an entry is kept after it was loaded
+     * @param registry The metrics registry to use
+     */
+    ConfigurationCache(
+        @NotNull final String name,
+        final long maxSize,
+        final long ttl,
+        @NotNull final Registry registry
+    ) {
+        this.cache = CacheBuilder
+            .newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+            .build();
+        this.hitCounter = registry.counter("genie.services.cache." + name + ".hit.rate");
+        this.missCounter = registry.counter("genie.services.cache." + name + ".miss.rate");
+    }
+
+    /**
+     * Get the value for the key from the cache or load it with the given loader if it isn't cached. Exceptions
+     * thrown by the loader are passed on and nothing is cached.
+     *
+     * @param key    The key to get the value for
+     * @param loader The loader to use on a miss
+     * @return The value
+     * @throws GenieException if the loader fails
+     */
+    V get(@NotNull final K key, @NotNull final Loader<V> loader) throws GenieException {
+        final V cached = this.cache.getIfPresent(key);
+        if (cached != null) {
+            this.hitCounter.increment();
+            return cached;
+        }
+
+        this.missCounter.increment();
+        final long loadGeneration = this.generation.get();
+        final V value = loader.load();
+        this.cache.put(key, value);
+        // An invalidation happened while loading so the value may be out of date. Whether the invalidation ran before
+        // or after the put the value is gone from the cache once this returns.
+        if (this.generation.get() != loadGeneration) {
+            this.cache.invalidate(key);
+        }
+        return value;
+    }
+
+    /**
+     * Invalidate the entry for the given key.
+     *
+     * @param key The key to invalidate
+     */
+    void invalidate(@NotNull final K key) {
+        this.generation.incrementAndGet();
+        this.cache.invalidate(key);
+    }
+
+    /**
+     * Invalidate all the entries.
+     */
+    void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Get the number of entries currently in the cache.
+     *
+     * @return The number of entries
+     */
+    long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Loads a value from the data store on a cache miss.
+     *
+     * @param <V> The type of the value
+     */
+    @FunctionalInterface
+    interface Loader<V> {
+
+        /**
+         * Load the value.
+         *
+         * @return The value. Not null.
+         * @throws GenieException if the value can't be loaded
+         */
+        V load() throws GenieException;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.core.jobs.QueuedJob;
+import com.netflix.genie.core.services.JobQueuePriorityPolicy;
+
+/**
+ * Admits queued jobs in the order they were queued.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class FifoJobQueuePriorityPolicyImpl implements JobQueuePriorityPolicy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(final QueuedJob job1, final QueuedJob job2) {
+        final int result = Long.compare(job1.getQueuedTime(), job2.getQueuedTime());
+        return result != 0 ? result : job1.getJobId().compareTo(job2.getJobId());
+    }
+}
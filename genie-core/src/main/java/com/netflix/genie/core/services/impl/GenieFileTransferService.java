@@ -89,6 +89,24 @@ public class GenieFileTransferService {
         getFileTransfer(dstRemotePath).putFile(srcLocalPath, dstRemotePath);
     }
 
+    /**
+     * Put the content written by the given writer without staging it in a local file where possible.
+     *
+     * @param contentWriter The writer producing the content which has to be transferred to remote location
+     * @param dstRemotePath The remote destination path where the content has to be put
+     * @throws GenieException If there is any problem
+     */
+    public void putStream(
+            @NotNull(message = "Content writer cannot be null.")
+            final FileTransfer.ContentWriter contentWriter,
+            @NotBlank(message = "Destination remote path cannot be empty")
+            final String dstRemotePath
+    ) throws GenieException {
+        log.debug("Called to stream content to destination path {}", dstRemotePath);
+
+        getFileTransfer(dstRemotePath).putStream(contentWriter, dstRemotePath);
+    }
+
     protected FileTransfer getFileTransfer(final String path) throws GenieNotFoundException {
         FileTransfer result;
         try {
@@ -0,0 +1,307 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.JobProcessLauncher;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A job process launcher which hands jobs to persistent helper processes instead of forking a chain of sudo
+ * processes from the JVM for every job.
+ * <p>
+ * Each helper runs the {@code genie-launcher-helper} script shipped in the {@code bin} directory of this module with
+ * the jobs directory as its only argument. For each job it reads the user and the working directory, one per line,
+ * from its standard input. When there is a user it gives them ownership of the working directory. It then starts the
+ * launcher script in the background and answers with the process id, or a line starting with {@code ERROR}, on its
+ * standard output. When jobs run as their users each helper itself is started once through sudo so the per job
+ * commands need no further privilege escalation.
+ * <p>
+ * There is a pool of helpers, one for each job allowed to launch at a time, so giving a user ownership of a large
+ * working directory only holds up the launch of that job. Idle helpers are reused most recently used first so only
+ * as many helpers are started as jobs are actually launched at once.
+ * <p>
+ * When jobs run as their users the script must be installed owned by root and writable by no one else, and the Genie
+ * user must be allowed to run exactly it with exactly the jobs directory as root without a password, for example
+ * with a sudoers entry such as
+ * {@code genie ALL=(root) NOPASSWD: /usr/local/bin/genie-launcher-helper /tmp/genie/jobs}. The script refuses
+ * working directories outside the jobs directory and running jobs as root.
+ * <p>
+ * A helper which doesn't answer within the timeout, for example because it is stuck giving a user ownership of a
+ * working directory, is killed and replaced by a new one so it can't hold up the launch of later jobs.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class HelperJobProcessLauncherImpl implements JobProcessLauncher, Closeable {
+
+    private static final String ERROR_PREFIX = "ERROR";
+
+    private final ExecutorService responseReaders = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("genie-launcher-helper-%d").setDaemon(true).build()
+    );
+    private final List<Helper> helpers;
+    private final BlockingDeque<Helper> idleHelpers;
+    private final Timer launchTimer;
+    private final Counter helperStartRate;
+    private final Counter launchFailureRate;
+
+    /**
+     * Constructor.
+     *
+     * @param runAsUserEnabled Whether jobs are run as the user who submitted them
+     * @param helperPath       The path of the installed helper script
+     * @param jobsDir          The directory all job working directories are in
+     * @param numHelpers       The most helpers to start, one for each job allowed to launch at a time
+     * @param timeout          How long to wait for a helper to answer, in milliseconds, before it is replaced
+     * @param registry         The metrics registry to use
+     */
+    public HelperJobProcessLauncherImpl(
+        final boolean runAsUserEnabled,
+        @NotNull final String helperPath,
+        @NotNull final File jobsDir,
+        @Min(1) final int numHelpers,
+        @Min(1) final long timeout,
+        @NotNull final Registry registry
+    ) {
+        // If the command doesn't match the sudoers entry sudo fails instead of waiting for a password
+        final List<String> helperCommand = runAsUserEnabled
+            ? Lists.newArrayList("sudo", "-n", helperPath, jobsDir.getAbsolutePath())
+            : Lists.newArrayList(helperPath, jobsDir.getAbsolutePath());
+        this.launchTimer = registry.timer("genie.jobs.launcher.helper.launch.timer");
+        this.helperStartRate = registry.counter("genie.jobs.launcher.helper.start.rate");
+        this.launchFailureRate = registry.counter("genie.jobs.launcher.helper.launchFailure.rate");
+
+        this.helpers = new ArrayList<>(numHelpers);
+        this.idleHelpers = new LinkedBlockingDeque<>(numHelpers);
+        for (int i = 0; i < numHelpers; i++) {
+            final Helper helper = new Helper(helperCommand, timeout, this.responseReaders, this.helperStartRate);
+            this.helpers.add(helper);
+            this.idleHelpers.addLast(helper);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int launch(
+        @NotNull final File jobWorkingDir,
+        @Nullable final String user
+    ) throws GenieException {
+        final long start = System.nanoTime();
+        try {
+            final String dir;
+            try {
+                dir = jobWorkingDir.getCanonicalPath();
+            } catch (final IOException ioe) {
+                throw new GenieServerException("Unable to resolve job working directory " + jobWorkingDir, ioe);
+            }
+            // Each value is sent on its own line so neither can span lines
+            if (StringUtils.containsAny(dir, '\n', '\r')) {
+                throw new GeniePreconditionException("Job working directory can't contain line breaks: " + dir);
+            }
+            if (user != null && (StringUtils.isBlank(user) || StringUtils.containsAny(user, '\n', '\r'))) {
+                throw new GeniePreconditionException("Invalid user to run the job as: " + user);
+            }
+
+            final Helper helper;
+            try {
+                helper = this.idleHelpers.takeFirst();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new GenieServerException("Interrupted waiting for a launcher helper", ie);
+            }
+            try {
+                final String response = helper.send(user == null ? "" : user, dir);
+                if (response.startsWith(ERROR_PREFIX)) {
+                    throw new GenieServerException(
+                        "Unable to launch job in " + dir + ": " + response.substring(ERROR_PREFIX.length()).trim()
+                    );
+                }
+                try {
+                    final int pid = Integer.parseInt(response.trim());
+                    log.debug("Launched job in {} with process id {}", dir, pid);
+                    return pid;
+                } catch (final NumberFormatException nfe) {
+                    // The helper isn't following the protocol so start over with a new one
+                    helper.stop();
+                    throw new GenieServerException("Unexpected response from launcher helper: " + response, nfe);
+                }
+            } finally {
+                this.idleHelpers.addFirst(helper);
+            }
+        } catch (final GenieException ge) {
+            this.launchFailureRate.increment();
+            throw ge;
+        } finally {
+            this.launchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stop the helper processes. New helpers are started if another job is launched afterwards.
+     */
+    @Override
+    public void close() {
+        this.helpers.forEach(Helper::stop);
+    }
+
+    /**
+     * One helper process and the streams to talk to it. Started when first needed and again after it stops.
+     */
+    private static final class Helper {
+
+        private final List<String> command;
+        private final long timeout;
+        private final ExecutorService responseReaders;
+        private final Counter startRate;
+
+        private Process process;
+        private BufferedWriter requests;
+        private BufferedReader responses;
+
+        private Helper(
+            final List<String> command,
+            final long timeout,
+            final ExecutorService responseReaders,
+            final Counter startRate
+        ) {
+            this.command = command;
+            this.timeout = timeout;
+            this.responseReaders = responseReaders;
+            this.startRate = startRate;
+        }
+
+        private synchronized String send(final String user, final String dir) throws GenieException {
+            try {
+                if (this.process == null || !this.process.isAlive()) {
+                    this.start();
+                }
+                this.requests.write(user);
+                this.requests.newLine();
+                this.requests.write(dir);
+                this.requests.newLine();
+                this.requests.flush();
+                final String response = this.readResponse();
+                if (response == null) {
+                    this.stop();
+                    throw new GenieServerException("Launcher helper exited unexpectedly");
+                }
+                return response;
+            } catch (final IOException ioe) {
+                this.stop();
+                throw new GenieServerException("Unable to communicate with launcher helper", ioe);
+            }
+        }
+
+        private String readResponse() throws GenieException, IOException {
+            // Reading can't time out by itself so it is left to another thread which is abandoned on timeout
+            final Future<String> response = this.responseReaders.submit(this.responses::readLine);
+            try {
+                return response.get(this.timeout, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException te) {
+                response.cancel(true);
+                log.warn("Launcher helper didn't answer within {} ms. Replacing it.", this.timeout);
+                this.stop();
+                try {
+                    this.start();
+                } catch (final IOException ioe) {
+                    // Another attempt is made on the next launch
+                    log.warn("Unable to restart launcher helper", ioe);
+                }
+                throw new GenieServerException(
+                    "Launcher helper didn't answer within " + this.timeout + " ms", te
+                );
+            } catch (final ExecutionException ee) {
+                if (ee.getCause() instanceof IOException) {
+                    throw (IOException) ee.getCause();
+                }
+                this.stop();
+                throw new GenieServerException("Unable to read answer of launcher helper", ee.getCause());
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                // The answer would be read as the answer to the next request so start over with a new helper
+                this.stop();
+                throw new GenieServerException("Interrupted waiting for launcher helper", ie);
+            }
+        }
+
+        private void start() throws IOException {
+            log.info("Starting launcher helper process");
+            this.process = new ProcessBuilder(this.command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+            this.requests = new BufferedWriter(
+                new OutputStreamWriter(this.process.getOutputStream(), StandardCharsets.UTF_8)
+            );
+            this.responses = new BufferedReader(
+                new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8)
+            );
+            this.startRate.increment();
+        }
+
+        private synchronized void stop() {
+            if (this.process != null) {
+                log.info("Stopping launcher helper process");
+                // Closing its input ends the read loop of the helper. Jobs already launched keep running. A helper
+                // stuck on a job is terminated instead, which sudo passes on to the script.
+                try {
+                    this.requests.close();
+                } catch (final IOException ioe) {
+                    log.debug("Unable to close input of launcher helper", ioe);
+                }
+                this.process.destroy();
+                this.process = null;
+                this.requests = null;
+                this.responses = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.properties.JobsRoutingProperties;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.genie.core.services.JobRoutingService;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * A job routing service which keeps an in memory index of all the up clusters, their active commands and the
+ * applications of those commands so that routing a job doesn't require a trip to the database.
+ * <p>
+ * The index is rebuilt in the background whenever a configuration change is made through this node and periodically
+ * to pick up changes made through other nodes. Changes made while a rebuild is pending are picked up by that same
+ * rebuild. Whenever the index is known to be out of date routing is delegated to the fallback service so a job is
+ * never routed on stale configuration this node knows about.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class IndexedJobRoutingServiceImpl implements JobRoutingService {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final Set<ClusterStatus> CLUSTER_STATUSES = EnumSet.of(ClusterStatus.UP);
+    private static final Set<CommandStatus> COMMAND_STATUSES = EnumSet.of(CommandStatus.ACTIVE);
+
+    private final ClusterService clusterService;
+    private final CommandService commandService;
+    private final ApplicationService applicationService;
+    private final JobRoutingService fallbackRoutingService;
+    private final TaskScheduler scheduler;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final Lock refreshLock = new ReentrantLock();
+    private volatile RoutingIndex index;
+
+    // Metrics
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter refreshFailureCounter;
+    private final Timer refreshTimer;
+
+    /**
+     * Constructor. Schedules the periodic refresh of the index with the task scheduler.
+     *
+     * @param clusterService         The cluster service to build the index from
+     * @param commandService         The command service to build the index from
+     * @param applicationService     The application service to use for requested applications not in the index
+     * @param fallbackRoutingService The routing service to use while the index is out of date
+     * @param scheduler              The task scheduler to run the periodic and change triggered refreshes with
+     * @param routingProperties      The job routing properties
+     * @param registry               The metrics registry to use
+     */
+    public IndexedJobRoutingServiceImpl(
+        @NotNull final ClusterService clusterService,
+        @NotNull final CommandService commandService,
+        @NotNull final ApplicationService applicationService,
+        @NotNull final JobRoutingService fallbackRoutingService,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobsRoutingProperties routingProperties,
+        @NotNull final Registry registry
+    ) {
+        this.clusterService = clusterService;
+        this.commandService = commandService;
+        this.applicationService = applicationService;
+        this.fallbackRoutingService = fallbackRoutingService;
+        this.scheduler = scheduler;
+
+        this.hitCounter = registry.counter("genie.jobs.routing.index.hit.rate");
+        this.missCounter = registry.counter("genie.jobs.routing.index.miss.rate");
+        this.refreshFailureCounter = registry.counter("genie.jobs.routing.index.refreshFailure.rate");
+        this.refreshTimer = registry.timer("genie.jobs.routing.index.refresh.timer");
+
+        scheduler.scheduleWithFixedDelay(() -> this.refresh(true), routingProperties.getIndexRefreshInterval());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobRoute> getJobRoutes(
+        @NotNull(message = "No job request provided. Unable to route.")
+        final JobRequest jobRequest
+    ) throws GenieException {
+        final RoutingIndex current = this.index;
+        if (current == null || current.getGeneration() != this.generation.get()) {
+            log.debug("Routing index is out of date. Routing job {} with the fallback", jobRequest.getId());
+            this.missCounter.increment();
+            return this.fallbackRoutingService.getJobRoutes(jobRequest);
+        }
+
+        this.hitCounter.increment();
+        List<Application> requestedApplications = null;
+        for (final ClusterCriteria clusterCriteria : jobRequest.getClusterCriterias()) {
+            final List<JobRoute> routes = new ArrayList<>();
+            for (final IndexedCluster indexedCluster : current.getClusters(clusterCriteria.getTags())) {
+                final Optional<Command> command = indexedCluster.getCommand(jobRequest.getCommandCriteria());
+                if (command.isPresent()) {
+                    if (requestedApplications == null) {
+                        requestedApplications = this.getRequestedApplications(current, jobRequest);
+                    }
+                    routes.add(
+                        new JobRoute(
+                            indexedCluster.getCluster(),
+                            command.get(),
+                            jobRequest.getApplications().isEmpty()
+                                ? current.getApplications(command.get())
+                                : requestedApplications
+                        )
+                    );
+                }
+            }
+
+            if (!routes.isEmpty()) {
+                return routes;
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Mark the index as out of date when any cluster, command or application changes and schedule a rebuild unless
+     * one is already pending.
+     *
+     * @param event The configuration changed event
+     */
+    @EventListener
+    public void onConfigurationChanged(final ConfigurationChangedEvent event) {
+        log.debug("{} {} changed. Refreshing routing index", event.getType(), event.getId().orElse("*"));
+        this.generation.incrementAndGet();
+        if (this.refreshPending.compareAndSet(false, true)) {
+            this.scheduler.schedule(
+                () -> {
+                    // Clear first so a change made during the rebuild schedules another one
+                    this.refreshPending.set(false);
+                    this.refresh(false);
+                },
+                new Date()
+            );
+        }
+    }
+
+    /**
+     * Rebuild the index if it is out of date or if forced. If another thread is already rebuilding the index this
+     * returns immediately as that thread will rebuild again if the index is still out of date once it's done.
+     *
+     * @param force Whether to rebuild even if the index isn't known to be out of date
+     */
+    void refresh(final boolean force) {
+        boolean rebuild = force;
+        while ((rebuild || this.isStale()) && this.refreshLock.tryLock()) {
+            rebuild = false;
+            final long start = System.nanoTime();
+            try {
+                this.index = this.buildIndex();
+            } catch (final GenieException | RuntimeException e) {
+                log.error("Unable to refresh the routing index", e);
+                this.refreshFailureCounter.increment();
+                return;
+            } finally {
+                this.refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                this.refreshLock.unlock();
+            }
+        }
+    }
+
+    private List<Application> getRequestedApplications(
+        final RoutingIndex current,
+        final JobRequest jobRequest
+    ) throws GenieException {
+        final List<Application> applications = new ArrayList<>();
+        for (final String id : jobRequest.getApplications()) {
+            final Optional<Application> application = current.getApplication(id);
+            if (application.isPresent()) {
+                applications.add(application.get());
+            } else {
+                applications.add(this.applicationService.getApplication(id));
+            }
+        }
+        return applications;
+    }
+
+    private boolean isStale() {
+        final RoutingIndex current = this.index;
+        return current == null || current.getGeneration() != this.generation.get();
+    }
+
+    private RoutingIndex buildIndex() throws GenieException {
+        // Read the generation before reading any configuration so concurrent changes leave the index marked stale
+        final long buildGeneration = this.generation.get();
+        final List<IndexedCluster> clusters = new ArrayList<>();
+        final Map<String, List<Application>> commandApplications = new HashMap<>();
+
+        Page<Cluster> page;
+        int pageNumber = 0;
+        do {
+            page = this.clusterService.getClusters(
+                null,
+                CLUSTER_STATUSES,
+                null,
+                null,
+                null,
+                new PageRequest(pageNumber++, PAGE_SIZE, Sort.Direction.ASC, "id")
+            );
+            for (final Cluster cluster : page.getContent()) {
+                final String clusterId = cluster.getId().orElseThrow(IllegalArgumentException::new);
+                final List<Command> commands = this.clusterService.getCommandsForCluster(clusterId, COMMAND_STATUSES);
+                for (final Command command : commands) {
+                    final String commandId = command.getId().orElseThrow(IllegalArgumentException::new);
+                    if (!commandApplications.containsKey(commandId)) {
+                        commandApplications.put(commandId, this.commandService.getApplicationsForCommand(commandId));
+                    }
+                }
+                clusters.add(new IndexedCluster(cluster, commands));
+            }
+        } while (page.hasNext());
+
+        log.debug("Indexed {} clusters and {} commands for routing", clusters.size(), commandApplications.size());
+        return new RoutingIndex(buildGeneration, clusters, commandApplications);
+    }
+
+    private static Set<String> getNonBlankTags(final Set<String> tags) {
+        return tags.stream().filter(StringUtils::isNotBlank).collect(Collectors.toSet());
+    }
+
+    /**
+     * An up cluster and its active commands in priority order.
+     */
+    private static final class IndexedCluster {
+        private final Cluster cluster;
+        private final List<Command> commands;
+
+        IndexedCluster(final Cluster cluster, final List<Command> commands) {
+            this.cluster = cluster;
+            this.commands = ImmutableList.copyOf(commands);
+        }
+
+        Cluster getCluster() {
+            return this.cluster;
+        }
+
+        Optional<Command> getCommand(final Set<String> commandCriteria) {
+            final Set<String> tags = getNonBlankTags(commandCriteria);
+            return this.commands.stream().filter(command -> command.getTags().containsAll(tags)).findFirst();
+        }
+    }
+
+    /**
+     * An immutable snapshot of the routing configuration with an inverted index from tag to clusters.
+     */
+    private static final class RoutingIndex {
+        private final long generation;
+        private final List<IndexedCluster> clusters;
+        private final Map<String, List<IndexedCluster>> clustersByTag;
+        private final Map<String, List<Application>> commandApplications;
+        private final Map<String, Application> applications;
+
+        RoutingIndex(
+            final long generation,
+            final List<IndexedCluster> clusters,
+            final Map<String, List<Application>> commandApplications
+        ) {
+            this.generation = generation;
+            this.clusters = ImmutableList.copyOf(clusters);
+
+            final Map<String, List<IndexedCluster>> byTag = new HashMap<>();
+            for (final IndexedCluster indexedCluster : clusters) {
+                for (final String tag : indexedCluster.getCluster().getTags()) {
+                    byTag.computeIfAbsent(tag, key -> new ArrayList<>()).add(indexedCluster);
+                }
+            }
+            final ImmutableMap.Builder<String, List<IndexedCluster>> byTagBuilder = ImmutableMap.builder();
+            byTag.forEach((tag, tagClusters) -> byTagBuilder.put(tag, ImmutableList.copyOf(tagClusters)));
+            this.clustersByTag = byTagBuilder.build();
+
+            final ImmutableMap.Builder<String, List<Application>> commandApplicationsBuilder = ImmutableMap.builder();
+            commandApplications.forEach((id, apps) -> commandApplicationsBuilder.put(id, ImmutableList.copyOf(apps)));
+            this.commandApplications = commandApplicationsBuilder.build();
+
+            final Map<String, Application> byId = new HashMap<>();
+            commandApplications
+                .values()
+                .stream()
+                .flatMap(List::stream)
+                .forEach(application -> application.getId().ifPresent(id -> byId.putIfAbsent(id, application)));
+            this.applications = ImmutableMap.copyOf(byId);
+        }
+
+        long getGeneration() {
+            return this.generation;
+        }
+
+        /**
+         * Get the clusters with all the given tags in id order. Starts from the smallest posting list of the tags.
+         */
+        List<IndexedCluster> getClusters(final Set<String> clusterTags) {
+            final Set<String> tags = getNonBlankTags(clusterTags);
+            if (tags.isEmpty()) {
+                return this.clusters;
+            }
+
+            List<IndexedCluster> smallest = null;
+            for (final String tag : tags) {
+                final List<IndexedCluster> tagClusters = this.clustersByTag.get(tag);
+                if (tagClusters == null) {
+                    return Collections.emptyList();
+                }
+                if (smallest == null || tagClusters.size() < smallest.size()) {
+                    smallest = tagClusters;
+                }
+            }
+
+            return smallest
+                .stream()
+                .filter(indexedCluster -> indexedCluster.getCluster().getTags().containsAll(tags))
+                .collect(Collectors.toList());
+        }
+
+        List<Application> getApplications(final Command command) {
+            return command
+                .getId()
+                .map(this.commandApplications::get)
+                .orElse(Collections.emptyList());
+        }
+
+        Optional<Application> getApplication(final String id) {
+            return Optional.ofNullable(this.applications.get(id));
+        }
+    }
+}
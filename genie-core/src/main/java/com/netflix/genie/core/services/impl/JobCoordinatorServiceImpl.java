@@ -20,7 +20,6 @@ package com.netflix.genie.core.services.impl;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
-import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobMetadata;
@@ -31,14 +30,15 @@ import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.jobs.QueuedJob;
 import com.netflix.genie.core.properties.JobsProperties;
-import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
-import com.netflix.genie.core.services.ClusterService;
-import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobQueueService;
+import com.netflix.genie.core.services.JobRoutingService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
@@ -47,11 +47,8 @@ import org.hibernate.validator.constraints.NotBlank;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
-import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -69,21 +66,16 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
     private final JobPersistenceService jobPersistenceService;
     private final JobKillService jobKillService;
     private final JobStateService jobStateService;
-    private final ApplicationService applicationService;
-    private final ClusterService clusterService;
-    private final CommandService commandService;
+    private final JobRoutingService jobRoutingService;
     private final ClusterLoadBalancer clusterLoadBalancer;
+    private final JobQueueService jobQueueService;
     private final JobsProperties jobsProperties;
     private final String hostName;
 
-    // For reuse in queries
-    private final Set<CommandStatus> commandStatuses;
-
     // Metrics
     private final Timer coordinationTimer;
+    private final Timer routeTimer;
     private final Timer selectClusterTimer;
-    private final Timer selectCommandTimer;
-    private final Timer selectApplicationsTimer;
     private final Timer setJobEnvironmentTimer;
 
     /**
@@ -94,10 +86,46 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
      * @param jobStateService       The service where we report the job state and keep track of various metrics about
      *                              jobs currently running
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
+     * @param jobRoutingService     Implementation of the job routing service interface
+     * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param registry              The registry
+     * @param hostName              The name of the host this Genie instance is running on
+     */
+    public JobCoordinatorServiceImpl(
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final JobKillService jobKillService,
+        @NotNull final JobStateService jobStateService,
+        @NotNull final JobsProperties jobsProperties,
+        @NotNull final JobRoutingService jobRoutingService,
+        @NotNull final ClusterLoadBalancer clusterLoadBalancer,
+        @NotNull final Registry registry,
+        @NotBlank final String hostName
+    ) {
+        this(
+            jobPersistenceService,
+            jobKillService,
+            jobStateService,
+            jobsProperties,
+            jobRoutingService,
+            clusterLoadBalancer,
+            null,
+            registry,
+            hostName
+        );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jobPersistenceService implementation of job persistence service interface
+     * @param jobKillService        The job kill service to use
+     * @param jobStateService       The service where we report the job state and keep track of various metrics about
+     *                              jobs currently running
+     * @param jobsProperties        The jobs properties to use
+     * @param jobRoutingService     Implementation of the job routing service interface
      * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param jobQueueService       The queue to hold jobs in until there is memory to run them or null to reject jobs
+     *                              which don't fit
      * @param registry              The registry
      * @param hostName              The name of the host this Genie instance is running on
      */
@@ -106,32 +134,25 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
         @NotNull final JobKillService jobKillService,
         @NotNull final JobStateService jobStateService,
         @NotNull final JobsProperties jobsProperties,
-        @NotNull final ApplicationService applicationService,
-        @NotNull final ClusterService clusterService,
-        @NotNull final CommandService commandService,
+        @NotNull final JobRoutingService jobRoutingService,
         @NotNull final ClusterLoadBalancer clusterLoadBalancer,
+        final JobQueueService jobQueueService,
         @NotNull final Registry registry,
         @NotBlank final String hostName
     ) {
         this.jobPersistenceService = jobPersistenceService;
         this.jobKillService = jobKillService;
         this.jobStateService = jobStateService;
-        this.applicationService = applicationService;
-        this.clusterService = clusterService;
-        this.commandService = commandService;
+        this.jobRoutingService = jobRoutingService;
         this.clusterLoadBalancer = clusterLoadBalancer;
+        this.jobQueueService = jobQueueService;
         this.jobsProperties = jobsProperties;
         this.hostName = hostName;
 
-        // We'll only care about active statuses
-        this.commandStatuses = EnumSet.noneOf(CommandStatus.class);
-        this.commandStatuses.add(CommandStatus.ACTIVE);
-
         // Metrics
         this.coordinationTimer = registry.timer("genie.jobs.coordination.timer");
+        this.routeTimer = registry.timer("genie.jobs.submit.localRunner.route.timer");
         this.selectClusterTimer = registry.timer("genie.jobs.submit.localRunner.selectCluster.timer");
-        this.selectCommandTimer = registry.timer("genie.jobs.submit.localRunner.selectCommand.timer");
-        this.selectApplicationsTimer = registry.timer("genie.jobs.submit.localRunner.selectApplications.timer");
         this.setJobEnvironmentTimer = registry.timer("genie.jobs.submit.localRunner.setJobEnvironment.timer");
     }
 
@@ -184,13 +205,11 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
             // Log all the job initial job information
             this.jobPersistenceService.createJob(jobRequest, jobMetadata, jobBuilder.build(), jobExecution);
 
-            //TODO: Combine the cluster and command selection into a single method/database query for efficiency
-            // Resolve the cluster for the job request based on the tags specified
-            final Cluster cluster = this.getCluster(jobRequest);
-            // Resolve the command for the job request based on command tags and cluster chosen
-            final Command command = this.getCommand(jobRequest, cluster);
-            // Resolve the applications to use based on the command that was selected
-            final List<Application> applications = this.getApplications(jobRequest, command);
+            // Resolve the cluster, command and applications for the job request in a single lookup
+            final JobRoute route = this.getJobRoute(jobRequest);
+            final Cluster cluster = route.getCluster();
+            final Command command = route.getCommand();
+            final List<Application> applications = route.getApplications();
             // Now that we have command how much memory should the job use?
             final int memory = jobRequest.getMemory()
                 .orElse(command.getMemory().orElse(this.jobsProperties.getMemory().getDefaultJobMemory()));
@@ -210,35 +229,60 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
                 );
             }
 
-            synchronized (this) {
-                log.info("Checking if can run job {} on this node", jobRequest.getId());
-                final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
-                final int usedMemory = this.jobStateService.getUsedMemory();
-                if (usedMemory + memory <= maxSystemMemory) {
-                    log.info(
-                        "Job {} can run on this node as only {}/{} MB are used and requested {} MB",
-                        jobId,
-                        usedMemory,
-                        maxSystemMemory,
-                        memory
-                    );
-                    // Tell the system a new job has been scheduled so any actions can be taken
-                    log.info("Publishing job scheduled event for job {}", jobId);
-                    jobStateService.schedule(jobId, jobRequest, cluster, command, applications, memory);
+            log.info("Checking if can run job {} on this node", jobRequest.getId());
+            final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
+            // Jobs already waiting go first so a new job doesn't take the memory they're waiting for. The queue
+            // dispatch admits this job along with the others in priority order.
+            final boolean jobsQueued = this.jobQueueService != null && this.jobQueueService.getQueueDepth() > 0;
+            // The reservation is released when the job is done, including when anything below fails
+            if (!jobsQueued && this.jobStateService.reserveMemory(jobId, memory, maxSystemMemory)) {
+                log.info(
+                    "Job {} can run on this node as {}/{} MB are now used after requesting {} MB",
+                    jobId,
+                    this.jobStateService.getUsedMemory(),
+                    maxSystemMemory,
+                    memory
+                );
+                // Tell the system a new job has been scheduled so any actions can be taken
+                log.info("Publishing job scheduled event for job {}", jobId);
+                jobStateService.schedule(jobId, jobRequest, cluster, command, applications, memory);
+                return jobId;
+            } else if (this.jobQueueService != null) {
+                // Update the message first as the job could be scheduled as soon as it's queued
+                this.jobPersistenceService.updateJobStatus(
+                    jobId,
+                    JobStatus.INIT,
+                    jobsQueued
+                        ? "Job queued behind the jobs already waiting to run on this node."
+                        : "Job queued until there is enough memory to run it on this node."
+                );
+                final QueuedJob queuedJob = new QueuedJob(
+                    jobId,
+                    jobRequest,
+                    cluster,
+                    command,
+                    applications,
+                    memory,
+                    System.currentTimeMillis()
+                );
+                if (this.jobQueueService.enqueue(queuedJob)) {
                     return jobId;
-                } else {
-                    throw new GenieServerUnavailableException(
-                        "Job "
-                            + jobId
-                            + " can't run on this node "
-                            + usedMemory
-                            + "/"
-                            + maxSystemMemory
-                            + " MB are used and requested "
-                            + memory
-                            + " MB"
-                    );
                 }
+                throw new GenieServerUnavailableException(
+                    "Job " + jobId + " can't run on this node as it can't be admitted yet and the queue is full"
+                );
+            } else {
+                throw new GenieServerUnavailableException(
+                    "Job "
+                        + jobId
+                        + " can't run on this node "
+                        + this.jobStateService.getUsedMemory()
+                        + "/"
+                        + maxSystemMemory
+                        + " MB are used and requested "
+                        + memory
+                        + " MB"
+                );
             }
         } catch (GenieException e) {
             jobStateService.done(jobId);
@@ -293,68 +337,39 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
         }
     }
 
-    private Cluster getCluster(final JobRequest jobRequest) throws GenieException {
-        final long start = System.nanoTime();
+    private JobRoute getJobRoute(final JobRequest jobRequest) throws GenieException {
+        final long routeStart = System.nanoTime();
+        final List<JobRoute> routes;
         try {
-            log.info("Selecting cluster for job {}", jobRequest.getId());
-            final Cluster cluster
-                = this.clusterLoadBalancer.selectCluster(this.clusterService.chooseClusterForJobRequest(jobRequest));
-            log.info("Selected cluster {} for job {}", cluster.getId(), jobRequest.getId());
-            return cluster;
+            log.info("Finding candidate clusters, commands and applications for job {}", jobRequest.getId());
+            routes = this.jobRoutingService.getJobRoutes(jobRequest);
         } finally {
-            this.selectClusterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            this.routeTimer.record(System.nanoTime() - routeStart, TimeUnit.NANOSECONDS);
         }
-    }
 
-    private Command getCommand(final JobRequest jobRequest, final Cluster cluster) throws GenieException {
         final long start = System.nanoTime();
         try {
-            final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id."));
-            final String jobId = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job id"));
-            log.info("Selecting command attached to cluster {} for job {} ", clusterId, jobId);
-            final Set<String> commandCriteria = jobRequest.getCommandCriteria();
-            // TODO: what happens if the get method throws an error we don't mark the job failed here
-            for (
-                final Command command : this.clusterService.getCommandsForCluster(clusterId, this.commandStatuses)
-                ) {
-                if (command.getTags().containsAll(jobRequest.getCommandCriteria())) {
-                    log.info("Selected command {} for job {} ", command.getId(), jobRequest.getId());
-                    return command;
-                }
-            }
-
-            throw new GeniePreconditionException(
-                "No command found matching all command criteria ["
-                    + commandCriteria
-                    + "] attached to cluster with id: "
-                    + cluster.getId()
+            log.info("Selecting cluster for job {}", jobRequest.getId());
+            final Cluster cluster = this.clusterLoadBalancer.selectCluster(
+                routes.stream().map(JobRoute::getCluster).collect(Collectors.toList())
             );
-        } finally {
-            this.selectCommandTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
-        }
-    }
-
-    private List<Application> getApplications(
-        final JobRequest jobRequest,
-        final Command command
-    ) throws GenieException {
-        final long start = System.nanoTime();
-        try {
-            final String jobId = jobRequest.getId().orElseThrow(() -> new GenieServerException("No job Id"));
-            final String commandId = command.getId().orElseThrow(() -> new GenieServerException("No command Id"));
-            log.info("Selecting applications for job {} and command {}", jobId, commandId);
-            // TODO: What do we do about application status? Should probably check here
-            final List<Application> applications = new ArrayList<>();
-            if (jobRequest.getApplications().isEmpty()) {
-                applications.addAll(this.commandService.getApplicationsForCommand(commandId));
-            } else {
-                for (final String applicationId : jobRequest.getApplications()) {
-                    applications.add(this.applicationService.getApplication(applicationId));
-                }
+            if (cluster == null) {
+                throw new GenieServerException("No cluster was selected for job " + jobRequest.getId());
             }
+            final String clusterId = cluster.getId().orElseThrow(() -> new GenieServerException("No cluster id."));
+            final JobRoute route = routes
+                .stream()
+                .filter(candidate -> candidate.getCluster().getId().map(clusterId::equals).orElse(false))
+                .findFirst()
+                .orElseThrow(
+                    () -> new GenieServerException("Selected cluster " + clusterId + " was not a candidate cluster")
+                );
             log.info(
-                "Selected applications {} for job {}",
-                applications
+                "Selected cluster {}, command {} and applications {} for job {}",
+                clusterId,
+                route.getCommand().getId(),
+                route
+                    .getApplications()
                     .stream()
                     .map(Application::getId)
                     .filter(Optional::isPresent)
@@ -362,9 +377,9 @@ public class JobCoordinatorServiceImpl implements JobCoordinatorService {
                     .reduce((one, two) -> one + "," + two),
                 jobRequest.getId()
             );
-            return applications;
+            return route;
         } finally {
-            this.selectApplicationsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            this.selectClusterTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
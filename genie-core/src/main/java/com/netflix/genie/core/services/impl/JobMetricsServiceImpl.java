@@ -50,7 +50,7 @@ public class JobMetricsServiceImpl implements JobMetricsService {
      */
     @Override
     public int getNumActiveJobs() {
-        return this.jobSearchService.getAllActiveJobsOnHost(this.hostName).size();
+        return this.jobSearchService.getAllActiveJobStatusesOnHost(this.hostName).size();
     }
 
     /**
@@ -0,0 +1,298 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.JobFinishedEvent;
+import com.netflix.genie.core.jobs.QueuedJob;
+import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobQueuePriorityPolicy;
+import com.netflix.genie.core.services.JobQueueService;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A job queue kept in memory, ordered by a priority policy, and backed by a file per queued job so the queue survives
+ * a restart of the node. Jobs are dispatched whenever a job finishes and periodically in case memory was freed some
+ * other way.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobQueueServiceImpl implements JobQueueService {
+
+    private static final String QUEUED_JOB_EXTENSION = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final JobStateService jobStateService;
+    private final JobPersistenceService jobPersistenceService;
+    private final JobsProperties jobsProperties;
+    private final File queueDir;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new Jdk8Module());
+
+    // Guarded by this
+    private final PriorityQueue<QueuedJob> queue;
+
+    // Metrics
+    private final Counter queuedCounter;
+    private final Counter rejectedCounter;
+    private final Counter expiredCounter;
+    private final Timer waitTimer;
+
+    /**
+     * Constructor. Restores any jobs saved in the queue location which are still initializing and schedules the
+     * periodic dispatch with the task scheduler.
+     *
+     * @param jobStateService       The service tracking the jobs on this node
+     * @param jobPersistenceService The service to use to fail jobs which can't be scheduled
+     * @param jobSearchService      The service to use to check the status of restored jobs
+     * @param priorityPolicy        The order to admit queued jobs in
+     * @param scheduler             The task scheduler to schedule the periodic dispatch with
+     * @param jobsProperties        The jobs properties
+     * @param registry              The metrics registry to use
+     * @throws GenieException if the queue location can't be created
+     */
+    public JobQueueServiceImpl(
+        @NotNull final JobStateService jobStateService,
+        @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final JobSearchService jobSearchService,
+        @NotNull final JobQueuePriorityPolicy priorityPolicy,
+        @NotNull final TaskScheduler scheduler,
+        @NotNull final JobsProperties jobsProperties,
+        @NotNull final Registry registry
+    ) throws GenieException {
+        this.jobStateService = jobStateService;
+        this.jobPersistenceService = jobPersistenceService;
+        this.jobsProperties = jobsProperties;
+        this.queue = new PriorityQueue<>(priorityPolicy);
+
+        final String location = jobsProperties.getQueue().getLocation();
+        try {
+            this.queueDir = new File(new URI(location).getPath());
+            Files.createDirectories(this.queueDir.toPath());
+        } catch (final URISyntaxException | IOException e) {
+            throw new GenieServerException("Failed creating the queue location " + location, e);
+        }
+
+        this.queuedCounter = registry.counter("genie.jobs.queue.queued.rate");
+        this.rejectedCounter = registry.counter("genie.jobs.queue.rejected.rate");
+        this.expiredCounter = registry.counter("genie.jobs.queue.expired.rate");
+        this.waitTimer = registry.timer("genie.jobs.queue.wait.timer");
+        registry.methodValue("genie.jobs.queue.gauge", this, "getQueueDepth");
+
+        this.restore(jobSearchService);
+        scheduler.scheduleWithFixedDelay(this::dispatch, jobsProperties.getQueue().getDispatchInterval());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean enqueue(@NotNull final QueuedJob queuedJob) throws GenieException {
+        synchronized (this) {
+            if (this.queue.size() >= this.jobsProperties.getQueue().getMaxSize()) {
+                log.info("Unable to queue job {} as the queue is full", queuedJob.getJobId());
+                this.rejectedCounter.increment();
+                return false;
+            }
+            this.save(queuedJob);
+            this.queue.add(queuedJob);
+        }
+        log.info("Queued job {} until {} MB are free on this node", queuedJob.getJobId(), queuedJob.getMemory());
+        this.queuedCounter.increment();
+
+        // Memory may have been freed since the job's reservation failed
+        this.dispatch();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void dispatch() {
+        try {
+            final long now = System.currentTimeMillis();
+            this.removeStaleJobs(now);
+
+            final int maxSystemMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
+            while (!this.queue.isEmpty()) {
+                final QueuedJob next = this.queue.peek();
+                // Stop at the first job which doesn't fit so jobs are always admitted in priority order
+                if (!this.jobStateService.reserveMemory(next.getJobId(), next.getMemory(), maxSystemMemory)) {
+                    break;
+                }
+                this.queue.poll();
+                this.delete(next);
+                this.waitTimer.record(now - next.getQueuedTime(), TimeUnit.MILLISECONDS);
+                log.info("Scheduling job {} after {} ms in the queue", next.getJobId(), now - next.getQueuedTime());
+                try {
+                    this.jobStateService.schedule(
+                        next.getJobId(),
+                        next.getJobRequest(),
+                        next.getCluster(),
+                        next.getCommand(),
+                        next.getApplications(),
+                        next.getMemory()
+                    );
+                } catch (final RuntimeException e) {
+                    log.error("Unable to schedule queued job {}", next.getJobId(), e);
+                    this.fail(next, "Unable to schedule job: " + e.getMessage());
+                }
+            }
+        } catch (final RuntimeException e) {
+            // Don't let an error stop the periodic dispatch
+            log.error("Unable to dispatch queued jobs", e);
+        }
+    }
+
+    /**
+     * Try to dispatch queued jobs whenever a job finishes as it may have freed up memory. If the finished job is
+     * still queued, for example because it was killed while waiting, it's removed first so it can't be scheduled by
+     * this dispatch before this node stops tracking it.
+     *
+     * @param event The job finished event
+     */
+    @EventListener
+    public void onJobFinished(final JobFinishedEvent event) {
+        synchronized (this) {
+            final Iterator<QueuedJob> iterator = this.queue.iterator();
+            while (iterator.hasNext()) {
+                final QueuedJob queuedJob = iterator.next();
+                if (queuedJob.getJobId().equals(event.getId())) {
+                    log.info("Removing job {} from the queue as it finished while queued", queuedJob.getJobId());
+                    iterator.remove();
+                    this.delete(queuedJob);
+                    break;
+                }
+            }
+        }
+        this.dispatch();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int getQueueDepth() {
+        return this.queue.size();
+    }
+
+    private void removeStaleJobs(final long now) {
+        final long maxWait = this.jobsProperties.getQueue().getMaxWait();
+        final Iterator<QueuedJob> iterator = this.queue.iterator();
+        while (iterator.hasNext()) {
+            final QueuedJob queuedJob = iterator.next();
+            if (!this.jobStateService.jobExists(queuedJob.getJobId())) {
+                // The job was killed or otherwise finished while it was queued
+                log.info("Removing job {} from the queue as it is no longer active", queuedJob.getJobId());
+                iterator.remove();
+                this.delete(queuedJob);
+            } else if (now - queuedJob.getQueuedTime() > maxWait) {
+                log.info("Job {} waited more than {} ms in the queue", queuedJob.getJobId(), maxWait);
+                iterator.remove();
+                this.delete(queuedJob);
+                this.expiredCounter.increment();
+                this.fail(queuedJob, "Job waited more than " + maxWait + " ms for enough memory to run on this node");
+            }
+        }
+    }
+
+    private void restore(final JobSearchService jobSearchService) {
+        final File[] files = this.queueDir.listFiles((dir, name) -> name.endsWith(QUEUED_JOB_EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            try {
+                final QueuedJob queuedJob = this.mapper.readValue(file, QueuedJob.class);
+                if (jobSearchService.getJobStatus(queuedJob.getJobId()) == JobStatus.INIT) {
+                    // Track the job now so it isn't treated as crashed when this node re-attaches to its jobs
+                    this.jobStateService.init(queuedJob.getJobId());
+                    synchronized (this) {
+                        this.queue.add(queuedJob);
+                    }
+                    log.info("Restored queued job {}", queuedJob.getJobId());
+                } else {
+                    log.info("Discarding queued job {} as it is no longer initializing", queuedJob.getJobId());
+                    FileUtils.deleteQuietly(file);
+                }
+            } catch (final IOException | GenieException e) {
+                log.error("Unable to restore the queued job in {}. Discarding it.", file, e);
+                FileUtils.deleteQuietly(file);
+            }
+        }
+    }
+
+    private void save(final QueuedJob queuedJob) throws GenieException {
+        final File file = this.getFile(queuedJob);
+        final File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            this.mapper.writeValue(tempFile, queuedJob);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ioe) {
+            FileUtils.deleteQuietly(tempFile);
+            throw new GenieServerException("Unable to save queued job " + queuedJob.getJobId(), ioe);
+        }
+    }
+
+    private void delete(final QueuedJob queuedJob) {
+        final File file = this.getFile(queuedJob);
+        if (!FileUtils.deleteQuietly(file)) {
+            log.warn("Unable to delete saved queued job {}", file);
+        }
+    }
+
+    private File getFile(final QueuedJob queuedJob) {
+        return new File(this.queueDir, queuedJob.getJobId() + QUEUED_JOB_EXTENSION);
+    }
+
+    private void fail(final QueuedJob queuedJob, final String message) {
+        try {
+            // Releases the job's memory if any was reserved
+            this.jobStateService.done(queuedJob.getJobId());
+            this.jobPersistenceService.updateJobStatus(queuedJob.getJobId(), JobStatus.FAILED, message);
+        } catch (final GenieException | RuntimeException e) {
+            log.error("Unable to fail queued job {}", queuedJob.getJobId(), e);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -18,15 +19,25 @@ import org.joda.time.Instant;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.TaskScheduler;
 
-import java.util.Collections;
-import java.util.HashMap;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
  * A Service to monitor the state of locally run jobs.
+ * <p>
+ * The memory used and number of active jobs are kept as running totals, updated whenever a job's memory or state
+ * changes, so reading them and reserving memory for a new job don't depend on how many jobs are running.
+ * <p>
+ * If a launch executor is supplied jobs are set up on it instead of the task scheduler so the I/O bound setup of
+ * several jobs can overlap without holding up the scheduled monitoring tasks.
  *
  * @author amajumdar
  * @since 3.0.0
@@ -36,9 +47,15 @@ public class JobStateServiceImpl implements JobStateService {
     protected final TaskScheduler scheduler;
     protected final Registry registry;
     protected final ApplicationEventPublisher publisher;
-    private final Map<String, JobInfo> jobs = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, JobInfo> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger usedMemory = new AtomicInteger();
+    private final AtomicInteger numActiveJobs = new AtomicInteger();
+    private final AtomicInteger queuedLaunches = new AtomicInteger();
+    private final AtomicInteger runningLaunches = new AtomicInteger();
     private final JobSubmitterService jobSubmitterService;
+    private final ExecutorService launchExecutor;
     private final Counter unableToCancel;
+    private final Timer launchQueueTimer;
 
     /**
      * Constructor.
@@ -51,15 +68,35 @@ public class JobStateServiceImpl implements JobStateService {
                                final TaskScheduler scheduler,
                                final ApplicationEventPublisher publisher,
                                final Registry registry) {
+        this(jobSubmitterService, scheduler, null, publisher, registry);
+    }
+
+    /**
+     * Constructor.
+     * @param jobSubmitterService implementation of the job submitter service
+     * @param scheduler           The task scheduler to use to register scheduling of job checkers
+     * @param launchExecutor      The executor to set up and launch jobs on. If null the scheduler is used.
+     * @param publisher           The application event publisher to use to publish synchronous events
+     * @param registry            The metrics registry
+     */
+    public JobStateServiceImpl(final JobSubmitterService jobSubmitterService,
+                               final TaskScheduler scheduler,
+                               @Nullable final ExecutorService launchExecutor,
+                               final ApplicationEventPublisher publisher,
+                               final Registry registry) {
         this.jobSubmitterService = jobSubmitterService;
         this.scheduler = scheduler;
+        this.launchExecutor = launchExecutor;
         this.registry = registry;
         this.publisher = publisher;
 
         this.registry.mapSize("genie.jobs.running.gauge", this.jobs);
         this.registry.methodValue("genie.jobs.active.gauge", this, "getNumActiveJobs");
         this.registry.methodValue("genie.jobs.memory.used.gauge", this, "getUsedMemory");
+        this.registry.gauge("genie.jobs.submit.localRunner.launchQueue.gauge", this.queuedLaunches);
+        this.registry.gauge("genie.jobs.submit.localRunner.launching.gauge", this.runningLaunches);
         this.unableToCancel = registry.counter("genie.jobs.unableToCancel.rate");
+        this.launchQueueTimer = registry.timer("genie.jobs.submit.localRunner.launchQueue.timer");
     }
 
     /**
@@ -77,7 +114,7 @@ public class JobStateServiceImpl implements JobStateService {
                          final Command command, final List<Application> applications, final int memory) {
         handle(jobId, () -> {
             final JobInfo jobInfo = jobs.get(jobId);
-            jobInfo.setMemory(memory);
+            this.setMemory(jobInfo, memory);
             final JobLauncher jobLauncher = new JobLauncher(this.jobSubmitterService,
                 jobRequest,
                 cluster,
@@ -86,9 +123,9 @@ public class JobStateServiceImpl implements JobStateService {
                 memory,
                 registry
             );
-            final Future<?> task = scheduler.schedule(jobLauncher, Instant.now().toDate());
+            final Future<?> task = this.launch(jobInfo, jobLauncher);
             jobInfo.setRunningTask(task);
-            jobInfo.setActive(true);
+            this.setActive(jobInfo);
             //
             // This event is fired when a job is scheduled to run on this Genie node. We'll track the future here in
             // case it needs to be killed while still in INIT state. Once it's running the onJobStarted event will
@@ -99,6 +136,44 @@ public class JobStateServiceImpl implements JobStateService {
         });
     }
 
+    // Only called while holding the lock on the job info
+    private Future<?> launch(final JobInfo jobInfo, final JobLauncher jobLauncher) {
+        final long queuedAt = System.nanoTime();
+        final AtomicBoolean pending = jobInfo.getLaunchPending();
+        final Runnable task = () -> {
+            if (pending.compareAndSet(true, false)) {
+                this.queuedLaunches.decrementAndGet();
+            }
+            this.launchQueueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            this.runningLaunches.incrementAndGet();
+            try {
+                jobLauncher.run();
+            } finally {
+                this.runningLaunches.decrementAndGet();
+            }
+        };
+        if (pending.compareAndSet(false, true)) {
+            this.queuedLaunches.incrementAndGet();
+        }
+        try {
+            if (this.launchExecutor != null) {
+                return this.launchExecutor.submit(task);
+            } else {
+                return this.scheduler.schedule(task, Instant.now().toDate());
+            }
+        } catch (final RuntimeException re) {
+            this.clearLaunchPending(jobInfo);
+            throw re;
+        }
+    }
+
+    // Launches cancelled before they ever got off the queue still need to leave the queued count
+    private void clearLaunchPending(final JobInfo jobInfo) {
+        if (jobInfo.getLaunchPending().compareAndSet(true, false)) {
+            this.queuedLaunches.decrementAndGet();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -115,11 +190,47 @@ public class JobStateServiceImpl implements JobStateService {
                     this.unableToCancel.increment();
                 }
             }
+            this.clearLaunchPending(jobInfo);
             jobs.remove(jobId);
+            this.usedMemory.addAndGet(-jobInfo.getMemory());
+            if (jobInfo.isActive()) {
+                this.numActiveJobs.decrementAndGet();
+            }
             return null;
         });
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean reserveMemory(final String jobId, final int memory, final int maxMemory) {
+        // Reserve against the total first so concurrent admissions never need a lock between them
+        while (true) {
+            final int current = this.usedMemory.get();
+            if (current + memory > maxMemory) {
+                return false;
+            }
+            if (this.usedMemory.compareAndSet(current, current + memory)) {
+                break;
+            }
+        }
+        final AtomicInteger reserved = new AtomicInteger();
+        handle(jobId, () -> {
+            final JobInfo jobInfo = jobs.get(jobId);
+            // Already counted in the total above
+            jobInfo.setMemory(jobInfo.getMemory() + memory);
+            reserved.set(memory);
+            return null;
+        });
+        if (reserved.get() == 0) {
+            // The job is already done so give the memory back
+            this.usedMemory.addAndGet(-memory);
+            return false;
+        }
+        return true;
+    }
+
     private void handle(final String jobId, final Supplier<Void> supplier) {
         JobInfo jobInfo = jobs.get(jobId);
         if (jobInfo != null) {
@@ -143,9 +254,9 @@ public class JobStateServiceImpl implements JobStateService {
     protected void setMemoryAndTask(final String jobId, final int memory, final Future<?> task) {
         handle(jobId, () -> {
             final JobInfo jobInfo = jobs.get(jobId);
-            jobInfo.setMemory(memory);
+            this.setMemory(jobInfo, memory);
             jobInfo.setRunningTask(task);
-            jobInfo.setActive(true);
+            this.setActive(jobInfo);
             return null;
         });
     }
@@ -155,28 +266,36 @@ public class JobStateServiceImpl implements JobStateService {
      */
     @Override
     public int getNumActiveJobs() {
-        // Synchronized to avoid concurrent modification exception
-        synchronized (this.jobs) {
-            return (int) this.jobs.values().stream().filter(JobInfo::isActive).count();
-        }
+        return this.numActiveJobs.get();
     }
     /**
      * {@inheritDoc}
      */
     @Override
     public int getUsedMemory() {
-        // Synchronized to avoid concurrent modification exception
-        synchronized (this.jobs) {
-            return this.jobs.values().stream().map(JobInfo::getMemory)
-                .reduce((a, b) -> a + b).orElse(0);
+        return this.usedMemory.get();
+    }
+
+    // Only called while holding the lock on the job info
+    private void setMemory(final JobInfo jobInfo, final int memory) {
+        this.usedMemory.addAndGet(memory - jobInfo.getMemory());
+        jobInfo.setMemory(memory);
+    }
+
+    // Only called while holding the lock on the job info
+    private void setActive(final JobInfo jobInfo) {
+        if (!jobInfo.isActive()) {
+            jobInfo.setActive(true);
+            this.numActiveJobs.incrementAndGet();
         }
     }
 
     @Getter
     @Setter
     private static class JobInfo {
+        private final AtomicBoolean launchPending = new AtomicBoolean();
         private Future<?> runningTask;
-        private Integer memory = 0;
+        private int memory;
         private boolean active;
     }
 }
@@ -0,0 +1,180 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the statuses and hosts of jobs shared by the caching job search and persistence services.
+ * <p>
+ * How long a status is trusted depends on where the job runs and what the status is:
+ * <ul>
+ * <li>Finished statuses never change so they're kept until evicted for space.</li>
+ * <li>Jobs the local {@link JobStateService} knows about run on this node and every change to their status is made
+ * through this node, which invalidates the cached status, so their statuses are kept until then.</li>
+ * <li>Active statuses of jobs running elsewhere are kept for a short TTL.</li>
+ * </ul>
+ * The host of a job never changes once the job exists so hosts are kept until evicted for space, and jobs running on
+ * this node are answered without a lookup at all.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class JobStatusCache {
+
+    private final JobStateService jobStateService;
+    private final String hostName;
+    private final long activeStatusTtl;
+    private final Cache<String, CachedStatus> statuses;
+    private final Cache<String, String> hosts;
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter statusHitCounter;
+    private final Counter statusMissCounter;
+    private final Counter hostHitCounter;
+    private final Counter hostMissCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param jobStateService The service tracking the jobs running on this node
+     * @param hostName        The name of the host this Genie node is running on
+     * @param maxSize         The maximum number of statuses and of hosts to keep
+     * @param activeStatusTtl How long in milliseconds to keep the active status of a job running on another node
+     * @param registry        The metrics registry to use
+     */
+    public JobStatusCache(
+        @NotNull final JobStateService jobStateService,
+        @NotNull final String hostName,
+        final long maxSize,
+        final long activeStatusTtl,
+        @NotNull final Registry registry
+    ) {
+        this.jobStateService = jobStateService;
+        this.hostName = hostName;
+        this.activeStatusTtl = TimeUnit.MILLISECONDS.toNanos(activeStatusTtl);
+        this.statuses = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.hosts = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.statusHitCounter = registry.counter("genie.jobs.cache.status.hit.rate");
+        this.statusMissCounter = registry.counter("genie.jobs.cache.status.miss.rate");
+        this.hostHitCounter = registry.counter("genie.jobs.cache.host.hit.rate");
+        this.hostMissCounter = registry.counter("genie.jobs.cache.host.miss.rate");
+    }
+
+    /**
+     * Get the status of the job from the cache or load it with the given loader if there is no status which can
+     * still be trusted. Exceptions thrown by the loader are passed on and nothing is cached.
+     *
+     * @param id     The id of the job
+     * @param loader The loader to use on a miss
+     * @return The status of the job
+     * @throws GenieException if the loader fails
+     */
+    JobStatus getStatus(
+        @NotNull final String id,
+        @NotNull final ConfigurationCache.Loader<JobStatus> loader
+    ) throws GenieException {
+        final CachedStatus cached = this.statuses.getIfPresent(id);
+        if (cached != null && this.isFresh(id, cached)) {
+            this.statusHitCounter.increment();
+            return cached.status;
+        }
+
+        this.statusMissCounter.increment();
+        final long loadGeneration = this.generation.get();
+        final long loadedAt = System.nanoTime();
+        final JobStatus status = loader.load();
+        this.statuses.put(id, new CachedStatus(status, loadedAt));
+        // The status changed while loading so the loaded one may be out of date. See ConfigurationCache.
+        if (this.generation.get() != loadGeneration) {
+            this.statuses.invalidate(id);
+        }
+        return status;
+    }
+
+    /**
+     * Get the host the job runs on. Jobs running on this node are answered directly, all others are read from the
+     * cache or loaded with the given loader. Exceptions thrown by the loader are passed on and nothing is cached.
+     *
+     * @param id     The id of the job
+     * @param loader The loader to use on a miss
+     * @return The host name
+     * @throws GenieException if the loader fails
+     */
+    String getHost(@NotNull final String id, @NotNull final ConfigurationCache.Loader<String> loader)
+        throws GenieException {
+        if (this.jobStateService.jobExists(id)) {
+            this.hostHitCounter.increment();
+            return this.hostName;
+        }
+        final String cached = this.hosts.getIfPresent(id);
+        if (cached != null) {
+            this.hostHitCounter.increment();
+            return cached;
+        }
+
+        this.hostMissCounter.increment();
+        final String host = loader.load();
+        this.hosts.put(id, host);
+        return host;
+    }
+
+    /**
+     * Invalidate the cached status of the job. Called whenever the status of a job is changed through this node.
+     *
+     * @param id The id of the job
+     */
+    void invalidateStatus(@NotNull final String id) {
+        this.generation.incrementAndGet();
+        this.statuses.invalidate(id);
+    }
+
+    /**
+     * Invalidate everything cached. Called when jobs are deleted.
+     */
+    void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.statuses.invalidateAll();
+        this.hosts.invalidateAll();
+    }
+
+    private boolean isFresh(final String id, final CachedStatus cached) {
+        return cached.status.isFinished()
+            || this.jobStateService.jobExists(id)
+            || System.nanoTime() - cached.loadedAt < this.activeStatusTtl;
+    }
+
+    private static class CachedStatus {
+        private final JobStatus status;
+        private final long loadedAt;
+
+        CachedStatus(final JobStatus status, final long loadedAt) {
+            this.status = status;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load balancer which selects the cluster with the fewest active jobs for its weight. Ties are broken at random.
+ * Has no opinion when every cluster is equally loaded so the next load balancer in a chain can decide.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class LeastActiveJobsClusterLoadBalancerImpl implements ClusterLoadBalancer {
+
+    private final ClusterLoadCache clusterLoadCache;
+    private final ClusterWeights clusterWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterLoadCache The cache of the number of active jobs on each cluster
+     * @param clusterWeights   The weights of the clusters
+     */
+    public LeastActiveJobsClusterLoadBalancerImpl(
+        @NotNull final ClusterLoadCache clusterLoadCache,
+        @NotNull final ClusterWeights clusterWeights
+    ) {
+        this.clusterLoadCache = clusterLoadCache;
+        this.clusterWeights = clusterWeights;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster selectCluster(final List<Cluster> clusters) throws GenieException {
+        if (clusters == null || clusters.isEmpty()) {
+            throw new GeniePreconditionException("No cluster configuration found for supplied cluster criteria");
+        }
+
+        final List<Cluster> leastLoaded = new ArrayList<>();
+        double minLoad = Double.MAX_VALUE;
+        for (final Cluster cluster : clusters) {
+            final double load = this.getLoad(cluster);
+            if (load < minLoad) {
+                minLoad = load;
+                leastLoaded.clear();
+            }
+            if (load == minLoad) {
+                leastLoaded.add(cluster);
+            }
+        }
+
+        if (leastLoaded.size() == clusters.size() && clusters.size() > 1) {
+            return null;
+        }
+        return leastLoaded.get(ThreadLocalRandom.current().nextInt(leastLoaded.size()));
+    }
+
+    private double getLoad(final Cluster cluster) {
+        final long activeJobs = cluster.getId().map(this.clusterLoadCache::getActiveJobs).orElse(0L);
+        return (double) activeJobs / this.clusterWeights.getWeightOrDefault(cluster);
+    }
+}
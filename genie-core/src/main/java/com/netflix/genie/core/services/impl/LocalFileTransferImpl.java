@@ -25,7 +25,9 @@ import org.hibernate.validator.constraints.NotBlank;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 
 /**
@@ -98,6 +100,39 @@ public class LocalFileTransferImpl implements FileTransfer {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putStream(
+        final ContentWriter contentWriter,
+        @NotBlank(message = "Destination remote path cannot be empty")
+        final String dstRemotePath
+    ) throws GenieException {
+        log.debug("Called to stream content to destination path {}", dstRemotePath);
+        final Path dest = new File(dstRemotePath).toPath();
+        Path temp = null;
+        try {
+            // Write next to the destination so it only ever appears complete
+            temp = Files.createTempFile(dest.toAbsolutePath().getParent(), dest.getFileName().toString(), ".put");
+            try (final OutputStream out = Files.newOutputStream(temp)) {
+                contentWriter.write(out);
+            }
+            Files.move(temp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            log.error("Got error while streaming content to remote path {}", dstRemotePath);
+            throw new GenieServerException("Got error while streaming content to remote path " + dstRemotePath, ioe);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (final IOException ioe) {
+                    log.error("Unable to delete temporary file {}", temp, ioe);
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
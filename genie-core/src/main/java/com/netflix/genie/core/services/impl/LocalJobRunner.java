@@ -28,9 +28,11 @@ import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
+import com.netflix.genie.core.jobs.FileDownload;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobExecutionEnvironment;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
+import com.netflix.genie.core.jobs.workflow.impl.FileDownloadTask;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.spectator.api.Registry;
@@ -49,6 +51,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,6 +72,7 @@ public class LocalJobRunner implements JobSubmitterService {
     private final Resource baseWorkingDirPath;
     private final ApplicationEventPublisher eventPublisher;
     private final ApplicationEventMulticaster eventMulticaster;
+    private final boolean downloadFilesTogether;
 
     private final Timer overallSubmitTimer;
     private final Timer createJobDirTimer;
@@ -100,6 +104,8 @@ public class LocalJobRunner implements JobSubmitterService {
         this.baseWorkingDirPath = genieWorkingDir;
         this.eventPublisher = eventPublisher;
         this.eventMulticaster = eventMulticaster;
+        // Only collect the files of a job to download them together if a task is going to download them
+        this.downloadFilesTogether = workflowTasks.stream().anyMatch(FileDownloadTask.class::isInstance);
 
         // Metrics
         this.overallSubmitTimer = registry.timer("genie.jobs.submit.localRunner.overall.timer");
@@ -267,6 +273,9 @@ public class LocalJobRunner implements JobSubmitterService {
         final Map<String, Object> context = new HashMap<>();
 
         context.put(JobConstants.JOB_EXECUTION_ENV_KEY, jee);
+        if (this.downloadFilesTogether) {
+            context.put(JobConstants.FILE_DOWNLOADS_KEY, new ArrayList<FileDownload>());
+        }
 
         return context;
     }
@@ -0,0 +1,85 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load balancer which samples two clusters at random and selects the one with fewer active jobs for its weight.
+ * Spreads load almost as well as always picking the least loaded cluster while being far less prone to sending every
+ * job to the same cluster when the counts are stale.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class PowerOfTwoChoicesClusterLoadBalancerImpl implements ClusterLoadBalancer {
+
+    private final ClusterLoadCache clusterLoadCache;
+    private final ClusterWeights clusterWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterLoadCache The cache of the number of active jobs on each cluster
+     * @param clusterWeights   The weights of the clusters
+     */
+    public PowerOfTwoChoicesClusterLoadBalancerImpl(
+        @NotNull final ClusterLoadCache clusterLoadCache,
+        @NotNull final ClusterWeights clusterWeights
+    ) {
+        this.clusterLoadCache = clusterLoadCache;
+        this.clusterWeights = clusterWeights;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster selectCluster(final List<Cluster> clusters) throws GenieException {
+        if (clusters == null || clusters.isEmpty()) {
+            throw new GeniePreconditionException("No cluster configuration found for supplied cluster criteria");
+        }
+        if (clusters.size() == 1) {
+            return clusters.get(0);
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(clusters.size());
+        // Pick a different second cluster by skipping over the first
+        int second = random.nextInt(clusters.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        final Cluster firstCluster = clusters.get(first);
+        final Cluster secondCluster = clusters.get(second);
+        return this.getLoad(secondCluster) < this.getLoad(firstCluster) ? secondCluster : firstCluster;
+    }
+
+    private double getLoad(final Cluster cluster) {
+        final long activeJobs = cluster.getId().map(this.clusterLoadCache::getActiveJobs).orElse(0L);
+        return (double) activeJobs / this.clusterWeights.getWeightOrDefault(cluster);
+    }
+}
@@ -24,7 +24,7 @@ import com.netflix.genie.core.services.ClusterLoadBalancer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Basic implementation of a load balancer where a cluster is picked at random.
@@ -49,7 +49,6 @@ public class RandomizedClusterLoadBalancerImpl implements ClusterLoadBalancer {
         }
 
         // return a random one
-        final Random rand = new Random();
-        return clusters.get(Math.abs(rand.nextInt(clusters.size())));
+        return clusters.get(ThreadLocalRandom.current().nextInt(clusters.size()));
     }
 }
@@ -17,27 +17,65 @@
  */
 package com.netflix.genie.core.services.impl;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DistributionSummary;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.NotBlank;
 
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * An implementation of the FileTransferService interface in which the remote locations are on Amazon S3.
+ * <p>
+ * When parallel transfers are enabled files at least as big as the multipart threshold are downloaded as ranged GETs
+ * of the configured part size and uploaded as multipart uploads through a {@link TransferManager}, with up to the
+ * configured number of parts in flight at once. Downloads and uploads each have their own threads so one direction
+ * can't starve the other. The threads are stopped when the bean is destroyed.
  *
  * @author amsharma
  * @since 3.0.0
@@ -45,12 +83,24 @@ import java.util.regex.Pattern;
 @Slf4j
 public class S3FileTransferImpl implements FileTransfer {
 
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
     private final Pattern s3FilePattern = Pattern.compile("^(s3[n]?://)(.*?)/(.*/.*)");
     private final Pattern s3PrefixPattern = Pattern.compile("^s3[n]?://.*$");
     private AmazonS3Client s3Client;
     private Timer downloadTimer;
     private Timer uploadTimer;
     private Timer getTimer;
+    private Counter downloadBytes;
+    private Counter uploadBytes;
+    private DistributionSummary downloadThroughput;
+    private DistributionSummary uploadThroughput;
+    private final long partSize;
+    private final long multipartThreshold;
+    private final int maxConcurrency;
+    private final ExecutorService transferExecutor;
+    private final ExecutorService downloadExecutor;
+    private final TransferManager transferManager;
 
     /**
      * Constructor.
@@ -59,10 +109,65 @@ public class S3FileTransferImpl implements FileTransfer {
      * @param registry       The metrics registry to use
      */
     public S3FileTransferImpl(@NotNull final AmazonS3Client amazonS3Client, @NotNull final Registry registry) {
+        this(amazonS3Client, registry, new S3FileTransferProperties());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param amazonS3Client An amazon s3 client object
+     * @param registry       The metrics registry to use
+     * @param properties     The properties controlling parallel transfers
+     */
+    public S3FileTransferImpl(
+        @NotNull final AmazonS3Client amazonS3Client,
+        @NotNull final Registry registry,
+        @NotNull final S3FileTransferProperties properties
+    ) {
         this.s3Client = amazonS3Client;
         this.downloadTimer = registry.timer("genie.files.s3.download.timer");
         this.uploadTimer = registry.timer("genie.files.s3.upload.timer");
         this.getTimer = registry.timer("genie.files.s3.getObjectMetadata.timer");
+        this.downloadBytes = registry.counter("genie.files.s3.download.bytes.rate");
+        this.uploadBytes = registry.counter("genie.files.s3.upload.bytes.rate");
+        this.downloadThroughput = registry.distributionSummary("genie.files.s3.download.throughput");
+        this.uploadThroughput = registry.distributionSummary("genie.files.s3.upload.throughput");
+        this.partSize = properties.getPartSize();
+        this.multipartThreshold = properties.getMultipartThreshold();
+        this.maxConcurrency = properties.getMaxConcurrency();
+        if (properties.isParallelEnabled()) {
+            this.transferExecutor = Executors.newFixedThreadPool(
+                properties.getMaxConcurrency(),
+                new ThreadFactoryBuilder().setNameFormat("genie-s3-transfer-%d").setDaemon(true).build()
+            );
+            this.downloadExecutor = Executors.newFixedThreadPool(
+                properties.getMaxConcurrency(),
+                new ThreadFactoryBuilder().setNameFormat("genie-s3-download-%d").setDaemon(true).build()
+            );
+            // The executor is shared with the streamed uploads so the transfer manager mustn't shut it down
+            this.transferManager = new TransferManager(amazonS3Client, this.transferExecutor, false);
+            final TransferManagerConfiguration configuration = new TransferManagerConfiguration();
+            configuration.setMinimumUploadPartSize(this.partSize);
+            configuration.setMultipartUploadThreshold(this.multipartThreshold);
+            this.transferManager.setConfiguration(configuration);
+        } else {
+            this.transferExecutor = null;
+            this.downloadExecutor = null;
+            this.transferManager = null;
+        }
+    }
+
+    /**
+     * Stop the transfer manager and the transfer threads if parallel transfers are enabled. Transfers still in
+     * flight are interrupted. The S3 client is shared with the rest of the application so it's left running.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (this.transferManager != null) {
+            this.transferManager.shutdownNow(false);
+            this.transferExecutor.shutdownNow();
+            this.downloadExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -90,15 +195,18 @@ public class S3FileTransferImpl implements FileTransfer {
             log.debug("Called with src path {} and destination path {}", srcRemotePath, dstLocalPath);
 
             final S3Key s3Key = new S3Key(srcRemotePath);
+            final File dstFile = new File(dstLocalPath);
             try {
-                this.s3Client.getObject(
-                    new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()),
-                    new File(dstLocalPath)
-                );
+                if (this.transferManager != null) {
+                    this.getFileInParts(s3Key, dstFile.toPath());
+                } else {
+                    this.s3Client.getObject(new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()), dstFile);
+                }
             } catch (AmazonS3Exception ase) {
                 log.error("Error fetching file {} from s3 due to exception {}", srcRemotePath, ase);
                 throw new GenieServerException("Error downloading file from s3. Filename: " + srcRemotePath);
             }
+            this.recordThroughput(dstFile.length(), start, this.downloadBytes, this.downloadThroughput);
         } finally {
             this.downloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
@@ -119,12 +227,60 @@ public class S3FileTransferImpl implements FileTransfer {
             log.debug("Called with src path {} and destination path {}", srcLocalPath, dstRemotePath);
 
             final S3Key s3Key = new S3Key(dstRemotePath);
+            final File srcFile = new File(srcLocalPath);
             try {
-                this.s3Client.putObject(s3Key.getBucket(), s3Key.getKey(), new File(srcLocalPath));
-            } catch (AmazonS3Exception ase) {
-                log.error("Error posting file {} to s3 due to exception {}", dstRemotePath, ase);
+                if (this.transferManager != null) {
+                    // Uploads files at least as big as the multipart threshold in parts
+                    this.transferManager.upload(s3Key.getBucket(), s3Key.getKey(), srcFile).waitForCompletion();
+                } else {
+                    this.s3Client.putObject(s3Key.getBucket(), s3Key.getKey(), srcFile);
+                }
+            } catch (AmazonClientException ace) {
+                log.error("Error posting file {} to s3 due to exception {}", dstRemotePath, ace);
                 throw new GenieServerException("Error uploading file to s3. Filename: " + dstRemotePath);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new GenieServerException("Interrupted uploading file to s3. Filename: " + dstRemotePath, ie);
             }
+            this.recordThroughput(srcFile.length(), start, this.uploadBytes, this.uploadThroughput);
+        } finally {
+            this.uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Content bigger than one part is uploaded as a multipart upload while it's being written, so at most one part
+     * per concurrent upload thread plus the one being filled is held in memory. The upload is aborted if writing
+     * fails.
+     */
+    @Override
+    public void putStream(
+        final ContentWriter contentWriter,
+        @NotBlank(message = "Destination remote path cannot be empty")
+        final String dstRemotePath
+    ) throws GenieException {
+        final long start = System.nanoTime();
+        try {
+            log.debug("Called to stream content to destination path {}", dstRemotePath);
+
+            final S3Key s3Key = new S3Key(dstRemotePath);
+            final MultipartUploadOutputStream out = new MultipartUploadOutputStream(s3Key);
+            boolean success = false;
+            try {
+                contentWriter.write(out);
+                out.complete();
+                success = true;
+            } catch (AmazonClientException | IOException e) {
+                log.error("Error streaming to {} in s3 due to exception {}", dstRemotePath, e);
+                throw new GenieServerException("Error uploading stream to s3. Filename: " + dstRemotePath, e);
+            } finally {
+                if (!success) {
+                    out.abort();
+                }
+            }
+            this.recordThroughput(out.getBytesWritten(), start, this.uploadBytes, this.uploadThroughput);
         } finally {
             this.uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
@@ -151,6 +307,321 @@ public class S3FileTransferImpl implements FileTransfer {
         }
     }
 
+    /**
+     * Download a file as ranged GETs. The first part is fetched on the calling thread and its Content-Range gives the
+     * size of the whole object, so no separate metadata request is needed and files no bigger than a part take a
+     * single request. The rest is fetched in one more request if the object is below the multipart threshold and in
+     * parallel parts otherwise.
+     */
+    private void getFileInParts(final S3Key s3Key, final Path dstPath) throws GenieException {
+        final List<Future<?>> futures = new ArrayList<>();
+        boolean success = false;
+        try (final FileChannel channel = FileChannel.open(
+            dstPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            final S3Object first;
+            try {
+                first = this.s3Client.getObject(
+                    new GetObjectRequest(s3Key.getBucket(), s3Key.getKey()).withRange(0, this.partSize - 1)
+                );
+            } catch (final AmazonS3Exception ase) {
+                if (ase.getStatusCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                    // No range of an empty object can be satisfied. The empty file has already been created.
+                    success = true;
+                    return;
+                }
+                throw ase;
+            }
+            final long length;
+            final long firstEnd;
+            final String eTag;
+            try (final S3Object object = first) {
+                final ObjectMetadata metadata = object.getObjectMetadata();
+                final Object contentRange = metadata.getRawMetadataValue(Headers.CONTENT_RANGE);
+                if (contentRange == null) {
+                    // Returned in full, for example by a store which ignores ranges
+                    length = metadata.getContentLength();
+                    firstEnd = length - 1;
+                } else {
+                    length = this.getInstanceLength(contentRange.toString());
+                    firstEnd = Math.min(this.partSize, length) - 1;
+                }
+                eTag = metadata.getETag();
+                if (firstEnd < length - 1 && length >= this.multipartThreshold) {
+                    for (long partStart = firstEnd + 1; partStart < length; partStart += this.partSize) {
+                        final long rangeStart = partStart;
+                        final long rangeEnd = Math.min(partStart + this.partSize, length) - 1;
+                        futures.add(
+                            this.downloadExecutor.submit(
+                                () -> {
+                                    this.getRange(s3Key, eTag, rangeStart, rangeEnd, channel);
+                                    return null;
+                                }
+                            )
+                        );
+                    }
+                }
+                this.writeRange(object, s3Key, 0, firstEnd, channel);
+            }
+            if (firstEnd < length - 1 && length < this.multipartThreshold) {
+                this.getRange(s3Key, eTag, firstEnd + 1, length - 1, channel);
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            success = true;
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof AmazonS3Exception) {
+                throw (AmazonS3Exception) cause;
+            }
+            throw new GenieServerException("Error downloading parts of file from s3. Key: " + s3Key.getKey(), cause);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new GenieServerException("Interrupted downloading file from s3. Key: " + s3Key.getKey(), ie);
+        } catch (final IOException ioe) {
+            throw new GenieServerException("Error writing file downloaded from s3. Key: " + s3Key.getKey(), ioe);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            if (!success) {
+                try {
+                    Files.deleteIfExists(dstPath);
+                } catch (final IOException ioe) {
+                    log.error("Unable to delete partially downloaded file {}", dstPath, ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the size of the whole object from the Content-Range of a ranged GET, which looks like
+     * {@code bytes <first>-<last>/<length>}.
+     */
+    private long getInstanceLength(final String contentRange) throws IOException {
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+        } catch (final NumberFormatException nfe) {
+            throw new IOException("Unable to get the object size from Content-Range " + contentRange, nfe);
+        }
+    }
+
+    private void getRange(
+        final S3Key s3Key,
+        final String eTag,
+        final long rangeStart,
+        final long rangeEnd,
+        final FileChannel channel
+    ) throws IOException {
+        // Only read the same version of the object for all the parts
+        final GetObjectRequest request = new GetObjectRequest(s3Key.getBucket(), s3Key.getKey())
+            .withRange(rangeStart, rangeEnd)
+            .withMatchingETagConstraint(eTag);
+        try (final S3Object object = this.s3Client.getObject(request)) {
+            if (object == null) {
+                throw new IOException("The s3 object " + s3Key.getKey() + " changed while it was downloaded");
+            }
+            this.writeRange(object, s3Key, rangeStart, rangeEnd, channel);
+        }
+    }
+
+    private void writeRange(
+        final S3Object object,
+        final S3Key s3Key,
+        final long rangeStart,
+        final long rangeEnd,
+        final FileChannel channel
+    ) throws IOException {
+        try (final InputStream in = object.getObjectContent()) {
+            final byte[] buffer = new byte[65_536];
+            long position = rangeStart;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            }
+            if (position != rangeEnd + 1) {
+                throw new IOException(
+                    "Expected bytes " + rangeStart + " to " + rangeEnd + " of " + s3Key.getKey()
+                        + " but only got up to " + (position - 1)
+                );
+            }
+        }
+    }
+
+    private void recordThroughput(
+        final long bytes,
+        final long start,
+        final Counter bytesCounter,
+        final DistributionSummary throughput
+    ) {
+        final long elapsed = System.nanoTime() - start;
+        bytesCounter.increment(bytes);
+        if (elapsed > 0) {
+            throughput.record(bytes * TimeUnit.SECONDS.toNanos(1) / elapsed);
+        }
+    }
+
+    /**
+     * Buffers what's written into parts of the configured size and uploads each full part of a multipart upload,
+     * using the transfer threads when parallel transfers are enabled.
+     */
+    private class MultipartUploadOutputStream extends OutputStream {
+        private final S3Key s3Key;
+        private final int bufferSize = (int) Math.min(S3FileTransferImpl.this.partSize, Integer.MAX_VALUE);
+        private final Semaphore partsInFlight = new Semaphore(S3FileTransferImpl.this.maxConcurrency);
+        private final List<Future<PartETag>> parts = new ArrayList<>();
+        private byte[] buffer = new byte[this.bufferSize];
+        private int count;
+        @Getter
+        private long bytesWritten;
+        private String uploadId;
+
+        MultipartUploadOutputStream(final S3Key s3Key) {
+            this.s3Key = s3Key;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (this.count == this.bufferSize) {
+                this.uploadPart();
+            }
+            this.buffer[this.count++] = (byte) b;
+            this.bytesWritten++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                if (this.count == this.bufferSize) {
+                    this.uploadPart();
+                }
+                final int toCopy = Math.min(remaining, this.bufferSize - this.count);
+                System.arraycopy(b, offset, this.buffer, this.count, toCopy);
+                this.count += toCopy;
+                this.bytesWritten += toCopy;
+                offset += toCopy;
+                remaining -= toCopy;
+            }
+        }
+
+        void complete() throws IOException {
+            if (this.uploadId == null) {
+                // Everything fit in one part so there's no need for a multipart upload
+                final ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(this.count);
+                S3FileTransferImpl.this.s3Client.putObject(
+                    this.s3Key.getBucket(),
+                    this.s3Key.getKey(),
+                    new ByteArrayInputStream(this.buffer, 0, this.count),
+                    metadata
+                );
+                return;
+            }
+            if (this.count > 0) {
+                this.uploadPart();
+            }
+            final List<PartETag> partETags = new ArrayList<>();
+            for (final Future<PartETag> part : this.parts) {
+                partETags.add(this.getPart(part));
+            }
+            S3FileTransferImpl.this.s3Client.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(
+                    this.s3Key.getBucket(),
+                    this.s3Key.getKey(),
+                    this.uploadId,
+                    partETags
+                )
+            );
+        }
+
+        void abort() {
+            this.parts.forEach(part -> part.cancel(true));
+            if (this.uploadId != null) {
+                try {
+                    S3FileTransferImpl.this.s3Client.abortMultipartUpload(
+                        new AbortMultipartUploadRequest(this.s3Key.getBucket(), this.s3Key.getKey(), this.uploadId)
+                    );
+                } catch (final AmazonClientException ace) {
+                    log.error("Unable to abort multipart upload {} of {}", this.uploadId, this.s3Key.getKey(), ace);
+                }
+            }
+        }
+
+        private void uploadPart() throws IOException {
+            if (this.uploadId == null) {
+                this.uploadId = S3FileTransferImpl.this.s3Client.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(this.s3Key.getBucket(), this.s3Key.getKey())
+                ).getUploadId();
+            }
+            // Fail fast if an earlier part couldn't be uploaded
+            for (final Future<PartETag> part : this.parts) {
+                if (part.isDone()) {
+                    this.getPart(part);
+                }
+            }
+            final UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(this.s3Key.getBucket())
+                .withKey(this.s3Key.getKey())
+                .withUploadId(this.uploadId)
+                .withPartNumber(this.parts.size() + 1)
+                .withPartSize(this.count)
+                .withInputStream(new ByteArrayInputStream(this.buffer, 0, this.count));
+            if (S3FileTransferImpl.this.transferExecutor == null) {
+                this.parts.add(
+                    CompletableFuture.completedFuture(
+                        S3FileTransferImpl.this.s3Client.uploadPart(request).getPartETag()
+                    )
+                );
+            } else {
+                try {
+                    this.partsInFlight.acquire();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting to upload part of " + this.s3Key.getKey());
+                }
+                try {
+                    this.parts.add(
+                        S3FileTransferImpl.this.transferExecutor.submit(
+                            () -> {
+                                try {
+                                    return S3FileTransferImpl.this.s3Client.uploadPart(request).getPartETag();
+                                } finally {
+                                    this.partsInFlight.release();
+                                }
+                            }
+                        )
+                    );
+                } catch (final RuntimeException re) {
+                    this.partsInFlight.release();
+                    throw re;
+                }
+            }
+            if (S3FileTransferImpl.this.transferExecutor != null) {
+                // The submitted part may still be reading from the old buffer
+                this.buffer = new byte[this.bufferSize];
+            }
+            this.count = 0;
+        }
+
+        private PartETag getPart(final Future<PartETag> part) throws IOException {
+            try {
+                return part.get();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted uploading parts of " + this.s3Key.getKey());
+            } catch (final ExecutionException ee) {
+                throw new IOException("Unable to upload part of " + this.s3Key.getKey(), ee.getCause());
+            }
+        }
+    }
+
     @Getter
     private class S3Key {
         private final String bucket;
@@ -0,0 +1,81 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A load balancer which selects a cluster at random in proportion to the weights of the clusters. Clusters without a
+ * weight count as weight one. Has no opinion when none of the clusters have a weight so the next load balancer in a
+ * chain can decide.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class WeightedClusterLoadBalancerImpl implements ClusterLoadBalancer {
+
+    private final ClusterWeights clusterWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param clusterWeights The weights of the clusters
+     */
+    public WeightedClusterLoadBalancerImpl(@NotNull final ClusterWeights clusterWeights) {
+        this.clusterWeights = clusterWeights;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cluster selectCluster(final List<Cluster> clusters) throws GenieException {
+        if (clusters == null || clusters.isEmpty()) {
+            throw new GeniePreconditionException("No cluster configuration found for supplied cluster criteria");
+        }
+
+        final int[] weights = new int[clusters.size()];
+        long totalWeight = 0;
+        boolean anyWeighted = false;
+        for (int i = 0; i < clusters.size(); i++) {
+            final Integer weight = this.clusterWeights.getWeight(clusters.get(i)).orElse(null);
+            anyWeighted |= weight != null;
+            weights[i] = weight == null ? 1 : weight;
+            totalWeight += weights[i];
+        }
+        if (!anyWeighted) {
+            return null;
+        }
+
+        long pick = ThreadLocalRandom.current().nextLong(totalWeight);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return clusters.get(i);
+            }
+        }
+        return clusters.get(clusters.size() - 1);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.io.IOUtils;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes a directory as a gzipped tar archive straight to a stream, compressing on several threads, so nothing has
+ * to be staged on disk. Entries are named relative to the directory like {@code tar -czf - ./} run inside it would
+ * name them. Symbolic links are stored as links and files which can't be read are skipped.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class DirectoryArchiver {
+
+    private static final String ROOT = "./";
+    private static final int PADDING_BUFFER_SIZE = 8192;
+
+    private final ExecutorService compressionExecutor;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+
+    /**
+     * Constructor.
+     *
+     * @param compressionThreads The number of threads to compress archives with
+     * @param blockSize          The number of bytes compressed at once by a thread
+     */
+    public DirectoryArchiver(@Min(1) final int compressionThreads, @Min(1) final int blockSize) {
+        this.compressionExecutor = Executors.newFixedThreadPool(
+            compressionThreads,
+            new ThreadFactoryBuilder().setNameFormat("genie-archive-compression-%d").setDaemon(true).build()
+        );
+        this.blockSize = blockSize;
+        // Enough to keep every thread busy while the next blocks are read and the finished ones written
+        this.maxBlocksInFlight = 2 * compressionThreads;
+    }
+
+    /**
+     * Write the given directory to the stream as a gzipped tar archive. The stream isn't closed.
+     *
+     * @param directory The directory to archive
+     * @param out       The stream to write the archive to
+     * @throws IOException on error reading the directory or writing the archive
+     */
+    public void archive(@NotNull final File directory, @NotNull final OutputStream out) throws IOException {
+        final Path root = directory.toPath();
+        final ParallelGzipOutputStream gzip
+            = new ParallelGzipOutputStream(out, this.compressionExecutor, this.blockSize, this.maxBlocksInFlight);
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(gzip);
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        Files.walkFileTree(
+            root,
+            new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(
+                    final Path dir,
+                    final BasicFileAttributes attrs
+                ) throws IOException {
+                    final String relative = root.relativize(dir).toString();
+                    final TarArchiveEntry entry
+                        = new TarArchiveEntry(relative.isEmpty() ? ROOT : ROOT + relative + "/");
+                    setAttributes(entry, dir, attrs);
+                    tar.putArchiveEntry(entry);
+                    tar.closeArchiveEntry();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    final String name = ROOT + root.relativize(file).toString();
+                    if (attrs.isSymbolicLink()) {
+                        final TarArchiveEntry entry = new TarArchiveEntry(name, TarConstants.LF_SYMLINK);
+                        entry.setLinkName(Files.readSymbolicLink(file).toString());
+                        setAttributes(entry, file, attrs);
+                        tar.putArchiveEntry(entry);
+                        tar.closeArchiveEntry();
+                    } else if (attrs.isRegularFile()) {
+                        final InputStream in;
+                        try {
+                            in = Files.newInputStream(file);
+                        } catch (final IOException ioe) {
+                            log.warn("Unable to read {}. Leaving it out of the archive.", file, ioe);
+                            return FileVisitResult.CONTINUE;
+                        }
+                        try {
+                            final TarArchiveEntry entry = new TarArchiveEntry(name);
+                            entry.setSize(attrs.size());
+                            setAttributes(entry, file, attrs);
+                            tar.putArchiveEntry(entry);
+                            copyPadded(in, tar, attrs.size());
+                            tar.closeArchiveEntry();
+                        } finally {
+                            in.close();
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    log.warn("Unable to read {}. Leaving it out of the archive.", file, exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+        tar.finish();
+        gzip.finish();
+    }
+
+    /**
+     * Stop the compression threads. Archives can't be written anymore afterwards.
+     */
+    public void shutdown() {
+        this.compressionExecutor.shutdown();
+    }
+
+    /**
+     * Copy exactly the given number of bytes to the stream. If the input ends early, for example because the file was
+     * truncated while it was read, the rest is filled with zeros so the archive still matches the size in the header.
+     *
+     * @param in   The stream to copy from
+     * @param out  The stream to copy to
+     * @param size The number of bytes to write
+     * @throws IOException on error reading or writing
+     */
+    static void copyPadded(final InputStream in, final OutputStream out, final long size) throws IOException {
+        long remaining = size - IOUtils.copyLarge(in, out, 0, size);
+        if (remaining > 0) {
+            log.warn("Input shrank while being archived. Padding {} missing bytes with zeros.", remaining);
+            final byte[] zeros = new byte[(int) Math.min(remaining, PADDING_BUFFER_SIZE)];
+            while (remaining > 0) {
+                final int length = (int) Math.min(remaining, zeros.length);
+                out.write(zeros, 0, length);
+                remaining -= length;
+            }
+        }
+    }
+
+    private static void setAttributes(
+        final TarArchiveEntry entry,
+        final Path path,
+        final BasicFileAttributes attrs
+    ) throws IOException {
+        entry.setModTime(attrs.lastModifiedTime().toMillis());
+        final PosixFileAttributeView posix
+            = Files.getFileAttributeView(path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        if (posix != null && !attrs.isSymbolicLink()) {
+            final Set<PosixFilePermission> permissions = posix.readAttributes().permissions();
+            int mode = 0;
+            for (final PosixFilePermission permission : PosixFilePermission.values()) {
+                mode <<= 1;
+                if (permissions.contains(permission)) {
+                    mode |= 1;
+                }
+            }
+            entry.setMode((entry.getMode() & ~0777) | mode);
+        }
+    }
+}
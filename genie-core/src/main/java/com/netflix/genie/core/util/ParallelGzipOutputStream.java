@@ -0,0 +1,180 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An output stream which gzips what's written to it using several threads. The content is split into blocks which
+ * are compressed independently and written in order as consecutive gzip members, which gzip, tar and
+ * {@link java.util.zip.GZIPInputStream} all read back as a single stream. At most the given number of blocks are
+ * held in memory at once.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+    private final Deque<Future<byte[]>> blocks = new ArrayDeque<>();
+    private byte[] buffer;
+    private int count;
+    private boolean finished;
+
+    /**
+     * Constructor.
+     *
+     * @param out               The stream to write the compressed content to
+     * @param executor          The executor to compress the blocks on
+     * @param blockSize         The number of uncompressed bytes in each block
+     * @param maxBlocksInFlight The most blocks to have waiting to be compressed or written at once
+     */
+    public ParallelGzipOutputStream(
+        @NotNull final OutputStream out,
+        @NotNull final ExecutorService executor,
+        @Min(1) final int blockSize,
+        @Min(1) final int maxBlocksInFlight
+    ) {
+        this.out = out;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.buffer = new byte[blockSize];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        this.ensureOpen();
+        if (this.count == this.blockSize) {
+            this.submitBlock();
+        }
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.count == this.blockSize) {
+                this.submitBlock();
+            }
+            final int toCopy = Math.min(remaining, this.blockSize - this.count);
+            System.arraycopy(b, offset, this.buffer, this.count, toCopy);
+            this.count += toCopy;
+            offset += toCopy;
+            remaining -= toCopy;
+        }
+    }
+
+    /**
+     * Compress and write all the remaining content without closing the underlying stream.
+     *
+     * @throws IOException on error compressing or writing the content
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+        try {
+            // Always write at least one member so empty content is still valid gzip
+            if (this.count > 0 || this.blocks.isEmpty()) {
+                this.submitBlock();
+            }
+            while (!this.blocks.isEmpty()) {
+                this.writeBlock(this.blocks.poll());
+            }
+            this.out.flush();
+            this.finished = true;
+        } finally {
+            if (!this.finished) {
+                this.blocks.forEach(block -> block.cancel(true));
+                this.blocks.clear();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.finished) {
+            throw new IOException("Stream has already been finished");
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        final byte[] block = this.buffer;
+        final int length = this.count;
+        this.blocks.add(this.executor.submit(() -> compress(block, length)));
+        this.buffer = new byte[this.blockSize];
+        this.count = 0;
+        while (this.blocks.size() >= this.maxBlocksInFlight) {
+            this.writeBlock(this.blocks.poll());
+        }
+    }
+
+    private void writeBlock(final Future<byte[]> block) throws IOException {
+        try {
+            this.out.write(block.get());
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a block to be compressed");
+        } catch (final ExecutionException ee) {
+            throw new IOException("Unable to compress block", ee.getCause());
+        }
+    }
+
+    private static byte[] compress(final byte[] block, final int length) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(compressed, 65_536)) {
+            gzip.write(block, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+}
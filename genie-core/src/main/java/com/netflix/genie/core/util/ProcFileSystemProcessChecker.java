@@ -0,0 +1,78 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import org.apache.commons.exec.ExecuteException;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Implementation of ProcessChecker which looks the process up in the proc file system instead of forking a process.
+ * The lookups of all the checkers created by the same factory are batched into a single sweep of the proc directory.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class ProcFileSystemProcessChecker implements ProcessChecker {
+
+    private final int pid;
+    private final ProcFileSystemProcessCheckerFactory factory;
+    private final Date timeout;
+    private final SimpleDateFormat dateFormatter;
+
+    /**
+     * Constructor.
+     *
+     * @param pid     The process id to check
+     * @param factory The factory which owns the sweeps of the proc file system
+     * @param timeout The time which after this job should be killed due to timeout
+     */
+    public ProcFileSystemProcessChecker(
+        @Min(1) final int pid,
+        @NotNull final ProcFileSystemProcessCheckerFactory factory,
+        @NotNull final Date timeout
+    ) {
+        this.pid = pid;
+        this.factory = factory;
+        this.timeout = new Date(timeout.getTime());
+        this.dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void checkProcess() throws GenieTimeoutException, ExecuteException, IOException {
+        if (!this.factory.isRunning(this.pid)) {
+            // Mirror the failed exit code of ps so callers handle both checkers the same way
+            throw new ExecuteException("Process " + this.pid + " is no longer running", 1);
+        }
+
+        // If we get here the process is still running. Check if it should be killed due to timeout.
+        if (new Date().getTime() > this.timeout.getTime()) {
+            throw new GenieTimeoutException(
+                "Job has exceeded its timeout time of " + this.dateFormatter.format(this.timeout)
+            );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory for process checkers which read the proc file system directly rather than forking a {@code ps} per check.
+ * <p>
+ * All the checkers share a snapshot of the running process ids. The snapshot is taken by listing the proc directory
+ * once and is reused until it is older than the configured maximum age, so checking every monitored job costs one
+ * directory listing per sweep no matter how many jobs are running on the node.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class ProcFileSystemProcessCheckerFactory implements ProcessCheckerFactory {
+
+    /**
+     * The default location of the proc file system.
+     */
+    public static final String PROC_DIRECTORY = "/proc";
+
+    private final File procDirectory;
+    private final long maxSweepAge;
+    private final Timer sweepTimer;
+
+    private Set<Integer> runningProcessIds = Collections.emptySet();
+    private long lastSweep;
+    private boolean swept;
+
+    /**
+     * Constructor.
+     *
+     * @param procDirectory The root of the proc file system
+     * @param maxSweepAge   How long in milliseconds a sweep of the running processes can be reused
+     * @param registry      The metrics registry to use
+     */
+    public ProcFileSystemProcessCheckerFactory(
+        @NotNull final File procDirectory,
+        @Min(0) final long maxSweepAge,
+        @NotNull final Registry registry
+    ) {
+        if (!procDirectory.isDirectory()) {
+            throw new IllegalArgumentException(procDirectory + " is not a directory. No proc file system available.");
+        }
+        this.procDirectory = procDirectory;
+        this.maxSweepAge = maxSweepAge;
+        this.sweepTimer = registry.timer("genie.jobs.monitoring.processSweep.timer");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessChecker get(@Min(1) final int pid, @NotNull final Date timeout) {
+        return new ProcFileSystemProcessChecker(pid, this, timeout);
+    }
+
+    /**
+     * Check whether the given process is currently running. Uses the latest sweep of the proc file system, taking a
+     * new one if it is too old.
+     *
+     * @param pid The process id to check
+     * @return true if the process is running
+     * @throws IOException If the proc file system can't be read
+     */
+    public synchronized boolean isRunning(@Min(1) final int pid) throws IOException {
+        final long now = System.currentTimeMillis();
+        if (!this.swept || now - this.lastSweep >= this.maxSweepAge) {
+            this.runningProcessIds = this.sweep();
+            this.lastSweep = now;
+            this.swept = true;
+        }
+
+        // The process may have started after the last sweep so confirm before reporting it gone
+        return this.runningProcessIds.contains(pid) || new File(this.procDirectory, Integer.toString(pid)).exists();
+    }
+
+    private Set<Integer> sweep() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            final String[] entries = this.procDirectory.list();
+            if (entries == null) {
+                throw new IOException("Unable to list the contents of " + this.procDirectory);
+            }
+            final Set<Integer> pids = new HashSet<>(entries.length);
+            for (final String entry : entries) {
+                // Only the numeric entries are processes. Everything else is kernel information.
+                if (StringUtils.isNumeric(entry)) {
+                    pids.add(Integer.parseInt(entry));
+                }
+            }
+            log.debug("Found {} running processes in {}", pids.size(), this.procDirectory);
+            return pids;
+        } finally {
+            this.sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
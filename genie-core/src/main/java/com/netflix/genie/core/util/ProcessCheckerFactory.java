@@ -0,0 +1,40 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Interface for creating the process checker to use to monitor a given process.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public interface ProcessCheckerFactory {
+
+    /**
+     * Get a process checker for the given process.
+     *
+     * @param pid     The id of the process to check
+     * @param timeout The time after which the process should be considered timed out
+     * @return The process checker to use
+     */
+    ProcessChecker get(@Min(1) final int pid, @NotNull final Date timeout);
+}
@@ -0,0 +1,52 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import org.apache.commons.exec.Executor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Date;
+
+/**
+ * Factory which creates {@link UnixProcessChecker} instances which fork a {@code ps} process for every check.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class UnixProcessCheckerFactory implements ProcessCheckerFactory {
+
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param executor The executor to use for generating system commands
+     */
+    public UnixProcessCheckerFactory(@NotNull final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ProcessChecker get(@Min(1) final int pid, @NotNull final Date timeout) {
+        return new UnixProcessChecker(pid, this.executor, timeout);
+    }
+}
@@ -14,12 +14,16 @@
 package com.netflix.genie.core.services.impl
 
 import com.netflix.genie.common.exceptions.GenieServerException
+import com.netflix.genie.core.properties.FileCacheProperties
 import com.netflix.genie.core.services.FileTransfer
 import com.netflix.genie.core.services.FileTransferFactory
+import com.netflix.spectator.api.Counter
 import com.netflix.spectator.api.Registry
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.file.Files
+
 /**
  * Unit tests for CacheGenieFileTransferService.
  * Created by amajumdar on 7/26/16.
@@ -31,10 +35,14 @@ class CacheGenieFileTransferServiceSpec extends Specification{
         get(_) >> localFileTransfer
     }
     File cachedFile = Mock(File)
-    Registry registry = Mock(Registry)
+    Registry registry = Mock(Registry){
+        counter(_) >> Mock(Counter)
+    }
+    FileCacheProperties fileCacheProperties = new FileCacheProperties(
+            location: Files.createTempDirectory("genie").toUri().toString(), revalidationTtl: 0)
     CacheGenieFileTransferService s =
             Spy( CacheGenieFileTransferService,
-                    constructorArgs: [fileTransferFactory, "/tmp", localFileTransfer, registry]){
+                    constructorArgs: [fileTransferFactory, fileCacheProperties, localFileTransfer, registry]){
                 createDirectories(_) >> null
                 deleteFile(_) >> null
             }
@@ -55,7 +63,7 @@ class CacheGenieFileTransferServiceSpec extends Specification{
         then:
         noExceptionThrown()
         1 * s.loadFile(_) >> cachedFile
-        2 * cachedFile.lastModified() >> -1
+        1 * cachedFile.lastModified() >> -1
         when:
         s.getFile('file:/tmp/setup', 'file:/mnt/')
         then:
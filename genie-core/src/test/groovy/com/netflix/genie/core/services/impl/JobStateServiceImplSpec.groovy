@@ -12,6 +12,11 @@ import org.springframework.context.ApplicationEventPublisher
 import org.springframework.scheduling.TaskScheduler
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
 /**
  * Test JobStateService
  *
@@ -78,4 +83,66 @@ class JobStateServiceImplSpec extends Specification{
         jobStateService.getNumActiveJobs() == 0
         jobStateService.getUsedMemory() == 0
     }
+    def testReserveMemory(){
+        when:
+        jobStateService.init(job1Id)
+        jobStateService.init(job2Id)
+        then:
+        jobStateService.reserveMemory(job1Id, memory, 1536)
+        jobStateService.getUsedMemory() == 1024
+        !jobStateService.reserveMemory(job2Id, memory, 1536)
+        jobStateService.getUsedMemory() == 1024
+        !jobStateService.reserveMemory("3", 256, 1536)
+        jobStateService.getUsedMemory() == 1024
+        when:
+        jobStateService.schedule(job1Id, jobRequest, cluster, command, applications, memory)
+        then:
+        jobStateService.getNumActiveJobs() == 1
+        jobStateService.getUsedMemory() == 1024
+        when:
+        jobStateService.done(job1Id)
+        then:
+        jobStateService.getNumActiveJobs() == 0
+        jobStateService.getUsedMemory() == 0
+        jobStateService.reserveMemory(job2Id, memory, 1536)
+        jobStateService.getUsedMemory() == 1024
+    }
+    def testConcurrentReserveMemory(){
+        given:
+        def numJobs = 100
+        (1..numJobs).each { jobStateService.init(String.valueOf(it)) }
+        def pool = Executors.newFixedThreadPool(10)
+        when:
+        def results = pool.invokeAll(
+            (1..numJobs).collect { id ->
+                { -> jobStateService.reserveMemory(String.valueOf(id), 100, 2000) } as Callable<Boolean>
+            }
+        ).collect { it.get() }
+        then:
+        results.count { it } == 20
+        jobStateService.getUsedMemory() == 2000
+        cleanup:
+        pool.shutdownNow()
+    }
+    def testScheduleOnLaunchExecutor(){
+        given:
+        def launchExecutor = Mock(ExecutorService)
+        def task = Mock(Future)
+        def launchingService =
+            new JobStateServiceImpl(jobSubmitterService, scheduler, launchExecutor, publisher, registry)
+        when:
+        launchingService.init(job1Id)
+        launchingService.schedule(job1Id, jobRequest, cluster, command, applications, memory)
+        then:
+        1 * launchExecutor.submit(_ as Runnable) >> task
+        0 * scheduler.schedule(_, _)
+        launchingService.getNumActiveJobs() == 1
+        launchingService.getUsedMemory() == 1024
+        when:
+        launchingService.done(job1Id)
+        then:
+        1 * task.cancel(true) >> true
+        launchingService.getNumActiveJobs() == 0
+        launchingService.getUsedMemory() == 0
+    }
 }
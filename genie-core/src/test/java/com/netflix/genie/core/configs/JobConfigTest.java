@@ -18,10 +18,13 @@
 package com.netflix.genie.core.configs;
 
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobDirectoryStructure;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jobs.workflow.impl.ApplicationTask;
 import com.netflix.genie.core.jobs.workflow.impl.ClusterTask;
 import com.netflix.genie.core.jobs.workflow.impl.CommandTask;
+import com.netflix.genie.core.jobs.workflow.impl.FileDownloadTask;
 import com.netflix.genie.core.jobs.workflow.impl.InitialSetupTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobFailureAndKillHandlerLogicTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobKickoffTask;
@@ -38,6 +41,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Configuration for Jobs Setup and Run.
  *
@@ -57,6 +63,26 @@ public class JobConfigTest {
         return new LocalFileTransferImpl();
     }
 
+    /**
+     * Create the renderer of the job launcher script sections shared by the workflow tasks.
+     *
+     * @return The run script renderer
+     */
+    @Bean
+    public RunScriptRenderer runScriptRenderer() {
+        return new RunScriptRenderer();
+    }
+
+    /**
+     * Create the creator of the job directory structure shared by the workflow tasks.
+     *
+     * @return The job directory structure
+     */
+    @Bean
+    public JobDirectoryStructure jobDirectoryStructure() {
+        return new JobDirectoryStructure();
+    }
+
     /**
      * Create a task that adds logic to handle kill requests to a job.
      *
@@ -72,58 +98,73 @@ public class JobConfigTest {
     /**
      * Create an setup Task bean that does initial setup before any of the tasks start.
      *
-     * @param registry The metrics registry to use
+     * @param registry              The metrics registry to use
+     * @param runScriptRenderer     The renderer of the launcher script sections
+     * @param jobDirectoryStructure The creator of the job directory structure
      * @return An application task object
      */
     @Bean
     @Order(value = 1)
-    public WorkflowTask initialSetupTask(final Registry registry) {
-        return new InitialSetupTask(registry);
+    public WorkflowTask initialSetupTask(
+        final Registry registry,
+        final RunScriptRenderer runScriptRenderer,
+        final JobDirectoryStructure jobDirectoryStructure
+    ) {
+        return new InitialSetupTask(registry, runScriptRenderer, jobDirectoryStructure);
     }
 
     /**
      * Create an Cluster Task bean that processes the cluster needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer service
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An application task object
      */
     @Bean
     @Order(value = 2)
     public WorkflowTask clusterProcessorTask(
         final Registry registry,
-        final GenieFileTransferService fts) {
-        return new ClusterTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new ClusterTask(registry, fts, runScriptRenderer);
     }
 
     /**
      * Create an Application Task bean that processes all Applications needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer service
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An application task object
      */
     @Bean
     @Order(value = 3)
     public WorkflowTask applicationProcessorTask(
         final Registry registry,
-        final GenieFileTransferService fts) {
-        return new ApplicationTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new ApplicationTask(registry, fts, runScriptRenderer);
     }
 
     /**
      * Create an Command Task bean that processes the command needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer service
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer service
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An application task object
      */
     @Bean
     @Order(value = 4)
     public WorkflowTask commandProcessorTask(
         final Registry registry,
-        final GenieFileTransferService fts) {
-        return new CommandTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new CommandTask(registry, fts, runScriptRenderer);
     }
 
     /**
@@ -146,6 +187,39 @@ public class JobConfigTest {
         return new JobTask(attachmentService, registry, fts);
     }
 
+    /**
+     * Create the executor shared by all jobs to download their files.
+     *
+     * @param jobsProperties The jobs properties to use
+     * @return An executor with a thread for each concurrent download allowed on the node
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService fileDownloadExecutor(final JobsProperties jobsProperties) {
+        return Executors.newFixedThreadPool(jobsProperties.getDownloads().getMaxConcurrent());
+    }
+
+    /**
+     * Create a File Download Task bean that fetches the files collected by the previous tasks in parallel.
+     *
+     * @param fileDownloadExecutor The executor to run the downloads on
+     * @param jobsProperties       The jobs properties to use
+     * @param registry             The metrics registry to use
+     * @return A file download task object
+     */
+    @Bean
+    @Order(value = 6)
+    public WorkflowTask fileDownloadTask(
+        final ExecutorService fileDownloadExecutor,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new FileDownloadTask(
+            fileDownloadExecutor,
+            jobsProperties.getDownloads().getMaxConcurrentPerJob(),
+            registry
+        );
+    }
+
     /**
      * Create an Job Kickoff Task bean that runs the job.
      *
@@ -156,7 +230,7 @@ public class JobConfigTest {
      * @return An application task object
      */
     @Bean
-    @Order(value = 6)
+    @Order(value = 7)
     @Autowired
     public WorkflowTask jobKickoffTask(
         final JobsProperties jobsProperties,
@@ -30,6 +30,7 @@ import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobPersistenceServiceImpl;
+import com.netflix.genie.core.jpa.services.JpaJobRoutingServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobSearchServiceImpl;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.ApplicationService;
@@ -42,6 +43,7 @@ import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobMetricsService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobRoutingService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
@@ -87,46 +89,63 @@ public class ServicesConfigTest {
      *
      * @param applicationRepo The application repository to use.
      * @param commandRepo     The command repository to use.
+     * @param eventPublisher  The publisher to notify of configuration changes with.
      * @return An application service instance.
      */
     @Bean
     public ApplicationService applicationService(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaApplicationServiceImpl(applicationRepo, commandRepo);
+        return new JpaApplicationServiceImpl(applicationRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the ClusterService.
      *
-     * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param clusterRepo    The cluster repository to use.
+     * @param commandRepo    The command repository to use.
+     * @param eventPublisher The publisher to notify of configuration changes with.
      * @return A cluster service instance.
      */
     @Bean
     public ClusterService clusterService(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaClusterServiceImpl(clusterRepo, commandRepo);
+        return new JpaClusterServiceImpl(clusterRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the CommandService.
      *
-     * @param commandRepo the command repository to use
-     * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param commandRepo    the command repository to use
+     * @param appRepo        the application repository to use
+     * @param clusterRepo    the cluster repository to use
+     * @param eventPublisher the publisher to notify of configuration changes with
      * @return A command service instance.
      */
     @Bean
     public CommandService commandService(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
+        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo, eventPublisher);
+    }
+
+    /**
+     * Get JPA based implementation of the JobRoutingService.
+     *
+     * @param applicationRepo The application repository to use
+     * @return A job routing service instance.
+     */
+    @Bean
+    public JobRoutingService jobRoutingService(final JpaApplicationRepository applicationRepo) {
+        return new JpaJobRoutingServiceImpl(applicationRepo);
     }
 
     /**
@@ -340,9 +359,7 @@ public class ServicesConfigTest {
      * @param jobStateService       implementation of job state service interface
      * @param jobKillService        The job kill service to use.
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
+     * @param jobRoutingService     Implementation of the job routing service interface
      * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
      * @param registry              The registry to use
      * @param hostName              The host name to use
@@ -354,9 +371,7 @@ public class ServicesConfigTest {
         final JobKillService jobKillService,
         final JobStateService jobStateService,
         final JobsProperties jobsProperties,
-        final ApplicationService applicationService,
-        final ClusterService clusterService,
-        final CommandService commandService,
+        final JobRoutingService jobRoutingService,
         final ClusterLoadBalancer clusterLoadBalancer,
         final Registry registry,
         final String hostName
@@ -366,9 +381,7 @@ public class ServicesConfigTest {
             jobKillService,
             jobStateService,
             jobsProperties,
-            applicationService,
-            clusterService,
-            commandService,
+            jobRoutingService,
             clusterLoadBalancer,
             registry,
             hostName
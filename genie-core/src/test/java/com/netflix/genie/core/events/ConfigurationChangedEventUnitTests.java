@@ -0,0 +1,61 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.events;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the configuration changed event.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ConfigurationChangedEventUnitTests {
+
+    /**
+     * Make sure can get the type and id back from the event.
+     */
+    @Test
+    public void canGetTypeAndId() {
+        final String id = UUID.randomUUID().toString();
+        final ConfigurationChangedEvent event = new ConfigurationChangedEvent(ConfigurationType.CLUSTER, id, this);
+
+        Assert.assertThat(event.getType(), Matchers.is(ConfigurationType.CLUSTER));
+        Assert.assertThat(event.getId().orElse(null), Matchers.is(id));
+        Assert.assertThat(event.getSource(), Matchers.is(this));
+    }
+
+    /**
+     * Make sure a null id means all resources of the type changed.
+     */
+    @Test
+    public void canConstructWithoutId() {
+        final ConfigurationChangedEvent event
+            = new ConfigurationChangedEvent(ConfigurationType.APPLICATION, null, this);
+
+        Assert.assertThat(event.getType(), Matchers.is(ConfigurationType.APPLICATION));
+        Assert.assertFalse(event.getId().isPresent());
+    }
+}
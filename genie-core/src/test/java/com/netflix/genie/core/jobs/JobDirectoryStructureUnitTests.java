@@ -0,0 +1,167 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Unit tests for JobDirectoryStructure.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobDirectoryStructureUnitTests {
+
+    /**
+     * Temporary folder for the job directories.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JobDirectoryStructure structure;
+    private JobRequest jobRequest;
+    private Cluster cluster;
+    private Command command;
+    private List<Application> applications;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.structure = new JobDirectoryStructure();
+        this.jobRequest = new JobRequest.Builder("job", "genie", "1.0", "-f query.q", Lists.newArrayList(), null)
+            .withId("job1")
+            .build();
+        this.cluster = new Cluster.Builder("prod", "genie", "1.0", ClusterStatus.UP).withId("cluster1").build();
+        this.command = new Command.Builder("hive", "genie", "2.1.1", CommandStatus.ACTIVE, "hive", 5000L)
+            .withId("cmd1")
+            .build();
+        this.applications = Lists.newArrayList(
+            new Application.Builder("hadoop", "genie", "2.7", ApplicationStatus.ACTIVE).withId("app1").build(),
+            new Application.Builder("hive", "genie", "2.1.1", ApplicationStatus.ACTIVE).withId("app2").build()
+        );
+    }
+
+    /**
+     * Make sure the directory structure of a job is created.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canCreate() throws GenieException, IOException {
+        final File jobDir = new File(this.folder.getRoot(), "job1");
+        this.structure.create(this.getJobExecEnv(jobDir));
+
+        for (final String dir : new String[]{
+            "genie/logs",
+            "genie/cluster/cluster1/config",
+            "genie/command/cmd1/config",
+            "genie/applications/app1/config",
+            "genie/applications/app1/dependencies",
+            "genie/applications/app2/config",
+            "genie/applications/app2/dependencies"
+        }) {
+            Assert.assertTrue(dir, new File(jobDir, dir).isDirectory());
+        }
+        Assert.assertFalse(new File(jobDir, "genie/command/cmd1/dependencies").exists());
+        Assert.assertTrue(new File(jobDir, JobConstants.STDOUT_LOG_FILE_NAME).isFile());
+        Assert.assertTrue(new File(jobDir, JobConstants.STDERR_LOG_FILE_NAME).isFile());
+    }
+
+    /**
+     * Make sure the directories list every parent before its children and follow the applications of the job.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canGetDirectories() throws GenieException, IOException {
+        final List<String> directories = this.structure.getDirectories(this.getJobExecEnv(this.folder.newFolder()));
+        for (int i = 0; i < directories.size(); i++) {
+            final String parent = new File(directories.get(i)).getParent();
+            if (parent != null) {
+                Assert.assertThat(directories.subList(0, i), Matchers.hasItem(parent));
+            }
+        }
+        Assert.assertThat(directories, Matchers.hasItem("genie/applications/app2"));
+
+        this.applications.remove(1);
+        final List<String> otherDirectories
+            = this.structure.getDirectories(this.getJobExecEnv(this.folder.newFolder()));
+        Assert.assertThat(otherDirectories, Matchers.not(Matchers.hasItem("genie/applications/app2")));
+    }
+
+    /**
+     * Make sure the directory structure can be created over an existing one and with an application listed twice.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canCreateOverExistingDirectories() throws GenieException, IOException {
+        final File jobDir = this.folder.newFolder();
+        Assert.assertTrue(new File(jobDir, "genie").mkdir());
+        this.applications.add(this.applications.get(0));
+        this.structure.create(this.getJobExecEnv(jobDir));
+        this.structure.create(this.getJobExecEnv(jobDir));
+        Assert.assertTrue(new File(jobDir, "genie/applications/app1/dependencies").isDirectory());
+    }
+
+    /**
+     * Make sure a file in the way of a directory of the job fails the creation.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantCreateOverFile() throws GenieException, IOException {
+        final File jobDir = this.folder.newFolder();
+        Assert.assertTrue(new File(jobDir, "genie").createNewFile());
+        this.structure.create(this.getJobExecEnv(jobDir));
+    }
+
+    private JobExecutionEnvironment getJobExecEnv(final File jobDir) throws GenieException {
+        return new JobExecutionEnvironment.Builder(this.jobRequest, this.cluster, this.command, 1536, jobDir)
+            .withApplications(this.applications)
+            .build();
+    }
+}
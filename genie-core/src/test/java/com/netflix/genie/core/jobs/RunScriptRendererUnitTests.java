@@ -0,0 +1,191 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+
+/**
+ * Unit tests for RunScriptRenderer.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class RunScriptRendererUnitTests {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String JOB_DIR = "/tmp/genie/jobs/job1";
+
+    private RunScriptRenderer renderer;
+    private Command command;
+    private JobRequest jobRequest;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.renderer = new RunScriptRenderer();
+        this.command = new Command.Builder("hive", "genie", "2.1.1", CommandStatus.ACTIVE, "hive", 5000L)
+            .withId("cmd1")
+            .withUpdated(new Date(1000L))
+            .withSetupFile("s3://bucket/hive/setup.sh")
+            .build();
+        this.jobRequest = new JobRequest.Builder("my job", "genie", "1.0", "-f query.q", Lists.newArrayList(), null)
+            .withId("job1")
+            .build();
+    }
+
+    /**
+     * Make sure the environment of the job is rendered the same way as the launcher script always has been.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canWriteEnvironment() throws GenieException, IOException {
+        final StringWriter writer = new StringWriter();
+        this.renderer.writeEnvironment(writer, this.getJobExecEnv(this.getCluster("prod", 1000L)), JOB_DIR);
+
+        Assert.assertThat(
+            writer.toString(),
+            Matchers.is(
+                lines(
+                    "export GENIE_JOB_DIR=\"/tmp/genie/jobs/job1\"",
+                    "export GENIE_APPLICATION_DIR=\"${GENIE_JOB_DIR}/genie/applications\"",
+                    "export GENIE_COMMAND_DIR=\"${GENIE_JOB_DIR}/genie/command/cmd1\"",
+                    "export GENIE_COMMAND_ID=\"cmd1\"",
+                    "export GENIE_COMMAND_NAME=\"hive\"",
+                    "export GENIE_CLUSTER_DIR=\"${GENIE_JOB_DIR}/genie/cluster/cluster1\"",
+                    "export GENIE_CLUSTER_ID=\"cluster1\"",
+                    "export GENIE_CLUSTER_NAME=\"prod\"",
+                    "export GENIE_JOB_ID=\"job1\"",
+                    "export GENIE_JOB_NAME=\"my job\"",
+                    "export GENIE_JOB_MEMORY=1536",
+                    "export GENIE_VERSION=3"
+                )
+            )
+        );
+    }
+
+    /**
+     * Make sure the entity sections are cached per version of the entity.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canCacheSectionsPerEntityVersion() throws GenieException, IOException {
+        StringWriter writer = new StringWriter();
+        this.renderer.writeEnvironment(writer, this.getJobExecEnv(this.getCluster("prod", 1000L)), JOB_DIR);
+        Assert.assertThat(writer.toString(), Matchers.containsString("GENIE_CLUSTER_NAME=\"prod\""));
+
+        // Same version so the cached section is reused
+        writer = new StringWriter();
+        this.renderer.writeEnvironment(writer, this.getJobExecEnv(this.getCluster("test", 1000L)), JOB_DIR);
+        Assert.assertThat(writer.toString(), Matchers.containsString("GENIE_CLUSTER_NAME=\"prod\""));
+
+        // New version so the section is rendered again
+        writer = new StringWriter();
+        this.renderer.writeEnvironment(writer, this.getJobExecEnv(this.getCluster("test", 2000L)), JOB_DIR);
+        Assert.assertThat(writer.toString(), Matchers.containsString("GENIE_CLUSTER_NAME=\"test\""));
+    }
+
+    /**
+     * Make sure the snippet sourcing a setup file is rendered.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canWriteSetupFile() throws GenieException, IOException {
+        final Application application = new Application.Builder("spark", "genie", "1.6", ApplicationStatus.ACTIVE)
+            .withId("app1")
+            .withSetupFile("s3://bucket/spark/setupfile")
+            .build();
+
+        final StringWriter writer = new StringWriter();
+        this.renderer.writeSetupFile(writer, AdminResources.COMMAND, this.command);
+        this.renderer.writeSetupFile(writer, AdminResources.APPLICATION, application);
+
+        Assert.assertThat(
+            writer.toString(),
+            Matchers.is(
+                "# Sourcing setup file from Command: cmd1" + LINE_SEPARATOR
+                    + "source ${GENIE_JOB_DIR}/genie/command/cmd1/setup.sh" + LINE_SEPARATOR
+                    + LINE_SEPARATOR
+                    + "# Sourcing setup file from Application: app1" + LINE_SEPARATOR
+                    + "source ${GENIE_JOB_DIR}/genie/applications/app1/setupfile" + LINE_SEPARATOR
+                    + LINE_SEPARATOR
+            )
+        );
+    }
+
+    /**
+     * Make sure a setup file snippet can't be written for an entity without a setup file.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantWriteMissingSetupFile() throws GenieException, IOException {
+        this.renderer.writeSetupFile(new StringWriter(), AdminResources.CLUSTER, this.getCluster("prod", 1000L));
+    }
+
+    private Cluster getCluster(final String name, final long updated) {
+        return new Cluster.Builder(name, "genie", "1.0", ClusterStatus.UP)
+            .withId("cluster1")
+            .withUpdated(new Date(updated))
+            .withTags(Sets.newHashSet("prod"))
+            .build();
+    }
+
+    private JobExecutionEnvironment getJobExecEnv(final Cluster cluster) throws GenieException {
+        return new JobExecutionEnvironment.Builder(this.jobRequest, cluster, this.command, 1536, new File(JOB_DIR))
+            .build();
+    }
+
+    private static String lines(final String... lines) {
+        final StringBuilder builder = new StringBuilder();
+        for (final String line : lines) {
+            builder.append(line).append(LINE_SEPARATOR).append(LINE_SEPARATOR);
+        }
+        return builder.toString();
+    }
+}
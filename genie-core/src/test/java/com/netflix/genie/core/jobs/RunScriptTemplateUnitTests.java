@@ -0,0 +1,90 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for RunScriptTemplate.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class RunScriptTemplateUnitTests {
+
+    /**
+     * Make sure a template can be compiled and rendered.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRender() throws GenieException {
+        final RunScriptTemplate template
+            = RunScriptTemplate.compile("export A=\"${B}/{{id}}\"\nexport C=\"{{ name }}-{{id}}\"\n");
+        Assert.assertThat(template.getVariables(), Matchers.contains("id", "name"));
+
+        final StringBuilder buffer = new StringBuilder("#!/bin/bash\n");
+        template.render(buffer, "foo", 3);
+        Assert.assertThat(buffer.toString(), Matchers.is("#!/bin/bash\nexport A=\"${B}/foo\"\nexport C=\"3-foo\"\n"));
+    }
+
+    /**
+     * Make sure a template without variables renders as is.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRenderWithoutVariables() throws GenieException {
+        final RunScriptTemplate template = RunScriptTemplate.compile("echo ${HOME}");
+        Assert.assertTrue(template.getVariables().isEmpty());
+        Assert.assertThat(template.render(new StringBuilder()).toString(), Matchers.is("echo ${HOME}"));
+    }
+
+    /**
+     * Make sure a template with an unclosed variable can't be compiled.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantCompileUnclosedVariable() {
+        RunScriptTemplate.compile("export A=\"{{id\"");
+    }
+
+    /**
+     * Make sure a template with a variable without a name can't be compiled.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantCompileEmptyVariable() {
+        RunScriptTemplate.compile("export A=\"{{ }}\"");
+    }
+
+    /**
+     * Make sure a template can't be rendered without a value for each variable.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantRenderWithMissingValues() throws GenieException {
+        RunScriptTemplate.compile("{{a}} {{b}}").render(new StringBuilder(), "a");
+    }
+}
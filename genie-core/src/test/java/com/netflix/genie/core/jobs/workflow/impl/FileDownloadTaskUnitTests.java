@@ -0,0 +1,174 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jobs.workflow.impl;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.FileDownload;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the FileDownloadTask class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileDownloadTaskUnitTests {
+
+    private static final int MAX_CONCURRENT_DOWNLOADS_PER_JOB = 2;
+
+    private ExecutorService executorService;
+    private GenieFileTransferService fts;
+    private Timer timer;
+    private FileDownloadTask task;
+    private List<FileDownload> downloads;
+    private Map<String, Object> context;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.executorService = Executors.newFixedThreadPool(4);
+        this.fts = Mockito.mock(GenieFileTransferService.class);
+        this.timer = Mockito.mock(Timer.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.timer("genie.jobs.tasks.fileDownloadTask.timer")).thenReturn(this.timer);
+        this.task = new FileDownloadTask(this.executorService, MAX_CONCURRENT_DOWNLOADS_PER_JOB, registry);
+        this.downloads = new ArrayList<>();
+        this.context = new HashMap<>();
+        this.context.put(JobConstants.FILE_DOWNLOADS_KEY, this.downloads);
+    }
+
+    /**
+     * Shut down the executor.
+     */
+    @After
+    public void cleanup() {
+        this.executorService.shutdownNow();
+    }
+
+    /**
+     * Make sure nothing happens when there are no files to download.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canSkipWithoutDownloads() throws GenieException, IOException {
+        this.context.remove(JobConstants.FILE_DOWNLOADS_KEY);
+        this.task.executeTask(this.context);
+        this.context.put(JobConstants.FILE_DOWNLOADS_KEY, this.downloads);
+        this.task.executeTask(this.context);
+
+        Assert.assertFalse(this.context.containsKey(JobConstants.FILE_DOWNLOADS_KEY));
+        Mockito.verify(this.fts, Mockito.never()).getFile(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.timer, Mockito.times(2)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure all the files are downloaded concurrently without exceeding the limit for a job.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canDownloadFilesConcurrently() throws GenieException, IOException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        Mockito.doAnswer(
+            invocation -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20L);
+                running.decrementAndGet();
+                return null;
+            }
+        ).when(this.fts).getFile(Mockito.anyString(), Mockito.anyString());
+
+        final int numFiles = 8;
+        for (int i = 0; i < numFiles; i++) {
+            this.downloads.add(new FileDownload(this.fts, "s3://bucket/file" + i, "/job/file" + i));
+        }
+        this.task.executeTask(this.context);
+
+        for (int i = 0; i < numFiles; i++) {
+            Mockito.verify(this.fts, Mockito.times(1)).getFile("s3://bucket/file" + i, "/job/file" + i);
+        }
+        Assert.assertThat(maxRunning.get(), Matchers.lessThanOrEqualTo(MAX_CONCURRENT_DOWNLOADS_PER_JOB));
+        Assert.assertFalse(this.context.containsKey(JobConstants.FILE_DOWNLOADS_KEY));
+    }
+
+    /**
+     * Make sure only the last file for a given destination is downloaded.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canDownloadLastFileForDestination() throws GenieException, IOException {
+        this.downloads.add(new FileDownload(this.fts, "s3://bucket/first/file", "/job/file"));
+        this.downloads.add(new FileDownload(this.fts, "s3://bucket/other", "/job/other"));
+        this.downloads.add(new FileDownload(this.fts, "s3://bucket/second/file", "/job/file"));
+
+        this.task.executeTask(this.context);
+
+        Mockito.verify(this.fts, Mockito.never()).getFile("s3://bucket/first/file", "/job/file");
+        Mockito.verify(this.fts, Mockito.times(1)).getFile("s3://bucket/second/file", "/job/file");
+        Mockito.verify(this.fts, Mockito.times(1)).getFile("s3://bucket/other", "/job/other");
+    }
+
+    /**
+     * Make sure a failed download fails the task with the original exception.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantDownloadIfFileFails() throws GenieException, IOException {
+        Mockito
+            .doThrow(new GenieServerException("bad"))
+            .when(this.fts)
+            .getFile(Mockito.eq("s3://bucket/bad"), Mockito.anyString());
+        this.downloads.add(new FileDownload(this.fts, "s3://bucket/good", "/job/good"));
+        this.downloads.add(new FileDownload(this.fts, "s3://bucket/bad", "/job/bad"));
+
+        this.task.executeTask(this.context);
+    }
+}
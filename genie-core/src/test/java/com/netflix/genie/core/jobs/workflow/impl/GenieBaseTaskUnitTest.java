@@ -19,7 +19,10 @@ package com.netflix.genie.core.jobs.workflow.impl;
 
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.AdminResources;
+import com.netflix.genie.core.jobs.FileDownload;
 import com.netflix.genie.core.jobs.FileType;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.services.impl.GenieFileTransferService;
 import com.netflix.genie.test.categories.UnitTest;
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,6 +30,11 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Tests for GenieBaseTask.
  *
@@ -208,4 +216,40 @@ public class GenieBaseTaskUnitTest {
 
         Assert.assertEquals("dirpath/genie/cluster/id/dependencies/filename", localPath);
     }
+
+    /**
+     * Test the downloadFile method fetches the file right away if the workflow doesn't collect the downloads.
+     *
+     * @throws GenieException if there is a problem.
+     */
+    @Test
+    public void testDownloadFileWithoutDownloadList() throws GenieException {
+        final GenieFileTransferService fts = Mockito.mock(GenieFileTransferService.class);
+        final Map<String, Object> context = new HashMap<>();
+
+        this.genieBaseTask.downloadFile(context, fts, "s3://bucket/file", "dirpath/file");
+
+        Mockito.verify(fts, Mockito.times(1)).getFile("s3://bucket/file", "dirpath/file");
+    }
+
+    /**
+     * Test the downloadFile method adds the file to the downloads of the job if the workflow collects them.
+     *
+     * @throws GenieException if there is a problem.
+     */
+    @Test
+    public void testDownloadFileWithDownloadList() throws GenieException {
+        final GenieFileTransferService fts = Mockito.mock(GenieFileTransferService.class);
+        final List<FileDownload> downloads = new ArrayList<>();
+        final Map<String, Object> context = new HashMap<>();
+        context.put(JobConstants.FILE_DOWNLOADS_KEY, downloads);
+
+        this.genieBaseTask.downloadFile(context, fts, "s3://bucket/file", "dirpath/file");
+
+        Mockito.verify(fts, Mockito.never()).getFile(Mockito.anyString(), Mockito.anyString());
+        Assert.assertEquals(1, downloads.size());
+        Assert.assertEquals(fts, downloads.get(0).getFileTransferService());
+        Assert.assertEquals("s3://bucket/file", downloads.get(0).getSrcRemotePath());
+        Assert.assertEquals("dirpath/file", downloads.get(0).getDstLocalPath());
+    }
 }
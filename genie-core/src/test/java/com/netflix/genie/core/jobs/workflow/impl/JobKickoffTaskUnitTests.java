@@ -169,4 +169,21 @@ public class JobKickoffTaskUnitTests {
             group
         );
     }
+
+    /**
+     * Test the create user method doesn't check users already known to exist again.
+     *
+     * @throws IOException If there is any problem.
+     * @throws GenieException If there is any problem.
+     */
+    @Test
+    public void testCreateUserMethodSkipsKnownUsers() throws IOException, GenieException {
+        final String user = "user";
+        final String group = "group";
+
+        this.jobKickoffTask.createUser(user, group);
+        this.jobKickoffTask.createUser(user, group);
+        this.jobKickoffTask.createUser("otherUser", group);
+        Mockito.verify(this.executor, Mockito.times(2)).execute(Mockito.any(CommandLine.class));
+    }
 }
@@ -171,6 +171,25 @@ public class ClusterEntityUnitTests extends EntityTestsBase {
         Assert.assertThat(this.c.getTags(), Matchers.empty());
     }
 
+    /**
+     * Make sure the normalized tags used for searching are kept in sync with the tags.
+     */
+    @Test
+    public void canSyncIndexedTags() {
+        final Set<String> indexedTags = this.c.getIndexedTags();
+        Assert.assertThat(indexedTags, Matchers.empty());
+
+        this.c.setTags(Sets.newHashSet("prod", "sla"));
+        Assert.assertThat(this.c.getIndexedTags(), Matchers.sameInstance(indexedTags));
+        Assert.assertThat(indexedTags, Matchers.containsInAnyOrder("prod", "sla"));
+
+        this.c.setTags(Sets.newHashSet("sla", "yarn"));
+        Assert.assertThat(indexedTags, Matchers.containsInAnyOrder("sla", "yarn"));
+
+        this.c.setTags(null);
+        Assert.assertThat(indexedTags, Matchers.empty());
+    }
+
     /**
      * Test setting the configs.
      */
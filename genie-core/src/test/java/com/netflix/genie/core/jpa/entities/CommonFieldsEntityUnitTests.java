@@ -168,6 +168,7 @@ public class CommonFieldsEntityUnitTests extends EntityTestsBase {
 
         this.c.setTags(Sets.newHashSet());
         Assert.assertThat(this.c.getTags(), Matchers.empty());
+        Assert.assertThat(this.c.getIndexedTags(), Matchers.nullValue());
     }
 
     /**
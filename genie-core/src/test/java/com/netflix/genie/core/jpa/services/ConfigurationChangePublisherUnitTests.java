@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for the ConfigurationChangePublisher class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ConfigurationChangePublisherUnitTests {
+
+    private ApplicationEventPublisher eventPublisher;
+    private ConfigurationChangePublisher changePublisher;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        this.changePublisher = new ConfigurationChangePublisher(this.eventPublisher, ConfigurationType.COMMAND);
+    }
+
+    /**
+     * Clean up after the tests.
+     */
+    @After
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Make sure the event is published immediately when there is no transaction.
+     */
+    @Test
+    public void canPublishWithoutTransaction() {
+        final String id = UUID.randomUUID().toString();
+        this.changePublisher.publish(id);
+
+        final ArgumentCaptor<ConfigurationChangedEvent> captor
+            = ArgumentCaptor.forClass(ConfigurationChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(captor.capture());
+        Assert.assertThat(captor.getValue().getType(), Matchers.is(ConfigurationType.COMMAND));
+        Assert.assertThat(captor.getValue().getId().orElse(null), Matchers.is(id));
+    }
+
+    /**
+     * Make sure the event is held until the transaction commits.
+     */
+    @Test
+    public void canPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        this.changePublisher.publish(null);
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(ConfigurationChangedEvent.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        final ArgumentCaptor<ConfigurationChangedEvent> captor
+            = ArgumentCaptor.forClass(ConfigurationChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(captor.capture());
+        Assert.assertFalse(captor.getValue().getId().isPresent());
+    }
+
+    /**
+     * Make sure the event is dropped if the transaction rolls back.
+     */
+    @Test
+    public void wontPublishOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        this.changePublisher.publish(UUID.randomUUID().toString());
+        TransactionSynchronizationManager
+            .getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(ConfigurationChangedEvent.class));
+    }
+}
@@ -34,6 +34,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.mockito.internal.util.collections.Sets;
 
 import java.util.HashSet;
@@ -62,7 +63,11 @@ public class JpaApplicationServiceImplUnitTests {
     public void setup() {
         this.jpaApplicationRepository = Mockito.mock(JpaApplicationRepository.class);
         final JpaCommandRepository jpaCommandRepository = Mockito.mock(JpaCommandRepository.class);
-        this.appService = new JpaApplicationServiceImpl(this.jpaApplicationRepository, jpaCommandRepository);
+        this.appService = new JpaApplicationServiceImpl(
+            this.jpaApplicationRepository,
+            jpaCommandRepository,
+            Mockito.mock(ApplicationEventPublisher.class)
+        );
     }
 
     /**
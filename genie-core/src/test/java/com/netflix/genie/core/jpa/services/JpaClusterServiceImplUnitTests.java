@@ -25,15 +25,21 @@ import com.netflix.genie.common.exceptions.GenieConflictException;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.repositories.JpaClusterRepository;
 import com.netflix.genie.core.jpa.repositories.JpaCommandRepository;
 import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -59,6 +65,7 @@ public class JpaClusterServiceImplUnitTests {
     private JpaClusterServiceImpl service;
     private JpaClusterRepository jpaClusterRepository;
     private JpaCommandRepository jpaCommandRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Setup for the tests.
@@ -67,7 +74,12 @@ public class JpaClusterServiceImplUnitTests {
     public void setup() {
         this.jpaClusterRepository = Mockito.mock(JpaClusterRepository.class);
         this.jpaCommandRepository = Mockito.mock(JpaCommandRepository.class);
-        this.service = new JpaClusterServiceImpl(this.jpaClusterRepository, this.jpaCommandRepository);
+        this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        this.service = new JpaClusterServiceImpl(
+            this.jpaClusterRepository,
+            this.jpaCommandRepository,
+            this.eventPublisher
+        );
     }
 
     /**
@@ -389,4 +401,22 @@ public class JpaClusterServiceImplUnitTests {
         Mockito.when(this.jpaClusterRepository.findOne(id)).thenReturn(null);
         this.service.removeTagForCluster(id, "something");
     }
+
+    /**
+     * Make sure a configuration changed event is published when a cluster is modified.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canPublishConfigurationChangedEvent() throws GenieException {
+        final String id = UUID.randomUUID().toString();
+        Mockito.when(this.jpaClusterRepository.findOne(id)).thenReturn(Mockito.mock(ClusterEntity.class));
+        this.service.removeAllTagsForCluster(id);
+
+        final ArgumentCaptor<ConfigurationChangedEvent> captor
+            = ArgumentCaptor.forClass(ConfigurationChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(1)).publishEvent(captor.capture());
+        Assert.assertThat(captor.getValue().getType(), Matchers.is(ConfigurationType.CLUSTER));
+        Assert.assertThat(captor.getValue().getId().orElse(null), Matchers.is(id));
+    }
 }
@@ -33,6 +33,7 @@ import org.junit.experimental.categories.Category;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Calendar;
+import java.util.Date;
 
 /**
  * Integration tests for JpaJobPersistenceImpl.
@@ -73,9 +74,15 @@ public class JpaJobPersistenceImplIntegrationTests extends DBUnitTestBase {
         cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
         cal.set(Calendar.MILLISECOND, 0);
 
-        final long deleted = this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(cal.getTime());
+        final Date date = cal.getTime();
+
+        // Delete one job per batch until there are none left from before the date
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(1L));
+        Assert.assertThat(this.jobRepository.count(), Matchers.is(2L));
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(1L));
+        Assert.assertThat(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 1), Matchers.is(0L));
+
 
-        Assert.assertThat(deleted, Matchers.is(2L));
         Assert.assertThat(this.jobExecutionRepository.count(), Matchers.is(1L));
         Assert.assertThat(this.jobRequestRepository.count(), Matchers.is(1L));
         Assert.assertThat(this.jobRequestMetadataRepository.count(), Matchers.is(1L));
@@ -0,0 +1,133 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.jpa.services;
+
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import com.github.springtestdbunit.annotation.DatabaseTearDown;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.services.JobRoutingService;
+import com.netflix.genie.test.categories.IntegrationTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Integration tests for the JpaJobRoutingServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(IntegrationTest.class)
+@DatabaseSetup("JpaClusterServiceImplIntegrationTests/init.xml")
+@DatabaseTearDown("cleanup.xml")
+public class JpaJobRoutingServiceImplIntegrationTests extends DBUnitTestBase {
+
+    @Autowired
+    private JobRoutingService service;
+
+    /**
+     * Make sure the routes match what choosing the cluster and then the command separately would give.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetJobRoutes() throws GenieException {
+        final List<JobRoute> one = this.service.getJobRoutes(this.getJobRequest("pig", "genie.id:cluster1"));
+        Assert.assertThat(one.size(), Matchers.is(1));
+        Assert.assertThat(one.get(0).getCluster().getId().orElse(null), Matchers.is("cluster1"));
+        Assert.assertThat(one.get(0).getCommand().getId().orElse(null), Matchers.is("command1"));
+        Assert.assertTrue(one.get(0).getApplications().isEmpty());
+
+        Assert.assertTrue(this.service.getJobRoutes(this.getJobRequest("pig", "genie.id:cluster")).isEmpty());
+        Assert.assertTrue(this.service.getJobRoutes(this.getJobRequest("pi", "genie.id:cluster1")).isEmpty());
+        Assert.assertTrue(this.service.getJobRoutes(this.getJobRequest("hive", "genie.id:cluster1")).isEmpty());
+
+        final List<JobRoute> four = this.service.getJobRoutes(this.getJobRequest("pig", "pig"));
+        Assert.assertThat(
+            four.stream().map(route -> route.getCluster().getId().orElse(null)).collect(Collectors.toList()),
+            Matchers.contains("cluster1", "cluster2")
+        );
+        four.forEach(
+            route -> Assert.assertThat(route.getCommand().getId().orElse(null), Matchers.is("command1"))
+        );
+    }
+
+    /**
+     * Make sure the cluster criteria are evaluated in order.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test
+    public void canGetJobRoutesForFirstMatchingCriteria() throws GenieException {
+        final List<JobRoute> routes
+            = this.service.getJobRoutes(this.getJobRequest("pig", "genie.id:cluster3", "query", "prod"));
+        Assert.assertThat(routes.size(), Matchers.is(1));
+        Assert.assertThat(routes.get(0).getCluster().getId().orElse(null), Matchers.is("cluster2"));
+
+        final List<JobRoute> all = this.service.getJobRoutes(this.getJobRequest("tez", "prod", "hive"));
+        Assert.assertThat(all.size(), Matchers.is(1));
+        Assert.assertThat(all.get(0).getCluster().getId().orElse(null), Matchers.is("cluster1"));
+    }
+
+    /**
+     * Make sure requested applications which don't exist cause an exception.
+     *
+     * @throws GenieException For any problem
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantGetJobRoutesWithMissingApplication() throws GenieException {
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("pig"))),
+            Sets.newHashSet("pig")
+        ).withApplications(Lists.newArrayList(UUID.randomUUID().toString())).build();
+        this.service.getJobRoutes(jobRequest);
+    }
+
+    private JobRequest getJobRequest(final String commandTag, final String... clusterTags) {
+        final Set<String> commandCriteria = Sets.newHashSet(commandTag);
+        return new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists
+                .newArrayList(clusterTags)
+                .stream()
+                .map(tag -> new ClusterCriteria(Sets.newHashSet(tag)))
+                .collect(Collectors.toList()),
+            commandCriteria
+        ).build();
+    }
+}
@@ -22,10 +22,13 @@ import com.github.springtestdbunit.annotation.DatabaseTearDown;
 import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.jobs.JobSearchSlice;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.IntegrationTest;
 import com.netflix.genie.test.suppliers.RandomSuppliers;
@@ -39,9 +42,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Integration tests for the Job Search Service using JPA.
@@ -143,6 +151,283 @@ public class JpaJobSearchServiceImplIntegrationTests extends DBUnitTestBase {
         );
     }
 
+    /**
+     * Make sure we can search jobs without counting them and still know if there is a next page.
+     */
+    @Test
+    public void canFindJobsWithoutCount() {
+        Page<JobSearchResult> jobs = this.service
+            .findJobs(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                new PageRequest(0, 2, Sort.Direction.DESC, "created"),
+                false
+            );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_3_ID, JOB_2_ID)
+        );
+        Assert.assertTrue(jobs.hasNext());
+        Assert.assertThat(jobs.getTotalElements(), Matchers.greaterThan(2L));
+
+        jobs = this.service
+            .findJobs(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                new PageRequest(1, 2, Sort.Direction.DESC, "created"),
+                false
+            );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_1_ID)
+        );
+        Assert.assertFalse(jobs.hasNext());
+        Assert.assertThat(jobs.getTotalElements(), Matchers.is(3L));
+    }
+
+    /**
+     * Make sure we can walk through jobs a page at a time seeking after the cursor of the previous page.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFindJobsAfter() throws GenieException {
+        final Pageable descending = new PageRequest(0, 2, Sort.Direction.DESC, "created");
+        JobSearchSlice jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            descending
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_3_ID, JOB_2_ID)
+        );
+        Assert.assertTrue(jobs.hasNext());
+        Assert.assertTrue(jobs.getNextCursor().isPresent());
+
+        jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            jobs.getNextCursor().get(),
+            descending
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_1_ID)
+        );
+        Assert.assertFalse(jobs.hasNext());
+        Assert.assertFalse(jobs.getNextCursor().isPresent());
+
+        jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            new PageRequest(0, 1, Sort.Direction.ASC, "created")
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_1_ID)
+        );
+        Assert.assertTrue(jobs.getNextCursor().isPresent());
+        final String afterJob1 = jobs.getNextCursor().get();
+
+        jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            afterJob1,
+            new PageRequest(0, 10, Sort.Direction.ASC, "created")
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_2_ID, JOB_3_ID)
+        );
+        Assert.assertFalse(jobs.hasNext());
+
+        // Filters still apply when seeking
+        jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            Sets.newHashSet(JobStatus.RUNNING),
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            afterJob1,
+            new PageRequest(0, 10, Sort.Direction.ASC, "created")
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_3_ID)
+        );
+    }
+
+    /**
+     * Make sure we can seek after a job which no longer exists as the cursor carries everything needed to seek.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFindJobsAfterJobWhichDoesntExist() throws GenieException {
+        final String cursor = Base64
+            .getUrlEncoder()
+            .encodeToString((Long.MAX_VALUE + ":" + UUID.randomUUID().toString()).getBytes(StandardCharsets.UTF_8));
+        final JobSearchSlice jobs = this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            cursor,
+            new PageRequest(0, 10, Sort.Direction.DESC, "created")
+        );
+        Assert.assertThat(
+            jobs.getContent().stream().map(JobSearchResult::getId).collect(Collectors.toList()),
+            Matchers.contains(JOB_3_ID, JOB_2_ID, JOB_1_ID)
+        );
+    }
+
+    /**
+     * Make sure we can't seek after a cursor which wasn't returned with a page.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantFindJobsAfterMalformedCursor() throws GenieException {
+        this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            "not a cursor",
+            new PageRequest(0, 10)
+        );
+    }
+
+    /**
+     * Make sure we can't seek after a job when sorting by a column which can be null or change between pages.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantFindJobsAfterWhenSortedByMutableProperty() throws GenieException {
+        this.service.findJobsAfter(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            JOB_1_ID,
+            new PageRequest(0, 10, Sort.Direction.DESC, "finished")
+        );
+    }
+
+    /**
+     * Make sure we can find out whether any jobs were created before a date.
+     */
+    @Test
+    public void canCheckForJobsCreatedBefore() {
+        Assert.assertFalse(this.service.hasJobsCreatedBefore(new Date(0L)));
+        Assert.assertTrue(this.service.hasJobsCreatedBefore(new Date()));
+    }
+
     /**
      * Make sure we can get the correct number of jobs which are active on a given host.
      *
@@ -183,6 +468,39 @@ public class JpaJobSearchServiceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertTrue(jobs.isEmpty());
     }
 
+    /**
+     * Make sure we can get the statuses of the jobs which are active on a given host.
+     */
+    @Test
+    public void canFindActiveJobStatusesByHostName() {
+        Map<String, JobStatus> statuses = this.service.getAllActiveJobStatusesOnHost("a.netflix.com");
+        Assert.assertThat(statuses.size(), Matchers.is(1));
+        Assert.assertThat(statuses.get(JOB_2_ID), Matchers.is(JobStatus.INIT));
+
+        statuses = this.service.getAllActiveJobStatusesOnHost("b.netflix.com");
+        Assert.assertThat(statuses.size(), Matchers.is(1));
+        Assert.assertThat(statuses.get(JOB_3_ID), Matchers.is(JobStatus.RUNNING));
+
+        Assert.assertTrue(this.service.getAllActiveJobStatusesOnHost("c.netflix.com").isEmpty());
+    }
+
+    /**
+     * Make sure we can get the execution information of the jobs which are running on a given host.
+     */
+    @Test
+    public void canFindRunningJobExecutionsByHostName() {
+        Assert.assertTrue(this.service.getAllRunningJobExecutionsOnHost("a.netflix.com").isEmpty());
+
+        final Set<JobExecution> executions = this.service.getAllRunningJobExecutionsOnHost("b.netflix.com");
+        Assert.assertThat(executions.size(), Matchers.is(1));
+        final JobExecution execution = executions.iterator().next();
+        Assert.assertThat(execution.getId().orElseThrow(IllegalArgumentException::new), Matchers.is(JOB_3_ID));
+        Assert.assertThat(execution.getHostName(), Matchers.is("b.netflix.com"));
+        Assert.assertThat(execution.getProcessId().orElseThrow(IllegalArgumentException::new), Matchers.is(319));
+        Assert.assertThat(execution.getCheckDelay().orElseThrow(IllegalArgumentException::new), Matchers.is(12000L));
+        Assert.assertTrue(execution.getTimeout().isPresent());
+    }
+
     /**
      * Make sure we can get the host names of nodes currently running jobs.
      */
@@ -197,6 +515,16 @@ public class JpaJobSearchServiceImplIntegrationTests extends DBUnitTestBase {
         Assert.assertThat(hostNames, Matchers.hasItem(hostB));
     }
 
+    /**
+     * Make sure we can count the active jobs on each cluster.
+     */
+    @Test
+    public void canGetActiveJobCountsByCluster() {
+        final Map<String, Long> counts = this.service.getActiveJobCountsByCluster();
+        Assert.assertThat(counts.size(), Matchers.is(1));
+        Assert.assertThat(counts.get("cluster1"), Matchers.is(2L));
+    }
+
     /**
      * Make sure the getting job method works.
      *
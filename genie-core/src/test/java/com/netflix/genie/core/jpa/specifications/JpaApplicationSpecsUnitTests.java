@@ -19,10 +19,13 @@ import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.common.dto.ApplicationStatus;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity;
 import com.netflix.genie.core.jpa.entities.ApplicationEntity_;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -31,6 +34,9 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -55,7 +61,7 @@ public class JpaApplicationSpecsUnitTests {
     private Root<ApplicationEntity> root;
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
-    private String tagLikeStatement;
+    private SetJoin<ApplicationEntity, String> taggedTags;
 
     /**
      * Setup some variables.
@@ -92,13 +98,12 @@ public class JpaApplicationSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(ApplicationStatus.class)))
                 .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(ApplicationEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class)))
-                .thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
+        final Subquery<String> tagged = (Subquery<String>) Mockito.mock(Subquery.class);
+        Mockito.when(this.cq.subquery(String.class)).thenReturn(tagged);
+        final Root<ApplicationEntity> taggedRoot = (Root<ApplicationEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(ApplicationEntity.class)).thenReturn(taggedRoot);
+        this.taggedTags = (SetJoin<ApplicationEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(taggedRoot.join(ApplicationEntity_.indexedTags)).thenReturn(this.taggedTags);
 
         final Path<String> typePath = (Path<String>) Mockito.mock(Path.class);
         final Predicate typePredicate = Mockito.mock(Predicate.class);
@@ -119,7 +124,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -136,7 +141,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -153,7 +158,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -170,7 +175,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -188,7 +193,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -205,7 +210,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.never()).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cq, Mockito.never()).subquery(String.class);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -223,7 +228,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -240,7 +245,7 @@ public class JpaApplicationSpecsUnitTests {
         for (final ApplicationStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ApplicationEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(ApplicationEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(ApplicationEntity_.type), TYPE);
     }
 
@@ -251,4 +256,14 @@ public class JpaApplicationSpecsUnitTests {
     public void testProtectedConstructor() {
         Assert.assertNotNull(new JpaApplicationSpecs());
     }
+
+    @SuppressWarnings("unchecked")
+    private void verifyTagsSubquery(final SetJoin<?, String> taggedTags, final Set<String> tags) {
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(taggedTags, Mockito.times(1)).in(captor.capture());
+        Assert.assertThat(
+            (Collection<String>) captor.getValue(),
+            Matchers.containsInAnyOrder(tags.stream().filter(StringUtils::isNotBlank).toArray())
+        );
+    }
 }
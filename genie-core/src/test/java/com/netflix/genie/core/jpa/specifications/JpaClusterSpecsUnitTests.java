@@ -15,31 +15,36 @@
  */
 package com.netflix.genie.core.jpa.specifications;
 
-import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.ClusterCriteria;
 import com.netflix.genie.common.dto.ClusterStatus;
 import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jpa.entities.BaseEntity_;
 import com.netflix.genie.core.jpa.entities.ClusterEntity;
 import com.netflix.genie.core.jpa.entities.ClusterEntity_;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity_;
 import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.ListJoin;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -72,8 +77,8 @@ public class JpaClusterSpecsUnitTests {
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
     private ListJoin<ClusterEntity, CommandEntity> commands;
-    private String tagLikeStatement;
-    private String commandLikeStatement;
+    private SetJoin<ClusterEntity, String> clusterTags;
+    private SetJoin<CommandEntity, String> commandTags;
 
     /**
      * Setup test wide variables.
@@ -130,16 +135,18 @@ public class JpaClusterSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(ClusterStatus.class)))
             .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(ClusterEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class))).thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
-
-        this.commandLikeStatement = JpaSpecificationUtils.getTagLikeString(
-            Sets.newHashSet(COMMAND_CRITERIA_TAG_1, COMMAND_CRITERIA_TAG_2)
-        );
+        final Subquery<String> tagged = (Subquery<String>) Mockito.mock(Subquery.class);
+        Mockito.when(this.cq.subquery(String.class)).thenReturn(tagged);
+        final Root<ClusterEntity> clusterTagsRoot = (Root<ClusterEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(ClusterEntity.class)).thenReturn(clusterTagsRoot);
+        this.clusterTags = (SetJoin<ClusterEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(clusterTagsRoot.join(ClusterEntity_.indexedTags)).thenReturn(this.clusterTags);
+        final Root<CommandEntity> commandTagsRoot = (Root<CommandEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(CommandEntity.class)).thenReturn(commandTagsRoot);
+        this.commandTags = (SetJoin<CommandEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(commandTagsRoot.join(CommandEntity_.indexedTags)).thenReturn(this.commandTags);
+        final Path<String> commandIdPath = (Path<String>) Mockito.mock(Path.class);
+        Mockito.when(this.commands.get(BaseEntity_.id)).thenReturn(commandIdPath);
 
         // Setup for findByClusterAndCommandCriteria
         Mockito.when(this.root.join(ClusterEntity_.commands)).thenReturn(this.commands);
@@ -165,8 +172,7 @@ public class JpaClusterSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1))
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -193,8 +199,7 @@ public class JpaClusterSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1))
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -222,8 +227,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(
             this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never())
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -251,8 +255,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.never())
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -280,8 +283,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.never())
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cq, Mockito.never()).subquery(String.class);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -309,8 +311,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.times(1))
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -338,8 +339,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.never())
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -368,8 +368,7 @@ public class JpaClusterSpecsUnitTests {
             .greaterThanOrEqualTo(this.root.get(ClusterEntity_.updated), MIN_UPDATE_TIME);
         Mockito.verify(this.cb, Mockito.never())
             .lessThan(this.root.get(ClusterEntity_.updated), MAX_UPDATE_TIME);
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(this.root.get(ClusterEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.clusterTags, TAGS);
         for (final ClusterStatus status : STATUSES) {
             Mockito.verify(this.cb, Mockito.times(1))
                 .equal(this.root.get(ClusterEntity_.status), status);
@@ -390,7 +389,7 @@ public class JpaClusterSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.commands.get(CommandEntity_.status), CommandStatus.ACTIVE);
         Mockito.verify(this.root, Mockito.times(1)).get(ClusterEntity_.status);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(ClusterEntity_.status), ClusterStatus.UP);
-        Mockito.verify(this.cb, Mockito.never()).isMember(Mockito.any(String.class), Mockito.any(Expression.class));
+        Mockito.verify(this.cq, Mockito.never()).subquery(String.class);
     }
 
     /**
@@ -410,10 +409,8 @@ public class JpaClusterSpecsUnitTests {
             .equal(Mockito.eq(this.commands.get(CommandEntity_.status)), Mockito.eq(CommandStatus.ACTIVE));
         Mockito.verify(this.cb, Mockito.times(1))
             .equal(Mockito.eq(this.root.get(ClusterEntity_.status)), Mockito.eq(ClusterStatus.UP));
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(Mockito.eq(this.root.get(ClusterEntity_.tags)), Mockito.eq(this.tagLikeStatement));
-        Mockito.verify(this.cb, Mockito.times(1))
-            .like(Mockito.eq(this.commands.get(CommandEntity_.tags)), Mockito.eq(this.commandLikeStatement));
+        this.verifyTagsSubquery(this.clusterTags, CLUSTER_CRITERIA_TAGS);
+        this.verifyTagsSubquery(this.commandTags, COMMAND_CRITERIA);
     }
 
     /**
@@ -423,4 +420,14 @@ public class JpaClusterSpecsUnitTests {
     public void testProtectedConstructor() {
         Assert.assertNotNull(new JpaClusterSpecs());
     }
+
+    @SuppressWarnings("unchecked")
+    private void verifyTagsSubquery(final SetJoin<?, String> taggedTags, final Set<String> tags) {
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(taggedTags, Mockito.times(1)).in(captor.capture());
+        Assert.assertThat(
+            (Collection<String>) captor.getValue(),
+            Matchers.containsInAnyOrder(tags.stream().filter(StringUtils::isNotBlank).toArray())
+        );
+    }
 }
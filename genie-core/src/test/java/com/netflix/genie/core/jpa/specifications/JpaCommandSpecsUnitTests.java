@@ -19,10 +19,13 @@ import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.CommandEntity_;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -31,6 +34,9 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -53,7 +59,7 @@ public class JpaCommandSpecsUnitTests {
     private Root<CommandEntity> root;
     private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
-    private String tagLikeStatement;
+    private SetJoin<CommandEntity, String> taggedTags;
 
     /**
      * Setup some variables.
@@ -92,12 +98,12 @@ public class JpaCommandSpecsUnitTests {
         Mockito.when(this.cb.equal(Mockito.eq(statusPath), Mockito.any(CommandStatus.class)))
                 .thenReturn(equalStatusPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(CommandEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class))).thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
+        final Subquery<String> tagged = (Subquery<String>) Mockito.mock(Subquery.class);
+        Mockito.when(this.cq.subquery(String.class)).thenReturn(tagged);
+        final Root<CommandEntity> taggedRoot = (Root<CommandEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(CommandEntity.class)).thenReturn(taggedRoot);
+        this.taggedTags = (SetJoin<CommandEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(taggedRoot.join(CommandEntity_.indexedTags)).thenReturn(this.taggedTags);
     }
 
     /**
@@ -118,8 +124,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -140,8 +145,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -162,8 +166,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -184,8 +187,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.never())
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cq, Mockito.never()).subquery(String.class);
     }
 
     /**
@@ -207,8 +209,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.times(1))
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -228,8 +229,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.never())
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -249,8 +249,7 @@ public class JpaCommandSpecsUnitTests {
             Mockito.verify(this.cb, Mockito.never())
                     .equal(this.root.get(CommandEntity_.status), status);
         }
-        Mockito.verify(this.cb, Mockito.times(1))
-                .like(this.root.get(CommandEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
     }
 
     /**
@@ -260,4 +259,14 @@ public class JpaCommandSpecsUnitTests {
     public void testProtectedConstructor() {
         Assert.assertNotNull(new JpaCommandSpecs());
     }
+
+    @SuppressWarnings("unchecked")
+    private void verifyTagsSubquery(final SetJoin<?, String> taggedTags, final Set<String> tags) {
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(taggedTags, Mockito.times(1)).in(captor.capture());
+        Assert.assertThat(
+            (Collection<String>) captor.getValue(),
+            Matchers.containsInAnyOrder(tags.stream().filter(StringUtils::isNotBlank).toArray())
+        );
+    }
 }
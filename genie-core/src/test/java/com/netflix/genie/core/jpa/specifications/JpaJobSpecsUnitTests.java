@@ -21,16 +21,23 @@ import com.netflix.genie.core.jpa.entities.CommandEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity;
 import com.netflix.genie.core.jpa.entities.JobEntity_;
 import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -60,8 +67,9 @@ public class JpaJobSpecsUnitTests {
     private static final Date MAX_FINISHED = new Date(MIN_FINISHED.getTime() + 10);
 
     private Root<JobEntity> root;
+    private CriteriaQuery<?> cq;
     private CriteriaBuilder cb;
-    private String tagLikeStatement;
+    private SetJoin<JobEntity, String> taggedTags;
 
     /**
      * Setup the mocks.
@@ -77,6 +85,7 @@ public class JpaJobSpecsUnitTests {
         STATUSES.add(JobStatus.FAILED);
 
         this.root = (Root<JobEntity>) Mockito.mock(Root.class);
+        this.cq = Mockito.mock(CriteriaQuery.class);
         this.cb = Mockito.mock(CriteriaBuilder.class);
 
         final Path<String> idPath = (Path<String>) Mockito.mock(Path.class);
@@ -120,12 +129,12 @@ public class JpaJobSpecsUnitTests {
         Mockito.when(this.root.get(JobEntity_.command)).thenReturn(commandIdPath);
         Mockito.when(this.cb.equal(clusterIdPath, COMMAND)).thenReturn(equalCommandIdPredicate);
 
-        final Path<String> tagPath = (Path<String>) Mockito.mock(Path.class);
-        final Predicate likeTagPredicate = Mockito.mock(Predicate.class);
-        Mockito.when(this.root.get(JobEntity_.tags)).thenReturn(tagPath);
-        Mockito.when(this.cb.like(Mockito.eq(tagPath), Mockito.any(String.class))).thenReturn(likeTagPredicate);
-
-        this.tagLikeStatement = JpaSpecificationUtils.getTagLikeString(TAGS);
+        final Subquery<String> tagged = (Subquery<String>) Mockito.mock(Subquery.class);
+        Mockito.when(this.cq.subquery(String.class)).thenReturn(tagged);
+        final Root<JobEntity> taggedRoot = (Root<JobEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(JobEntity.class)).thenReturn(taggedRoot);
+        this.taggedTags = (SetJoin<JobEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(taggedRoot.join(JobEntity_.indexedTags)).thenReturn(this.taggedTags);
 
         final Path<Date> startedPath = (Path<Date>) Mockito.mock(Path.class);
         final Predicate minStartedPredicate = Mockito.mock(Predicate.class);
@@ -159,6 +168,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithAll() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -185,7 +195,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -201,6 +211,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutId() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             null,
             JOB_NAME,
@@ -227,7 +238,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -243,6 +254,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutJobName() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             null,
@@ -269,7 +281,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -285,6 +297,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutUserName() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -311,7 +324,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -327,6 +340,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutStatus() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -353,7 +367,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -369,6 +383,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithEmptyStatus() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -395,7 +410,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -411,6 +426,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutClusterName() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -437,7 +453,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -453,6 +469,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutClusterId() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -479,7 +496,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -495,6 +512,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutCommandName() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -521,7 +539,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -537,6 +555,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutCommandId() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -563,7 +582,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.never()).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -579,6 +598,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutTags() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -605,7 +625,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.never()).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        Mockito.verify(this.cq, Mockito.never()).subquery(String.class);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -621,6 +641,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutMinStarted() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -647,7 +668,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.never()).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -663,6 +684,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutMaxStarted() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -689,7 +711,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.never()).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -705,6 +727,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutMinFinished() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -731,7 +754,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -747,6 +770,7 @@ public class JpaJobSpecsUnitTests {
     public void testFindWithOutMaxFinished() {
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -773,7 +797,7 @@ public class JpaJobSpecsUnitTests {
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.commandName), COMMAND_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.command), COMMAND);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -790,6 +814,7 @@ public class JpaJobSpecsUnitTests {
         TAGS.add("");
         JpaJobSpecs.getFindPredicate(
             this.root,
+            this.cq,
             this.cb,
             ID,
             JOB_NAME,
@@ -814,7 +839,7 @@ public class JpaJobSpecsUnitTests {
         }
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.clusterName), CLUSTER_NAME);
         Mockito.verify(this.cb, Mockito.times(1)).equal(this.root.get(JobEntity_.cluster), CLUSTER);
-        Mockito.verify(this.cb, Mockito.times(1)).like(this.root.get(JobEntity_.tags), this.tagLikeStatement);
+        this.verifyTagsSubquery(this.taggedTags, TAGS);
         Mockito.verify(this.cb, Mockito.times(1)).greaterThanOrEqualTo(this.root.get(JobEntity_.started), MIN_STARTED);
         Mockito.verify(this.cb, Mockito.times(1)).lessThan(this.root.get(JobEntity_.started), MAX_STARTED);
         Mockito
@@ -830,4 +855,14 @@ public class JpaJobSpecsUnitTests {
     public void testProtectedConstructor() {
         Assert.assertNotNull(new JpaJobSpecs());
     }
+
+    @SuppressWarnings("unchecked")
+    private void verifyTagsSubquery(final SetJoin<?, String> taggedTags, final Set<String> tags) {
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(taggedTags, Mockito.times(1)).in(captor.capture());
+        Assert.assertThat(
+            (Collection<String>) captor.getValue(),
+            Matchers.containsInAnyOrder(tags.stream().filter(StringUtils::isNotBlank).toArray())
+        );
+    }
 }
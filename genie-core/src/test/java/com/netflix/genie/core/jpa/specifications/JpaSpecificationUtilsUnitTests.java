@@ -18,12 +18,26 @@
 package com.netflix.genie.core.jpa.specifications;
 
 import com.google.common.collect.Sets;
-import com.netflix.genie.core.jpa.entities.CommonFieldsEntity;
+import com.netflix.genie.core.jpa.entities.BaseEntity_;
+import com.netflix.genie.core.jpa.entities.ClusterEntity;
+import com.netflix.genie.core.jpa.entities.ClusterEntity_;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.SetJoin;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
 
 /**
  * Unit tests for JpaSpecificationUtils.
@@ -44,32 +58,54 @@ public class JpaSpecificationUtilsUnitTests {
     }
 
     /**
-     * Make sure we can get a valid like string for the tag list.
+     * Make sure the tags predicate matches the ids from one grouped subquery over every non-blank tag.
      */
     @Test
-    public void canGetTagLikeString() {
-        Assert.assertThat(JpaSpecificationUtils.getTagLikeString(Sets.newHashSet()), Matchers.is("%"));
-        Assert.assertThat(
-            JpaSpecificationUtils.getTagLikeString(Sets.newHashSet("tag")),
-            Matchers.is("%" + CommonFieldsEntity.TAG_DELIMITER + "tag" + CommonFieldsEntity.TAG_DELIMITER + "%")
-        );
+    @SuppressWarnings("unchecked")
+    public void canGetTagsPredicate() {
+        final CriteriaBuilder cb = Mockito.mock(CriteriaBuilder.class);
+        final CriteriaQuery<?> query = Mockito.mock(CriteriaQuery.class);
+        final Root<ClusterEntity> root = (Root<ClusterEntity>) Mockito.mock(Root.class);
+        final Path<String> idPath = (Path<String>) Mockito.mock(Path.class);
+        Mockito.when(root.get(BaseEntity_.id)).thenReturn(idPath);
+
+        final Subquery<String> tagged = (Subquery<String>) Mockito.mock(Subquery.class);
+        Mockito.when(query.subquery(String.class)).thenReturn(tagged);
+        final Root<ClusterEntity> taggedRoot = (Root<ClusterEntity>) Mockito.mock(Root.class);
+        Mockito.when(tagged.from(ClusterEntity.class)).thenReturn(taggedRoot);
+        final SetJoin<ClusterEntity, String> taggedTags = (SetJoin<ClusterEntity, String>) Mockito.mock(SetJoin.class);
+        Mockito.when(taggedRoot.join(ClusterEntity_.indexedTags)).thenReturn(taggedTags);
+        final Expression<Long> countDistinct = (Expression<Long>) Mockito.mock(Expression.class);
+        Mockito.when(cb.countDistinct(taggedTags)).thenReturn(countDistinct);
+        final Predicate inPredicate = Mockito.mock(Predicate.class);
+        Mockito.when(idPath.in(tagged)).thenReturn(inPredicate);
+
         Assert.assertThat(
-            JpaSpecificationUtils.getTagLikeString(Sets.newHashSet("tag", "Stag", "rag")),
-            Matchers.is(
-                "%"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "rag"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "%"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "Stag"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "%"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "tag"
-                    + CommonFieldsEntity.TAG_DELIMITER
-                    + "%"
-            )
+            JpaSpecificationUtils.getTagsPredicate(
+                cb,
+                query,
+                root,
+                ClusterEntity.class,
+                ClusterEntity_.indexedTags,
+                Sets.newHashSet("tag", "Stag", " ")
+            ),
+            Matchers.is(inPredicate)
         );
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(taggedTags, Mockito.times(1)).in(captor.capture());
+        Assert.assertThat((Collection<String>) captor.getValue(), Matchers.containsInAnyOrder("tag", "Stag"));
+        Mockito.verify(tagged, Mockito.times(1)).groupBy(taggedRoot.get(BaseEntity_.id));
+        Mockito.verify(cb, Mockito.times(1)).equal(countDistinct, 2L);
+    }
+
+    /**
+     * Make sure only sets with at least one non-blank tag are considered to have tags.
+     */
+    @Test
+    public void canCheckForTags() {
+        Assert.assertFalse(JpaSpecificationUtils.hasTags(null));
+        Assert.assertFalse(JpaSpecificationUtils.hasTags(Sets.newHashSet()));
+        Assert.assertFalse(JpaSpecificationUtils.hasTags(Sets.newHashSet("", " ")));
+        Assert.assertTrue(JpaSpecificationUtils.hasTags(Sets.newHashSet("", "tag")));
     }
 }
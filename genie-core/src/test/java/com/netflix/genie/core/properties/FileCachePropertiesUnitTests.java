@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for FileCacheProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FileCachePropertiesUnitTests {
+
+    private FileCacheProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new FileCacheProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertThat(this.properties.getLocation(), Matchers.is("file:///tmp/genie/cache"));
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(10_737_418_240L));
+        Assert.assertFalse(this.properties.isHardLinkEnabled());
+        Assert.assertThat(this.properties.getRevalidationTtl(), Matchers.is(60_000L));
+    }
+
+    /**
+     * Make sure can set and get the cache location.
+     */
+    @Test
+    public void canSetLocation() {
+        final String location = "file:///mnt/genie/cache";
+        this.properties.setLocation(location);
+        Assert.assertThat(this.properties.getLocation(), Matchers.is(location));
+    }
+
+    /**
+     * Make sure can set and get the maximum size of the cache.
+     */
+    @Test
+    public void canSetMaxSize() {
+        final long maxSize = 1_024L;
+        this.properties.setMaxSize(maxSize);
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(maxSize));
+    }
+
+    /**
+     * Make sure can enable and disable hard linking cached files into job directories.
+     */
+    @Test
+    public void canSetHardLinkEnabled() {
+        this.properties.setHardLinkEnabled(true);
+        Assert.assertTrue(this.properties.isHardLinkEnabled());
+        this.properties.setHardLinkEnabled(false);
+        Assert.assertFalse(this.properties.isHardLinkEnabled());
+    }
+
+    /**
+     * Make sure can set and get how long cached files are used before being revalidated.
+     */
+    @Test
+    public void canSetRevalidationTtl() {
+        final long revalidationTtl = 0L;
+        this.properties.setRevalidationTtl(revalidationTtl);
+        Assert.assertThat(this.properties.getRevalidationTtl(), Matchers.is(revalidationTtl));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsArchiveProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsArchivePropertiesUnitTests {
+
+    private JobsArchiveProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsArchiveProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertFalse(this.properties.isStreamingEnabled());
+        Assert.assertThat(this.properties.getCompressionThreads(), Matchers.is(4));
+        Assert.assertThat(this.properties.getBlockSize(), Matchers.is(1_048_576));
+    }
+
+    /**
+     * Make sure can enable streaming archival.
+     */
+    @Test
+    public void canSetStreamingEnabled() {
+        this.properties.setStreamingEnabled(true);
+        Assert.assertTrue(this.properties.isStreamingEnabled());
+    }
+
+    /**
+     * Make sure can set and get the number of compression threads.
+     */
+    @Test
+    public void canSetCompressionThreads() {
+        final int compressionThreads = 8;
+        this.properties.setCompressionThreads(compressionThreads);
+        Assert.assertThat(this.properties.getCompressionThreads(), Matchers.is(compressionThreads));
+    }
+
+    /**
+     * Make sure can set and get the compression block size.
+     */
+    @Test
+    public void canSetBlockSize() {
+        final int blockSize = 131_072;
+        this.properties.setBlockSize(blockSize);
+        Assert.assertThat(this.properties.getBlockSize(), Matchers.is(blockSize));
+    }
+}
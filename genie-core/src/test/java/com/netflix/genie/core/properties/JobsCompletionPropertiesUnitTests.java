@@ -0,0 +1,92 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for JobsCompletionProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsCompletionPropertiesUnitTests {
+
+    private JobsCompletionProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsCompletionProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertFalse(this.properties.isPipelineEnabled());
+        Assert.assertThat(this.properties.getStatus().getThreads(), Matchers.is(4));
+        Assert.assertThat(this.properties.getCleanup().getThreads(), Matchers.is(2));
+        Assert.assertThat(this.properties.getArchival().getThreads(), Matchers.is(4));
+        Assert.assertThat(this.properties.getNotification().getThreads(), Matchers.is(2));
+        Assert.assertThat(this.properties.getStatus().getQueueCapacity(), Matchers.is(1_000));
+        Assert.assertThat(this.properties.getCleanup().getQueueCapacity(), Matchers.is(1_000));
+        Assert.assertThat(this.properties.getArchival().getQueueCapacity(), Matchers.is(1_000));
+        Assert.assertThat(this.properties.getNotification().getQueueCapacity(), Matchers.is(1_000));
+    }
+
+    /**
+     * Make sure can enable the pipeline.
+     */
+    @Test
+    public void canSetPipelineEnabled() {
+        this.properties.setPipelineEnabled(true);
+        Assert.assertTrue(this.properties.isPipelineEnabled());
+    }
+
+    /**
+     * Make sure all the stage setters work.
+     */
+    @Test
+    public void canSetStages() {
+        final JobsCompletionStageProperties status = Mockito.mock(JobsCompletionStageProperties.class);
+        final JobsCompletionStageProperties cleanup = Mockito.mock(JobsCompletionStageProperties.class);
+        final JobsCompletionStageProperties archival = Mockito.mock(JobsCompletionStageProperties.class);
+        final JobsCompletionStageProperties notification = Mockito.mock(JobsCompletionStageProperties.class);
+
+        this.properties.setStatus(status);
+        this.properties.setCleanup(cleanup);
+        this.properties.setArchival(archival);
+        this.properties.setNotification(notification);
+
+        Assert.assertThat(this.properties.getStatus(), Matchers.is(status));
+        Assert.assertThat(this.properties.getCleanup(), Matchers.is(cleanup));
+        Assert.assertThat(this.properties.getArchival(), Matchers.is(archival));
+        Assert.assertThat(this.properties.getNotification(), Matchers.is(notification));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsCompletionStageProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsCompletionStagePropertiesUnitTests {
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        final JobsCompletionStageProperties properties = new JobsCompletionStageProperties();
+        Assert.assertThat(properties.getThreads(), Matchers.is(1));
+        Assert.assertThat(properties.getQueueCapacity(), Matchers.is(1_000));
+    }
+
+    /**
+     * Make sure can construct with the given threads and capacity.
+     */
+    @Test
+    public void canConstructWithValues() {
+        final JobsCompletionStageProperties properties = new JobsCompletionStageProperties(3, 10);
+        Assert.assertThat(properties.getThreads(), Matchers.is(3));
+        Assert.assertThat(properties.getQueueCapacity(), Matchers.is(10));
+    }
+
+    /**
+     * Make sure can set and get the threads and queue capacity.
+     */
+    @Test
+    public void canSet() {
+        final JobsCompletionStageProperties properties = new JobsCompletionStageProperties();
+        properties.setThreads(5);
+        properties.setQueueCapacity(50);
+        Assert.assertThat(properties.getThreads(), Matchers.is(5));
+        Assert.assertThat(properties.getQueueCapacity(), Matchers.is(50));
+    }
+}
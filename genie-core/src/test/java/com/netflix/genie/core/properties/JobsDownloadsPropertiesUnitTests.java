@@ -0,0 +1,74 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsDownloadsProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsDownloadsPropertiesUnitTests {
+
+    private JobsDownloadsProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsDownloadsProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertThat(this.properties.getMaxConcurrent(), Matchers.is(32));
+        Assert.assertThat(this.properties.getMaxConcurrentPerJob(), Matchers.is(8));
+    }
+
+    /**
+     * Make sure can set and get the maximum number of concurrent downloads on the node.
+     */
+    @Test
+    public void canSetMaxConcurrent() {
+        final int maxConcurrent = 64;
+        this.properties.setMaxConcurrent(maxConcurrent);
+        Assert.assertThat(this.properties.getMaxConcurrent(), Matchers.is(maxConcurrent));
+    }
+
+    /**
+     * Make sure can set and get the maximum number of concurrent downloads for a job.
+     */
+    @Test
+    public void canSetMaxConcurrentPerJob() {
+        final int maxConcurrentPerJob = 4;
+        this.properties.setMaxConcurrentPerJob(maxConcurrentPerJob);
+        Assert.assertThat(this.properties.getMaxConcurrentPerJob(), Matchers.is(maxConcurrentPerJob));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsLauncherProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsLauncherPropertiesUnitTests {
+    private JobsLauncherProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsLauncherProperties();
+    }
+
+    /**
+     * Make sure the constructor sets defaults.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertFalse(this.properties.isHelperEnabled());
+        Assert.assertThat(this.properties.getHelperPath(), Matchers.is("/usr/local/bin/genie-launcher-helper"));
+        Assert.assertThat(this.properties.getHelperTimeout(), Matchers.is(300_000L));
+        Assert.assertThat(this.properties.getMaxConcurrent(), Matchers.is(4));
+    }
+
+    /**
+     * Make sure we can set the helperEnabled field.
+     */
+    @Test
+    public void canSetHelperEnabled() {
+        this.properties.setHelperEnabled(true);
+        Assert.assertTrue(this.properties.isHelperEnabled());
+    }
+
+    /**
+     * Make sure we can set the helperPath field.
+     */
+    @Test
+    public void canSetHelperPath() {
+        final String helperPath = "/opt/genie/bin/genie-launcher-helper";
+        this.properties.setHelperPath(helperPath);
+        Assert.assertThat(this.properties.getHelperPath(), Matchers.is(helperPath));
+    }
+
+    /**
+     * Make sure we can set the helperTimeout field.
+     */
+    @Test
+    public void canSetHelperTimeout() {
+        final long helperTimeout = 60_000L;
+        this.properties.setHelperTimeout(helperTimeout);
+        Assert.assertThat(this.properties.getHelperTimeout(), Matchers.is(helperTimeout));
+    }
+
+    /**
+     * Make sure we can set the maxConcurrent field.
+     */
+    @Test
+    public void canSetMaxConcurrent() {
+        final int maxConcurrent = 12;
+        this.properties.setMaxConcurrent(maxConcurrent);
+        Assert.assertThat(this.properties.getMaxConcurrent(), Matchers.is(maxConcurrent));
+    }
+}
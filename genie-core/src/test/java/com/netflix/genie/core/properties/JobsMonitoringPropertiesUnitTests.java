@@ -0,0 +1,109 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsMonitoringProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsMonitoringPropertiesUnitTests {
+
+    private JobsMonitoringProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsMonitoringProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertTrue(this.properties.isProcEnabled());
+        Assert.assertThat(this.properties.getProcSweepMaxAge(), Matchers.is(1_000L));
+        Assert.assertFalse(this.properties.isSweeperEnabled());
+        Assert.assertThat(this.properties.getSweeperTickDuration(), Matchers.is(1_000L));
+        Assert.assertThat(this.properties.getSweeperWheelSize(), Matchers.is(512));
+    }
+
+    /**
+     * Make sure can enable and disable the proc file system process checking.
+     */
+    @Test
+    public void canSetProcEnabled() {
+        this.properties.setProcEnabled(false);
+        Assert.assertFalse(this.properties.isProcEnabled());
+        this.properties.setProcEnabled(true);
+        Assert.assertTrue(this.properties.isProcEnabled());
+    }
+
+    /**
+     * Make sure can set and get the maximum age of a process sweep.
+     */
+    @Test
+    public void canSetProcSweepMaxAge() {
+        final long maxAge = 5_000L;
+        this.properties.setProcSweepMaxAge(maxAge);
+        Assert.assertThat(this.properties.getProcSweepMaxAge(), Matchers.is(maxAge));
+    }
+
+    /**
+     * Make sure can enable and disable the job monitor sweeper.
+     */
+    @Test
+    public void canSetSweeperEnabled() {
+        this.properties.setSweeperEnabled(true);
+        Assert.assertTrue(this.properties.isSweeperEnabled());
+        this.properties.setSweeperEnabled(false);
+        Assert.assertFalse(this.properties.isSweeperEnabled());
+    }
+
+    /**
+     * Make sure can set and get the sweeper tick duration.
+     */
+    @Test
+    public void canSetSweeperTickDuration() {
+        final long tickDuration = 250L;
+        this.properties.setSweeperTickDuration(tickDuration);
+        Assert.assertThat(this.properties.getSweeperTickDuration(), Matchers.is(tickDuration));
+    }
+
+    /**
+     * Make sure can set and get the sweeper wheel size.
+     */
+    @Test
+    public void canSetSweeperWheelSize() {
+        final int wheelSize = 1024;
+        this.properties.setSweeperWheelSize(wheelSize);
+        Assert.assertThat(this.properties.getSweeperWheelSize(), Matchers.is(wheelSize));
+    }
+}
@@ -48,10 +48,17 @@ public class JobsPropertiesUnitTests {
      */
     @Test
     public void canConstruct() {
+        Assert.assertNotNull(this.properties.getArchive());
         Assert.assertNotNull(this.properties.getMemory());
+        Assert.assertNotNull(this.properties.getCompletion());
+        Assert.assertNotNull(this.properties.getDownloads());
         Assert.assertNotNull(this.properties.getForwarding());
+        Assert.assertNotNull(this.properties.getLauncher());
         Assert.assertNotNull(this.properties.getLocations());
         Assert.assertNotNull(this.properties.getMax());
+        Assert.assertNotNull(this.properties.getMonitoring());
+        Assert.assertNotNull(this.properties.getQueue());
+        Assert.assertNotNull(this.properties.getRouting());
         Assert.assertNotNull(this.properties.getUsers());
     }
 
@@ -60,16 +67,30 @@ public class JobsPropertiesUnitTests {
      */
     @Test
     public void canSet() {
+        final JobsArchiveProperties archive = Mockito.mock(JobsArchiveProperties.class);
         final JobsMemoryProperties memory = Mockito.mock(JobsMemoryProperties.class);
+        final JobsCompletionProperties completion = Mockito.mock(JobsCompletionProperties.class);
+        final JobsDownloadsProperties downloads = Mockito.mock(JobsDownloadsProperties.class);
         final JobsForwardingProperties forwarding = Mockito.mock(JobsForwardingProperties.class);
+        final JobsLauncherProperties launcher = Mockito.mock(JobsLauncherProperties.class);
         final JobsLocationsProperties locations = Mockito.mock(JobsLocationsProperties.class);
         final JobsMaxProperties max = Mockito.mock(JobsMaxProperties.class);
+        final JobsMonitoringProperties monitoring = Mockito.mock(JobsMonitoringProperties.class);
+        final JobsQueueProperties queue = Mockito.mock(JobsQueueProperties.class);
+        final JobsRoutingProperties routing = Mockito.mock(JobsRoutingProperties.class);
         final JobsUsersProperties users = Mockito.mock(JobsUsersProperties.class);
 
+        this.properties.setArchive(archive);
+        this.properties.setCompletion(completion);
+        this.properties.setDownloads(downloads);
         this.properties.setForwarding(forwarding);
+        this.properties.setLauncher(launcher);
         this.properties.setLocations(locations);
         this.properties.setMax(max);
         this.properties.setMemory(memory);
+        this.properties.setMonitoring(monitoring);
+        this.properties.setQueue(queue);
+        this.properties.setRouting(routing);
         this.properties.setUsers(users);
     }
 }
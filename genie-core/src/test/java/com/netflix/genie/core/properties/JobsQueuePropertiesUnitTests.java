@@ -0,0 +1,103 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsQueueProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsQueuePropertiesUnitTests {
+
+    private JobsQueueProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsQueueProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertFalse(this.properties.isEnabled());
+        Assert.assertThat(this.properties.getLocation(), Matchers.is("file:///tmp/genie/queue/"));
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(1_000));
+        Assert.assertThat(this.properties.getMaxWait(), Matchers.is(3_600_000L));
+        Assert.assertThat(this.properties.getDispatchInterval(), Matchers.is(1_000L));
+    }
+
+    /**
+     * Make sure can enable the queue.
+     */
+    @Test
+    public void canSetEnabled() {
+        this.properties.setEnabled(true);
+        Assert.assertTrue(this.properties.isEnabled());
+    }
+
+    /**
+     * Make sure can set the location.
+     */
+    @Test
+    public void canSetLocation() {
+        final String location = "file:///" + System.currentTimeMillis();
+        this.properties.setLocation(location);
+        Assert.assertThat(this.properties.getLocation(), Matchers.is(location));
+    }
+
+    /**
+     * Make sure can set the max size.
+     */
+    @Test
+    public void canSetMaxSize() {
+        this.properties.setMaxSize(12);
+        Assert.assertThat(this.properties.getMaxSize(), Matchers.is(12));
+    }
+
+    /**
+     * Make sure can set the max wait.
+     */
+    @Test
+    public void canSetMaxWait() {
+        this.properties.setMaxWait(60_000L);
+        Assert.assertThat(this.properties.getMaxWait(), Matchers.is(60_000L));
+    }
+
+    /**
+     * Make sure can set the dispatch interval.
+     */
+    @Test
+    public void canSetDispatchInterval() {
+        this.properties.setDispatchInterval(250L);
+        Assert.assertThat(this.properties.getDispatchInterval(), Matchers.is(250L));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for JobsRoutingProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobsRoutingPropertiesUnitTests {
+
+    private JobsRoutingProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new JobsRoutingProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertTrue(this.properties.isIndexEnabled());
+        Assert.assertThat(this.properties.getIndexRefreshInterval(), Matchers.is(60_000L));
+        Assert.assertThat(this.properties.getLoadBalancers(), Matchers.contains("random"));
+        Assert.assertThat(this.properties.getClusterLoadRefreshInterval(), Matchers.is(10_000L));
+        Assert.assertThat(this.properties.getClusterWeightTagPrefix(), Matchers.is("weight:"));
+        Assert.assertTrue(this.properties.getClusterWeights().isEmpty());
+    }
+
+    /**
+     * Make sure can enable and disable the routing index.
+     */
+    @Test
+    public void canSetIndexEnabled() {
+        this.properties.setIndexEnabled(false);
+        Assert.assertFalse(this.properties.isIndexEnabled());
+        this.properties.setIndexEnabled(true);
+        Assert.assertTrue(this.properties.isIndexEnabled());
+    }
+
+    /**
+     * Make sure can set and get the refresh interval.
+     */
+    @Test
+    public void canSetIndexRefreshInterval() {
+        final long interval = 5_000L;
+        this.properties.setIndexRefreshInterval(interval);
+        Assert.assertThat(this.properties.getIndexRefreshInterval(), Matchers.is(interval));
+    }
+
+    /**
+     * Make sure can set the load balancers.
+     */
+    @Test
+    public void canSetLoadBalancers() {
+        this.properties.setLoadBalancers(Lists.newArrayList("leastActiveJobs", "weighted"));
+        Assert.assertThat(this.properties.getLoadBalancers(), Matchers.contains("leastActiveJobs", "weighted"));
+    }
+
+    /**
+     * Make sure can set the cluster load refresh interval.
+     */
+    @Test
+    public void canSetClusterLoadRefreshInterval() {
+        this.properties.setClusterLoadRefreshInterval(1_000L);
+        Assert.assertThat(this.properties.getClusterLoadRefreshInterval(), Matchers.is(1_000L));
+    }
+
+    /**
+     * Make sure can set the cluster weights.
+     */
+    @Test
+    public void canSetClusterWeights() {
+        this.properties.setClusterWeightTagPrefix("capacity:");
+        this.properties.setClusterWeights(ImmutableMap.of("prod", 4));
+        Assert.assertThat(this.properties.getClusterWeightTagPrefix(), Matchers.is("capacity:"));
+        Assert.assertThat(this.properties.getClusterWeights(), Matchers.hasEntry("prod", 4));
+    }
+}
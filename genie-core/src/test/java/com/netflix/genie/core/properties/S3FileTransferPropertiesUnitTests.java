@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.properties;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for S3FileTransferProperties.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class S3FileTransferPropertiesUnitTests {
+
+    private S3FileTransferProperties properties;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.properties = new S3FileTransferProperties();
+    }
+
+    /**
+     * Make sure the default properties are set.
+     */
+    @Test
+    public void canConstruct() {
+        Assert.assertFalse(this.properties.isParallelEnabled());
+        Assert.assertThat(this.properties.getPartSize(), Matchers.is(67_108_864L));
+        Assert.assertThat(this.properties.getMultipartThreshold(), Matchers.is(134_217_728L));
+        Assert.assertThat(this.properties.getMaxConcurrency(), Matchers.is(10));
+    }
+
+    /**
+     * Make sure can enable and disable parallel transfers.
+     */
+    @Test
+    public void canSetParallelEnabled() {
+        this.properties.setParallelEnabled(true);
+        Assert.assertTrue(this.properties.isParallelEnabled());
+        this.properties.setParallelEnabled(false);
+        Assert.assertFalse(this.properties.isParallelEnabled());
+    }
+
+    /**
+     * Make sure can set and get the part size.
+     */
+    @Test
+    public void canSetPartSize() {
+        final long partSize = 8_388_608L;
+        this.properties.setPartSize(partSize);
+        Assert.assertThat(this.properties.getPartSize(), Matchers.is(partSize));
+    }
+
+    /**
+     * Make sure can set and get the multipart threshold.
+     */
+    @Test
+    public void canSetMultipartThreshold() {
+        final long multipartThreshold = 16_777_216L;
+        this.properties.setMultipartThreshold(multipartThreshold);
+        Assert.assertThat(this.properties.getMultipartThreshold(), Matchers.is(multipartThreshold));
+    }
+
+    /**
+     * Make sure can set and get the maximum concurrency.
+     */
+    @Test
+    public void canSetMaxConcurrency() {
+        final int maxConcurrency = 32;
+        this.properties.setMaxConcurrency(maxConcurrency);
+        Assert.assertThat(this.properties.getMaxConcurrency(), Matchers.is(maxConcurrency));
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.properties.FileCacheProperties;
+import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for the size bounded, hard linking and revalidation behavior of CacheGenieFileTransferService.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CacheGenieFileTransferServiceUnitTests {
+
+    private static final int KILOBYTE = 1_024;
+
+    /**
+     * Temporary folder holding the remote files, the cache and the job directories.
+     */
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File remoteDir;
+    private File cacheDir;
+    private File jobDir;
+    private FileTransfer fileTransfer;
+    private FileCacheProperties fileCacheProperties;
+    private Registry registry;
+    private Counter missBytes;
+    private Counter evictions;
+    private Counter evictedBytes;
+    private Counter linkedBytes;
+    private Counter copiedBytes;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException On error creating the folders
+     */
+    @Before
+    public void setup() throws IOException {
+        this.remoteDir = this.temporaryFolder.newFolder("remote");
+        this.cacheDir = this.temporaryFolder.newFolder("cache");
+        this.jobDir = this.temporaryFolder.newFolder("job");
+        this.fileTransfer = Mockito.spy(new LocalFileTransferImpl());
+        this.fileCacheProperties = new FileCacheProperties();
+        this.fileCacheProperties.setLocation(this.cacheDir.toURI().toString());
+        this.fileCacheProperties.setMaxSize(3 * KILOBYTE);
+        this.registry = Mockito.mock(Registry.class);
+        this.missBytes = Mockito.mock(Counter.class);
+        this.evictions = Mockito.mock(Counter.class);
+        this.evictedBytes = Mockito.mock(Counter.class);
+        this.linkedBytes = Mockito.mock(Counter.class);
+        this.copiedBytes = Mockito.mock(Counter.class);
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito.when(this.registry.counter("genie.jobs.file.cache.missBytes.rate")).thenReturn(this.missBytes);
+        Mockito.when(this.registry.counter("genie.jobs.file.cache.evictions.rate")).thenReturn(this.evictions);
+        Mockito.when(this.registry.counter("genie.jobs.file.cache.evictedBytes.rate")).thenReturn(this.evictedBytes);
+        Mockito.when(this.registry.counter("genie.jobs.file.cache.linkedBytes.rate")).thenReturn(this.linkedBytes);
+        Mockito.when(this.registry.counter("genie.jobs.file.cache.copiedBytes.rate")).thenReturn(this.copiedBytes);
+    }
+
+    /**
+     * Make sure the least recently used files are evicted and deleted once the cache is over its maximum size.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canEvictLeastRecentlyUsedFiles() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService();
+        final String a = this.createRemoteFile("a", KILOBYTE);
+        final String b = this.createRemoteFile("b", KILOBYTE);
+        final String c = this.createRemoteFile("c", KILOBYTE);
+        final String d = this.createRemoteFile("d", KILOBYTE);
+
+        service.getFile(a, this.getJobPath("a"));
+        service.getFile(b, this.getJobPath("b"));
+        service.getFile(c, this.getJobPath("c"));
+        Assert.assertThat(service.getCacheSize(), Matchers.is(3L * KILOBYTE));
+
+        // Use a again so b becomes the least recently used file
+        service.getFile(a, this.getJobPath("a2"));
+        service.getFile(d, this.getJobPath("d"));
+
+        Assert.assertThat(service.getCacheSize(), Matchers.is(3L * KILOBYTE));
+        Assert.assertTrue(this.getCacheFile(a).exists());
+        Assert.assertFalse(this.getCacheFile(b).exists());
+        Assert.assertTrue(this.getCacheFile(c).exists());
+        Assert.assertTrue(this.getCacheFile(d).exists());
+        Assert.assertTrue(new File(this.getJobPath("a2")).exists());
+        Assert.assertTrue(new File(this.getJobPath("d")).exists());
+        Mockito.verify(this.missBytes, Mockito.times(4)).increment(KILOBYTE);
+        Mockito.verify(this.evictions, Mockito.times(1)).increment();
+        Mockito.verify(this.evictedBytes, Mockito.times(1)).increment(KILOBYTE);
+    }
+
+    /**
+     * Make sure the cache is rebuilt from the files left on disk and incomplete downloads are removed.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canRebuildFromDisk() throws GenieException, IOException {
+        final String a = this.createRemoteFile("a", KILOBYTE);
+        final String b = this.createRemoteFile("b", 2 * KILOBYTE);
+        final CacheGenieFileTransferService service = this.createService();
+        service.getFile(a, this.getJobPath("a"));
+        service.getFile(b, this.getJobPath("b"));
+
+        final File partial = new File(this.cacheDir, UUID.randomUUID().toString() + ".download");
+        Files.write(partial.toPath(), new byte[KILOBYTE]);
+        final File unrelated = new File(this.cacheDir, "unrelated");
+        Files.write(unrelated.toPath(), new byte[KILOBYTE]);
+
+        final CacheGenieFileTransferService restarted = this.createService();
+        Assert.assertThat(restarted.getCacheSize(), Matchers.is(3L * KILOBYTE));
+        Assert.assertFalse(partial.exists());
+        Assert.assertTrue(unrelated.exists());
+
+        restarted.getFile(a, this.getJobPath("a2"));
+        Assert.assertTrue(new File(this.getJobPath("a2")).exists());
+        Mockito.verify(this.fileTransfer, Mockito.times(1))
+            .getFile(Mockito.eq(a), Mockito.endsWith(".download"));
+    }
+
+    /**
+     * Make sure a lower maximum size evicts the files left on disk when the cache is rebuilt.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canShrinkOnRebuild() throws GenieException, IOException {
+        final String a = this.createRemoteFile("a", 2 * KILOBYTE);
+        final String b = this.createRemoteFile("b", KILOBYTE);
+        this.createService().getFile(a, this.getJobPath("a"));
+        this.createService().getFile(b, this.getJobPath("b"));
+
+        this.fileCacheProperties.setMaxSize(KILOBYTE);
+        final CacheGenieFileTransferService restarted = this.createService();
+        Assert.assertThat(restarted.getCacheSize(), Matchers.is((long) KILOBYTE));
+        Assert.assertFalse(this.getCacheFile(a).exists());
+        Assert.assertTrue(this.getCacheFile(b).exists());
+    }
+
+    /**
+     * Make sure a file bigger than the whole cache is still delivered to the job.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canGetFileBiggerThanCache() throws GenieException, IOException {
+        final CacheGenieFileTransferService service = this.createService();
+        final String big = this.createRemoteFile("big", 4 * KILOBYTE);
+
+        service.getFile(big, this.getJobPath("big"));
+
+        Assert.assertThat(new File(this.getJobPath("big")).length(), Matchers.is(4L * KILOBYTE));
+        Assert.assertThat(service.getCacheSize(), Matchers.is(0L));
+        Assert.assertFalse(this.getCacheFile(big).exists());
+        Mockito.verify(this.fileTransfer, Mockito.times(1)).getFile(Mockito.eq(big), Mockito.anyString());
+        Mockito.verify(this.evictions, Mockito.never()).increment();
+    }
+
+    /**
+     * Make sure a file evicted while it is being placed in a job directory is only deleted once that is done.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void wontDeleteFileInUse() throws GenieException, IOException {
+        final String a = this.createRemoteFile("a", KILOBYTE);
+        final String b = this.createRemoteFile("b", KILOBYTE);
+        final String c = this.createRemoteFile("c", KILOBYTE);
+        final String d = this.createRemoteFile("d", KILOBYTE);
+        final AtomicBoolean evicting = new AtomicBoolean();
+        final CacheGenieFileTransferService service = new CacheGenieFileTransferService(
+            scheme -> this.fileTransfer,
+            this.fileCacheProperties,
+            new LocalFileTransferImpl(),
+            this.registry
+        ) {
+            @Override
+            protected void materializeFile(final File cachedFile, final String dstLocalPath) throws GenieException {
+                if (evicting.compareAndSet(false, true)) {
+                    // Other jobs fill the cache while this one is still using its file
+                    this.getFile(b, getJobPath("b"));
+                    this.getFile(c, getJobPath("c"));
+                    this.getFile(d, getJobPath("d"));
+                    Assert.assertTrue(cachedFile.exists());
+                }
+                super.materializeFile(cachedFile, dstLocalPath);
+            }
+        };
+
+        service.getFile(a, this.getJobPath("a"));
+
+        Assert.assertThat(new File(this.getJobPath("a")).length(), Matchers.is((long) KILOBYTE));
+        Assert.assertFalse(this.getCacheFile(a).exists());
+        Assert.assertTrue(this.getCacheFile(d).exists());
+        Mockito.verify(this.evictions, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Make sure cached files are read only and hard linked into the job directories.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canHardLinkCachedFiles() throws GenieException, IOException {
+        this.fileCacheProperties.setHardLinkEnabled(true);
+        final CacheGenieFileTransferService service = this.createService();
+        final String a = this.createRemoteFile("a", KILOBYTE);
+
+        service.getFile(a, this.getJobPath("a"));
+        service.getFile(a, this.getJobPath("a2"));
+
+        final File cachedFile = this.getCacheFile(a);
+        Assert.assertTrue(Files.isSameFile(cachedFile.toPath(), new File(this.getJobPath("a")).toPath()));
+        Assert.assertTrue(Files.isSameFile(cachedFile.toPath(), new File(this.getJobPath("a2")).toPath()));
+        final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(cachedFile.toPath());
+        Assert.assertFalse(permissions.contains(PosixFilePermission.OWNER_WRITE));
+        Assert.assertFalse(permissions.contains(PosixFilePermission.GROUP_WRITE));
+        Assert.assertFalse(permissions.contains(PosixFilePermission.OTHERS_WRITE));
+        Mockito.verify(this.linkedBytes, Mockito.times(2)).increment(KILOBYTE);
+        Mockito.verify(this.copiedBytes, Mockito.never()).increment(Mockito.anyLong());
+    }
+
+    /**
+     * Make sure cached files are copied into the job directories when hard links are disabled.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canCopyCachedFiles() throws GenieException, IOException {
+        this.fileCacheProperties.setHardLinkEnabled(false);
+        final CacheGenieFileTransferService service = this.createService();
+        final String a = this.createRemoteFile("a", KILOBYTE);
+
+        service.getFile(a, this.getJobPath("a"));
+
+        final File jobFile = new File(this.getJobPath("a"));
+        Assert.assertFalse(Files.isSameFile(this.getCacheFile(a).toPath(), jobFile.toPath()));
+        Assert.assertThat(jobFile.length(), Matchers.is((long) KILOBYTE));
+        Assert.assertTrue(
+            Files.getPosixFilePermissions(jobFile.toPath()).contains(PosixFilePermission.OWNER_WRITE)
+        );
+        Mockito.verify(this.copiedBytes, Mockito.times(1)).increment(KILOBYTE);
+        Mockito.verify(this.linkedBytes, Mockito.never()).increment(Mockito.anyLong());
+    }
+
+    /**
+     * Make sure cached files are copied, never linked, into the job directories when jobs run as their users.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void wontHardLinkWhenRunningAsUser() throws GenieException, IOException {
+        this.fileCacheProperties.setHardLinkEnabled(true);
+        final CacheGenieFileTransferService service = new CacheGenieFileTransferService(
+            scheme -> this.fileTransfer,
+            this.fileCacheProperties,
+            new LocalFileTransferImpl(),
+            true,
+            this.registry
+        );
+        final String a = this.createRemoteFile("a", KILOBYTE);
+
+        service.getFile(a, this.getJobPath("a"));
+
+        Assert.assertFalse(Files.isSameFile(this.getCacheFile(a).toPath(), new File(this.getJobPath("a")).toPath()));
+        Mockito.verify(this.copiedBytes, Mockito.times(1)).increment(KILOBYTE);
+        Mockito.verify(this.linkedBytes, Mockito.never()).increment(Mockito.anyLong());
+    }
+
+    /**
+     * Make sure a cached file is only checked against its remote location once its revalidation TTL has passed and is
+     * reloaded when the remote file changed.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canRevalidateAfterTtl() throws GenieException, IOException {
+        this.fileCacheProperties.setRevalidationTtl(Long.MAX_VALUE);
+        final String a = this.createRemoteFile("a", KILOBYTE);
+        final CacheGenieFileTransferService service = this.createService();
+        service.getFile(a, this.getJobPath("a"));
+        service.getFile(a, this.getJobPath("a2"));
+        Mockito.verify(this.fileTransfer, Mockito.never()).getLastModifiedTime(a);
+
+        this.fileCacheProperties.setRevalidationTtl(0L);
+        final CacheGenieFileTransferService revalidating = this.createService();
+        revalidating.getFile(a, this.getJobPath("a3"));
+        Mockito.verify(this.fileTransfer, Mockito.times(1)).getLastModifiedTime(a);
+        Mockito.verify(this.fileTransfer, Mockito.times(1))
+            .getFile(Mockito.eq(a), Mockito.endsWith(".download"));
+
+        // Modify the remote file after it was cached
+        Files.write(new File(a).toPath(), new byte[2 * KILOBYTE]);
+        Assert.assertTrue(new File(a).setLastModified(System.currentTimeMillis() + 60_000L));
+        revalidating.getFile(a, this.getJobPath("a4"));
+        Mockito.verify(this.fileTransfer, Mockito.times(2))
+            .getFile(Mockito.eq(a), Mockito.endsWith(".download"));
+        Assert.assertThat(new File(this.getJobPath("a4")).length(), Matchers.is(2L * KILOBYTE));
+        Assert.assertThat(new File(this.getJobPath("a")).length(), Matchers.is((long) KILOBYTE));
+        Assert.assertThat(revalidating.getCacheSize(), Matchers.is(2L * KILOBYTE));
+    }
+
+    /**
+     * Make sure concurrent requests for the same file only download it once.
+     *
+     * @throws Exception On error
+     */
+    @Test
+    public void canLoadFileOncePerKey() throws Exception {
+        final CacheGenieFileTransferService service = this.createService();
+        final String a = this.createRemoteFile("a", KILOBYTE);
+        final int numThreads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                final String jobPath = this.getJobPath("a" + i);
+                futures.add(
+                    executor.submit(
+                        () -> {
+                            start.await();
+                            service.getFile(a, jobPath);
+                            return null;
+                        }
+                    )
+                );
+            }
+            start.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Mockito.verify(this.fileTransfer, Mockito.times(1))
+            .getFile(Mockito.eq(a), Mockito.endsWith(".download"));
+        for (int i = 0; i < numThreads; i++) {
+            Assert.assertTrue(new File(this.getJobPath("a" + i)).exists());
+        }
+    }
+
+    private CacheGenieFileTransferService createService() throws GenieException {
+        return new CacheGenieFileTransferService(
+            scheme -> this.fileTransfer,
+            this.fileCacheProperties,
+            new LocalFileTransferImpl(),
+            this.registry
+        );
+    }
+
+    private String createRemoteFile(final String name, final int size) throws IOException {
+        final File file = new File(this.remoteDir, name);
+        Files.write(file.toPath(), new byte[size]);
+        return file.getAbsolutePath();
+    }
+
+    private String getJobPath(final String name) {
+        return new File(this.jobDir, name).getAbsolutePath();
+    }
+
+    private File getCacheFile(final String path) {
+        final String key = UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8)).toString();
+        final File[] cacheFiles = this.cacheDir.listFiles(
+            (dir, name) -> name.startsWith(key + ".") && !name.endsWith(".download")
+        );
+        Assert.assertNotNull(cacheFiles);
+        Assert.assertThat(cacheFiles.length, Matchers.lessThanOrEqualTo(1));
+        return cacheFiles.length == 1 ? cacheFiles[0] : new File(this.cacheDir, key);
+    }
+}
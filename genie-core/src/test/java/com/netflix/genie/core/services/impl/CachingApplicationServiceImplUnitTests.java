@@ -0,0 +1,189 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for CachingApplicationServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CachingApplicationServiceImplUnitTests {
+
+    private static final String APPLICATION_ID = UUID.randomUUID().toString();
+
+    private ApplicationService applicationService;
+    private CachingApplicationServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.applicationService = Mockito.mock(ApplicationService.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.service = new CachingApplicationServiceImpl(this.applicationService, 100L, 60_000L, registry);
+    }
+
+    /**
+     * Make sure an application is only read through once until it changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheApplicationUntilChanged() throws GenieException {
+        final Application application = this.createApplication();
+        Mockito.when(this.applicationService.getApplication(APPLICATION_ID)).thenReturn(application);
+
+        Assert.assertThat(this.service.getApplication(APPLICATION_ID), Matchers.is(application));
+        Assert.assertThat(this.service.getApplication(APPLICATION_ID), Matchers.is(application));
+        Mockito.verify(this.applicationService, Mockito.times(1)).getApplication(APPLICATION_ID);
+
+        this.service.onConfigurationChanged(
+            new ConfigurationChangedEvent(ConfigurationType.APPLICATION, APPLICATION_ID, this)
+        );
+        Assert.assertThat(this.service.getApplication(APPLICATION_ID), Matchers.is(application));
+        Mockito.verify(this.applicationService, Mockito.times(2)).getApplication(APPLICATION_ID);
+    }
+
+    /**
+     * Make sure a change without an id evicts every application.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canEvictAllApplications() throws GenieException {
+        Mockito.when(this.applicationService.getApplication(APPLICATION_ID)).thenReturn(this.createApplication());
+
+        this.service.getApplication(APPLICATION_ID);
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.APPLICATION, null, this));
+        this.service.getApplication(APPLICATION_ID);
+
+        Mockito.verify(this.applicationService, Mockito.times(2)).getApplication(APPLICATION_ID);
+    }
+
+    /**
+     * Make sure changes to other types of resources don't evict applications.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canKeepApplicationWhenOtherTypesChange() throws GenieException {
+        Mockito.when(this.applicationService.getApplication(APPLICATION_ID)).thenReturn(this.createApplication());
+
+        this.service.getApplication(APPLICATION_ID);
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, null, this));
+        this.service.getApplication(APPLICATION_ID);
+
+        Mockito.verify(this.applicationService, Mockito.times(1)).getApplication(APPLICATION_ID);
+    }
+
+    /**
+     * Make sure the commands of an application are cached per set of statuses and evicted on any change.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheCommandsForApplication() throws GenieException {
+        final Set<CommandStatus> statuses = Sets.newHashSet(CommandStatus.ACTIVE);
+        final Set<Command> commands = Sets.newHashSet(Mockito.mock(Command.class));
+        Mockito.when(this.applicationService.getCommandsForApplication(APPLICATION_ID, statuses)).thenReturn(commands);
+        Mockito.when(this.applicationService.getCommandsForApplication(APPLICATION_ID, null)).thenReturn(commands);
+
+        Assert.assertThat(this.service.getCommandsForApplication(APPLICATION_ID, statuses), Matchers.is(commands));
+        Assert.assertThat(this.service.getCommandsForApplication(APPLICATION_ID, statuses), Matchers.is(commands));
+        this.service.getCommandsForApplication(APPLICATION_ID, null);
+        Mockito.verify(this.applicationService, Mockito.times(1)).getCommandsForApplication(APPLICATION_ID, statuses);
+        Mockito.verify(this.applicationService, Mockito.times(1)).getCommandsForApplication(APPLICATION_ID, null);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, "cmd", this));
+        this.service.getCommandsForApplication(APPLICATION_ID, statuses);
+        Mockito.verify(this.applicationService, Mockito.times(2)).getCommandsForApplication(APPLICATION_ID, statuses);
+    }
+
+    /**
+     * Make sure failed reads are passed on and not cached.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontCacheFailedReads() throws GenieException {
+        Mockito
+            .when(this.applicationService.getApplication(APPLICATION_ID))
+            .thenThrow(new GenieNotFoundException("test"))
+            .thenReturn(this.createApplication());
+
+        try {
+            this.service.getApplication(APPLICATION_ID);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            // expected
+        }
+        Assert.assertNotNull(this.service.getApplication(APPLICATION_ID));
+        Mockito.verify(this.applicationService, Mockito.times(2)).getApplication(APPLICATION_ID);
+    }
+
+    /**
+     * Make sure changes are delegated as is.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDelegateChanges() throws GenieException {
+        final Application application = this.createApplication();
+        this.service.updateApplication(APPLICATION_ID, application);
+        this.service.deleteApplication(APPLICATION_ID);
+
+        Mockito.verify(this.applicationService, Mockito.times(1)).updateApplication(APPLICATION_ID, application);
+        Mockito.verify(this.applicationService, Mockito.times(1)).deleteApplication(APPLICATION_ID);
+    }
+
+    private Application createApplication() {
+        return new Application.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            ApplicationStatus.ACTIVE
+        ).withId(APPLICATION_ID).build();
+    }
+}
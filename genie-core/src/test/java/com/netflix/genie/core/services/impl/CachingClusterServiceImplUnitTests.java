@@ -0,0 +1,173 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for CachingClusterServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CachingClusterServiceImplUnitTests {
+
+    private static final String CLUSTER_ID = UUID.randomUUID().toString();
+
+    private ClusterService clusterService;
+    private CachingClusterServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clusterService = Mockito.mock(ClusterService.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.service = new CachingClusterServiceImpl(this.clusterService, 100L, 60_000L, registry);
+    }
+
+    /**
+     * Make sure a cluster is only read through once until it changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheClusterUntilChanged() throws GenieException {
+        final Cluster cluster = this.createCluster();
+        Mockito.when(this.clusterService.getCluster(CLUSTER_ID)).thenReturn(cluster);
+
+        Assert.assertThat(this.service.getCluster(CLUSTER_ID), Matchers.is(cluster));
+        Assert.assertThat(this.service.getCluster(CLUSTER_ID), Matchers.is(cluster));
+        Mockito.verify(this.clusterService, Mockito.times(1)).getCluster(CLUSTER_ID);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, CLUSTER_ID, this));
+        Assert.assertThat(this.service.getCluster(CLUSTER_ID), Matchers.is(cluster));
+        Mockito.verify(this.clusterService, Mockito.times(2)).getCluster(CLUSTER_ID);
+    }
+
+    /**
+     * Make sure changes to other types of resources don't evict clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canKeepClusterWhenOtherTypesChange() throws GenieException {
+        Mockito.when(this.clusterService.getCluster(CLUSTER_ID)).thenReturn(this.createCluster());
+
+        this.service.getCluster(CLUSTER_ID);
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, null, this));
+        this.service.getCluster(CLUSTER_ID);
+
+        Mockito.verify(this.clusterService, Mockito.times(1)).getCluster(CLUSTER_ID);
+    }
+
+    /**
+     * Make sure the commands of a cluster are cached per set of statuses and evicted on any change.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheCommandsForCluster() throws GenieException {
+        final Set<CommandStatus> statuses = Sets.newHashSet(CommandStatus.ACTIVE);
+        final List<Command> commands = Lists.newArrayList(Mockito.mock(Command.class));
+        Mockito.when(this.clusterService.getCommandsForCluster(CLUSTER_ID, statuses)).thenReturn(commands);
+        Mockito.when(this.clusterService.getCommandsForCluster(CLUSTER_ID, null)).thenReturn(commands);
+
+        Assert.assertThat(this.service.getCommandsForCluster(CLUSTER_ID, statuses), Matchers.is(commands));
+        Assert.assertThat(this.service.getCommandsForCluster(CLUSTER_ID, statuses), Matchers.is(commands));
+        this.service.getCommandsForCluster(CLUSTER_ID, null);
+        Mockito.verify(this.clusterService, Mockito.times(1)).getCommandsForCluster(CLUSTER_ID, statuses);
+        Mockito.verify(this.clusterService, Mockito.times(1)).getCommandsForCluster(CLUSTER_ID, null);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, "cmd", this));
+        this.service.getCommandsForCluster(CLUSTER_ID, statuses);
+        Mockito.verify(this.clusterService, Mockito.times(2)).getCommandsForCluster(CLUSTER_ID, statuses);
+    }
+
+    /**
+     * Make sure failed reads are passed on and not cached.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontCacheFailedReads() throws GenieException {
+        Mockito
+            .when(this.clusterService.getCluster(CLUSTER_ID))
+            .thenThrow(new GenieNotFoundException("test"))
+            .thenReturn(this.createCluster());
+
+        try {
+            this.service.getCluster(CLUSTER_ID);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            // expected
+        }
+        Assert.assertNotNull(this.service.getCluster(CLUSTER_ID));
+        Mockito.verify(this.clusterService, Mockito.times(2)).getCluster(CLUSTER_ID);
+    }
+
+    /**
+     * Make sure changes are delegated as is.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDelegateChanges() throws GenieException {
+        final Cluster cluster = this.createCluster();
+        this.service.updateCluster(CLUSTER_ID, cluster);
+        this.service.deleteCluster(CLUSTER_ID);
+
+        Mockito.verify(this.clusterService, Mockito.times(1)).updateCluster(CLUSTER_ID, cluster);
+        Mockito.verify(this.clusterService, Mockito.times(1)).deleteCluster(CLUSTER_ID);
+    }
+
+    private Cluster createCluster() {
+        return new Cluster.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            ClusterStatus.UP
+        ).withId(CLUSTER_ID).build();
+    }
+}
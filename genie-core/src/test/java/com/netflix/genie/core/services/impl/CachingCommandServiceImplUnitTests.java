@@ -0,0 +1,195 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for CachingCommandServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CachingCommandServiceImplUnitTests {
+
+    private static final String COMMAND_ID = UUID.randomUUID().toString();
+
+    private CommandService commandService;
+    private CachingCommandServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.commandService = Mockito.mock(CommandService.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.service = new CachingCommandServiceImpl(this.commandService, 100L, 60_000L, registry);
+    }
+
+    /**
+     * Make sure a command is only read through once until it changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheCommandUntilChanged() throws GenieException {
+        final Command command = this.createCommand();
+        Mockito.when(this.commandService.getCommand(COMMAND_ID)).thenReturn(command);
+
+        Assert.assertThat(this.service.getCommand(COMMAND_ID), Matchers.is(command));
+        Assert.assertThat(this.service.getCommand(COMMAND_ID), Matchers.is(command));
+        Mockito.verify(this.commandService, Mockito.times(1)).getCommand(COMMAND_ID);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, COMMAND_ID, this));
+        Assert.assertThat(this.service.getCommand(COMMAND_ID), Matchers.is(command));
+        Mockito.verify(this.commandService, Mockito.times(2)).getCommand(COMMAND_ID);
+    }
+
+    /**
+     * Make sure changes to other types of resources don't evict commands.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canKeepCommandWhenOtherTypesChange() throws GenieException {
+        Mockito.when(this.commandService.getCommand(COMMAND_ID)).thenReturn(this.createCommand());
+
+        this.service.getCommand(COMMAND_ID);
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.APPLICATION, "app", this));
+        this.service.getCommand(COMMAND_ID);
+
+        Mockito.verify(this.commandService, Mockito.times(1)).getCommand(COMMAND_ID);
+    }
+
+    /**
+     * Make sure the applications of a command are cached and evicted when any application changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheApplicationsForCommand() throws GenieException {
+        final List<Application> applications = Lists.newArrayList(Mockito.mock(Application.class));
+        Mockito.when(this.commandService.getApplicationsForCommand(COMMAND_ID)).thenReturn(applications);
+
+        Assert.assertThat(this.service.getApplicationsForCommand(COMMAND_ID), Matchers.is(applications));
+        Assert.assertThat(this.service.getApplicationsForCommand(COMMAND_ID), Matchers.is(applications));
+        Mockito.verify(this.commandService, Mockito.times(1)).getApplicationsForCommand(COMMAND_ID);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.APPLICATION, "app", this));
+        this.service.getApplicationsForCommand(COMMAND_ID);
+        Mockito.verify(this.commandService, Mockito.times(2)).getApplicationsForCommand(COMMAND_ID);
+    }
+
+    /**
+     * Make sure the clusters of a command are cached per set of statuses and evicted when any cluster changes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCacheClustersForCommand() throws GenieException {
+        final Set<ClusterStatus> statuses = Sets.newHashSet(ClusterStatus.UP);
+        final Set<Cluster> clusters = Sets.newHashSet(Mockito.mock(Cluster.class));
+        Mockito.when(this.commandService.getClustersForCommand(COMMAND_ID, statuses)).thenReturn(clusters);
+        Mockito.when(this.commandService.getClustersForCommand(COMMAND_ID, null)).thenReturn(clusters);
+
+        Assert.assertThat(this.service.getClustersForCommand(COMMAND_ID, statuses), Matchers.is(clusters));
+        Assert.assertThat(this.service.getClustersForCommand(COMMAND_ID, statuses), Matchers.is(clusters));
+        this.service.getClustersForCommand(COMMAND_ID, null);
+        Mockito.verify(this.commandService, Mockito.times(1)).getClustersForCommand(COMMAND_ID, statuses);
+        Mockito.verify(this.commandService, Mockito.times(1)).getClustersForCommand(COMMAND_ID, null);
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "cluster", this));
+        this.service.getClustersForCommand(COMMAND_ID, statuses);
+        Mockito.verify(this.commandService, Mockito.times(2)).getClustersForCommand(COMMAND_ID, statuses);
+    }
+
+    /**
+     * Make sure failed reads are passed on and not cached.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontCacheFailedReads() throws GenieException {
+        Mockito
+            .when(this.commandService.getCommand(COMMAND_ID))
+            .thenThrow(new GenieNotFoundException("test"))
+            .thenReturn(this.createCommand());
+
+        try {
+            this.service.getCommand(COMMAND_ID);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            // expected
+        }
+        Assert.assertNotNull(this.service.getCommand(COMMAND_ID));
+        Mockito.verify(this.commandService, Mockito.times(2)).getCommand(COMMAND_ID);
+    }
+
+    /**
+     * Make sure changes are delegated as is.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDelegateChanges() throws GenieException {
+        final Command command = this.createCommand();
+        this.service.updateCommand(COMMAND_ID, command);
+        this.service.deleteCommand(COMMAND_ID);
+
+        Mockito.verify(this.commandService, Mockito.times(1)).updateCommand(COMMAND_ID, command);
+        Mockito.verify(this.commandService, Mockito.times(1)).deleteCommand(COMMAND_ID);
+    }
+
+    private Command createCommand() {
+        return new Command.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            CommandStatus.ACTIVE,
+            UUID.randomUUID().toString(),
+            10_000L
+        ).withId(COMMAND_ID).build();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobExecution;
+import com.netflix.genie.common.dto.JobMetadata;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Unit tests for CachingJobPersistenceServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CachingJobPersistenceServiceImplUnitTests {
+
+    private static final String JOB_ID = UUID.randomUUID().toString();
+
+    private JobPersistenceService jobPersistenceService;
+    private JobStatusCache jobStatusCache;
+    private CachingJobPersistenceServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.jobStatusCache = Mockito.mock(JobStatusCache.class);
+        this.service = new CachingJobPersistenceServiceImpl(this.jobPersistenceService, this.jobStatusCache);
+    }
+
+    /**
+     * Make sure creating a job evicts any status cached for it.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canInvalidateOnCreateJob() throws GenieException {
+        final JobRequest jobRequest = Mockito.mock(JobRequest.class);
+        final JobMetadata jobMetadata = Mockito.mock(JobMetadata.class);
+        final Job job = Mockito.mock(Job.class);
+        Mockito.when(job.getId()).thenReturn(Optional.of(JOB_ID));
+        final JobExecution jobExecution = Mockito.mock(JobExecution.class);
+
+        this.service.createJob(jobRequest, jobMetadata, job, jobExecution);
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .createJob(jobRequest, jobMetadata, job, jobExecution);
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure updating the status of a job evicts its cached status.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canInvalidateOnUpdateJobStatus() throws GenieException {
+        this.service.updateJobStatus(JOB_ID, JobStatus.KILLED, "killed");
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(JOB_ID, JobStatus.KILLED, "killed");
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure the status is evicted even if the update failed as it may have been applied anyway.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canInvalidateOnFailedUpdateJobStatus() throws GenieException {
+        Mockito
+            .doThrow(new GenieNotFoundException("test"))
+            .when(this.jobPersistenceService)
+            .updateJobStatus(JOB_ID, JobStatus.KILLED, "killed");
+
+        try {
+            this.service.updateJobStatus(JOB_ID, JobStatus.KILLED, "killed");
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            // expected
+        }
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure marking a job as running evicts its cached status.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canInvalidateOnSetJobRunningInformation() throws GenieException {
+        final Date timeout = new Date();
+
+        this.service.setJobRunningInformation(JOB_ID, 1234, 5000L, timeout);
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .setJobRunningInformation(JOB_ID, 1234, 5000L, timeout);
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure completing a job evicts its cached status.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canInvalidateOnSetJobCompletionInformation() throws GenieException {
+        this.service.setJobCompletionInformation(JOB_ID, 0, JobStatus.SUCCEEDED, "done", 10L, null);
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .setJobCompletionInformation(JOB_ID, 0, JobStatus.SUCCEEDED, "done", 10L, null);
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure changes which don't affect the status leave the cache alone.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontInvalidateOnUpdateJobWithRuntimeEnvironment() throws GenieException {
+        this.service.updateJobWithRuntimeEnvironment(JOB_ID, "cluster", "command", Lists.newArrayList(), 1024);
+
+        Mockito.verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobWithRuntimeEnvironment(JOB_ID, "cluster", "command", Lists.newArrayList(), 1024);
+        Mockito.verifyZeroInteractions(this.jobStatusCache);
+    }
+
+    /**
+     * Make sure the whole cache is cleared once jobs are deleted and left alone when none were.
+     */
+    @Test
+    public void canClearCacheWhenJobsAreDeleted() {
+        final Date date = new Date();
+        Mockito
+            .when(this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(date, 100))
+            .thenReturn(0L)
+            .thenReturn(12L);
+
+        Assert.assertThat(this.service.deleteBatchOfJobsCreatedBeforeDate(date, 100), Matchers.is(0L));
+        Mockito.verify(this.jobStatusCache, Mockito.never()).invalidateAll();
+
+        Assert.assertThat(this.service.deleteBatchOfJobsCreatedBeforeDate(date, 100), Matchers.is(12L));
+        Mockito.verify(this.jobStatusCache, Mockito.times(1)).invalidateAll();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.Job;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for CachingJobSearchServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class CachingJobSearchServiceImplUnitTests {
+
+    private static final String JOB_ID = UUID.randomUUID().toString();
+    private static final String HOST_NAME = "genie1.netflix.com";
+
+    private JobSearchService jobSearchService;
+    private JobStatusCache jobStatusCache;
+    private CachingJobSearchServiceImpl service;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.jobStatusCache = new JobStatusCache(
+            Mockito.mock(JobStateService.class),
+            HOST_NAME,
+            100L,
+            60_000L,
+            registry
+        );
+        this.service = new CachingJobSearchServiceImpl(this.jobSearchService, this.jobStatusCache);
+    }
+
+    /**
+     * Make sure the status of a job is read through exactly once while it's cached.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReadJobStatusThroughOnce() throws GenieException {
+        Mockito.when(this.jobSearchService.getJobStatus(JOB_ID)).thenReturn(JobStatus.RUNNING);
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertThat(this.service.getJobStatus(JOB_ID), Matchers.is(JobStatus.RUNNING));
+        }
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatus(JOB_ID);
+
+        this.jobStatusCache.invalidateStatus(JOB_ID);
+        this.service.getJobStatus(JOB_ID);
+        Mockito.verify(this.jobSearchService, Mockito.times(2)).getJobStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure the host of a job running on another node is read through exactly once.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReadJobHostThroughOnce() throws GenieException {
+        Mockito.when(this.jobSearchService.getJobHost(JOB_ID)).thenReturn("genie2.netflix.com");
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertThat(this.service.getJobHost(JOB_ID), Matchers.is("genie2.netflix.com"));
+        }
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobHost(JOB_ID);
+    }
+
+    /**
+     * Make sure calls other than the status and host lookups are delegated every time.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDelegateOtherCalls() throws GenieException {
+        final Job job = Mockito.mock(Job.class);
+        Mockito.when(this.jobSearchService.getJob(JOB_ID)).thenReturn(job);
+
+        Assert.assertThat(this.service.getJob(JOB_ID), Matchers.is(job));
+        Assert.assertThat(this.service.getJob(JOB_ID), Matchers.is(job));
+        this.service.getJobRequest(JOB_ID);
+
+        Mockito.verify(this.jobSearchService, Mockito.times(2)).getJob(JOB_ID);
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobRequest(JOB_ID);
+    }
+}
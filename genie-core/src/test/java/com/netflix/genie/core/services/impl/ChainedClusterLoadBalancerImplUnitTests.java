@@ -0,0 +1,118 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.services.ClusterLoadBalancer;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for ChainedClusterLoadBalancerImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ChainedClusterLoadBalancerImplUnitTests {
+
+    private ClusterLoadBalancer first;
+    private ClusterLoadBalancer second;
+    private ClusterLoadCache clusterLoadCache;
+    private ChainedClusterLoadBalancerImpl clb;
+    private Cluster cluster1;
+    private Cluster cluster2;
+    private List<Cluster> clusters;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.first = Mockito.mock(ClusterLoadBalancer.class);
+        this.second = Mockito.mock(ClusterLoadBalancer.class);
+        this.clusterLoadCache = Mockito.mock(ClusterLoadCache.class);
+        this.clb = new ChainedClusterLoadBalancerImpl(
+            Lists.newArrayList(this.first, this.second),
+            this.clusterLoadCache
+        );
+        this.cluster1 = ClusterWeightsUnitTests.getCluster("cluster1", "one", "a");
+        this.cluster2 = ClusterWeightsUnitTests.getCluster("cluster2", "two", "b");
+        this.clusters = Lists.newArrayList(this.cluster1, this.cluster2);
+    }
+
+    /**
+     * Make sure the first load balancer with an opinion decides and the selection is recorded.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectWithFirstOpinion() throws GenieException {
+        Mockito.when(this.first.selectCluster(this.clusters)).thenReturn(this.cluster2);
+
+        Assert.assertThat(this.clb.selectCluster(this.clusters), Matchers.is(this.cluster2));
+        Mockito.verify(this.second, Mockito.never()).selectCluster(Mockito.anyListOf(Cluster.class));
+        Mockito.verify(this.clusterLoadCache, Mockito.times(1)).recordSelection("cluster2");
+    }
+
+    /**
+     * Make sure the chain falls through when a load balancer has no opinion.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFallThrough() throws GenieException {
+        Mockito.when(this.first.selectCluster(this.clusters)).thenReturn(null);
+        Mockito.when(this.second.selectCluster(this.clusters)).thenReturn(this.cluster1);
+
+        Assert.assertThat(this.clb.selectCluster(this.clusters), Matchers.is(this.cluster1));
+        Mockito.verify(this.clusterLoadCache, Mockito.times(1)).recordSelection("cluster1");
+    }
+
+    /**
+     * Make sure an error is thrown if no load balancer selects a cluster.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantSelectWithoutOpinion() throws GenieException {
+        this.clb.selectCluster(this.clusters);
+    }
+
+    /**
+     * Make sure an error is thrown if there are no clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSelectFromEmptyList() throws GenieException {
+        this.clb.selectCluster(new ArrayList<>());
+    }
+}
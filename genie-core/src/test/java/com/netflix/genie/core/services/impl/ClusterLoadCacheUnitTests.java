@@ -0,0 +1,117 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Unit tests for ClusterLoadCache.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ClusterLoadCacheUnitTests {
+
+    private JobSearchService jobSearchService;
+    private TaskScheduler scheduler;
+    private Counter refreshFailureCounter;
+    private ClusterLoadCache clusterLoadCache;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.refreshFailureCounter = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        Mockito
+            .when(registry.counter("genie.jobs.clusters.load.refreshFailure.rate"))
+            .thenReturn(this.refreshFailureCounter);
+        this.clusterLoadCache = new ClusterLoadCache(this.jobSearchService, this.scheduler, 5_000L, registry);
+    }
+
+    /**
+     * Make sure the periodic refresh is scheduled.
+     */
+    @Test
+    public void canScheduleRefresh() {
+        Mockito
+            .verify(this.scheduler, Mockito.times(1))
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.eq(5_000L));
+    }
+
+    /**
+     * Make sure the counts are loaded on refresh and selections are counted until the next refresh.
+     */
+    @Test
+    public void canCountActiveJobs() {
+        Mockito
+            .when(this.jobSearchService.getActiveJobCountsByCluster())
+            .thenReturn(ImmutableMap.of("cluster1", 3L, "cluster2", 1L))
+            .thenReturn(ImmutableMap.of("cluster1", 2L));
+
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster1"), Matchers.is(0L));
+        this.clusterLoadCache.refresh();
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster1"), Matchers.is(3L));
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster2"), Matchers.is(1L));
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster3"), Matchers.is(0L));
+
+        this.clusterLoadCache.recordSelection("cluster2");
+        this.clusterLoadCache.recordSelection("cluster3");
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster2"), Matchers.is(2L));
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster3"), Matchers.is(1L));
+
+        this.clusterLoadCache.refresh();
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster1"), Matchers.is(2L));
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster2"), Matchers.is(0L));
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster3"), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure the previous counts are kept when a refresh fails.
+     */
+    @Test
+    public void canKeepCountsWhenRefreshFails() {
+        Mockito
+            .when(this.jobSearchService.getActiveJobCountsByCluster())
+            .thenReturn(ImmutableMap.of("cluster1", 3L))
+            .thenThrow(new RuntimeException("test"));
+
+        this.clusterLoadCache.refresh();
+        this.clusterLoadCache.refresh();
+
+        Assert.assertThat(this.clusterLoadCache.getActiveJobs("cluster1"), Matchers.is(3L));
+        Mockito.verify(this.refreshFailureCounter, Mockito.times(1)).increment();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Unit tests for ClusterWeights.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ClusterWeightsUnitTests {
+
+    private static final String CONFIGURED_ID = UUID.randomUUID().toString();
+    private static final String CONFIGURED_NAME = UUID.randomUUID().toString();
+
+    private ClusterWeights clusterWeights;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clusterWeights = new ClusterWeights("weight:", ImmutableMap.of(CONFIGURED_ID, 8, CONFIGURED_NAME, 6));
+    }
+
+    /**
+     * Make sure a configured weight takes precedence over a tag.
+     */
+    @Test
+    public void canGetConfiguredWeight() {
+        Assert.assertThat(
+            this.clusterWeights.getWeight(getCluster(CONFIGURED_ID, UUID.randomUUID().toString(), "weight:2")),
+            Matchers.is(Optional.of(8))
+        );
+        Assert.assertThat(
+            this.clusterWeights.getWeight(getCluster(UUID.randomUUID().toString(), CONFIGURED_NAME, "weight:2")),
+            Matchers.is(Optional.of(6))
+        );
+    }
+
+    /**
+     * Make sure the weight can come from a tag.
+     */
+    @Test
+    public void canGetTaggedWeight() {
+        Assert.assertThat(
+            this.clusterWeights.getWeight(getCluster(UUID.randomUUID().toString(), "prod", "weight:3")),
+            Matchers.is(Optional.of(3))
+        );
+    }
+
+    /**
+     * Make sure clusters without a valid weight don't have one.
+     */
+    @Test
+    public void canGetNoWeight() {
+        final Cluster untagged = getCluster(UUID.randomUUID().toString(), "prod", "sched:adhoc");
+        final Cluster invalid = getCluster(UUID.randomUUID().toString(), "prod", "weight:lots");
+        final Cluster zero = getCluster(UUID.randomUUID().toString(), "prod", "weight:0");
+
+        Assert.assertFalse(this.clusterWeights.getWeight(untagged).isPresent());
+        Assert.assertFalse(this.clusterWeights.getWeight(invalid).isPresent());
+        Assert.assertFalse(this.clusterWeights.getWeight(zero).isPresent());
+        Assert.assertThat(this.clusterWeights.getWeightOrDefault(untagged), Matchers.is(1));
+    }
+
+    /**
+     * Get a cluster for the tests.
+     *
+     * @param id   The id of the cluster
+     * @param name The name of the cluster
+     * @param tag  A tag for the cluster
+     * @return The cluster
+     */
+    static Cluster getCluster(final String id, final String name, final String tag) {
+        return new Cluster.Builder(name, "genie", "1.0", ClusterStatus.UP)
+            .withId(id)
+            .withTags(Sets.newHashSet(tag))
+            .build();
+    }
+}
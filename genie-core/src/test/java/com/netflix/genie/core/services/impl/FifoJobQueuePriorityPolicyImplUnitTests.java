@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.core.jobs.QueuedJob;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for FifoJobQueuePriorityPolicyImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class FifoJobQueuePriorityPolicyImplUnitTests {
+
+    private FifoJobQueuePriorityPolicyImpl policy;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.policy = new FifoJobQueuePriorityPolicyImpl();
+    }
+
+    /**
+     * Make sure jobs queued earlier are admitted first.
+     */
+    @Test
+    public void canOrderByQueuedTime() {
+        final QueuedJob first = this.getQueuedJob("b", 1L);
+        final QueuedJob second = this.getQueuedJob("a", 2L);
+
+        Assert.assertThat(this.policy.compare(first, second), Matchers.lessThan(0));
+        Assert.assertThat(this.policy.compare(second, first), Matchers.greaterThan(0));
+    }
+
+    /**
+     * Make sure jobs queued at the same time are ordered consistently.
+     */
+    @Test
+    public void canOrderByIdWhenQueuedAtSameTime() {
+        final QueuedJob first = this.getQueuedJob("a", 1L);
+        final QueuedJob second = this.getQueuedJob("b", 1L);
+
+        Assert.assertThat(this.policy.compare(first, second), Matchers.lessThan(0));
+        Assert.assertThat(this.policy.compare(first, this.getQueuedJob("a", 1L)), Matchers.is(0));
+    }
+
+    private QueuedJob getQueuedJob(final String id, final long queuedTime) {
+        return new QueuedJob(
+            id,
+            Mockito.mock(JobRequest.class),
+            Mockito.mock(Cluster.class),
+            Mockito.mock(Command.class),
+            Lists.newArrayList(),
+            1_024,
+            queuedTime
+        );
+    }
+}
@@ -142,4 +142,18 @@ public class GenieFileTransferServiceUnitTests {
         Mockito.verify(this.s3FileTransfer, Mockito.times(1)).putFile(LOCAL_FILE_PATH, S3_FILE_PATH);
         Mockito.verify(this.localFileTransfer, Mockito.times(0)).putFile(LOCAL_FILE_PATH, S3_FILE_PATH);
     }
+
+    /**
+     * Test the putStream method streams to the implementation for the destination.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void testPutStream() throws GenieException {
+        final FileTransfer.ContentWriter contentWriter = out -> out.write(1);
+
+        this.genieFileTransferService.putStream(contentWriter, S3_FILE_PATH);
+        Mockito.verify(this.s3FileTransfer, Mockito.times(1)).putStream(contentWriter, S3_FILE_PATH);
+        Mockito.verify(this.localFileTransfer, Mockito.never()).putStream(contentWriter, S3_FILE_PATH);
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.apache.commons.lang3.SystemUtils;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for HelperJobProcessLauncherImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class HelperJobProcessLauncherImplUnitTests {
+
+    /**
+     * Temporary folder for the job directories.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Counter helperStartRate;
+    private Registry registry;
+    private File jobsDir;
+    private HelperJobProcessLauncherImpl launcher;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException on error
+     */
+    @Before
+    public void setup() throws IOException {
+        Assume.assumeTrue(SystemUtils.IS_OS_UNIX);
+        this.helperStartRate = Mockito.mock(Counter.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito
+            .when(this.registry.counter("genie.jobs.launcher.helper.start.rate"))
+            .thenReturn(this.helperStartRate);
+        this.jobsDir = this.folder.newFolder("jobs");
+        final File helper = this.folder.newFile("genie-launcher-helper");
+        try (final InputStream script = this.getClass().getResourceAsStream("/bin/genie-launcher-helper")) {
+            Assert.assertNotNull(script);
+            Files.copy(script, helper.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Assert.assertTrue(helper.setExecutable(true));
+        this.launcher = new HelperJobProcessLauncherImpl(
+            false, helper.getAbsolutePath(), this.jobsDir, 2, 10_000L, this.registry
+        );
+    }
+
+    /**
+     * Stop the helper.
+     */
+    @After
+    public void cleanup() {
+        if (this.launcher != null) {
+            this.launcher.close();
+        }
+    }
+
+    /**
+     * Make sure jobs launched one after the other reuse a single helper which returns their process ids.
+     *
+     * @throws GenieException       on error
+     * @throws IOException          on error
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canLaunch() throws GenieException, IOException, InterruptedException {
+        final File jobDir1 = this.createJobDir();
+        final File jobDir2 = this.createJobDir();
+
+        final int pid1 = this.launcher.launch(jobDir1, null);
+        final int pid2 = this.launcher.launch(jobDir2, null);
+
+        Assert.assertThat(pid1, Matchers.greaterThan(0));
+        Assert.assertThat(pid2, Matchers.not(pid1));
+        Assert.assertThat(this.waitForLog(jobDir1), Matchers.is("pid " + pid1));
+        Assert.assertThat(this.waitForLog(jobDir2), Matchers.is("pid " + pid2));
+        Mockito.verify(this.helperStartRate, Mockito.times(1)).increment();
+    }
+
+    /**
+     * Make sure jobs launched at the same time are each handed to a helper.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canLaunchConcurrently() throws Exception {
+        final File jobDir1 = this.createJobDir();
+        final File jobDir2 = this.createJobDir();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Integer> pid1 = executor.submit(() -> this.launcher.launch(jobDir1, null));
+            final Future<Integer> pid2 = executor.submit(() -> this.launcher.launch(jobDir2, null));
+
+            Assert.assertThat(this.waitForLog(jobDir1), Matchers.is("pid " + pid1.get()));
+            Assert.assertThat(this.waitForLog(jobDir2), Matchers.is("pid " + pid2.get()));
+            Mockito.verify(this.helperStartRate, Mockito.atMost(2)).increment();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make sure a new helper is started after the old one is closed.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canRestartHelper() throws GenieException, IOException {
+        this.launcher.launch(this.createJobDir(), null);
+        this.launcher.close();
+        this.launcher.launch(this.createJobDir(), null);
+        Mockito.verify(this.helperStartRate, Mockito.times(2)).increment();
+    }
+
+    /**
+     * Make sure a job can't be launched in a directory which doesn't exist.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantLaunchWithoutDirectory() throws GenieException {
+        this.launcher.launch(new File(this.jobsDir, "missing"), null);
+    }
+
+    /**
+     * Make sure a job can't be launched in a directory outside the jobs directory.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test(expected = GenieServerException.class)
+    public void cantLaunchOutsideJobsDirectory() throws GenieException, IOException {
+        this.launcher.launch(this.folder.newFolder("other"), null);
+    }
+
+    /**
+     * Make sure a helper which doesn't answer is given up on and replaced.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test
+    public void canReplaceHelperWhichDoesNotAnswer() throws GenieException, IOException {
+        final File stuckHelper = this.folder.newFile("stuck-helper");
+        Files.write(stuckHelper.toPath(), "#!/bin/bash\nsleep 60\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(stuckHelper.setExecutable(true));
+        this.launcher.close();
+        this.launcher = new HelperJobProcessLauncherImpl(
+            false, stuckHelper.getAbsolutePath(), this.jobsDir, 1, 200L, this.registry
+        );
+
+        final long start = System.currentTimeMillis();
+        try {
+            this.launcher.launch(this.createJobDir(), null);
+            Assert.fail();
+        } catch (final GenieServerException gse) {
+            Assert.assertThat(System.currentTimeMillis() - start, Matchers.lessThan(10_000L));
+        }
+        Mockito.verify(this.helperStartRate, Mockito.times(2)).increment();
+    }
+
+    /**
+     * Make sure values which would break the protocol with the helper are rejected.
+     *
+     * @throws GenieException on error
+     * @throws IOException    on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantLaunchWithInvalidUser() throws GenieException, IOException {
+        this.launcher.launch(this.createJobDir(), "user\n/tmp");
+    }
+
+    private File createJobDir() throws IOException {
+        final File jobDir = Files.createTempDirectory(this.jobsDir.toPath(), "job").toFile();
+        Assert.assertTrue(new File(jobDir, "genie/logs").mkdirs());
+        final File runScript = new File(jobDir, JobConstants.GENIE_JOB_LAUNCHER_SCRIPT);
+        Files.write(runScript.toPath(), "#!/bin/bash\necho pid $$\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(runScript.setExecutable(true));
+        return jobDir;
+    }
+
+    private String waitForLog(final File jobDir) throws IOException, InterruptedException {
+        final File log = new File(jobDir + JobConstants.GENIE_LOG_PATH);
+        for (int i = 0; i < 100; i++) {
+            if (log.length() > 0) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return new String(Files.readAllBytes(log.toPath()), StandardCharsets.UTF_8).trim();
+    }
+}
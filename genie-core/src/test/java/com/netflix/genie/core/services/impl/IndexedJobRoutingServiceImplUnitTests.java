@@ -0,0 +1,354 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.properties.JobsRoutingProperties;
+import com.netflix.genie.core.services.ApplicationService;
+import com.netflix.genie.core.services.ClusterService;
+import com.netflix.genie.core.services.CommandService;
+import com.netflix.genie.core.services.JobRoutingService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for the IndexedJobRoutingServiceImpl class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class IndexedJobRoutingServiceImplUnitTests {
+
+    private ClusterService clusterService;
+    private CommandService commandService;
+    private ApplicationService applicationService;
+    private JobRoutingService fallbackRoutingService;
+    private TaskScheduler scheduler;
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter refreshFailureCounter;
+    private IndexedJobRoutingServiceImpl service;
+
+    private Cluster prodCluster;
+    private Cluster testCluster;
+    private Command pigCommand;
+    private Command hiveCommand;
+    private Application hadoopApplication;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.clusterService = Mockito.mock(ClusterService.class);
+        this.commandService = Mockito.mock(CommandService.class);
+        this.applicationService = Mockito.mock(ApplicationService.class);
+        this.fallbackRoutingService = Mockito.mock(JobRoutingService.class);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+
+        this.hitCounter = Mockito.mock(Counter.class);
+        this.missCounter = Mockito.mock(Counter.class);
+        this.refreshFailureCounter = Mockito.mock(Counter.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter("genie.jobs.routing.index.hit.rate")).thenReturn(this.hitCounter);
+        Mockito.when(registry.counter("genie.jobs.routing.index.miss.rate")).thenReturn(this.missCounter);
+        Mockito
+            .when(registry.counter("genie.jobs.routing.index.refreshFailure.rate"))
+            .thenReturn(this.refreshFailureCounter);
+        Mockito.when(registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+
+        this.prodCluster = this.createCluster("prod", "sla", "yarn");
+        this.testCluster = this.createCluster("test", "adhoc", "yarn");
+        this.pigCommand = this.createCommand("pig", "type:pig");
+        this.hiveCommand = this.createCommand("hive", "type:hive");
+        this.hadoopApplication = new Application.Builder(
+            "hadoop",
+            UUID.randomUUID().toString(),
+            "2.7.1",
+            ApplicationStatus.ACTIVE
+        ).withId("hadoop").build();
+
+        Mockito
+            .when(
+                this.clusterService.getClusters(
+                    Mockito.anyString(),
+                    Mockito.anySetOf(ClusterStatus.class),
+                    Mockito.anySetOf(String.class),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(Pageable.class)
+                )
+            )
+            .thenReturn(new PageImpl<>(Lists.newArrayList(this.prodCluster, this.testCluster)));
+        Mockito
+            .when(this.clusterService.getCommandsForCluster(Mockito.eq("prod"), Mockito.anySetOf(CommandStatus.class)))
+            .thenReturn(Lists.newArrayList(this.hiveCommand, this.pigCommand));
+        Mockito
+            .when(this.clusterService.getCommandsForCluster(Mockito.eq("test"), Mockito.anySetOf(CommandStatus.class)))
+            .thenReturn(Lists.newArrayList(this.pigCommand));
+        Mockito
+            .when(this.commandService.getApplicationsForCommand("pig"))
+            .thenReturn(Lists.newArrayList(this.hadoopApplication));
+        Mockito.when(this.commandService.getApplicationsForCommand("hive")).thenReturn(Lists.newArrayList());
+
+        this.service = new IndexedJobRoutingServiceImpl(
+            this.clusterService,
+            this.commandService,
+            this.applicationService,
+            this.fallbackRoutingService,
+            this.scheduler,
+            new JobsRoutingProperties(),
+            registry
+        );
+    }
+
+    /**
+     * Make sure the periodic refresh is scheduled on construction.
+     */
+    @Test
+    public void canScheduleRefresh() {
+        Mockito
+            .verify(this.scheduler, Mockito.times(1))
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.eq(60_000L));
+    }
+
+    /**
+     * Make sure the fallback is used until the index has been built.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFallbackBeforeIndexIsBuilt() throws GenieException {
+        final JobRequest jobRequest = this.createJobRequest(Lists.newArrayList("sla"), "type:pig");
+        final List<JobRoute> routes = Lists.newArrayList();
+        Mockito.when(this.fallbackRoutingService.getJobRoutes(jobRequest)).thenReturn(routes);
+
+        Assert.assertThat(this.service.getJobRoutes(jobRequest), Matchers.is(routes));
+        Mockito.verify(this.missCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.hitCounter, Mockito.never()).increment();
+    }
+
+    /**
+     * Make sure routes are resolved from the index once it's built.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRouteFromIndex() throws GenieException {
+        this.service.refresh(true);
+
+        final List<JobRoute> routes
+            = this.service.getJobRoutes(this.createJobRequest(Lists.newArrayList("yarn"), "type:pig"));
+        Assert.assertThat(routes.size(), Matchers.is(2));
+        Assert.assertThat(routes.get(0).getCluster(), Matchers.is(this.prodCluster));
+        Assert.assertThat(routes.get(0).getCommand(), Matchers.is(this.pigCommand));
+        Assert.assertThat(routes.get(0).getApplications(), Matchers.contains(this.hadoopApplication));
+        Assert.assertThat(routes.get(1).getCluster(), Matchers.is(this.testCluster));
+        Assert.assertThat(routes.get(1).getCommand(), Matchers.is(this.pigCommand));
+
+        Mockito.verify(this.hitCounter, Mockito.times(1)).increment();
+        Mockito.verify(this.fallbackRoutingService, Mockito.never()).getJobRoutes(Mockito.any(JobRequest.class));
+    }
+
+    /**
+     * Make sure the criteria are tried in order until one matches a cluster with a matching command.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRouteWithLaterCriteria() throws GenieException {
+        this.service.refresh(true);
+
+        final List<JobRoute> routes = this.service.getJobRoutes(
+            this.createJobRequest(Lists.newArrayList("unknown", "adhoc", "sla"), "type:pig")
+        );
+        Assert.assertThat(routes.size(), Matchers.is(1));
+        Assert.assertThat(routes.get(0).getCluster(), Matchers.is(this.testCluster));
+
+        final List<JobRoute> hiveRoutes = this.service.getJobRoutes(
+            this.createJobRequest(Lists.newArrayList("adhoc", "yarn"), "type:hive")
+        );
+        Assert.assertThat(hiveRoutes.size(), Matchers.is(1));
+        Assert.assertThat(hiveRoutes.get(0).getCluster(), Matchers.is(this.prodCluster));
+        Assert.assertThat(hiveRoutes.get(0).getCommand(), Matchers.is(this.hiveCommand));
+        Assert.assertTrue(hiveRoutes.get(0).getApplications().isEmpty());
+    }
+
+    /**
+     * Make sure no routes are returned when nothing matches.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canReturnNoRoutes() throws GenieException {
+        this.service.refresh(true);
+
+        Assert.assertTrue(
+            this.service.getJobRoutes(this.createJobRequest(Lists.newArrayList("adhoc"), "type:hive")).isEmpty()
+        );
+    }
+
+    /**
+     * Make sure requested applications are used instead of the command applications.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canUseRequestedApplications() throws GenieException {
+        this.service.refresh(true);
+        final Application sparkApplication = new Application.Builder(
+            "spark",
+            UUID.randomUUID().toString(),
+            "1.6.2",
+            ApplicationStatus.ACTIVE
+        ).withId("spark").build();
+        Mockito.when(this.applicationService.getApplication("spark")).thenReturn(sparkApplication);
+
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet("sla"))),
+            Sets.newHashSet("type:pig")
+        ).withApplications(Lists.newArrayList("spark", "hadoop")).build();
+
+        final List<JobRoute> routes = this.service.getJobRoutes(jobRequest);
+        Assert.assertThat(routes.size(), Matchers.is(1));
+        Assert.assertThat(routes.get(0).getApplications(), Matchers.contains(sparkApplication, this.hadoopApplication));
+        Mockito.verify(this.applicationService, Mockito.never()).getApplication("hadoop");
+    }
+
+    /**
+     * Make sure a configuration change rebuilds the index and a failed rebuild falls back to the other service.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFallbackWhenRefreshAfterChangeFails() throws GenieException {
+        this.service.refresh(true);
+        final JobRequest jobRequest = this.createJobRequest(Lists.newArrayList("sla"), "type:pig");
+        Assert.assertThat(this.service.getJobRoutes(jobRequest).size(), Matchers.is(1));
+
+        Mockito
+            .when(this.clusterService.getCommandsForCluster(Mockito.eq("prod"), Mockito.anySetOf(CommandStatus.class)))
+            .thenThrow(new IllegalStateException("database down"));
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "prod", this));
+        this.runScheduledRefresh();
+        Mockito.verify(this.refreshFailureCounter, Mockito.times(1)).increment();
+
+        Mockito.when(this.fallbackRoutingService.getJobRoutes(jobRequest)).thenReturn(Lists.newArrayList());
+        Assert.assertTrue(this.service.getJobRoutes(jobRequest).isEmpty());
+        Mockito.verify(this.fallbackRoutingService, Mockito.times(1)).getJobRoutes(jobRequest);
+    }
+
+    /**
+     * Make sure changes made while a rebuild is pending are picked up by that rebuild and routed with the fallback
+     * until then.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canCoalesceRefreshesAfterChanges() throws GenieException {
+        this.service.refresh(true);
+        final JobRequest jobRequest = this.createJobRequest(Lists.newArrayList("sla"), "type:pig");
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "prod", this));
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, "pig", this));
+        Mockito.when(this.fallbackRoutingService.getJobRoutes(jobRequest)).thenReturn(Lists.newArrayList());
+        Assert.assertTrue(this.service.getJobRoutes(jobRequest).isEmpty());
+        Mockito.verify(this.fallbackRoutingService, Mockito.times(1)).getJobRoutes(jobRequest);
+
+        this.runScheduledRefresh();
+        Assert.assertThat(this.service.getJobRoutes(jobRequest).size(), Matchers.is(1));
+        Mockito.verify(this.fallbackRoutingService, Mockito.times(1)).getJobRoutes(jobRequest);
+        Mockito.verify(this.commandService, Mockito.times(2)).getApplicationsForCommand("pig");
+
+        this.service.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "prod", this));
+        Mockito
+            .verify(this.scheduler, Mockito.times(2))
+            .schedule(Mockito.any(Runnable.class), Mockito.any(Date.class));
+    }
+
+    private void runScheduledRefresh() {
+        final ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(this.scheduler, Mockito.times(1)).schedule(refresh.capture(), Mockito.any(Date.class));
+        refresh.getValue().run();
+    }
+
+    private Cluster createCluster(final String id, final String... tags) {
+        return new Cluster.Builder(id, UUID.randomUUID().toString(), "1.0", ClusterStatus.UP)
+            .withId(id)
+            .withTags(Sets.newHashSet(tags))
+            .build();
+    }
+
+    private Command createCommand(final String id, final String... tags) {
+        return new Command.Builder(id, UUID.randomUUID().toString(), "1.0", CommandStatus.ACTIVE, id, 1000L)
+            .withId(id)
+            .withTags(Sets.newHashSet(tags))
+            .build();
+    }
+
+    private JobRequest createJobRequest(final List<String> clusterTags, final String commandTag) {
+        final List<ClusterCriteria> criterias = Lists.newArrayList();
+        clusterTags.forEach(tag -> criterias.add(new ClusterCriteria(Sets.newHashSet(tag))));
+        final Set<String> commandCriteria = Sets.newHashSet(commandTag);
+        return new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            criterias,
+            commandCriteria
+        ).build();
+    }
+}
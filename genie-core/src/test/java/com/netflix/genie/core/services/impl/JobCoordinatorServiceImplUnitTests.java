@@ -22,7 +22,6 @@ import com.google.common.collect.Sets;
 import com.netflix.genie.common.dto.Application;
 import com.netflix.genie.common.dto.Cluster;
 import com.netflix.genie.common.dto.Command;
-import com.netflix.genie.common.dto.CommandStatus;
 import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobMetadata;
@@ -32,20 +31,24 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.common.exceptions.GenieServerUnavailableException;
+import com.netflix.genie.core.jobs.JobRoute;
+import com.netflix.genie.core.jobs.QueuedJob;
 import com.netflix.genie.core.properties.JobsProperties;
-import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
-import com.netflix.genie.core.services.ClusterService;
-import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobQueueService;
+import com.netflix.genie.core.services.JobRoutingService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.util.HashSet;
@@ -75,11 +78,10 @@ public class JobCoordinatorServiceImplUnitTests {
     private JobPersistenceService jobPersistenceService;
     private JobKillService jobKillService;
     private JobStateService jobStateService;
-    private ApplicationService applicationService;
-    private ClusterService clusterService;
-    private CommandService commandService;
+    private JobRoutingService jobRoutingService;
     private ClusterLoadBalancer clusterLoadBalancer;
     private JobsProperties jobsProperties;
+    private Registry registry;
 
     /**
      * Setup for the tests.
@@ -92,24 +94,20 @@ public class JobCoordinatorServiceImplUnitTests {
         this.jobsProperties = new JobsProperties();
         this.jobsProperties.getLocations().setArchives(BASE_ARCHIVE_LOCATION);
         this.jobsProperties.getMemory().setDefaultJobMemory(MEMORY);
-        this.applicationService = Mockito.mock(ApplicationService.class);
-        this.clusterService = Mockito.mock(ClusterService.class);
-        this.commandService = Mockito.mock(CommandService.class);
+        this.jobRoutingService = Mockito.mock(JobRoutingService.class);
         this.clusterLoadBalancer = Mockito.mock(ClusterLoadBalancer.class);
 
-        final Registry registry = Mockito.mock(Registry.class);
-        Mockito.when(registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
 
         this.jobCoordinatorService = new JobCoordinatorServiceImpl(
             this.jobPersistenceService,
             this.jobKillService,
             this.jobStateService,
             jobsProperties,
-            this.applicationService,
-            this.clusterService,
-            this.commandService,
+            this.jobRoutingService,
             this.clusterLoadBalancer,
-            registry,
+            this.registry,
             HOST_NAME
         );
     }
@@ -135,34 +133,25 @@ public class JobCoordinatorServiceImplUnitTests {
         final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
         Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
 
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobRoutingService.getJobRoutes(jobRequest))
+            .thenReturn(Lists.newArrayList(new JobRoute(cluster, command, applications)));
 
-        Mockito.when(this.jobStateService.getUsedMemory()).thenReturn(0);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
@@ -204,32 +193,23 @@ public class JobCoordinatorServiceImplUnitTests {
         final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
         Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
 
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
 
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
 
-        Mockito.when(this.applicationService.getApplication(applicationId)).thenReturn(application);
+        Mockito
+            .when(this.jobRoutingService.getJobRoutes(jobRequest))
+            .thenReturn(Lists.newArrayList(new JobRoute(cluster, command, Lists.newArrayList(application))));
 
-        Mockito.when(this.jobStateService.getUsedMemory()).thenReturn(0);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
@@ -270,36 +250,27 @@ public class JobCoordinatorServiceImplUnitTests {
         final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
         Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
 
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.empty());
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobRoutingService.getJobRoutes(jobRequest))
+            .thenReturn(Lists.newArrayList(new JobRoute(cluster, command, applications)));
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.never()).getUsedMemory();
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .reserveMemory(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt());
     }
 
     /**
@@ -323,45 +294,141 @@ public class JobCoordinatorServiceImplUnitTests {
         final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
         Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
 
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobRoutingService.getJobRoutes(jobRequest))
+            .thenReturn(Lists.newArrayList(new JobRoute(cluster, command, applications)));
 
         Mockito
-            .when(this.jobStateService.getUsedMemory())
-            .thenReturn(this.jobsProperties.getMemory().getMaxSystemMemory());
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(false);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.times(1)).getUsedMemory();
+        Mockito
+            .verify(this.jobStateService, Mockito.times(1))
+            .reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt());
         Mockito
             .verify(this.jobPersistenceService, Mockito.times(1))
             .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
     }
 
+    /**
+     * Make sure the job is queued instead of rejected when there isn't enough memory and queueing is enabled.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canQueueJobIfNotEnoughMemoryAvailable() throws GenieException {
+        final JobQueueService jobQueueService = Mockito.mock(JobQueueService.class);
+        Mockito.when(jobQueueService.enqueue(Mockito.any(QueuedJob.class))).thenReturn(true);
+        final Set<String> commandCriteria = Sets.newHashSet(UUID.randomUUID().toString());
+        final JobRequest jobRequest = this.getJobRequest(false, commandCriteria, null, null);
+        final JobRoute route = this.setupRouteWithoutEnoughMemory(jobRequest);
+
+        Assert.assertThat(
+            this.getQueueingJobCoordinatorService(jobQueueService).coordinateJob(jobRequest, this.getJobMetadata()),
+            Matchers.is(JOB_1_ID)
+        );
+
+        final ArgumentCaptor<QueuedJob> queuedJob = ArgumentCaptor.forClass(QueuedJob.class);
+        Mockito.verify(jobQueueService, Mockito.times(1)).enqueue(queuedJob.capture());
+        Assert.assertThat(queuedJob.getValue().getJobId(), Matchers.is(JOB_1_ID));
+        Assert.assertThat(queuedJob.getValue().getJobRequest(), Matchers.is(jobRequest));
+        Assert.assertThat(queuedJob.getValue().getCluster(), Matchers.is(route.getCluster()));
+        Assert.assertThat(queuedJob.getValue().getCommand(), Matchers.is(route.getCommand()));
+        Assert.assertThat(queuedJob.getValue().getApplications(), Matchers.is(route.getApplications()));
+        Assert.assertThat(queuedJob.getValue().getMemory(), Matchers.is(1));
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.INIT), Mockito.anyString());
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+        Mockito.verify(this.jobStateService, Mockito.never()).done(JOB_1_ID);
+    }
+
+    /**
+     * Make sure a new job waits behind the jobs already queued instead of taking the memory they're waiting for.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void canQueueJobBehindQueuedJobs() throws GenieException {
+        final JobQueueService jobQueueService = Mockito.mock(JobQueueService.class);
+        Mockito.when(jobQueueService.getQueueDepth()).thenReturn(1);
+        Mockito.when(jobQueueService.enqueue(Mockito.any(QueuedJob.class))).thenReturn(true);
+        final Set<String> commandCriteria = Sets.newHashSet(UUID.randomUUID().toString());
+        final JobRequest jobRequest = this.getJobRequest(false, commandCriteria, null, null);
+        this.setupRouteWithoutEnoughMemory(jobRequest);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
+
+        Assert.assertThat(
+            this.getQueueingJobCoordinatorService(jobQueueService).coordinateJob(jobRequest, this.getJobMetadata()),
+            Matchers.is(JOB_1_ID)
+        );
+
+        Mockito.verify(jobQueueService, Mockito.times(1)).enqueue(Mockito.any(QueuedJob.class));
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .reserveMemory(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt());
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+        Mockito.verify(this.jobStateService, Mockito.never()).done(JOB_1_ID);
+    }
+
+    /**
+     * Make sure the job is rejected when there isn't enough memory and the queue is full.
+     *
+     * @throws GenieException If there is any problem
+     */
+    @Test
+    public void cantQueueJobIfQueueIsFull() throws GenieException {
+        final JobQueueService jobQueueService = Mockito.mock(JobQueueService.class);
+        Mockito.when(jobQueueService.enqueue(Mockito.any(QueuedJob.class))).thenReturn(false);
+        final Set<String> commandCriteria = Sets.newHashSet(UUID.randomUUID().toString());
+        final JobRequest jobRequest = this.getJobRequest(false, commandCriteria, null, null);
+        this.setupRouteWithoutEnoughMemory(jobRequest);
+
+        try {
+            this.getQueueingJobCoordinatorService(jobQueueService).coordinateJob(jobRequest, this.getJobMetadata());
+            Assert.fail();
+        } catch (final GenieServerUnavailableException e) {
+            Mockito.verify(this.jobStateService, Mockito.times(1)).done(JOB_1_ID);
+            Mockito
+                .verify(this.jobPersistenceService, Mockito.times(1))
+                .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+        }
+    }
+
     /**
      * Test the coordinate job method.
      *
@@ -383,41 +450,32 @@ public class JobCoordinatorServiceImplUnitTests {
         final List<Cluster> clusters = Lists.newArrayList(cluster);
         Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
 
-        Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
         Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
 
         final String commandId = UUID.randomUUID().toString();
         final Command command = Mockito.mock(Command.class);
         Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
         Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        commandTags.addAll(commandCriteria);
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
 
         final String applicationId = UUID.randomUUID().toString();
         final Application application = Mockito.mock(Application.class);
         Mockito.when(application.getId()).thenReturn(Optional.of(applicationId));
         final List<Application> applications = Lists.newArrayList(application);
 
-        Mockito.when(this.commandService.getApplicationsForCommand(commandId)).thenReturn(applications);
+        Mockito
+            .when(this.jobRoutingService.getJobRoutes(jobRequest))
+            .thenReturn(Lists.newArrayList(new JobRoute(cluster, command, applications)));
         Mockito.doThrow(new RuntimeException()).when(jobStateService).schedule(JOB_1_ID, jobRequest, cluster,
             command, applications, 1);
         Mockito
-            .when(this.jobStateService.getUsedMemory())
-            .thenReturn(0);
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
 
         this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
 
-        Mockito.verify(this.jobStateService, Mockito.times(1)).getUsedMemory();
+        Mockito
+            .verify(this.jobStateService, Mockito.times(1))
+            .reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt());
         Mockito
             .verify(this.jobPersistenceService, Mockito.times(1))
             .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
@@ -429,7 +487,7 @@ public class JobCoordinatorServiceImplUnitTests {
      * @throws GenieException If there is any problem
      */
     @Test(expected = GeniePreconditionException.class)
-    public void cantCoordinateJobIfNoCommand() throws GenieException {
+    public void cantCoordinateJobIfNoRoute() throws GenieException {
         final Set<String> commandCriteria = Sets.newHashSet(
             UUID.randomUUID().toString(),
             UUID.randomUUID().toString(),
@@ -439,31 +497,18 @@ public class JobCoordinatorServiceImplUnitTests {
         final JobRequest jobRequest = this.getJobRequest(false, commandCriteria, null, null);
         final JobMetadata jobMetadata = this.getJobMetadata();
 
-        final String clusterId = UUID.randomUUID().toString();
-        final Cluster cluster = Mockito.mock(Cluster.class);
-        final List<Cluster> clusters = Lists.newArrayList(cluster);
-        Mockito.when(cluster.getId()).thenReturn(Optional.of(clusterId));
-
+        Mockito.when(this.jobRoutingService.getJobRoutes(jobRequest)).thenReturn(Lists.newArrayList());
         Mockito
-            .when(this.clusterService.chooseClusterForJobRequest(jobRequest))
-            .thenReturn(clusters);
-
-        Mockito.when(this.clusterLoadBalancer.selectCluster(clusters)).thenReturn(cluster);
-
-        final String commandId = UUID.randomUUID().toString();
-        final Command command = Mockito.mock(Command.class);
-        Mockito.when(command.getId()).thenReturn(Optional.of(commandId));
-        Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
-        final Set<String> commandTags = Sets.newHashSet(UUID.randomUUID().toString());
-        Mockito.when(command.getTags()).thenReturn(commandTags);
-
-        Mockito
-            .when(
-                this.clusterService.getCommandsForCluster(Mockito.eq(clusterId), Mockito.anySetOf(CommandStatus.class))
-            )
-            .thenReturn(Lists.newArrayList(command));
-
-        this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
+            .when(this.clusterLoadBalancer.selectCluster(Lists.newArrayList()))
+            .thenThrow(new GeniePreconditionException("No cluster configuration found"));
+
+        try {
+            this.jobCoordinatorService.coordinateJob(jobRequest, jobMetadata);
+        } finally {
+            Mockito
+                .verify(this.jobPersistenceService, Mockito.times(1))
+                .updateJobStatus(Mockito.eq(JOB_1_ID), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+        }
     }
 
     /**
@@ -502,6 +547,38 @@ public class JobCoordinatorServiceImplUnitTests {
         this.jobCoordinatorService.killJob(id);
     }
 
+    private JobCoordinatorServiceImpl getQueueingJobCoordinatorService(final JobQueueService jobQueueService) {
+        return new JobCoordinatorServiceImpl(
+            this.jobPersistenceService,
+            this.jobKillService,
+            this.jobStateService,
+            this.jobsProperties,
+            this.jobRoutingService,
+            this.clusterLoadBalancer,
+            jobQueueService,
+            this.registry,
+            HOST_NAME
+        );
+    }
+
+    private JobRoute setupRouteWithoutEnoughMemory(final JobRequest jobRequest) throws GenieException {
+        final Cluster cluster = Mockito.mock(Cluster.class);
+        Mockito.when(cluster.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        final Command command = Mockito.mock(Command.class);
+        Mockito.when(command.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        Mockito.when(command.getMemory()).thenReturn(Optional.of(1));
+        final Application application = Mockito.mock(Application.class);
+        Mockito.when(application.getId()).thenReturn(Optional.of(UUID.randomUUID().toString()));
+        final JobRoute route = new JobRoute(cluster, command, Lists.newArrayList(application));
+
+        Mockito.when(this.jobRoutingService.getJobRoutes(jobRequest)).thenReturn(Lists.newArrayList(route));
+        Mockito.when(this.clusterLoadBalancer.selectCluster(Lists.newArrayList(cluster))).thenReturn(cluster);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.eq(JOB_1_ID), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(false);
+        return route;
+    }
+
     private JobRequest getJobRequest(
         final boolean disableLogArchival,
         final Set<String> commandCriteria,
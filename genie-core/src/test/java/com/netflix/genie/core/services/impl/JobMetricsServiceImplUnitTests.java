@@ -17,8 +17,8 @@
  */
 package com.netflix.genie.core.services.impl;
 
-import com.google.common.collect.Sets;
-import com.netflix.genie.common.dto.Job;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.UnitTest;
 import org.hamcrest.Matchers;
@@ -58,12 +58,12 @@ public class JobMetricsServiceImplUnitTests {
     @Test
     public void canGetNumJobs() {
         Mockito
-            .when(this.jobSearchService.getAllActiveJobsOnHost(this.hostName))
+            .when(this.jobSearchService.getAllActiveJobStatusesOnHost(this.hostName))
             .thenReturn(
-                Sets.newHashSet(
-                    Mockito.mock(Job.class),
-                    Mockito.mock(Job.class),
-                    Mockito.mock(Job.class)
+                ImmutableMap.of(
+                    UUID.randomUUID().toString(), JobStatus.RUNNING,
+                    UUID.randomUUID().toString(), JobStatus.RUNNING,
+                    UUID.randomUUID().toString(), JobStatus.INIT
                 )
             );
 
@@ -0,0 +1,422 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.Application;
+import com.netflix.genie.common.dto.ApplicationStatus;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.dto.ClusterCriteria;
+import com.netflix.genie.common.dto.ClusterStatus;
+import com.netflix.genie.common.dto.Command;
+import com.netflix.genie.common.dto.CommandStatus;
+import com.netflix.genie.common.dto.JobRequest;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.events.JobFinishedEvent;
+import com.netflix.genie.core.events.JobFinishedReason;
+import com.netflix.genie.core.jobs.QueuedJob;
+import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Unit tests for JobQueueServiceImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobQueueServiceImplUnitTests {
+
+    private static final int MEMORY = 1_024;
+
+    /**
+     * Temporary folder for the saved queue.
+     */
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private JobStateService jobStateService;
+    private JobPersistenceService jobPersistenceService;
+    private JobSearchService jobSearchService;
+    private TaskScheduler scheduler;
+    private Registry registry;
+    private JobsProperties jobsProperties;
+    private JobQueueServiceImpl jobQueueService;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws GenieException on error
+     */
+    @Before
+    public void setup() throws GenieException {
+        this.jobStateService = Mockito.mock(JobStateService.class);
+        this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        Mockito.when(this.registry.timer(Mockito.anyString())).thenReturn(Mockito.mock(Timer.class));
+        Mockito.when(this.jobStateService.jobExists(Mockito.anyString())).thenReturn(true);
+
+        this.jobsProperties = new JobsProperties();
+        this.jobsProperties.getQueue().setLocation(this.temporaryFolder.getRoot().toURI().toString());
+        this.jobsProperties.getQueue().setMaxSize(2);
+        this.jobQueueService = this.createJobQueueService();
+    }
+
+    /**
+     * Make sure the periodic dispatch is scheduled.
+     */
+    @Test
+    public void canSchedulePeriodicDispatch() {
+        Mockito
+            .verify(this.scheduler, Mockito.times(1))
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.eq(1_000L));
+        Mockito
+            .verify(this.registry, Mockito.times(1))
+            .methodValue("genie.jobs.queue.gauge", this.jobQueueService, "getQueueDepth");
+    }
+
+    /**
+     * Make sure a queued job is saved and then scheduled once its memory can be reserved.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canQueueUntilMemoryIsFree() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        final String jobId = queuedJob.getJobId();
+        final int maxMemory = this.jobsProperties.getMemory().getMaxSystemMemory();
+        Mockito.when(this.jobStateService.reserveMemory(jobId, MEMORY, maxMemory)).thenReturn(false);
+
+        Assert.assertTrue(this.jobQueueService.enqueue(queuedJob));
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(1));
+        Assert.assertTrue(this.getFile(jobId).exists());
+        this.verifyNotScheduled();
+
+        Mockito.when(this.jobStateService.reserveMemory(jobId, MEMORY, maxMemory)).thenReturn(true);
+        this.jobQueueService.dispatch();
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(0));
+        Assert.assertFalse(this.getFile(jobId).exists());
+        Mockito
+            .verify(this.jobStateService, Mockito.times(1))
+            .schedule(
+                jobId,
+                queuedJob.getJobRequest(),
+                queuedJob.getCluster(),
+                queuedJob.getCommand(),
+                queuedJob.getApplications(),
+                MEMORY
+            );
+    }
+
+    /**
+     * Make sure a job isn't queued when the queue is full.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void cantQueueWhenFull() throws GenieException {
+        Assert.assertTrue(this.jobQueueService.enqueue(this.getQueuedJob(System.currentTimeMillis())));
+        Assert.assertTrue(this.jobQueueService.enqueue(this.getQueuedJob(System.currentTimeMillis())));
+
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        Assert.assertFalse(this.jobQueueService.enqueue(queuedJob));
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(2));
+        Assert.assertFalse(this.getFile(queuedJob.getJobId()).exists());
+    }
+
+    /**
+     * Make sure jobs behind a job which doesn't fit aren't admitted ahead of it.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canDispatchInPriorityOrder() throws GenieException {
+        final long now = System.currentTimeMillis();
+        final QueuedJob second = this.getQueuedJob(now);
+        final QueuedJob first = this.getQueuedJob(now - 1);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.eq(second.getJobId()), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
+
+        this.jobQueueService.enqueue(first);
+        // The second job would fit but the first is ahead of it
+        this.jobQueueService.enqueue(second);
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(2));
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .reserveMemory(Mockito.eq(second.getJobId()), Mockito.anyInt(), Mockito.anyInt());
+        this.verifyNotScheduled();
+    }
+
+    /**
+     * Make sure jobs which finished while queued, for example because they were killed, are removed.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRemoveJobsNoLongerActive() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        this.jobQueueService.enqueue(queuedJob);
+        Mockito.when(this.jobStateService.jobExists(queuedJob.getJobId())).thenReturn(false);
+
+        this.jobQueueService.dispatch();
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(0));
+        Assert.assertFalse(this.getFile(queuedJob.getJobId()).exists());
+        this.verifyNotScheduled();
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.never())
+            .updateJobStatus(Mockito.anyString(), Mockito.any(JobStatus.class), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a queued job which finishes is removed before the dispatch even if this node still tracks it.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRemoveFinishedJobBeforeDispatch() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        this.jobQueueService.enqueue(queuedJob);
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
+
+        this.jobQueueService.onJobFinished(
+            new JobFinishedEvent(queuedJob.getJobId(), JobFinishedReason.KILLED, "Killed while queued", this)
+        );
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(0));
+        Assert.assertFalse(this.getFile(queuedJob.getJobId()).exists());
+        this.verifyNotScheduled();
+    }
+
+    /**
+     * Make sure jobs which waited too long are failed.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFailExpiredJobs() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(
+            System.currentTimeMillis() - this.jobsProperties.getQueue().getMaxWait() - 1
+        );
+
+        this.jobQueueService.enqueue(queuedJob);
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(0));
+        Assert.assertFalse(this.getFile(queuedJob.getJobId()).exists());
+        this.verifyNotScheduled();
+        Mockito.verify(this.jobStateService, Mockito.times(1)).done(queuedJob.getJobId());
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(Mockito.eq(queuedJob.getJobId()), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+    }
+
+    /**
+     * Make sure jobs which can't be scheduled are failed and release their memory.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFailJobsWhichCantBeScheduled() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
+        Mockito
+            .doThrow(new RuntimeException("test"))
+            .when(this.jobStateService)
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+
+        this.jobQueueService.enqueue(queuedJob);
+
+        Assert.assertThat(this.jobQueueService.getQueueDepth(), Matchers.is(0));
+        Mockito.verify(this.jobStateService, Mockito.times(1)).done(queuedJob.getJobId());
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .updateJobStatus(Mockito.eq(queuedJob.getJobId()), Mockito.eq(JobStatus.FAILED), Mockito.anyString());
+    }
+
+    /**
+     * Make sure the queue is restored from disk, keeping only the jobs which are still initializing.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canRestoreQueue() throws GenieException {
+        final QueuedJob queuedJob = this.getQueuedJob(System.currentTimeMillis());
+        final QueuedJob killedJob = this.getQueuedJob(System.currentTimeMillis());
+        this.jobQueueService.enqueue(queuedJob);
+        this.jobQueueService.enqueue(killedJob);
+        Mockito.when(this.jobSearchService.getJobStatus(queuedJob.getJobId())).thenReturn(JobStatus.INIT);
+        Mockito.when(this.jobSearchService.getJobStatus(killedJob.getJobId())).thenReturn(JobStatus.KILLED);
+
+        final JobQueueServiceImpl restored = this.createJobQueueService();
+
+        Assert.assertThat(restored.getQueueDepth(), Matchers.is(1));
+        Assert.assertFalse(this.getFile(killedJob.getJobId()).exists());
+        Mockito.verify(this.jobStateService, Mockito.times(1)).init(queuedJob.getJobId());
+        Mockito.verify(this.jobStateService, Mockito.never()).init(killedJob.getJobId());
+
+        Mockito
+            .when(this.jobStateService.reserveMemory(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+            .thenReturn(true);
+        restored.dispatch();
+
+        final ArgumentCaptor<JobRequest> jobRequest = ArgumentCaptor.forClass(JobRequest.class);
+        final ArgumentCaptor<Cluster> cluster = ArgumentCaptor.forClass(Cluster.class);
+        final ArgumentCaptor<Command> command = ArgumentCaptor.forClass(Command.class);
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<Application>> applications = ArgumentCaptor.forClass((Class) List.class);
+        Mockito
+            .verify(this.jobStateService, Mockito.times(1))
+            .schedule(
+                Mockito.eq(queuedJob.getJobId()),
+                jobRequest.capture(),
+                cluster.capture(),
+                command.capture(),
+                applications.capture(),
+                Mockito.eq(MEMORY)
+            );
+        Assert.assertThat(jobRequest.getValue().getId(), Matchers.is(queuedJob.getJobRequest().getId()));
+        Assert.assertThat(
+            jobRequest.getValue().getCommandArgs(),
+            Matchers.is(queuedJob.getJobRequest().getCommandArgs())
+        );
+        Assert.assertThat(cluster.getValue().getId(), Matchers.is(queuedJob.getCluster().getId()));
+        Assert.assertThat(command.getValue().getId(), Matchers.is(queuedJob.getCommand().getId()));
+        Assert.assertThat(applications.getValue().size(), Matchers.is(1));
+        Assert.assertThat(
+            applications.getValue().get(0).getId(),
+            Matchers.is(queuedJob.getApplications().get(0).getId())
+        );
+    }
+
+    private JobQueueServiceImpl createJobQueueService() throws GenieException {
+        return new JobQueueServiceImpl(
+            this.jobStateService,
+            this.jobPersistenceService,
+            this.jobSearchService,
+            new FifoJobQueuePriorityPolicyImpl(),
+            this.scheduler,
+            this.jobsProperties,
+            this.registry
+        );
+    }
+
+    private void verifyNotScheduled() {
+        Mockito
+            .verify(this.jobStateService, Mockito.never())
+            .schedule(
+                Mockito.anyString(),
+                Mockito.any(JobRequest.class),
+                Mockito.any(Cluster.class),
+                Mockito.any(Command.class),
+                Mockito.anyListOf(Application.class),
+                Mockito.anyInt()
+            );
+    }
+
+    private File getFile(final String jobId) {
+        return new File(this.temporaryFolder.getRoot(), jobId + ".json");
+    }
+
+    private QueuedJob getQueuedJob(final long queuedTime) {
+        final String jobId = UUID.randomUUID().toString();
+        final JobRequest jobRequest = new JobRequest.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            Lists.newArrayList(new ClusterCriteria(Sets.newHashSet(UUID.randomUUID().toString()))),
+            Sets.newHashSet(UUID.randomUUID().toString())
+        )
+            .withId(jobId)
+            .build();
+        final Cluster cluster = new Cluster.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            ClusterStatus.UP
+        )
+            .withId(UUID.randomUUID().toString())
+            .build();
+        final Command command = new Command.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            CommandStatus.ACTIVE,
+            UUID.randomUUID().toString(),
+            5_000L
+        )
+            .withId(UUID.randomUUID().toString())
+            .build();
+        final Application application = new Application.Builder(
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            ApplicationStatus.ACTIVE
+        )
+            .withId(UUID.randomUUID().toString())
+            .build();
+        return new QueuedJob(
+            jobId,
+            jobRequest,
+            cluster,
+            command,
+            Lists.newArrayList(application),
+            MEMORY,
+            queuedTime
+        );
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.UUID;
+
+/**
+ * Unit tests for JobStatusCache and the caching job search service built on it.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobStatusCacheUnitTests {
+
+    private static final String JOB_ID = UUID.randomUUID().toString();
+    private static final String HOST_NAME = "genie1.netflix.com";
+
+    private JobStateService jobStateService;
+    private JobSearchService jobSearchService;
+    private Registry registry;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.jobStateService = Mockito.mock(JobStateService.class);
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
+        this.registry = Mockito.mock(Registry.class);
+        Mockito.when(this.registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+    }
+
+    /**
+     * Make sure finished statuses are kept even after the active status TTL.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canKeepFinishedStatus() throws GenieException {
+        final CachingJobSearchServiceImpl service = this.createService(0L);
+        Mockito.when(this.jobSearchService.getJobStatus(JOB_ID)).thenReturn(JobStatus.SUCCEEDED);
+
+        Assert.assertThat(service.getJobStatus(JOB_ID), Matchers.is(JobStatus.SUCCEEDED));
+        Assert.assertThat(service.getJobStatus(JOB_ID), Matchers.is(JobStatus.SUCCEEDED));
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure active statuses of jobs on other nodes are reloaded once the TTL passes.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canExpireActiveStatusOfRemoteJob() throws GenieException {
+        Mockito
+            .when(this.jobSearchService.getJobStatus(JOB_ID))
+            .thenReturn(JobStatus.RUNNING)
+            .thenReturn(JobStatus.KILLED);
+
+        final CachingJobSearchServiceImpl expiring = this.createService(0L);
+        Assert.assertThat(expiring.getJobStatus(JOB_ID), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(expiring.getJobStatus(JOB_ID), Matchers.is(JobStatus.KILLED));
+        Mockito.verify(this.jobSearchService, Mockito.times(2)).getJobStatus(JOB_ID);
+
+        Mockito.reset(this.jobSearchService);
+        Mockito.when(this.jobSearchService.getJobStatus(JOB_ID)).thenReturn(JobStatus.RUNNING);
+        final CachingJobSearchServiceImpl caching = this.createService(60_000L);
+        caching.getJobStatus(JOB_ID);
+        caching.getJobStatus(JOB_ID);
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure the active statuses of jobs on this node are kept until they're changed through this node.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canKeepActiveStatusOfLocalJobUntilChanged() throws GenieException {
+        final JobStatusCache cache = new JobStatusCache(this.jobStateService, HOST_NAME, 100L, 0L, this.registry);
+        final CachingJobSearchServiceImpl service = new CachingJobSearchServiceImpl(this.jobSearchService, cache);
+        final CachingJobPersistenceServiceImpl persistenceService = new CachingJobPersistenceServiceImpl(
+            Mockito.mock(JobPersistenceService.class),
+            cache
+        );
+        Mockito.when(this.jobStateService.jobExists(JOB_ID)).thenReturn(true);
+        Mockito
+            .when(this.jobSearchService.getJobStatus(JOB_ID))
+            .thenReturn(JobStatus.RUNNING)
+            .thenReturn(JobStatus.KILLED);
+
+        Assert.assertThat(service.getJobStatus(JOB_ID), Matchers.is(JobStatus.RUNNING));
+        Assert.assertThat(service.getJobStatus(JOB_ID), Matchers.is(JobStatus.RUNNING));
+        Mockito.verify(this.jobSearchService, Mockito.times(1)).getJobStatus(JOB_ID);
+
+        persistenceService.updateJobStatus(JOB_ID, JobStatus.KILLED, "killed");
+        Assert.assertThat(service.getJobStatus(JOB_ID), Matchers.is(JobStatus.KILLED));
+        Mockito.verify(this.jobSearchService, Mockito.times(2)).getJobStatus(JOB_ID);
+    }
+
+    /**
+     * Make sure failed lookups are passed on and not cached.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void wontCacheFailedLookups() throws GenieException {
+        final CachingJobSearchServiceImpl service = this.createService(60_000L);
+        Mockito
+            .when(this.jobSearchService.getJobHost(JOB_ID))
+            .thenThrow(new GenieNotFoundException("test"))
+            .thenReturn("genie2.netflix.com");
+
+        try {
+            service.getJobHost(JOB_ID);
+            Assert.fail();
+        } catch (final GenieNotFoundException gnfe) {
+            // expected
+        }
+        Assert.assertThat(service.getJobHost(JOB_ID), Matchers.is("genie2.netflix.com"));
+        Assert.assertThat(service.getJobHost(JOB_ID), Matchers.is("genie2.netflix.com"));
+        Mockito.verify(this.jobSearchService, Mockito.times(2)).getJobHost(JOB_ID);
+    }
+
+    /**
+     * Make sure the host of a job running on this node is answered without a lookup.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canAnswerHostOfLocalJob() throws GenieException {
+        final CachingJobSearchServiceImpl service = this.createService(60_000L);
+        Mockito.when(this.jobStateService.jobExists(JOB_ID)).thenReturn(true);
+
+        Assert.assertThat(service.getJobHost(JOB_ID), Matchers.is(HOST_NAME));
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobHost(JOB_ID);
+    }
+
+    private CachingJobSearchServiceImpl createService(final long activeStatusTtl) {
+        return new CachingJobSearchServiceImpl(
+            this.jobSearchService,
+            new JobStatusCache(this.jobStateService, HOST_NAME, 100L, activeStatusTtl, this.registry)
+        );
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for LeastActiveJobsClusterLoadBalancerImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class LeastActiveJobsClusterLoadBalancerImplUnitTests {
+
+    private ClusterLoadCache clusterLoadCache;
+    private LeastActiveJobsClusterLoadBalancerImpl clb;
+    private Cluster cluster1;
+    private Cluster cluster2;
+    private Cluster cluster3;
+    private List<Cluster> clusters;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clusterLoadCache = Mockito.mock(ClusterLoadCache.class);
+        this.clb = new LeastActiveJobsClusterLoadBalancerImpl(
+            this.clusterLoadCache,
+            new ClusterWeights("weight:", ImmutableMap.of())
+        );
+        this.cluster1 = ClusterWeightsUnitTests.getCluster("cluster1", "one", "weight:4");
+        this.cluster2 = ClusterWeightsUnitTests.getCluster("cluster2", "two", "a");
+        this.cluster3 = ClusterWeightsUnitTests.getCluster("cluster3", "three", "b");
+        this.clusters = Lists.newArrayList(this.cluster1, this.cluster2, this.cluster3);
+    }
+
+    /**
+     * Make sure the cluster with the fewest active jobs for its weight is selected.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectLeastActiveJobs() throws GenieException {
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster1")).thenReturn(8L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster2")).thenReturn(3L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster3")).thenReturn(5L);
+
+        // Cluster 1 has the most jobs but four times the capacity
+        Assert.assertThat(this.clb.selectCluster(this.clusters), Matchers.is(this.cluster1));
+
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster1")).thenReturn(16L);
+        Assert.assertThat(this.clb.selectCluster(this.clusters), Matchers.is(this.cluster2));
+    }
+
+    /**
+     * Make sure ties for the fewest active jobs are broken between only the tied clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canBreakTies() throws GenieException {
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster1")).thenReturn(4L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster2")).thenReturn(1L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster3")).thenReturn(2L);
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertThat(
+                this.clb.selectCluster(this.clusters),
+                Matchers.either(Matchers.is(this.cluster1)).or(Matchers.is(this.cluster2))
+            );
+        }
+    }
+
+    /**
+     * Make sure there is no opinion when all the clusters are equally loaded.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canHaveNoOpinion() throws GenieException {
+        Assert.assertThat(
+            this.clb.selectCluster(Lists.newArrayList(this.cluster2, this.cluster3)),
+            Matchers.nullValue()
+        );
+        Assert.assertThat(this.clb.selectCluster(Lists.newArrayList(this.cluster2)), Matchers.is(this.cluster2));
+    }
+
+    /**
+     * Make sure an error is thrown if there are no clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSelectFromEmptyList() throws GenieException {
+        this.clb.selectCluster(new ArrayList<>());
+    }
+}
@@ -25,11 +25,16 @@ import org.apache.commons.exec.Executor;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 /**
  * This class contains unit tests for the class LocalFileTransferImpl.
@@ -45,6 +50,12 @@ public class LocalFileTransferImplUnitTests {
     private static final String SOURCE_FILE = "source";
     private static final String DESTINATION_FILE = "dest";
 
+    /**
+     * Temporary folder for the files to transfer.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     private Executor executor;
     private LocalFileTransferImpl localFileTransfer;
     /**
@@ -91,4 +102,47 @@ public class LocalFileTransferImplUnitTests {
     public void testPutFileMethod() throws GenieException, IOException {
 
     }
+
+    /**
+     * Make sure streamed content ends up at the destination.
+     *
+     * @throws GenieException If there is any problem
+     * @throws IOException    If there is any problem
+     */
+    @Test
+    public void canPutStream() throws GenieException, IOException {
+        final File dest = new File(this.folder.getRoot(), DESTINATION_FILE);
+        Files.write(dest.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+
+        this.localFileTransfer.putStream(
+            out -> out.write("content".getBytes(StandardCharsets.UTF_8)),
+            dest.getAbsolutePath()
+        );
+
+        Assert.assertEquals("content", new String(Files.readAllBytes(dest.toPath()), StandardCharsets.UTF_8));
+        Assert.assertEquals(1, this.folder.getRoot().list().length);
+    }
+
+    /**
+     * Make sure nothing is left at the destination when writing the content fails.
+     *
+     * @throws IOException If there is any problem
+     */
+    @Test
+    public void cantPutStreamIfWriterFails() throws IOException {
+        final File dest = new File(this.folder.getRoot(), DESTINATION_FILE);
+        try {
+            this.localFileTransfer.putStream(
+                out -> {
+                    out.write(1);
+                    throw new IOException("failed");
+                },
+                dest.getAbsolutePath()
+            );
+            Assert.fail();
+        } catch (final GenieException ge) {
+            Assert.assertTrue(ge instanceof GenieServerException);
+        }
+        Assert.assertEquals(0, this.folder.getRoot().list().length);
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+
+/**
+ * Unit tests for PowerOfTwoChoicesClusterLoadBalancerImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class PowerOfTwoChoicesClusterLoadBalancerImplUnitTests {
+
+    private ClusterLoadCache clusterLoadCache;
+    private PowerOfTwoChoicesClusterLoadBalancerImpl clb;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clusterLoadCache = Mockito.mock(ClusterLoadCache.class);
+        this.clb = new PowerOfTwoChoicesClusterLoadBalancerImpl(
+            this.clusterLoadCache,
+            new ClusterWeights("weight:", ImmutableMap.of())
+        );
+    }
+
+    /**
+     * Make sure the less loaded of two clusters is always selected.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectLessLoaded() throws GenieException {
+        final Cluster cluster1 = ClusterWeightsUnitTests.getCluster("cluster1", "one", "a");
+        final Cluster cluster2 = ClusterWeightsUnitTests.getCluster("cluster2", "two", "b");
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster1")).thenReturn(10L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster2")).thenReturn(2L);
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertThat(this.clb.selectCluster(Lists.newArrayList(cluster1, cluster2)), Matchers.is(cluster2));
+        }
+    }
+
+    /**
+     * Make sure the most loaded of several clusters is never selected.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void cantSelectMostLoaded() throws GenieException {
+        final Cluster cluster1 = ClusterWeightsUnitTests.getCluster("cluster1", "one", "a");
+        final Cluster cluster2 = ClusterWeightsUnitTests.getCluster("cluster2", "two", "b");
+        final Cluster cluster3 = ClusterWeightsUnitTests.getCluster("cluster3", "three", "c");
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster1")).thenReturn(1L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster2")).thenReturn(2L);
+        Mockito.when(this.clusterLoadCache.getActiveJobs("cluster3")).thenReturn(3L);
+
+        for (int i = 0; i < 50; i++) {
+            Assert.assertThat(
+                this.clb.selectCluster(Lists.newArrayList(cluster1, cluster2, cluster3)),
+                Matchers.not(cluster3)
+            );
+        }
+    }
+
+    /**
+     * Make sure a single cluster is selected.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectOnlyCluster() throws GenieException {
+        final Cluster cluster = ClusterWeightsUnitTests.getCluster("cluster1", "one", "a");
+        Assert.assertThat(this.clb.selectCluster(Lists.newArrayList(cluster)), Matchers.is(cluster));
+    }
+
+    /**
+     * Make sure an error is thrown if there are no clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSelectFromEmptyList() throws GenieException {
+        this.clb.selectCluster(new ArrayList<>());
+    }
+}
@@ -18,23 +18,53 @@
 package com.netflix.genie.core.services.impl;
 
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListPartsRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PartListing;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DistributionSummary;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -51,11 +81,24 @@ public class S3FileTransferImplUnitTests {
     private static final String S3_KEY = "key";
     private static final String S3_PATH = S3_PREFIX + S3_BUCKET + "/" + S3_KEY;
     private static final String LOCAL_PATH = "local";
+    private static final String S3_PARTS_KEY = "dir/key";
+    private static final String S3_PARTS_PATH = S3_PREFIX + S3_BUCKET + "/" + S3_PARTS_KEY;
+    private static final int PART_SIZE = 1024;
+    private static final int FILE_SIZE = 10 * PART_SIZE + 17;
+
+    /**
+     * Temporary folder for the files to transfer.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
 
     private S3FileTransferImpl s3FileTransfer;
     private AmazonS3Client s3Client;
+    private Registry registry;
     private Timer downloadTimer;
     private Timer uploadTimer;
+    private Counter downloadBytes;
+    private Counter uploadBytes;
 
     /**
      * Setup the tests.
@@ -64,13 +107,20 @@ public class S3FileTransferImplUnitTests {
      */
     @Before
     public void setup() throws GenieException {
-        final Registry registry = Mockito.mock(Registry.class);
+        this.registry = Mockito.mock(Registry.class);
         this.downloadTimer = Mockito.mock(Timer.class);
-        Mockito.when(registry.timer("genie.files.s3.download.timer")).thenReturn(this.downloadTimer);
+        Mockito.when(this.registry.timer("genie.files.s3.download.timer")).thenReturn(this.downloadTimer);
         this.uploadTimer = Mockito.mock(Timer.class);
-        Mockito.when(registry.timer("genie.files.s3.upload.timer")).thenReturn(this.uploadTimer);
+        Mockito.when(this.registry.timer("genie.files.s3.upload.timer")).thenReturn(this.uploadTimer);
+        this.downloadBytes = Mockito.mock(Counter.class);
+        Mockito.when(this.registry.counter("genie.files.s3.download.bytes.rate")).thenReturn(this.downloadBytes);
+        this.uploadBytes = Mockito.mock(Counter.class);
+        Mockito.when(this.registry.counter("genie.files.s3.upload.bytes.rate")).thenReturn(this.uploadBytes);
+        Mockito
+            .when(this.registry.distributionSummary(Mockito.anyString()))
+            .thenReturn(Mockito.mock(DistributionSummary.class));
         this.s3Client = Mockito.mock(AmazonS3Client.class);
-        this.s3FileTransfer = new S3FileTransferImpl(this.s3Client, registry);
+        this.s3FileTransfer = new S3FileTransferImpl(this.s3Client, this.registry);
     }
 
     /**
@@ -200,4 +250,373 @@ public class S3FileTransferImplUnitTests {
         s3FileTransfer.getFile(LOCAL_PATH, S3_PATH);
         Mockito.verify(this.uploadTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
     }
+
+    /**
+     * Make sure a file at least as big as the multipart threshold is downloaded as ranged parts and put back together.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canGetFileInParts() throws GenieException, IOException {
+        final byte[] contents = this.randomBytes();
+        this.stubObject(contents, "etag");
+        final File dst = new File(this.folder.getRoot(), "dst");
+
+        this.getParallelFileTransfer().getFile(S3_PARTS_PATH, dst.getAbsolutePath());
+
+        Assert.assertArrayEquals(contents, Files.readAllBytes(dst.toPath()));
+        final ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        Mockito.verify(this.s3Client, Mockito.times(11)).getObject(captor.capture());
+        captor.getAllValues().forEach(
+            request -> {
+                Assert.assertThat(request.getBucketName(), Matchers.is(S3_BUCKET));
+                Assert.assertThat(request.getKey(), Matchers.is(S3_PARTS_KEY));
+                Assert.assertThat(request.getRange()[0] % PART_SIZE, Matchers.is(0L));
+                if (request.getRange()[0] > 0) {
+                    Assert.assertThat(request.getMatchingETagConstraints(), Matchers.contains("etag"));
+                }
+            }
+        );
+        Mockito.verify(this.s3Client, Mockito.never()).getObject(Mockito.any(GetObjectRequest.class), Mockito.any());
+        Mockito.verify(this.s3Client, Mockito.never()).getObjectMetadata(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(this.downloadBytes, Mockito.times(1)).increment(FILE_SIZE);
+    }
+
+    /**
+     * Make sure files no bigger than a part are downloaded with a single request and no metadata request.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canGetSmallFileInOneRequest() throws GenieException, IOException {
+        final byte[] contents = Arrays.copyOf(this.randomBytes(), PART_SIZE / 2);
+        this.stubObject(contents, "etag");
+        final File dst = new File(this.folder.getRoot(), "dst");
+
+        this.getParallelFileTransfer().getFile(S3_PARTS_PATH, dst.getAbsolutePath());
+
+        Assert.assertArrayEquals(contents, Files.readAllBytes(dst.toPath()));
+        Mockito.verify(this.s3Client, Mockito.times(1)).getObject(Mockito.any(GetObjectRequest.class));
+        Mockito.verify(this.s3Client, Mockito.never()).getObjectMetadata(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure the rest of a file below the multipart threshold is downloaded with one more request.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canGetFileBelowThresholdInTwoRequests() throws GenieException, IOException {
+        final byte[] contents = Arrays.copyOf(this.randomBytes(), PART_SIZE + PART_SIZE / 2);
+        this.stubObject(contents, "etag");
+        final File dst = new File(this.folder.getRoot(), "dst");
+
+        this.getParallelFileTransfer().getFile(S3_PARTS_PATH, dst.getAbsolutePath());
+
+        Assert.assertArrayEquals(contents, Files.readAllBytes(dst.toPath()));
+        Mockito.verify(this.s3Client, Mockito.times(2)).getObject(Mockito.any(GetObjectRequest.class));
+    }
+
+    /**
+     * Make sure an empty object, for which no range can be satisfied, is downloaded as an empty file.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canGetEmptyFile() throws GenieException {
+        final AmazonS3Exception rangeNotSatisfiable = new AmazonS3Exception("InvalidRange");
+        rangeNotSatisfiable.setStatusCode(416);
+        Mockito.when(this.s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenThrow(rangeNotSatisfiable);
+        final File dst = new File(this.folder.getRoot(), "dst");
+
+        this.getParallelFileTransfer().getFile(S3_PARTS_PATH, dst.getAbsolutePath());
+
+        Assert.assertTrue(dst.exists());
+        Assert.assertThat(dst.length(), Matchers.is(0L));
+    }
+
+    /**
+     * Make sure a part which no longer matches the ETag fails the download and doesn't leave a partial file.
+     *
+     * @throws IOException On error
+     */
+    @Test
+    public void cantGetFileInPartsIfObjectChanges() throws IOException {
+        this.stubObject(this.randomBytes(), "etag");
+        Mockito
+            .doReturn(null)
+            .when(this.s3Client)
+            .getObject(Mockito.argThat(new RangeStartMatcher(5 * PART_SIZE)));
+        final File dst = new File(this.folder.getRoot(), "dst");
+
+        try {
+            this.getParallelFileTransfer().getFile(S3_PARTS_PATH, dst.getAbsolutePath());
+            Assert.fail();
+        } catch (final GenieException ge) {
+            Assert.assertTrue(ge instanceof GenieServerException);
+        }
+        Assert.assertFalse(dst.exists());
+    }
+
+    /**
+     * Make sure a file at least as big as the multipart threshold is uploaded as a multipart upload.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canPutFileInParts() throws GenieException, IOException {
+        final byte[] contents = this.randomBytes();
+        final File src = this.folder.newFile("src");
+        Files.write(src.toPath(), contents);
+        final InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+        initiateResult.setUploadId("uploadId");
+        Mockito
+            .when(this.s3Client.initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class)))
+            .thenReturn(initiateResult);
+        Mockito
+            .when(this.s3Client.listParts(Mockito.any(ListPartsRequest.class)))
+            .thenReturn(new PartListing());
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        Mockito.when(this.s3Client.uploadPart(Mockito.any(UploadPartRequest.class))).thenAnswer(
+            invocation -> {
+                final UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+                final byte[] part = new byte[(int) request.getPartSize()];
+                try (final RandomAccessFile file = new RandomAccessFile(request.getFile(), "r")) {
+                    file.seek(request.getFileOffset());
+                    file.readFully(part);
+                }
+                parts.put(request.getPartNumber(), part);
+                final UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag("etag" + request.getPartNumber());
+                return result;
+            }
+        );
+        Mockito
+            .when(this.s3Client.completeMultipartUpload(Mockito.any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(new CompleteMultipartUploadResult());
+
+        this.getParallelFileTransfer().putFile(src.getAbsolutePath(), S3_PARTS_PATH);
+
+        final ArgumentCaptor<CompleteMultipartUploadRequest> captor
+            = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(this.s3Client, Mockito.times(1)).completeMultipartUpload(captor.capture());
+        Assert.assertThat(captor.getValue().getUploadId(), Matchers.is("uploadId"));
+        Assert.assertThat(captor.getValue().getPartETags().size(), Matchers.is(parts.size()));
+        Assert.assertTrue(parts.size() > 1);
+        final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (final PartETag partETag : captor.getValue().getPartETags()) {
+            uploaded.write(parts.get(partETag.getPartNumber()));
+        }
+        Assert.assertArrayEquals(contents, uploaded.toByteArray());
+        Mockito.verify(this.s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class));
+        Mockito.verify(this.uploadBytes, Mockito.times(1)).increment(FILE_SIZE);
+    }
+
+    /**
+     * Make sure streamed content bigger than a part is uploaded in parts as it's written.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canPutStreamInParts() throws GenieException, IOException {
+        final byte[] contents = this.randomBytes();
+        final Map<Integer, byte[]> parts = this.stubMultipartUpload();
+
+        this.getParallelFileTransfer().putStream(
+            out -> {
+                // Mix single byte and array writes across the part boundaries
+                out.write(contents[0]);
+                out.write(contents, 1, contents.length - 1);
+            },
+            S3_PARTS_PATH
+        );
+
+        final ArgumentCaptor<CompleteMultipartUploadRequest> captor
+            = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        Mockito.verify(this.s3Client, Mockito.times(1)).completeMultipartUpload(captor.capture());
+        Assert.assertThat(captor.getValue().getPartETags().size(), Matchers.is(11));
+        final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        for (final PartETag partETag : captor.getValue().getPartETags()) {
+            uploaded.write(parts.get(partETag.getPartNumber()));
+        }
+        Assert.assertArrayEquals(contents, uploaded.toByteArray());
+        Mockito.verify(this.uploadBytes, Mockito.times(1)).increment(FILE_SIZE);
+    }
+
+    /**
+     * Make sure streamed content is uploaded in parts on the calling thread when parallel transfers are disabled.
+     *
+     * @throws GenieException On error
+     * @throws IOException    On error
+     */
+    @Test
+    public void canPutStreamInPartsWithoutParallelTransfers() throws GenieException, IOException {
+        final byte[] contents = this.randomBytes();
+        final Map<Integer, byte[]> parts = this.stubMultipartUpload();
+        final S3FileTransferProperties properties = new S3FileTransferProperties();
+        properties.setPartSize(PART_SIZE);
+
+        new S3FileTransferImpl(this.s3Client, this.registry, properties).putStream(
+            out -> out.write(contents),
+            S3_PARTS_PATH
+        );
+
+        Assert.assertThat(parts.size(), Matchers.is(11));
+        Mockito.verify(this.s3Client, Mockito.times(1)).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * Make sure streamed content which fits in one part is uploaded with a single request.
+     *
+     * @throws GenieException On error
+     */
+    @Test
+    public void canPutSmallStreamInOneRequest() throws GenieException {
+        this.getParallelFileTransfer().putStream(out -> out.write(new byte[PART_SIZE / 2]), S3_PARTS_PATH);
+
+        final ArgumentCaptor<ObjectMetadata> captor = ArgumentCaptor.forClass(ObjectMetadata.class);
+        Mockito.verify(this.s3Client, Mockito.times(1)).putObject(
+            Mockito.eq(S3_BUCKET),
+            Mockito.eq(S3_PARTS_KEY),
+            Mockito.any(InputStream.class),
+            captor.capture()
+        );
+        Assert.assertThat(captor.getValue().getContentLength(), Matchers.is((long) PART_SIZE / 2));
+        Mockito.verify(this.s3Client, Mockito.never()).initiateMultipartUpload(
+            Mockito.any(InitiateMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * Make sure the multipart upload is aborted when writing the content fails.
+     *
+     * @throws IOException On error
+     */
+    @Test
+    public void cantPutStreamIfWriterFails() throws IOException {
+        this.stubMultipartUpload();
+
+        try {
+            this.getParallelFileTransfer().putStream(
+                out -> {
+                    out.write(new byte[3 * PART_SIZE]);
+                    throw new IOException("failed");
+                },
+                S3_PARTS_PATH
+            );
+            Assert.fail();
+        } catch (final GenieException ge) {
+            Assert.assertTrue(ge instanceof GenieServerException);
+        }
+
+        final ArgumentCaptor<AbortMultipartUploadRequest> captor
+            = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        Mockito.verify(this.s3Client, Mockito.times(1)).abortMultipartUpload(captor.capture());
+        Assert.assertThat(captor.getValue().getUploadId(), Matchers.is("uploadId"));
+        Mockito.verify(this.s3Client, Mockito.never()).completeMultipartUpload(
+            Mockito.any(CompleteMultipartUploadRequest.class)
+        );
+    }
+
+    /**
+     * Make sure shutting down stops the transfer threads but leaves the shared S3 client alone.
+     *
+     * @throws GenieException On error
+     */
+    @Test(expected = RejectedExecutionException.class)
+    public void canShutdown() throws GenieException {
+        this.s3FileTransfer.shutdown();
+        final S3FileTransferImpl parallelFileTransfer = this.getParallelFileTransfer();
+        parallelFileTransfer.shutdown();
+        // Calling it again is harmless
+        parallelFileTransfer.shutdown();
+        Mockito.verify(this.s3Client, Mockito.never()).shutdown();
+
+        final byte[] contents = this.randomBytes();
+        this.stubObject(contents, "etag");
+        parallelFileTransfer.getFile(S3_PARTS_PATH, new File(this.folder.getRoot(), "dst").getAbsolutePath());
+    }
+
+    private Map<Integer, byte[]> stubMultipartUpload() {
+        final InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+        initiateResult.setUploadId("uploadId");
+        Mockito
+            .when(this.s3Client.initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class)))
+            .thenReturn(initiateResult);
+        final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        Mockito.when(this.s3Client.uploadPart(Mockito.any(UploadPartRequest.class))).thenAnswer(
+            invocation -> {
+                final UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+                final byte[] part = new byte[(int) request.getPartSize()];
+                Assert.assertThat(request.getInputStream().read(part), Matchers.is(part.length));
+                parts.put(request.getPartNumber(), part);
+                final UploadPartResult result = new UploadPartResult();
+                result.setPartNumber(request.getPartNumber());
+                result.setETag("etag" + request.getPartNumber());
+                return result;
+            }
+        );
+        return parts;
+    }
+
+    private S3FileTransferImpl getParallelFileTransfer() {
+        final S3FileTransferProperties properties = new S3FileTransferProperties();
+        properties.setParallelEnabled(true);
+        properties.setPartSize(PART_SIZE);
+        properties.setMultipartThreshold(2 * PART_SIZE);
+        properties.setMaxConcurrency(4);
+        return new S3FileTransferImpl(this.s3Client, this.registry, properties);
+    }
+
+    private byte[] randomBytes() {
+        final byte[] contents = new byte[FILE_SIZE];
+        new Random().nextBytes(contents);
+        return contents;
+    }
+
+    private void stubObject(final byte[] contents, final String eTag) {
+        Mockito.when(this.s3Client.getObject(Mockito.any(GetObjectRequest.class))).thenAnswer(
+            invocation -> {
+                final GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+                final long[] range = request.getRange();
+                final int end = (int) Math.min(range[1], contents.length - 1);
+                final ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentLength(end - range[0] + 1);
+                metadata.setHeader("ETag", eTag);
+                metadata.setHeader("Content-Range", "bytes " + range[0] + "-" + end + "/" + contents.length);
+                final S3Object object = new S3Object();
+                object.setObjectMetadata(metadata);
+                object.setObjectContent(
+                    new ByteArrayInputStream(Arrays.copyOfRange(contents, (int) range[0], end + 1))
+                );
+                return object;
+            }
+        );
+    }
+
+    /**
+     * Matches ranged get requests starting at a given offset.
+     */
+    private static class RangeStartMatcher extends ArgumentMatcher<GetObjectRequest> {
+        private final long start;
+
+        RangeStartMatcher(final long start) {
+            this.start = start;
+        }
+
+        @Override
+        public boolean matches(final Object argument) {
+            return argument instanceof GetObjectRequest
+                && ((GetObjectRequest) argument).getRange() != null
+                && ((GetObjectRequest) argument).getRange()[0] == this.start;
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.services.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.genie.common.dto.Cluster;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+
+/**
+ * Unit tests for WeightedClusterLoadBalancerImpl.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class WeightedClusterLoadBalancerImplUnitTests {
+
+    private WeightedClusterLoadBalancerImpl clb;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.clb = new WeightedClusterLoadBalancerImpl(new ClusterWeights("weight:", ImmutableMap.of("cluster3", 1)));
+    }
+
+    /**
+     * Make sure clusters are selected roughly in proportion to their weights.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectByWeight() throws GenieException {
+        final Cluster heavy = ClusterWeightsUnitTests.getCluster("cluster1", "one", "weight:9");
+        final Cluster light = ClusterWeightsUnitTests.getCluster("cluster2", "two", "a");
+
+        int heavyCount = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (this.clb.selectCluster(Lists.newArrayList(heavy, light)) == heavy) {
+                heavyCount++;
+            }
+        }
+        // Expect 900 so this would only fail by chance with vanishingly small probability
+        Assert.assertThat(heavyCount, Matchers.allOf(Matchers.greaterThan(800), Matchers.lessThan(980)));
+    }
+
+    /**
+     * Make sure a configured weight counts.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSelectByConfiguredWeight() throws GenieException {
+        final Cluster cluster = ClusterWeightsUnitTests.getCluster("cluster3", "three", "a");
+        Assert.assertThat(this.clb.selectCluster(Lists.newArrayList(cluster)), Matchers.is(cluster));
+    }
+
+    /**
+     * Make sure there is no opinion when none of the clusters have a weight.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canHaveNoOpinion() throws GenieException {
+        Assert.assertThat(
+            this.clb.selectCluster(
+                Lists.newArrayList(
+                    ClusterWeightsUnitTests.getCluster("cluster1", "one", "a"),
+                    ClusterWeightsUnitTests.getCluster("cluster2", "two", "b")
+                )
+            ),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Make sure an error is thrown if there are no clusters.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantSelectFromEmptyList() throws GenieException {
+        this.clb.selectCluster(new ArrayList<>());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit tests for the DirectoryArchiver class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class DirectoryArchiverUnitTests {
+
+    /**
+     * Temporary folder for the directory to archive.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private DirectoryArchiver archiver;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.archiver = new DirectoryArchiver(2, 65_536);
+    }
+
+    /**
+     * Stop the compression threads.
+     */
+    @After
+    public void cleanup() {
+        this.archiver.shutdown();
+    }
+
+    /**
+     * Make sure the directory is written as a gzipped tar archive tar would read back the same.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canArchiveDirectory() throws IOException {
+        final File dir = this.folder.newFolder("job");
+        final byte[] big = new byte[300_000];
+        new Random().nextBytes(big);
+        Files.createDirectories(dir.toPath().resolve("genie/logs"));
+        Files.write(dir.toPath().resolve("genie/logs/big"), big);
+        Files.write(dir.toPath().resolve("stdout"), "out".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.toPath().resolve("run"), new byte[0]);
+        Files.setPosixFilePermissions(dir.toPath().resolve("run"), PosixFilePermissions.fromString("rwxr-x---"));
+        Files.createSymbolicLink(dir.toPath().resolve("link"), Paths.get("stdout"));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.archiver.archive(dir, out);
+
+        final Map<String, TarArchiveEntry> entries = new HashMap<>();
+        final Map<String, byte[]> contents = new HashMap<>();
+        try (final TarArchiveInputStream in = new TarArchiveInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))
+        )) {
+            TarArchiveEntry entry;
+            while ((entry = in.getNextTarEntry()) != null) {
+                entries.put(entry.getName(), entry);
+                contents.put(entry.getName(), IOUtils.toByteArray(in));
+            }
+        }
+        Assert.assertThat(
+            entries.keySet(),
+            Matchers.containsInAnyOrder(
+                "./", "./genie/", "./genie/logs/", "./genie/logs/big", "./stdout", "./run", "./link"
+            )
+        );
+        Assert.assertTrue(entries.get("./genie/").isDirectory());
+        Assert.assertArrayEquals(big, contents.get("./genie/logs/big"));
+        Assert.assertThat(new String(contents.get("./stdout"), StandardCharsets.UTF_8), Matchers.is("out"));
+        Assert.assertThat(entries.get("./run").getMode() & 0777, Matchers.is(0750));
+        Assert.assertTrue(entries.get("./link").isSymbolicLink());
+        Assert.assertThat(entries.get("./link").getLinkName(), Matchers.is("stdout"));
+    }
+
+    /**
+     * Make sure files which can't be read are left out rather than failing the archive.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canSkipUnreadableFiles() throws IOException {
+        final File dir = this.folder.newFolder("job");
+        Files.write(dir.toPath().resolve("secret"), "secret".getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(dir.toPath().resolve("secret"), PosixFilePermissions.fromString("---------"));
+        Files.write(dir.toPath().resolve("stdout"), "out".getBytes(StandardCharsets.UTF_8));
+        if (Files.isReadable(dir.toPath().resolve("secret"))) {
+            // Running as a user who can read everything so there's nothing to check
+            return;
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.archiver.archive(dir, out);
+
+        try (final TarArchiveInputStream in = new TarArchiveInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))
+        )) {
+            TarArchiveEntry entry;
+            while ((entry = in.getNextTarEntry()) != null) {
+                Assert.assertThat(entry.getName(), Matchers.not("./secret"));
+            }
+        }
+    }
+
+    /**
+     * Make sure an input which ends before the size already written to the entry header is padded with zeros so the
+     * rest of the archive stays aligned.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canPadInputWhichShrank() throws IOException {
+        final byte[] data = "out".getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DirectoryArchiver.copyPadded(new ByteArrayInputStream(data), out, 10_000L);
+
+        final byte[] expected = new byte[10_000];
+        System.arraycopy(data, 0, expected, 0, data.length);
+        Assert.assertArrayEquals(expected, out.toByteArray());
+    }
+
+    /**
+     * Make sure only the size in the entry header is copied if the input grew.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canCopyOnlySizeOfInputWhichGrew() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        DirectoryArchiver.copyPadded(
+            new ByteArrayInputStream("output".getBytes(StandardCharsets.UTF_8)),
+            out,
+            3L
+        );
+
+        Assert.assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), Matchers.is("out"));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit tests for the ParallelGzipOutputStream class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ParallelGzipOutputStreamUnitTests {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private ExecutorService executor;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.executor = Executors.newFixedThreadPool(3);
+    }
+
+    /**
+     * Clean up after the tests.
+     */
+    @After
+    public void cleanup() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Make sure content spanning many blocks can be read back as a single gzip stream.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canCompressManyBlocks() throws IOException {
+        final byte[] contents = new byte[50 * BLOCK_SIZE + 3];
+        new Random().nextBytes(contents);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (final ParallelGzipOutputStream gzip
+                 = new ParallelGzipOutputStream(compressed, this.executor, BLOCK_SIZE, 2)) {
+            gzip.write(contents[0]);
+            gzip.write(contents, 1, 10);
+            gzip.write(contents, 11, contents.length - 11);
+        }
+
+        Assert.assertArrayEquals(contents, this.decompress(compressed.toByteArray()));
+    }
+
+    /**
+     * Make sure empty content is still valid gzip.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canCompressNothing() throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        new ParallelGzipOutputStream(compressed, this.executor, BLOCK_SIZE, 2).close();
+
+        Assert.assertArrayEquals(new byte[0], this.decompress(compressed.toByteArray()));
+    }
+
+    /**
+     * Make sure finishing leaves the underlying stream open and no more can be written.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canFinishWithoutClosing() throws IOException {
+        final OutputStream out = Mockito.mock(OutputStream.class);
+        final ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, this.executor, BLOCK_SIZE, 2);
+        gzip.write(1);
+
+        gzip.finish();
+        gzip.finish();
+
+        Mockito.verify(out, Mockito.times(1)).write(Mockito.any(byte[].class));
+        Mockito.verify(out, Mockito.never()).close();
+        try {
+            gzip.write(1);
+            Assert.fail();
+        } catch (final IOException ioe) {
+            Assert.assertNotNull(ioe.getMessage());
+        }
+    }
+
+    /**
+     * Make sure failures writing the compressed content are thrown to the writer.
+     *
+     * @throws IOException on error
+     */
+    @Test(expected = IOException.class)
+    public void cantCompressIfUnderlyingStreamFails() throws IOException {
+        final OutputStream out = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("failed")).when(out).write(Mockito.any(byte[].class));
+        final ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, this.executor, BLOCK_SIZE, 1);
+
+        gzip.write(new byte[2 * BLOCK_SIZE]);
+    }
+
+    private byte[] decompress(final byte[] compressed) throws IOException {
+        try (final GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+}
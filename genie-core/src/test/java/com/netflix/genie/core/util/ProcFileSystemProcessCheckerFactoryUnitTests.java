@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for ProcFileSystemProcessCheckerFactory.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ProcFileSystemProcessCheckerFactoryUnitTests {
+
+    /**
+     * Temporary directory to stand in for the proc file system.
+     */
+    @Rule
+    public TemporaryFolder procDirectory = new TemporaryFolder();
+
+    private Registry registry;
+    private Timer sweepTimer;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException on error creating the fake processes
+     */
+    @Before
+    public void setup() throws IOException {
+        this.registry = Mockito.mock(Registry.class);
+        this.sweepTimer = Mockito.mock(Timer.class);
+        Mockito.when(this.registry.timer("genie.jobs.monitoring.processSweep.timer")).thenReturn(this.sweepTimer);
+        this.procDirectory.newFolder("1");
+        this.procDirectory.newFolder("3808");
+        this.procDirectory.newFolder("self");
+        this.procDirectory.newFile("uptime");
+    }
+
+    /**
+     * Make sure the factory can't be created without a proc file system.
+     *
+     * @throws IOException on error
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantConstructWithoutProcDirectory() throws IOException {
+        new ProcFileSystemProcessCheckerFactory(this.procDirectory.newFile("notADirectory"), 0L, this.registry);
+    }
+
+    /**
+     * Make sure the factory hands out proc file system process checkers.
+     */
+    @Test
+    public void canGetProcessChecker() {
+        final ProcFileSystemProcessCheckerFactory factory
+            = new ProcFileSystemProcessCheckerFactory(this.procDirectory.getRoot(), 0L, this.registry);
+        final Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_YEAR, 1);
+        Assert.assertThat(
+            factory.get(3808, tomorrow.getTime()),
+            Matchers.instanceOf(ProcFileSystemProcessChecker.class)
+        );
+    }
+
+    /**
+     * Make sure running processes are found from a single sweep of the proc directory.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canCheckRunningProcessesFromOneSweep() throws IOException {
+        final ProcFileSystemProcessCheckerFactory factory = new ProcFileSystemProcessCheckerFactory(
+            this.procDirectory.getRoot(),
+            TimeUnit.HOURS.toMillis(1L),
+            this.registry
+        );
+
+        Assert.assertTrue(factory.isRunning(1));
+        Assert.assertTrue(factory.isRunning(3808));
+        Assert.assertFalse(factory.isRunning(18243));
+
+        // Processes started after the sweep are still found
+        this.procDirectory.newFolder("18243");
+        Assert.assertTrue(factory.isRunning(18243));
+
+        Mockito
+            .verify(this.sweepTimer, Mockito.times(1))
+            .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure a new sweep is taken once the previous one is too old so finished processes are detected.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canDetectFinishedProcessOnNewSweep() throws IOException {
+        final ProcFileSystemProcessCheckerFactory factory
+            = new ProcFileSystemProcessCheckerFactory(this.procDirectory.getRoot(), 0L, this.registry);
+
+        Assert.assertTrue(factory.isRunning(3808));
+        Assert.assertTrue(new File(this.procDirectory.getRoot(), "3808").delete());
+        Assert.assertFalse(factory.isRunning(3808));
+
+        Mockito
+            .verify(this.sweepTimer, Mockito.times(2))
+            .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+}
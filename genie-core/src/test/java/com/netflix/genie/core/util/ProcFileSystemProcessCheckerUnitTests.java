@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.common.exceptions.GenieTimeoutException;
+import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.exec.ExecuteException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.Calendar;
+
+/**
+ * Unit tests for ProcFileSystemProcessChecker.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class ProcFileSystemProcessCheckerUnitTests {
+
+    private static final int PID = 18243;
+
+    private ProcFileSystemProcessCheckerFactory factory;
+    private ProcFileSystemProcessChecker processChecker;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.factory = Mockito.mock(ProcFileSystemProcessCheckerFactory.class);
+        final Calendar tomorrow = Calendar.getInstance();
+        // For standard tests this will keep it from dying
+        tomorrow.add(Calendar.DAY_OF_YEAR, 1);
+        this.processChecker = new ProcFileSystemProcessChecker(PID, this.factory, tomorrow.getTime());
+    }
+
+    /**
+     * Make sure a running process passes the check.
+     *
+     * @throws GenieTimeoutException on timeout
+     * @throws IOException           on error
+     */
+    @Test
+    public void canCheckProcess() throws GenieTimeoutException, IOException {
+        Mockito.when(this.factory.isRunning(PID)).thenReturn(true);
+        this.processChecker.checkProcess();
+        Mockito.verify(this.factory, Mockito.times(1)).isRunning(PID);
+    }
+
+    /**
+     * Make sure a process which is no longer running is reported the same way a failed ps would be.
+     *
+     * @throws GenieTimeoutException on timeout
+     * @throws IOException           on error
+     */
+    @Test(expected = ExecuteException.class)
+    public void canCheckFinishedProcess() throws GenieTimeoutException, IOException {
+        Mockito.when(this.factory.isRunning(PID)).thenReturn(false);
+        this.processChecker.checkProcess();
+    }
+
+    /**
+     * Make sure if the timeout has been exceeded then an exception is thrown indicating the process should be killed.
+     *
+     * @throws GenieTimeoutException on timeout
+     * @throws IOException           on any other error
+     */
+    @Test(expected = GenieTimeoutException.class)
+    public void canCheckProcessTimeout() throws GenieTimeoutException, IOException {
+        final Calendar yesterday = Calendar.getInstance();
+        yesterday.add(Calendar.DAY_OF_YEAR, -1);
+        Mockito.when(this.factory.isRunning(PID)).thenReturn(true);
+        this.processChecker = new ProcFileSystemProcessChecker(PID, this.factory, yesterday.getTime());
+        this.processChecker.checkProcess();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.core.util;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.apache.commons.exec.Executor;
+import org.apache.commons.lang3.SystemUtils;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.Calendar;
+
+/**
+ * Unit tests for UnixProcessCheckerFactory.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class UnixProcessCheckerFactoryUnitTests {
+
+    /**
+     * Make sure the factory hands out Unix process checkers.
+     */
+    @Test
+    public void canGetProcessChecker() {
+        Assume.assumeTrue(SystemUtils.IS_OS_UNIX);
+        final UnixProcessCheckerFactory factory = new UnixProcessCheckerFactory(Mockito.mock(Executor.class));
+        final Calendar tomorrow = Calendar.getInstance();
+        tomorrow.add(Calendar.DAY_OF_YEAR, 1);
+        Assert.assertThat(factory.get(18243, tomorrow.getTime()), Matchers.instanceOf(UnixProcessChecker.class));
+    }
+}
@@ -0,0 +1,172 @@
+BEGIN;
+SELECT CURRENT_TIMESTAMP AS '', 'Beginning upgrade of Genie schema from version 3.0.0 to 3.1.0' AS '';
+
+-- Helper table of sequence numbers used to split the denormalized tags strings into one row per tag.
+-- A tags column is at most 2048 characters so it can never hold more than 1000 tags.
+SELECT CURRENT_TIMESTAMP AS '', 'Creating temporary tag_positions table...' AS '';
+CREATE TEMPORARY TABLE `tag_positions` (
+  `position` INT(11) NOT NULL,
+  PRIMARY KEY (`position`)
+) ENGINE=InnoDB;
+INSERT INTO `tag_positions` (`position`)
+  SELECT `ones`.`d` + 10 * `tens`.`d` + 100 * `hundreds`.`d` + 1
+  FROM
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `ones`
+    CROSS JOIN
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `tens`
+    CROSS JOIN
+    (SELECT 0 AS `d` UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) AS `hundreds`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created temporary tag_positions table.' AS '';
+
+-- Normalize the application tags into their own indexed table so tag searches don't need to scan the applications table
+SELECT CURRENT_TIMESTAMP AS '', 'Creating application_tags table...' AS '';
+CREATE TABLE `application_tags` (
+  `application_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(255) NOT NULL,
+  PRIMARY KEY (`application_id`, `tag`),
+  KEY `APPLICATION_TAGS_TAG_INDEX` (`tag`, `application_id`),
+  FOREIGN KEY (`application_id`) REFERENCES `applications` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created application_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing existing application tags...' AS '';
+INSERT IGNORE INTO `application_tags` (`application_id`, `tag`)
+  SELECT `x`.`id`, SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1)
+  FROM
+    (
+      SELECT `id`, REPLACE(SUBSTRING(`tags`, 2, LENGTH(`tags`) - 2), '||', '|') AS `tags`
+      FROM `applications`
+      WHERE `tags` IS NOT NULL AND LENGTH(`tags`) > 2
+    ) AS `x`
+    JOIN `tag_positions` AS `p`
+      ON `p`.`position` <= LENGTH(`x`.`tags`) - LENGTH(REPLACE(`x`.`tags`, '|', '')) + 1
+  WHERE SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1) <> '';
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing existing application tags.' AS '';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP AS '', 'Dropping unused APPLICATIONS_TAGS_INDEX from the applications table...' AS '';
+ALTER TABLE `applications` DROP INDEX `APPLICATIONS_TAGS_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully dropped APPLICATIONS_TAGS_INDEX.' AS '';
+
+-- Normalize the cluster tags into their own indexed table so tag searches don't need to scan the clusters table
+SELECT CURRENT_TIMESTAMP AS '', 'Creating cluster_tags table...' AS '';
+CREATE TABLE `cluster_tags` (
+  `cluster_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(255) NOT NULL,
+  PRIMARY KEY (`cluster_id`, `tag`),
+  KEY `CLUSTER_TAGS_TAG_INDEX` (`tag`, `cluster_id`),
+  FOREIGN KEY (`cluster_id`) REFERENCES `clusters` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created cluster_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing existing cluster tags...' AS '';
+INSERT IGNORE INTO `cluster_tags` (`cluster_id`, `tag`)
+  SELECT `x`.`id`, SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1)
+  FROM
+    (
+      SELECT `id`, REPLACE(SUBSTRING(`tags`, 2, LENGTH(`tags`) - 2), '||', '|') AS `tags`
+      FROM `clusters`
+      WHERE `tags` IS NOT NULL AND LENGTH(`tags`) > 2
+    ) AS `x`
+    JOIN `tag_positions` AS `p`
+      ON `p`.`position` <= LENGTH(`x`.`tags`) - LENGTH(REPLACE(`x`.`tags`, '|', '')) + 1
+  WHERE SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1) <> '';
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing existing cluster tags.' AS '';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP AS '', 'Dropping unused CLUSTERS_TAG_INDEX from the clusters table...' AS '';
+ALTER TABLE `clusters` DROP INDEX `CLUSTERS_TAG_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully dropped CLUSTERS_TAG_INDEX.' AS '';
+
+-- Normalize the command tags into their own indexed table so tag searches don't need to scan the commands table
+SELECT CURRENT_TIMESTAMP AS '', 'Creating command_tags table...' AS '';
+CREATE TABLE `command_tags` (
+  `command_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(255) NOT NULL,
+  PRIMARY KEY (`command_id`, `tag`),
+  KEY `COMMAND_TAGS_TAG_INDEX` (`tag`, `command_id`),
+  FOREIGN KEY (`command_id`) REFERENCES `commands` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created command_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing existing command tags...' AS '';
+INSERT IGNORE INTO `command_tags` (`command_id`, `tag`)
+  SELECT `x`.`id`, SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1)
+  FROM
+    (
+      SELECT `id`, REPLACE(SUBSTRING(`tags`, 2, LENGTH(`tags`) - 2), '||', '|') AS `tags`
+      FROM `commands`
+      WHERE `tags` IS NOT NULL AND LENGTH(`tags`) > 2
+    ) AS `x`
+    JOIN `tag_positions` AS `p`
+      ON `p`.`position` <= LENGTH(`x`.`tags`) - LENGTH(REPLACE(`x`.`tags`, '|', '')) + 1
+  WHERE SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1) <> '';
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing existing command tags.' AS '';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP AS '', 'Dropping unused COMMANDS_TAGS_INDEX from the commands table...' AS '';
+ALTER TABLE `commands` DROP INDEX `COMMANDS_TAGS_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully dropped COMMANDS_TAGS_INDEX.' AS '';
+
+-- Normalize the job tags into their own indexed table so tag searches don't need to scan the jobs table
+SELECT CURRENT_TIMESTAMP AS '', 'Creating job_tags table...' AS '';
+CREATE TABLE `job_tags` (
+  `job_id` VARCHAR(255) NOT NULL,
+  `tag` VARCHAR(255) NOT NULL,
+  PRIMARY KEY (`job_id`, `tag`),
+  KEY `JOB_TAGS_TAG_INDEX` (`tag`, `job_id`),
+  FOREIGN KEY (`job_id`) REFERENCES `jobs` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully created job_tags table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Normalizing existing job tags...' AS '';
+INSERT IGNORE INTO `job_tags` (`job_id`, `tag`)
+  SELECT `x`.`id`, SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1)
+  FROM
+    (
+      SELECT `id`, REPLACE(SUBSTRING(`tags`, 2, LENGTH(`tags`) - 2), '||', '|') AS `tags`
+      FROM `jobs`
+      WHERE `tags` IS NOT NULL AND LENGTH(`tags`) > 2
+    ) AS `x`
+    JOIN `tag_positions` AS `p`
+      ON `p`.`position` <= LENGTH(`x`.`tags`) - LENGTH(REPLACE(`x`.`tags`, '|', '')) + 1
+  WHERE SUBSTRING_INDEX(SUBSTRING_INDEX(`x`.`tags`, '|', `p`.`position`), '|', -1) <> '';
+SELECT CURRENT_TIMESTAMP AS '', 'Finished normalizing existing job tags.' AS '';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP AS '', 'Dropping unused JOBS_TAGS_INDEX from the jobs table...' AS '';
+ALTER TABLE `jobs` DROP INDEX `JOBS_TAGS_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully dropped JOBS_TAGS_INDEX.' AS '';
+
+-- The jobs and job_executions tables have no primary key so their secondary indexes don't carry the id column.
+-- Put the id into the indexes used to find the active jobs on a host so those lookups never touch the table rows.
+SELECT CURRENT_TIMESTAMP AS '', 'Adding composite indexes for active job lookups to the jobs table...' AS '';
+ALTER TABLE `jobs`
+  ADD INDEX `JOBS_STATUS_ID_INDEX` (`status`, `id`),
+  ADD INDEX `JOBS_USER_CREATED_INDEX` (`user`, `created`),
+  DROP INDEX `JOBS_STATUS_INDEX`,
+  DROP INDEX `JOBS_USER_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully added composite indexes to the jobs table.' AS '';
+
+-- Job searches seeking after the last job of a page order by (created, id). Without the id in the index every page
+-- sorts all the matching jobs. The new index also serves everything the index on created alone did.
+SELECT CURRENT_TIMESTAMP AS '', 'Adding the created and id index for seeking through the jobs table...' AS '';
+ALTER TABLE `jobs`
+  ADD INDEX `JOBS_CREATED_ID_INDEX` (`created`, `id`),
+  DROP INDEX `JOBS_CREATED_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully added the created and id index to the jobs table.' AS '';
+
+SELECT CURRENT_TIMESTAMP AS '', 'Adding composite indexes for active job lookups to the job_executions table...' AS '';
+ALTER TABLE `job_executions`
+  ADD INDEX `JOB_EXECUTIONS_HOSTNAME_ID_INDEX` (`host_name`, `id`),
+  ADD INDEX `JOB_EXECUTIONS_ID_HOSTNAME_INDEX` (`id`, `host_name`),
+  DROP INDEX `JOB_EXECUTIONS_HOSTNAME_INDEX`;
+SELECT CURRENT_TIMESTAMP AS '', 'Successfully added composite indexes to the job_executions table.' AS '';
+
+DROP TEMPORARY TABLE `tag_positions`;
+
+SELECT CURRENT_TIMESTAMP AS '', 'Finished upgrading Genie schema from version 3.0.0 to 3.1.0' AS '';
+COMMIT;
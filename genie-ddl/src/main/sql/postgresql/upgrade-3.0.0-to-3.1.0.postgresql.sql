@@ -0,0 +1,140 @@
+BEGIN;
+SELECT CURRENT_TIMESTAMP, 'Beginning upgrade of Genie schema from version 3.0.0 to 3.1.0';
+
+-- Normalize the application tags into their own indexed table so tag searches don't need to scan the applications table
+SELECT CURRENT_TIMESTAMP, 'Creating application_tags table...';
+CREATE TABLE application_tags (
+  application_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(255) NOT NULL,
+  PRIMARY KEY (application_id, tag),
+  FOREIGN KEY (application_id) REFERENCES applications (id) ON DELETE CASCADE
+);
+CREATE INDEX application_tags_tag_index ON application_tags USING btree (tag, application_id);
+SELECT CURRENT_TIMESTAMP, 'Successfully created application_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing existing application tags...';
+INSERT INTO application_tags (application_id, tag)
+  SELECT DISTINCT x.id, x.tag
+  FROM
+    (
+      SELECT id, regexp_split_to_table(SUBSTRING(tags FROM 2 FOR LENGTH(tags) - 2), '\|\|') AS tag
+      FROM applications
+      WHERE tags IS NOT NULL AND LENGTH(tags) > 2
+    ) AS x
+  WHERE x.tag <> '';
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing existing application tags.';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP, 'Dropping unused applications_tags_index from the applications table...';
+DROP INDEX applications_tags_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully dropped applications_tags_index.';
+
+-- Normalize the cluster tags into their own indexed table so tag searches don't need to scan the clusters table
+SELECT CURRENT_TIMESTAMP, 'Creating cluster_tags table...';
+CREATE TABLE cluster_tags (
+  cluster_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(255) NOT NULL,
+  PRIMARY KEY (cluster_id, tag),
+  FOREIGN KEY (cluster_id) REFERENCES clusters (id) ON DELETE CASCADE
+);
+CREATE INDEX cluster_tags_tag_index ON cluster_tags USING btree (tag, cluster_id);
+SELECT CURRENT_TIMESTAMP, 'Successfully created cluster_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing existing cluster tags...';
+INSERT INTO cluster_tags (cluster_id, tag)
+  SELECT DISTINCT x.id, x.tag
+  FROM
+    (
+      SELECT id, regexp_split_to_table(SUBSTRING(tags FROM 2 FOR LENGTH(tags) - 2), '\|\|') AS tag
+      FROM clusters
+      WHERE tags IS NOT NULL AND LENGTH(tags) > 2
+    ) AS x
+  WHERE x.tag <> '';
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing existing cluster tags.';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP, 'Dropping unused clusters_tag_index from the clusters table...';
+DROP INDEX clusters_tag_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully dropped clusters_tag_index.';
+
+-- Normalize the command tags into their own indexed table so tag searches don't need to scan the commands table
+SELECT CURRENT_TIMESTAMP, 'Creating command_tags table...';
+CREATE TABLE command_tags (
+  command_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(255) NOT NULL,
+  PRIMARY KEY (command_id, tag),
+  FOREIGN KEY (command_id) REFERENCES commands (id) ON DELETE CASCADE
+);
+CREATE INDEX command_tags_tag_index ON command_tags USING btree (tag, command_id);
+SELECT CURRENT_TIMESTAMP, 'Successfully created command_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing existing command tags...';
+INSERT INTO command_tags (command_id, tag)
+  SELECT DISTINCT x.id, x.tag
+  FROM
+    (
+      SELECT id, regexp_split_to_table(SUBSTRING(tags FROM 2 FOR LENGTH(tags) - 2), '\|\|') AS tag
+      FROM commands
+      WHERE tags IS NOT NULL AND LENGTH(tags) > 2
+    ) AS x
+  WHERE x.tag <> '';
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing existing command tags.';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP, 'Dropping unused commands_tags_index from the commands table...';
+DROP INDEX commands_tags_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully dropped commands_tags_index.';
+
+-- Normalize the job tags into their own indexed table so tag searches don't need to scan the jobs table
+SELECT CURRENT_TIMESTAMP, 'Creating job_tags table...';
+CREATE TABLE job_tags (
+  job_id VARCHAR(255) NOT NULL,
+  tag VARCHAR(255) NOT NULL,
+  PRIMARY KEY (job_id, tag),
+  FOREIGN KEY (job_id) REFERENCES jobs (id) ON DELETE CASCADE
+);
+CREATE INDEX job_tags_tag_index ON job_tags USING btree (tag, job_id);
+SELECT CURRENT_TIMESTAMP, 'Successfully created job_tags table.';
+
+SELECT CURRENT_TIMESTAMP, 'Normalizing existing job tags...';
+INSERT INTO job_tags (job_id, tag)
+  SELECT DISTINCT x.id, x.tag
+  FROM
+    (
+      SELECT id, regexp_split_to_table(SUBSTRING(tags FROM 2 FOR LENGTH(tags) - 2), '\|\|') AS tag
+      FROM jobs
+      WHERE tags IS NOT NULL AND LENGTH(tags) > 2
+    ) AS x
+  WHERE x.tag <> '';
+SELECT CURRENT_TIMESTAMP, 'Finished normalizing existing job tags.';
+
+-- Tag searches no longer use the denormalized column and a leading wildcard could never use this index anyway
+SELECT CURRENT_TIMESTAMP, 'Dropping unused jobs_tags_index from the jobs table...';
+DROP INDEX jobs_tags_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully dropped jobs_tags_index.';
+
+-- Let the active job lookups by status and host be answered from the indexes alone.
+-- job_executions had no index on id at all so finding the host of each active job scanned the whole table.
+SELECT CURRENT_TIMESTAMP, 'Adding composite indexes for active job lookups to the jobs table...';
+CREATE INDEX jobs_status_id_index ON jobs USING btree (status, id);
+CREATE INDEX jobs_user_created_index ON jobs USING btree ("user", created);
+DROP INDEX jobs_status_index;
+DROP INDEX jobs_user_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully added composite indexes to the jobs table.';
+
+-- Job searches seeking after the last job of a page order by (created, id). Without the id in the index every page
+-- sorts all the matching jobs. The new index also serves everything the index on created alone did.
+SELECT CURRENT_TIMESTAMP, 'Adding the created and id index for seeking through the jobs table...';
+CREATE INDEX jobs_created_id_index ON jobs USING btree (created, id);
+DROP INDEX jobs_created_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully added the created and id index to the jobs table.';
+
+SELECT CURRENT_TIMESTAMP, 'Adding composite indexes for active job lookups to the job_executions table...';
+CREATE INDEX job_executions_hostname_id_index ON job_executions USING btree (host_name, id);
+CREATE INDEX job_executions_id_hostname_index ON job_executions USING btree (id, host_name);
+DROP INDEX job_executions_hostname_index;
+SELECT CURRENT_TIMESTAMP, 'Successfully added composite indexes to the job_executions table.';
+
+SELECT CURRENT_TIMESTAMP, 'Finished upgrading Genie schema from version 3.0.0 to 3.1.0';
+
+COMMIT;
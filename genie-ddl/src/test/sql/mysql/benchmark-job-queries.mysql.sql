@@ -0,0 +1,69 @@
+-- The hot job queries as Hibernate issues them. See benchmark-jobs-data.mysql.sql for how to use this script.
+-- The profiles at the end list the wall clock time of each query in the order they ran.
+
+SET profiling = 1;
+SET profiling_history_size = 100;
+
+-- Warm the buffer pool so both runs are measured against cached pages
+SELECT COUNT(*) FROM `jobs`;
+SELECT COUNT(*) FROM `job_executions`;
+
+-- 1. ClusterCheckerTask: the hosts which currently have active jobs
+EXPLAIN SELECT DISTINCT `e`.`host_name`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING');
+SELECT DISTINCT `e`.`host_name`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING');
+
+-- 2. Startup re-attach, ClusterCheckerTask and metrics: ids and statuses of the active jobs on a host
+EXPLAIN SELECT `e`.`id`, `j`.`status`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+SELECT `e`.`id`, `j`.`status`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+
+-- 3. Startup re-attach: execution information of the running jobs on a host
+EXPLAIN SELECT `e`.`id`, `e`.`process_id`, `e`.`check_delay`, `e`.`timeout`, `e`.`memory`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+SELECT `e`.`id`, `e`.`process_id`, `e`.`check_delay`, `e`.`timeout`, `e`.`memory`
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+
+-- 4. getAllActiveJobsOnHost: the whole job rows of the active jobs on a host, loaded in one join, for comparison
+--    with 2 and 3
+EXPLAIN SELECT `e`.*, `j`.*
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+SELECT `e`.*, `j`.*
+  FROM `job_executions` `e` INNER JOIN `jobs` `j` ON `e`.`id` = `j`.`id`
+  WHERE `j`.`status` IN ('INIT', 'RUNNING') AND `e`.`host_name` = 'genie-100.example.com';
+
+-- 5. Job search: the latest jobs of a user
+EXPLAIN SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs` WHERE `user` = 'user-42' ORDER BY `created` DESC LIMIT 11;
+SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs` WHERE `user` = 'user-42' ORDER BY `created` DESC LIMIT 11;
+
+-- 6. Job search: the latest running jobs
+EXPLAIN SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs` WHERE `status` IN ('RUNNING') ORDER BY `created` DESC LIMIT 11;
+SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs` WHERE `status` IN ('RUNNING') ORDER BY `created` DESC LIMIT 11;
+
+-- 7. Job search: the failed jobs of a user which finished in a window
+EXPLAIN SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs`
+  WHERE `user` = 'user-42' AND `status` IN ('FAILED')
+    AND `finished` >= '2016-11-20 00:00:00' AND `finished` < '2016-11-27 00:00:00'
+  ORDER BY `created` DESC LIMIT 11;
+SELECT `id`, `name`, `user`, `status`, `cluster_name`, `command_name`, `started`, `finished`
+  FROM `jobs`
+  WHERE `user` = 'user-42' AND `status` IN ('FAILED')
+    AND `finished` >= '2016-11-20 00:00:00' AND `finished` < '2016-11-27 00:00:00'
+  ORDER BY `created` DESC LIMIT 11;
+
+SHOW PROFILES;
+SET profiling = 0;
@@ -0,0 +1,82 @@
+-- Synthetic dataset for measuring the latency of the hot job queries before and after a schema upgrade.
+--
+-- 1. Load 3.0.0-schema.mysql.sql into an empty scratch database
+-- 2. Run this script to load 1,000,000 jobs spread over 200 hosts and 500 users with roughly 1% of them active
+-- 3. Run benchmark-job-queries.mysql.sql and keep its output
+-- 4. Apply upgrade-3.0.0-to-3.1.0.mysql.sql
+-- 5. Run benchmark-job-queries.mysql.sql again and compare the profiles and plans with the first run
+
+BEGIN;
+SELECT CURRENT_TIMESTAMP AS '', 'Loading benchmark jobs...' AS '';
+
+CREATE TEMPORARY TABLE `digits` (
+  `d` INT(11) NOT NULL,
+  PRIMARY KEY (`d`)
+) ENGINE=InnoDB;
+INSERT INTO `digits` (`d`) VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9);
+
+CREATE TEMPORARY TABLE `sequence` (
+  `n` INT(11) NOT NULL,
+  PRIMARY KEY (`n`)
+) ENGINE=InnoDB;
+INSERT INTO `sequence` (`n`)
+  SELECT `a`.`d` + 10 * `b`.`d` + 100 * `c`.`d` + 1000 * `e`.`d` + 10000 * `f`.`d` + 100000 * `g`.`d`
+  FROM `digits` AS `a`
+    CROSS JOIN `digits` AS `b`
+    CROSS JOIN `digits` AS `c`
+    CROSS JOIN `digits` AS `e`
+    CROSS JOIN `digits` AS `f`
+    CROSS JOIN `digits` AS `g`;
+
+INSERT INTO `job_requests` (`id`, `created`, `name`, `user`, `version`, `command_args`, `dependencies`)
+  SELECT
+    CONCAT('job-', `n`),
+    TIMESTAMPADD(SECOND, -(`n` * 7), '2016-12-01 00:00:00'),
+    CONCAT('benchmark-', `n` % 50),
+    CONCAT('user-', `n` % 500),
+    '1.0',
+    '-f query.sql',
+    '[]'
+  FROM `sequence`;
+SELECT CURRENT_TIMESTAMP AS '', 'Loaded job requests.' AS '';
+
+-- Every 100th job is active, one in five of those is still initializing. The rest finished in some way.
+INSERT INTO `jobs` (`id`, `created`, `name`, `user`, `version`, `command_args`, `started`, `finished`, `status`)
+  SELECT
+    CONCAT('job-', `n`),
+    TIMESTAMPADD(SECOND, -(`n` * 7), '2016-12-01 00:00:00'),
+    CONCAT('benchmark-', `n` % 50),
+    CONCAT('user-', `n` % 500),
+    '1.0',
+    '-f query.sql',
+    TIMESTAMPADD(SECOND, -(`n` * 7) + 5, '2016-12-01 00:00:00'),
+    CASE WHEN `n` % 100 = 0 THEN NULL ELSE TIMESTAMPADD(SECOND, -(`n` * 7) + 600, '2016-12-01 00:00:00') END,
+    CASE
+      WHEN `n` % 500 = 0 THEN 'INIT'
+      WHEN `n` % 100 = 0 THEN 'RUNNING'
+      WHEN `n` % 10 = 1 THEN 'FAILED'
+      WHEN `n` % 10 = 2 THEN 'KILLED'
+      ELSE 'SUCCEEDED'
+    END
+  FROM `sequence`;
+SELECT CURRENT_TIMESTAMP AS '', 'Loaded jobs.' AS '';
+
+INSERT INTO `job_executions` (`id`, `host_name`, `process_id`, `exit_code`, `check_delay`, `timeout`, `memory`)
+  SELECT
+    CONCAT('job-', `n`),
+    CONCAT('genie-', `n` % 200, '.example.com'),
+    `n` % 32768,
+    CASE WHEN `n` % 100 = 0 THEN NULL ELSE 0 END,
+    10000,
+    TIMESTAMPADD(DAY, 7, '2016-12-01 00:00:00'),
+    1536
+  FROM `sequence`;
+SELECT CURRENT_TIMESTAMP AS '', 'Loaded job executions.' AS '';
+
+DROP TEMPORARY TABLE `sequence`;
+DROP TEMPORARY TABLE `digits`;
+
+ANALYZE TABLE `job_requests`, `jobs`, `job_executions`;
+
+SELECT CURRENT_TIMESTAMP AS '', 'Finished loading benchmark jobs.' AS '';
+COMMIT;
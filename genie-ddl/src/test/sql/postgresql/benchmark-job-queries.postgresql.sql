@@ -0,0 +1,42 @@
+-- The hot job queries as Hibernate issues them. See benchmark-jobs-data.postgresql.sql for how to use this script.
+-- Every query is run through EXPLAIN ANALYZE so the output shows both the plan and the execution time.
+
+-- Warm the shared buffers so both runs are measured against cached pages
+SELECT COUNT(*) FROM jobs;
+SELECT COUNT(*) FROM job_executions;
+
+-- 1. ClusterCheckerTask: the hosts which currently have active jobs
+EXPLAIN (ANALYZE, BUFFERS) SELECT DISTINCT e.host_name
+  FROM job_executions e INNER JOIN jobs j ON e.id = j.id
+  WHERE j.status IN ('INIT', 'RUNNING');
+
+-- 2. Startup re-attach, ClusterCheckerTask and metrics: ids and statuses of the active jobs on a host
+EXPLAIN (ANALYZE, BUFFERS) SELECT e.id, j.status
+  FROM job_executions e INNER JOIN jobs j ON e.id = j.id
+  WHERE j.status IN ('INIT', 'RUNNING') AND e.host_name = 'genie-100.example.com';
+
+-- 3. Startup re-attach: execution information of the running jobs on a host
+EXPLAIN (ANALYZE, BUFFERS) SELECT e.id, e.process_id, e.check_delay, e.timeout, e.memory
+  FROM job_executions e INNER JOIN jobs j ON e.id = j.id
+  WHERE j.status IN ('RUNNING') AND e.host_name = 'genie-100.example.com';
+
+-- 4. getAllActiveJobsOnHost: the whole job rows of the active jobs on a host, loaded in one join, for comparison
+--    with 2 and 3
+EXPLAIN (ANALYZE, BUFFERS) SELECT e.*, j.*
+  FROM job_executions e INNER JOIN jobs j ON e.id = j.id
+  WHERE j.status IN ('INIT', 'RUNNING') AND e.host_name = 'genie-100.example.com';
+
+-- 5. Job search: the latest jobs of a user
+EXPLAIN (ANALYZE, BUFFERS) SELECT id, name, "user", status, cluster_name, command_name, started, finished
+  FROM jobs WHERE "user" = 'user-42' ORDER BY created DESC LIMIT 11;
+
+-- 6. Job search: the latest running jobs
+EXPLAIN (ANALYZE, BUFFERS) SELECT id, name, "user", status, cluster_name, command_name, started, finished
+  FROM jobs WHERE status IN ('RUNNING') ORDER BY created DESC LIMIT 11;
+
+-- 7. Job search: the failed jobs of a user which finished in a window
+EXPLAIN (ANALYZE, BUFFERS) SELECT id, name, "user", status, cluster_name, command_name, started, finished
+  FROM jobs
+  WHERE "user" = 'user-42' AND status IN ('FAILED')
+    AND finished >= '2016-11-20 00:00:00' AND finished < '2016-11-27 00:00:00'
+  ORDER BY created DESC LIMIT 11;
@@ -0,0 +1,67 @@
+-- Synthetic dataset for measuring the latency of the hot job queries before and after a schema upgrade.
+--
+-- 1. Load 3.0.0-schema.postgresql.sql into an empty scratch database
+-- 2. Run this script to load 1,000,000 jobs spread over 200 hosts and 500 users with roughly 1% of them active
+-- 3. Run benchmark-job-queries.postgresql.sql with psql and keep its output
+-- 4. Apply upgrade-3.0.0-to-3.1.0.postgresql.sql
+-- 5. Run benchmark-job-queries.postgresql.sql again and compare the timings and plans with the first run
+
+BEGIN;
+SELECT CURRENT_TIMESTAMP, 'Loading benchmark jobs...';
+
+INSERT INTO job_requests (id, created, updated, name, "user", version, command_args, dependencies)
+  SELECT
+    'job-' || n,
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    'benchmark-' || n % 50,
+    'user-' || n % 500,
+    '1.0',
+    '-f query.sql',
+    '[]'
+  FROM generate_series(0, 999999) AS n;
+SELECT CURRENT_TIMESTAMP, 'Loaded job requests.';
+
+-- Every 100th job is active, one in five of those is still initializing. The rest finished in some way.
+INSERT INTO jobs (id, created, updated, name, "user", version, command_args, started, finished, status, status_msg)
+  SELECT
+    'job-' || n,
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    'benchmark-' || n % 50,
+    'user-' || n % 500,
+    '1.0',
+    '-f query.sql',
+    TIMESTAMP '2016-12-01 00:00:05' - n * INTERVAL '7 seconds',
+    CASE WHEN n % 100 = 0 THEN NULL ELSE TIMESTAMP '2016-12-01 00:10:00' - n * INTERVAL '7 seconds' END,
+    CASE
+      WHEN n % 500 = 0 THEN 'INIT'
+      WHEN n % 100 = 0 THEN 'RUNNING'
+      WHEN n % 10 = 1 THEN 'FAILED'
+      WHEN n % 10 = 2 THEN 'KILLED'
+      ELSE 'SUCCEEDED'
+    END,
+    'Benchmark job'
+  FROM generate_series(0, 999999) AS n;
+SELECT CURRENT_TIMESTAMP, 'Loaded jobs.';
+
+INSERT INTO job_executions (id, created, updated, host_name, process_id, exit_code, check_delay, timeout, memory)
+  SELECT
+    'job-' || n,
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    TIMESTAMP '2016-12-01 00:00:00' - n * INTERVAL '7 seconds',
+    'genie-' || n % 200 || '.example.com',
+    n % 32768,
+    CASE WHEN n % 100 = 0 THEN NULL ELSE 0 END,
+    10000,
+    TIMESTAMP '2016-12-08 00:00:00',
+    1536
+  FROM generate_series(0, 999999) AS n;
+SELECT CURRENT_TIMESTAMP, 'Loaded job executions.';
+
+SELECT CURRENT_TIMESTAMP, 'Finished loading benchmark jobs.';
+COMMIT;
+
+VACUUM ANALYZE job_requests;
+VACUUM ANALYZE jobs;
+VACUUM ANALYZE job_executions;
@@ -0,0 +1,98 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.configs;
+
+import com.netflix.genie.core.properties.ConfigurationCacheProperties;
+import com.netflix.genie.web.services.impl.RedisConfigurationChangeRelay;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Configuration to relay changes to applications, clusters and commands between the nodes over Redis so the
+ * configuration caches of every node are invalidated as soon as a change is made.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Configuration
+@ConditionalOnProperty(
+    value = {"genie.redis.enabled", "genie.services.cache.redisInvalidationEnabled"},
+    havingValue = "true"
+)
+@Import(RedisAutoConfiguration.class)
+@Slf4j
+public class ConfigurationChangeRelayConfig {
+
+    /**
+     * Get the relay which sends local configuration changes to the other nodes and republishes theirs locally.
+     *
+     * @param redisTemplate   The Redis template to send changes with
+     * @param eventPublisher  The publisher to republish received changes with
+     * @param cacheProperties The configuration cache properties to use
+     * @param hostName        The name of the host this Genie node is running on
+     * @param registry        The metrics registry to use
+     * @return The relay
+     */
+    @Bean
+    public RedisConfigurationChangeRelay redisConfigurationChangeRelay(
+        final StringRedisTemplate redisTemplate,
+        final ApplicationEventPublisher eventPublisher,
+        final ConfigurationCacheProperties cacheProperties,
+        final String hostName,
+        final Registry registry
+    ) {
+        log.info("Relaying configuration changes over Redis channel {}", cacheProperties.getRedisChannel());
+        return new RedisConfigurationChangeRelay(
+            redisTemplate,
+            eventPublisher,
+            cacheProperties.getRedisChannel(),
+            hostName,
+            registry
+        );
+    }
+
+    /**
+     * Get the container which subscribes the relay to the configuration changes channel.
+     *
+     * @param connectionFactory The Redis connection factory to use
+     * @param relay             The relay to deliver the received changes to
+     * @param cacheProperties   The configuration cache properties to use
+     * @return The listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer configurationChangeListenerContainer(
+        final RedisConnectionFactory connectionFactory,
+        final RedisConfigurationChangeRelay relay,
+        final ConfigurationCacheProperties cacheProperties
+    ) {
+        final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(relay, new ChannelTopic(cacheProperties.getRedisChannel()));
+        return container;
+    }
+}
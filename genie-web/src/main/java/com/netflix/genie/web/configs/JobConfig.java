@@ -17,11 +17,15 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobDirectoryStructure;
+import com.netflix.genie.core.jobs.RunScriptRenderer;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jobs.workflow.impl.ApplicationTask;
 import com.netflix.genie.core.jobs.workflow.impl.ClusterTask;
 import com.netflix.genie.core.jobs.workflow.impl.CommandTask;
+import com.netflix.genie.core.jobs.workflow.impl.FileDownloadTask;
 import com.netflix.genie.core.jobs.workflow.impl.InitialSetupTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobFailureAndKillHandlerLogicTask;
 import com.netflix.genie.core.jobs.workflow.impl.JobKickoffTask;
@@ -29,18 +33,27 @@ import com.netflix.genie.core.jobs.workflow.impl.JobTask;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.FileTransfer;
+import com.netflix.genie.core.services.JobProcessLauncher;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.core.services.impl.HelperJobProcessLauncherImpl;
 import com.netflix.genie.core.services.impl.LocalFileTransferImpl;
 import com.netflix.genie.web.services.impl.HttpFileTransferImpl;
 import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Configuration for Jobs Setup and Run.
  *
@@ -74,6 +87,26 @@ public class JobConfig {
     }
 
 
+    /**
+     * Create the renderer of the job launcher script sections shared by the workflow tasks.
+     *
+     * @return The run script renderer
+     */
+    @Bean
+    public RunScriptRenderer runScriptRenderer() {
+        return new RunScriptRenderer();
+    }
+
+    /**
+     * Create the creator of the job directory structure shared by the workflow tasks.
+     *
+     * @return The job directory structure
+     */
+    @Bean
+    public JobDirectoryStructure jobDirectoryStructure() {
+        return new JobDirectoryStructure();
+    }
+
     /**
      * Create a task that adds logic to handle kill requests to a job.
      *
@@ -89,20 +122,27 @@ public class JobConfig {
     /**
      * Create an setup Task bean that does initial setup before any of the tasks start.
      *
-     * @param registry The metrics registry to use
+     * @param registry              The metrics registry to use
+     * @param runScriptRenderer     The renderer of the launcher script sections
+     * @param jobDirectoryStructure The creator of the job directory structure
      * @return An initial setup task object
      */
     @Bean
     @Order(value = 1)
-    public WorkflowTask initialSetupTask(final Registry registry) {
-        return new InitialSetupTask(registry);
+    public WorkflowTask initialSetupTask(
+        final Registry registry,
+        final RunScriptRenderer runScriptRenderer,
+        final JobDirectoryStructure jobDirectoryStructure
+    ) {
+        return new InitialSetupTask(registry, runScriptRenderer, jobDirectoryStructure);
     }
 
     /**
      * Create an Cluster Task bean that processes the cluster needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer implementation
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An cluster task object
      */
     @Bean
@@ -110,15 +150,18 @@ public class JobConfig {
     public WorkflowTask clusterProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new ClusterTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new ClusterTask(registry, fts, runScriptRenderer);
     }
 
     /**
      * Create an Application Task bean that processes all Applications needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer implementation
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An application task object
      */
     @Bean
@@ -126,15 +169,18 @@ public class JobConfig {
     public WorkflowTask applicationProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new ApplicationTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new ApplicationTask(registry, fts, runScriptRenderer);
     }
 
     /**
      * Create an Command Task bean that processes the command needed for a job.
      *
-     * @param registry The metrics registry to use
-     * @param fts      File transfer implementation
+     * @param registry          The metrics registry to use
+     * @param fts               File transfer implementation
+     * @param runScriptRenderer The renderer of the launcher script sections
      * @return An command task object
      */
     @Bean
@@ -142,8 +188,10 @@ public class JobConfig {
     public WorkflowTask commandProcessorTask(
         final Registry registry,
         @Qualifier("cacheGenieFileTransferService")
-        final GenieFileTransferService fts) {
-        return new CommandTask(registry, fts);
+        final GenieFileTransferService fts,
+        final RunScriptRenderer runScriptRenderer
+    ) {
+        return new CommandTask(registry, fts, runScriptRenderer);
     }
 
     /**
@@ -168,21 +216,101 @@ public class JobConfig {
     }
 
     /**
-     * Create an Job Kickoff Task bean that runs the job.
+     * Create the executor jobs are set up and launched on, separate from the scheduler monitoring running jobs.
+     *
+     * @param jobsProperties The various jobs properties
+     * @return An executor with a thread for each job allowed to launch at a time on the node
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService jobLaunchExecutor(final JobsProperties jobsProperties) {
+        return Executors.newFixedThreadPool(
+            jobsProperties.getLauncher().getMaxConcurrent(),
+            new ThreadFactoryBuilder().setNameFormat("genie-job-launch-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Create the executor shared by all jobs to download their files.
+     *
+     * @param jobsProperties The various jobs properties
+     * @return An executor with a thread for each concurrent download allowed on the node
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService fileDownloadExecutor(final JobsProperties jobsProperties) {
+        return Executors.newFixedThreadPool(
+            jobsProperties.getDownloads().getMaxConcurrent(),
+            new ThreadFactoryBuilder().setNameFormat("genie-file-download-%d").setDaemon(true).build()
+        );
+    }
+
+    /**
+     * Create a File Download Task bean that fetches the files collected by the previous tasks in parallel.
+     *
+     * @param fileDownloadExecutor The executor to run the downloads on
+     * @param jobsProperties       The various jobs properties
+     * @param registry             The metrics registry to use
+     * @return A file download task object
+     */
+    @Bean
+    @Order(value = 6)
+    public WorkflowTask fileDownloadTask(
+        @Qualifier("fileDownloadExecutor")
+        final ExecutorService fileDownloadExecutor,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new FileDownloadTask(
+            fileDownloadExecutor,
+            jobsProperties.getDownloads().getMaxConcurrentPerJob(),
+            registry
+        );
+    }
+
+    /**
+     * Create the backend which launches job processes through persistent helper processes, one for each job allowed
+     * to launch at a time.
      *
      * @param jobsProperties The various jobs properties
-     * @param executor       An instance of an executor
-     * @param hostName       Host on which the job will run
+     * @param jobsDir        The directory the jobs run in
      * @param registry       The metrics registry to use
+     * @return The job process launcher
+     * @throws IOException if the jobs directory can't be resolved
+     */
+    @Bean
+    @ConditionalOnProperty(value = "genie.jobs.launcher.helperEnabled", havingValue = "true")
+    public JobProcessLauncher jobProcessLauncher(
+        final JobsProperties jobsProperties,
+        final Resource jobsDir,
+        final Registry registry
+    ) throws IOException {
+        return new HelperJobProcessLauncherImpl(
+            jobsProperties.getUsers().isRunAsUserEnabled(),
+            jobsProperties.getLauncher().getHelperPath(),
+            jobsDir.getFile(),
+            jobsProperties.getLauncher().getMaxConcurrent(),
+            jobsProperties.getLauncher().getHelperTimeout(),
+            registry
+        );
+    }
+
+    /**
+     * Create an Job Kickoff Task bean that runs the job.
+     *
+     * @param jobsProperties     The various jobs properties
+     * @param executor           An instance of an executor
+     * @param hostName           Host on which the job will run
+     * @param jobProcessLauncher The backend to launch job processes with if one is enabled
+     * @param registry           The metrics registry to use
      * @return An application task object
      */
     @Bean
-    @Order(value = 6)
+    @Order(value = 7)
     @Autowired
     public WorkflowTask jobKickoffTask(
         final JobsProperties jobsProperties,
         final Executor executor,
         final String hostName,
+        final Optional<JobProcessLauncher> jobProcessLauncher,
         final Registry registry
     ) {
         return new JobKickoffTask(
@@ -190,6 +318,7 @@ public class JobConfig {
             jobsProperties.getUsers().isCreationEnabled(),
             executor,
             hostName,
+            jobProcessLauncher.orElse(null),
             registry
         );
     }
@@ -19,9 +19,13 @@ package com.netflix.genie.web.configs;
 
 import com.google.common.collect.Lists;
 import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.genie.web.resources.writers.DefaultDirectoryWriter;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.tasks.job.JobOutputFollower;
+import com.netflix.spectator.api.Registry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.ApplicationContext;
@@ -108,6 +112,24 @@ public class MvcConfig extends WebMvcConfigurerAdapter {
         return new RestTemplate(factory);
     }
 
+    /**
+     * Get RestTemplate for forwarding follow requests between Genie nodes. The remote node keeps the stream open for
+     * as long as the job output grows so reads on it must not time out before the follow timeout does.
+     *
+     * @param httpConnectTimeout http connection timeout in milliseconds
+     * @return The rest template to use for follow requests
+     */
+    @Bean(name = "genieFollowRestTemplate")
+    public RestTemplate followRestTemplate(
+        @Value("${genie.http.connect.timeout:2000}") final int httpConnectTimeout
+    ) {
+        final HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+        factory.setConnectTimeout(httpConnectTimeout);
+        // The remote follower completes the stream on its own timeout so never give up reading first
+        factory.setReadTimeout(0);
+        return new RestTemplate(factory);
+    }
+
     /**
      * Get RetryTemplate.
      *
@@ -135,12 +157,17 @@ public class MvcConfig extends WebMvcConfigurerAdapter {
     /**
      * Get the directory writer to use.
      *
+     * @param maxListings The maximum number of rendered directory listings to cache
+     * @param listingTtl  The number of milliseconds to cache a rendered directory listing for
      * @return A default directory writer
      */
     @Bean
     @ConditionalOnMissingBean
-    public DirectoryWriter directoryWriter() {
-        return new DefaultDirectoryWriter();
+    public DirectoryWriter directoryWriter(
+        @Value("${genie.jobs.dir.listings.maxCached:1000}") final int maxListings,
+        @Value("${genie.jobs.dir.listings.ttl:5000}") final long listingTtl
+    ) {
+        return new DefaultDirectoryWriter(maxListings, listingTtl);
     }
 
     /**
@@ -186,9 +213,10 @@ public class MvcConfig extends WebMvcConfigurerAdapter {
     /**
      * Get a static resource handler for Genie Jobs.
      *
-     * @param directoryWriter The directory writer to use for converting directory resources
-     * @param context         The spring application context
-     * @param jobsDir         The location the user is requesting the jobs be stored
+     * @param directoryWriter   The directory writer to use for converting directory resources
+     * @param context           The spring application context
+     * @param jobsDir           The location the user is requesting the jobs be stored
+     * @param jobOutputFollower The follower to stream job output files with as they grow
      * @return The genie resource http request handler.
      */
     @Bean
@@ -196,12 +224,35 @@ public class MvcConfig extends WebMvcConfigurerAdapter {
     public GenieResourceHttpRequestHandler genieResourceHttpRequestHandler(
         final DirectoryWriter directoryWriter,
         final ApplicationContext context,
-        final Resource jobsDir
+        final Resource jobsDir,
+        final JobOutputFollower jobOutputFollower
     ) {
-        final GenieResourceHttpRequestHandler handler = new GenieResourceHttpRequestHandler(directoryWriter);
+        final GenieResourceHttpRequestHandler handler
+            = new GenieResourceHttpRequestHandler(directoryWriter, jobOutputFollower);
         handler.setApplicationContext(context);
         handler.setLocations(Lists.newArrayList(jobsDir));
 
         return handler;
     }
+
+    /**
+     * Get the follower which streams the output files of jobs on this node as they grow.
+     *
+     * @param jobsDir         The location of the job directories
+     * @param jobStateService The service tracking which jobs are running on this node
+     * @param timeout         How long in milliseconds a single follow request may stay open
+     * @param registry        The metrics registry to use
+     * @return The job output follower
+     * @throws IOException on error creating the file watcher
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JobOutputFollower jobOutputFollower(
+        final Resource jobsDir,
+        @Qualifier("jobMonitoringCoordinator") final JobStateService jobStateService,
+        @Value("${genie.jobs.output.follow.timeout:600000}") final long timeout,
+        final Registry registry
+    ) throws IOException {
+        return new JobOutputFollower(jobsDir, jobStateService, timeout, registry);
+    }
 }
@@ -17,7 +17,9 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.netflix.genie.core.properties.ConfigurationCacheProperties;
 import com.netflix.genie.core.properties.DataServiceRetryProperties;
+import com.netflix.genie.core.properties.FileCacheProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -53,4 +55,26 @@ public class PropertiesConfig {
     public DataServiceRetryProperties dataServiceRetryProperties() {
         return new DataServiceRetryProperties();
     }
+
+    /**
+     * All the properties related to the local cache of job dependencies.
+     *
+     * @return The file cache properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.file.cache")
+    public FileCacheProperties fileCacheProperties() {
+        return new FileCacheProperties();
+    }
+
+    /**
+     * All the properties related to the in memory cache of applications, clusters and commands.
+     *
+     * @return The configuration cache properties structure
+     */
+    @Bean
+    @ConfigurationProperties("genie.services.cache")
+    public ConfigurationCacheProperties configurationCacheProperties() {
+        return new ConfigurationCacheProperties();
+    }
 }
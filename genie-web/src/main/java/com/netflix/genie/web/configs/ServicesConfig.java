@@ -30,8 +30,12 @@ import com.netflix.genie.core.jpa.services.JpaApplicationServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaClusterServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaCommandServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobPersistenceServiceImpl;
+import com.netflix.genie.core.jpa.services.JpaJobRoutingServiceImpl;
 import com.netflix.genie.core.jpa.services.JpaJobSearchServiceImpl;
+import com.netflix.genie.core.properties.ConfigurationCacheProperties;
+import com.netflix.genie.core.properties.FileCacheProperties;
 import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.properties.JobsRoutingProperties;
 import com.netflix.genie.core.services.ApplicationService;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.ClusterLoadBalancer;
@@ -42,19 +46,37 @@ import com.netflix.genie.core.services.FileTransferFactory;
 import com.netflix.genie.core.services.JobCoordinatorService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobQueuePriorityPolicy;
+import com.netflix.genie.core.services.JobQueueService;
+import com.netflix.genie.core.services.JobRoutingService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.genie.core.services.MailService;
 import com.netflix.genie.core.services.impl.CacheGenieFileTransferService;
+import com.netflix.genie.core.services.impl.CachingApplicationServiceImpl;
+import com.netflix.genie.core.services.impl.CachingClusterServiceImpl;
+import com.netflix.genie.core.services.impl.CachingCommandServiceImpl;
+import com.netflix.genie.core.services.impl.CachingJobPersistenceServiceImpl;
+import com.netflix.genie.core.services.impl.CachingJobSearchServiceImpl;
+import com.netflix.genie.core.services.impl.ChainedClusterLoadBalancerImpl;
+import com.netflix.genie.core.services.impl.ClusterLoadCache;
+import com.netflix.genie.core.services.impl.ClusterWeights;
 import com.netflix.genie.core.services.impl.DefaultMailServiceImpl;
+import com.netflix.genie.core.services.impl.FifoJobQueuePriorityPolicyImpl;
 import com.netflix.genie.core.services.impl.FileSystemAttachmentService;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.core.services.impl.IndexedJobRoutingServiceImpl;
 import com.netflix.genie.core.services.impl.JobCoordinatorServiceImpl;
+import com.netflix.genie.core.services.impl.JobQueueServiceImpl;
+import com.netflix.genie.core.services.impl.JobStatusCache;
+import com.netflix.genie.core.services.impl.LeastActiveJobsClusterLoadBalancerImpl;
 import com.netflix.genie.core.services.impl.LocalJobKillServiceImpl;
 import com.netflix.genie.core.services.impl.LocalJobRunner;
 import com.netflix.genie.core.services.impl.MailServiceImpl;
+import com.netflix.genie.core.services.impl.PowerOfTwoChoicesClusterLoadBalancerImpl;
 import com.netflix.genie.core.services.impl.RandomizedClusterLoadBalancerImpl;
+import com.netflix.genie.core.services.impl.WeightedClusterLoadBalancerImpl;
 import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
 import org.springframework.beans.factory.FactoryBean;
@@ -66,11 +88,16 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Configuration for all the services.
@@ -113,46 +140,175 @@ public class ServicesConfig {
      *
      * @param applicationRepo The application repository to use.
      * @param commandRepo     The command repository to use.
+     * @param eventPublisher  The publisher to notify of configuration changes with.
      * @return An application service instance.
      */
     @Bean
     public ApplicationService applicationService(
         final JpaApplicationRepository applicationRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaApplicationServiceImpl(applicationRepo, commandRepo);
+        return new JpaApplicationServiceImpl(applicationRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the ClusterService.
      *
-     * @param clusterRepo The cluster repository to use.
-     * @param commandRepo The command repository to use.
+     * @param clusterRepo    The cluster repository to use.
+     * @param commandRepo    The command repository to use.
+     * @param eventPublisher The publisher to notify of configuration changes with.
      * @return A cluster service instance.
      */
     @Bean
     public ClusterService clusterService(
         final JpaClusterRepository clusterRepo,
-        final JpaCommandRepository commandRepo
+        final JpaCommandRepository commandRepo,
+        final ApplicationEventPublisher eventPublisher
     ) {
-        return new JpaClusterServiceImpl(clusterRepo, commandRepo);
+        return new JpaClusterServiceImpl(clusterRepo, commandRepo, eventPublisher);
     }
 
     /**
      * Get JPA based implementation of the CommandService.
      *
-     * @param commandRepo the command repository to use
-     * @param appRepo     the application repository to use
-     * @param clusterRepo the cluster repository to use
+     * @param commandRepo    the command repository to use
+     * @param appRepo        the application repository to use
+     * @param clusterRepo    the cluster repository to use
+     * @param eventPublisher the publisher to notify of configuration changes with
      * @return A command service instance.
      */
     @Bean
     public CommandService commandService(
         final JpaCommandRepository commandRepo,
         final JpaApplicationRepository appRepo,
-        final JpaClusterRepository clusterRepo
+        final JpaClusterRepository clusterRepo,
+        final ApplicationEventPublisher eventPublisher
+    ) {
+        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo, eventPublisher);
+    }
+
+    /**
+     * Get an implementation of the ApplicationService which caches the applications read through the JPA service.
+     *
+     * @param applicationService The JPA based application service to read through
+     * @param cacheProperties    The configuration cache properties to use
+     * @param registry           The metrics registry to use
+     * @return An application service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.services.cache.enabled", havingValue = "true")
+    public ApplicationService cachingApplicationService(
+        @Qualifier("applicationService")
+        final ApplicationService applicationService,
+        final ConfigurationCacheProperties cacheProperties,
+        final Registry registry
+    ) {
+        return new CachingApplicationServiceImpl(
+            applicationService,
+            cacheProperties.getMaxSize(),
+            cacheProperties.getTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get an implementation of the ClusterService which caches the clusters read through the JPA service.
+     *
+     * @param clusterService  The JPA based cluster service to read through
+     * @param cacheProperties The configuration cache properties to use
+     * @param registry        The metrics registry to use
+     * @return A cluster service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.services.cache.enabled", havingValue = "true")
+    public ClusterService cachingClusterService(
+        @Qualifier("clusterService")
+        final ClusterService clusterService,
+        final ConfigurationCacheProperties cacheProperties,
+        final Registry registry
+    ) {
+        return new CachingClusterServiceImpl(
+            clusterService,
+            cacheProperties.getMaxSize(),
+            cacheProperties.getTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get an implementation of the CommandService which caches the commands read through the JPA service.
+     *
+     * @param commandService  The JPA based command service to read through
+     * @param cacheProperties The configuration cache properties to use
+     * @param registry        The metrics registry to use
+     * @return A command service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.services.cache.enabled", havingValue = "true")
+    public CommandService cachingCommandService(
+        @Qualifier("commandService")
+        final CommandService commandService,
+        final ConfigurationCacheProperties cacheProperties,
+        final Registry registry
     ) {
-        return new JpaCommandServiceImpl(commandRepo, appRepo, clusterRepo);
+        return new CachingCommandServiceImpl(
+            commandService,
+            cacheProperties.getMaxSize(),
+            cacheProperties.getTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get JPA based implementation of the JobRoutingService which resolves routes with a single query.
+     *
+     * @param applicationRepo The application repository to use
+     * @return A job routing service instance.
+     */
+    @Bean
+    public JobRoutingService jpaJobRoutingService(final JpaApplicationRepository applicationRepo) {
+        return new JpaJobRoutingServiceImpl(applicationRepo);
+    }
+
+    /**
+     * Get the in memory index based implementation of the JobRoutingService. Falls back to the JPA implementation
+     * whenever the index is out of date.
+     *
+     * @param clusterService         Implementation of cluster service interface
+     * @param commandService         Implementation of command service interface
+     * @param applicationService     Implementation of application service interface
+     * @param fallbackRoutingService The JPA based routing service to fall back to
+     * @param scheduler              The task scheduler to schedule index refreshes with
+     * @param jobsProperties         The jobs properties to use
+     * @param registry               The metrics registry to use
+     * @return A job routing service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.jobs.routing.indexEnabled", havingValue = "true", matchIfMissing = true)
+    public JobRoutingService indexedJobRoutingService(
+        final ClusterService clusterService,
+        final CommandService commandService,
+        final ApplicationService applicationService,
+        @Qualifier("jpaJobRoutingService")
+        final JobRoutingService fallbackRoutingService,
+        final TaskScheduler scheduler,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new IndexedJobRoutingServiceImpl(
+            clusterService,
+            commandService,
+            applicationService,
+            fallbackRoutingService,
+            scheduler,
+            jobsProperties.getRouting(),
+            registry
+        );
     }
 
     /**
@@ -215,6 +371,70 @@ public class ServicesConfig {
         );
     }
 
+    /**
+     * Get the cache of job statuses and hosts shared by the caching job search and persistence services.
+     *
+     * @param jobStateService The service tracking the jobs on this node. Lazy as it needs the job search service.
+     * @param hostName        The name of the host this Genie node is running on
+     * @param jobsProperties  The jobs properties to use
+     * @param registry        The metrics registry to use
+     * @return The job status cache
+     */
+    @Bean
+    @ConditionalOnProperty(value = "genie.jobs.cache.enabled", havingValue = "true")
+    public JobStatusCache jobStatusCache(
+        @Lazy
+        @Qualifier("jobMonitoringCoordinator")
+        final JobStateService jobStateService,
+        final String hostName,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        return new JobStatusCache(
+            jobStateService,
+            hostName,
+            jobsProperties.getCache().getMaxSize(),
+            jobsProperties.getCache().getActiveStatusTtl(),
+            registry
+        );
+    }
+
+    /**
+     * Get an implementation of the JobSearchService which caches job statuses and hosts in front of the JPA service.
+     *
+     * @param jobSearchService The JPA based job search service to read through
+     * @param jobStatusCache   The job status cache to use
+     * @return A job search service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.jobs.cache.enabled", havingValue = "true")
+    public JobSearchService cachingJobSearchService(
+        @Qualifier("jobSearchService")
+        final JobSearchService jobSearchService,
+        final JobStatusCache jobStatusCache
+    ) {
+        return new CachingJobSearchServiceImpl(jobSearchService, jobStatusCache);
+    }
+
+    /**
+     * Get an implementation of the JobPersistenceService which invalidates cached job statuses as they change.
+     *
+     * @param jobPersistenceService The JPA based job persistence service to delegate to
+     * @param jobStatusCache        The job status cache to use
+     * @return A job persistence service instance.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(value = "genie.jobs.cache.enabled", havingValue = "true")
+    public JobPersistenceService cachingJobPersistenceService(
+        @Qualifier("jobPersistenceService")
+        final JobPersistenceService jobPersistenceService,
+        final JobStatusCache jobStatusCache
+    ) {
+        return new CachingJobPersistenceServiceImpl(jobPersistenceService, jobStatusCache);
+    }
+
     /**
      * Get an local implementation of the JobKillService.
      *
@@ -243,13 +463,66 @@ public class ServicesConfig {
     }
 
     /**
-     * Get a Randomized Cluster load balancer.
+     * Get the cluster load balancer. Asks the load balancers configured in genie.jobs.routing.loadBalancers in order
+     * with a random choice as the final fallback.
      *
-     * @return A randomized cluster load balancer instance.
+     * @param jobSearchService The job search service to count the active jobs on each cluster with
+     * @param scheduler        The task scheduler to schedule refreshes of the active job counts with
+     * @param jobsProperties   The jobs properties to use
+     * @param registry         The metrics registry to use
+     * @return A cluster load balancer instance.
      */
     @Bean
-    public ClusterLoadBalancer clusterLoadBalancer() {
-        return new RandomizedClusterLoadBalancerImpl();
+    public ClusterLoadBalancer clusterLoadBalancer(
+        final JobSearchService jobSearchService,
+        final TaskScheduler scheduler,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        final JobsRoutingProperties routingProperties = jobsProperties.getRouting();
+        final ClusterWeights clusterWeights = new ClusterWeights(
+            routingProperties.getClusterWeightTagPrefix(),
+            routingProperties.getClusterWeights()
+        );
+        ClusterLoadCache clusterLoadCache = null;
+        final List<ClusterLoadBalancer> loadBalancers = new ArrayList<>();
+        for (final String name : routingProperties.getLoadBalancers()) {
+            switch (name) {
+                case "leastActiveJobs":
+                case "powerOfTwoChoices":
+                    // Only count the active jobs on each cluster if a load balancer needs them
+                    if (clusterLoadCache == null) {
+                        clusterLoadCache = new ClusterLoadCache(
+                            jobSearchService,
+                            scheduler,
+                            routingProperties.getClusterLoadRefreshInterval(),
+                            registry
+                        );
+                    }
+                    loadBalancers.add(
+                        "leastActiveJobs".equals(name)
+                            ? new LeastActiveJobsClusterLoadBalancerImpl(clusterLoadCache, clusterWeights)
+                            : new PowerOfTwoChoicesClusterLoadBalancerImpl(clusterLoadCache, clusterWeights)
+                    );
+                    break;
+                case "weighted":
+                    loadBalancers.add(new WeightedClusterLoadBalancerImpl(clusterWeights));
+                    break;
+                case "random":
+                    loadBalancers.add(new RandomizedClusterLoadBalancerImpl());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cluster load balancer " + name);
+            }
+        }
+
+        if (loadBalancers.isEmpty()
+            || !(loadBalancers.get(loadBalancers.size() - 1) instanceof RandomizedClusterLoadBalancerImpl)) {
+            loadBalancers.add(new RandomizedClusterLoadBalancerImpl());
+        }
+        return loadBalancers.size() == 1
+            ? loadBalancers.get(0)
+            : new ChainedClusterLoadBalancerImpl(loadBalancers, clusterLoadCache);
     }
 
     /**
@@ -270,8 +543,9 @@ public class ServicesConfig {
      * Get an instance of the Cache Genie File Transfer service.
      *
      * @param fileTransferFactory file transfer implementation factory
-     * @param baseCacheLocation   file cache location
+     * @param fileCacheProperties file cache location and size
      * @param localFileTransfer   local file transfer service
+     * @param jobsProperties      The jobs properties to use
      * @param registry            Registry
      * @return A singleton for GenieFileTransferService
      * @throws GenieException If there is any problem
@@ -279,13 +553,19 @@ public class ServicesConfig {
     @Bean
     public GenieFileTransferService cacheGenieFileTransferService(
         final FileTransferFactory fileTransferFactory,
-        @Value("${genie.file.cache.location}")
-        final String baseCacheLocation,
+        final FileCacheProperties fileCacheProperties,
         @Qualifier("file.system.file")
         final FileTransfer localFileTransfer,
+        final JobsProperties jobsProperties,
         final Registry registry
     ) throws GenieException {
-        return new CacheGenieFileTransferService(fileTransferFactory, baseCacheLocation, localFileTransfer, registry);
+        return new CacheGenieFileTransferService(
+            fileTransferFactory,
+            fileCacheProperties,
+            localFileTransfer,
+            jobsProperties.getUsers().isRunAsUserEnabled(),
+            registry
+        );
     }
 
     /**
@@ -318,6 +598,53 @@ public class ServicesConfig {
         );
     }
 
+    /**
+     * Get the default order to admit queued jobs in if no other policy is supplied.
+     *
+     * @return A first in first out priority policy
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JobQueuePriorityPolicy jobQueuePriorityPolicy() {
+        return new FifoJobQueuePriorityPolicyImpl();
+    }
+
+    /**
+     * Get the queue jobs wait in until there is enough memory to run them on this node.
+     *
+     * @param jobStateService       The service tracking the jobs on this node
+     * @param jobPersistenceService Implementation of the job persistence service interface
+     * @param jobSearchService      Implementation of the job search service interface
+     * @param priorityPolicy        The order to admit queued jobs in
+     * @param scheduler             The task scheduler to schedule the periodic dispatch with
+     * @param jobsProperties        The jobs properties to use
+     * @param registry              The metrics registry to use
+     * @return The job queue service
+     * @throws GenieException if the queue location can't be created
+     */
+    @Bean
+    @ConditionalOnProperty(value = "genie.jobs.queue.enabled", havingValue = "true")
+    public JobQueueService jobQueueService(
+        @Qualifier("jobMonitoringCoordinator")
+        final JobStateService jobStateService,
+        final JobPersistenceService jobPersistenceService,
+        final JobSearchService jobSearchService,
+        final JobQueuePriorityPolicy priorityPolicy,
+        final TaskScheduler scheduler,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) throws GenieException {
+        return new JobQueueServiceImpl(
+            jobStateService,
+            jobPersistenceService,
+            jobSearchService,
+            priorityPolicy,
+            scheduler,
+            jobsProperties,
+            registry
+        );
+    }
+
     /**
      * Get an instance of the JobCoordinatorService.
      *
@@ -325,10 +652,9 @@ public class ServicesConfig {
      * @param jobKillService        The job kill service to use
      * @param jobStateService     The running job metrics service to use
      * @param jobsProperties        The jobs properties to use
-     * @param applicationService    Implementation of application service interface
-     * @param clusterService        Implementation of cluster service interface
-     * @param commandService        Implementation of command service interface
+     * @param jobRoutingService     Implementation of the job routing service interface
      * @param clusterLoadBalancer   Implementation of the cluster load balancer interface
+     * @param jobQueueService       The job queue if queueing jobs is enabled
      * @param registry              The metrics registry to use
      * @param hostName              The host this Genie instance is running on
      * @return An instance of the JobCoordinatorService.
@@ -340,10 +666,9 @@ public class ServicesConfig {
         @Qualifier("jobMonitoringCoordinator")
         final JobStateService jobStateService,
         final JobsProperties jobsProperties,
-        final ApplicationService applicationService,
-        final ClusterService clusterService,
-        final CommandService commandService,
+        final JobRoutingService jobRoutingService,
         final ClusterLoadBalancer clusterLoadBalancer,
+        final Optional<JobQueueService> jobQueueService,
         final Registry registry,
         final String hostName
     ) {
@@ -352,10 +677,9 @@ public class ServicesConfig {
             jobKillService,
             jobStateService,
             jobsProperties,
-            applicationService,
-            clusterService,
-            commandService,
+            jobRoutingService,
             clusterLoadBalancer,
+            jobQueueService.orElse(null),
             registry,
             hostName
         );
@@ -17,9 +17,15 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.util.ProcFileSystemProcessCheckerFactory;
+import com.netflix.genie.core.util.ProcessCheckerFactory;
+import com.netflix.genie.core.util.UnixProcessCheckerFactory;
 import com.netflix.genie.web.tasks.leader.LeadershipTask;
 import com.netflix.genie.web.tasks.leader.LeadershipTasksCoordinator;
 import com.netflix.genie.web.tasks.leader.LocalLeader;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.Executor;
 import org.apache.commons.exec.PumpStreamHandler;
@@ -37,6 +43,7 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.io.File;
 import java.util.Collection;
 
 /**
@@ -46,6 +53,7 @@ import java.util.Collection;
  * @since 3.0.0
  */
 @Configuration
+@Slf4j
 public class TaskConfig {
 
     /**
@@ -60,6 +68,35 @@ public class TaskConfig {
         return executor;
     }
 
+    /**
+     * Get the factory of the process checkers used to monitor job processes. Reads the proc file system directly when
+     * it's available and enabled, otherwise falls back to forking a {@code ps} for every check.
+     *
+     * @param processExecutor The executor to use for running system processes
+     * @param jobsProperties  The properties related to jobs
+     * @param registry        The metrics registry to use
+     * @return The process checker factory
+     */
+    @Bean
+    public ProcessCheckerFactory processCheckerFactory(
+        final Executor processExecutor,
+        final JobsProperties jobsProperties,
+        final Registry registry
+    ) {
+        final File procDirectory = new File(ProcFileSystemProcessCheckerFactory.PROC_DIRECTORY);
+        if (jobsProperties.getMonitoring().isProcEnabled() && procDirectory.isDirectory()) {
+            log.info("Checking job processes using {}", procDirectory);
+            return new ProcFileSystemProcessCheckerFactory(
+                procDirectory,
+                jobsProperties.getMonitoring().getProcSweepMaxAge(),
+                registry
+            );
+        } else {
+            log.info("Checking job processes using ps");
+            return new UnixProcessCheckerFactory(processExecutor);
+        }
+    }
+
     /**
      * A multicast (async) event publisher to replace the synchronous one used by Spring via the ApplicationContext.
      *
@@ -24,6 +24,7 @@ import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.properties.S3FileTransferProperties;
 import com.netflix.genie.core.services.FileTransfer;
 import com.netflix.genie.core.services.impl.S3FileTransferImpl;
 import com.netflix.spectator.api.Registry;
@@ -31,6 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -98,11 +100,23 @@ public class AwsS3Config {
         return new AmazonS3Client(awsCredentialsProvider, clientConfiguration);
     }
 
+    /**
+     * All the properties controlling parallel S3 transfers.
+     *
+     * @return The S3 transfer properties
+     */
+    @Bean
+    @ConfigurationProperties("genie.aws.s3.transfer")
+    public S3FileTransferProperties s3FileTransferProperties() {
+        return new S3FileTransferProperties();
+    }
+
     /**
      * Returns a bean which has an s3 implementation of the File Transfer interface.
      *
-     * @param s3Client S3 client to initialize the service
-     * @param registry The metrics registry to use
+     * @param s3Client   S3 client to initialize the service
+     * @param registry   The metrics registry to use
+     * @param properties The properties controlling parallel transfers
      * @return An s3 implementation of the FileTransfer interface
      * @throws GenieException if there is any problem
      */
@@ -111,8 +125,9 @@ public class AwsS3Config {
     @ConditionalOnBean(AmazonS3Client.class)
     public FileTransfer s3FileTransferImpl(
         final AmazonS3Client s3Client,
-        final Registry registry
+        final Registry registry,
+        final S3FileTransferProperties properties
     ) throws GenieException {
-        return new S3FileTransferImpl(s3Client, registry);
+        return new S3FileTransferImpl(s3Client, registry, properties);
     }
 }
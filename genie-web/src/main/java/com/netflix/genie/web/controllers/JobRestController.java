@@ -20,6 +20,7 @@ package com.netflix.genie.web.controllers;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.genie.common.dto.JobMetadata;
 import com.netflix.genie.common.dto.JobRequest;
 import com.netflix.genie.common.dto.JobStatus;
@@ -28,6 +29,7 @@ import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobSearchSlice;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.JobCoordinatorService;
@@ -53,6 +55,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
@@ -68,6 +71,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -82,14 +86,19 @@ import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.annotation.PreDestroy;
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.Enumeration;
@@ -98,6 +107,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 /**
@@ -127,8 +138,11 @@ public class JobRestController {
     private final JobSearchResultResourceAssembler jobSearchResultResourceAssembler;
     private final String hostName;
     private final RestTemplate restTemplate;
+    private final RestTemplate followRestTemplate;
     private final GenieResourceHttpRequestHandler resourceHttpRequestHandler;
     private final JobsProperties jobsProperties;
+    private final long followTimeout;
+    private final ExecutorService followForwarders;
 
     // Metrics
     private final Counter submitJobWithoutAttachmentsRate;
@@ -149,9 +163,11 @@ public class JobRestController {
      * @param jobSearchResultResourceAssembler Assemble job search resources out of jobs
      * @param hostName                         The hostname this Genie instance is running on
      * @param restTemplate                     The rest template for http requests
+     * @param followRestTemplate               The rest template without a read timeout for forwarding follow requests
      * @param resourceHttpRequestHandler       The handler to return requests for static resources on the
      *                                         Genie File System.
      * @param jobsProperties                   All the properties associated with jobs
+     * @param followTimeout                    How long in milliseconds a forwarded follow request may stay open
      * @param registry                         The metrics registry to use
      */
     @Autowired
@@ -168,8 +184,10 @@ public class JobRestController {
         final JobSearchResultResourceAssembler jobSearchResultResourceAssembler,
         final String hostName,
         @Qualifier("genieRestTemplate") final RestTemplate restTemplate,
+        @Qualifier("genieFollowRestTemplate") final RestTemplate followRestTemplate,
         final GenieResourceHttpRequestHandler resourceHttpRequestHandler,
         final JobsProperties jobsProperties,
+        @Value("${genie.jobs.output.follow.timeout:600000}") final long followTimeout,
         final Registry registry
     ) {
         this.jobCoordinatorService = jobCoordinatorService;
@@ -184,14 +202,28 @@ public class JobRestController {
         this.jobSearchResultResourceAssembler = jobSearchResultResourceAssembler;
         this.hostName = hostName;
         this.restTemplate = restTemplate;
+        this.followRestTemplate = followRestTemplate;
         this.resourceHttpRequestHandler = resourceHttpRequestHandler;
         this.jobsProperties = jobsProperties;
+        this.followTimeout = followTimeout;
+        // One forwarder task per forwarded follower so the number of threads is bounded by the followers
+        this.followForwarders = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("genie-job-output-forwarder-%d").setDaemon(true).build()
+        );
 
         // Set up the metrics
         this.submitJobWithoutAttachmentsRate = registry.counter("genie.api.v3.jobs.submitJobWithoutAttachments.rate");
         this.submitJobWithAttachmentsRate = registry.counter("genie.api.v3.jobs.submitJobWithAttachments.rate");
     }
 
+    /**
+     * Stop forwarding the output of followed jobs on other nodes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.followForwarders.shutdownNow();
+    }
+
     /**
      * Submit a new job.
      *
@@ -391,12 +423,18 @@ public class JobRestController {
      * @param minFinished The time which the job had to finish after in order to be return (inclusive)
      * @param maxFinished The time which the job had to finish before in order to be returned (exclusive)
      * @param page        page information for job
+     * @param after       The opaque cursor from the next link of the previous page to seek after instead of paging by
+     *                    offset. Empty to get the first page. When present the page number is ignored, jobs aren't
+     *                    counted and the page can only be sorted by created and id.
+     * @param count       Whether to count the jobs which match. If not the total is a lower bound which only
+     *                    guarantees whether there is a next page.
      * @param assembler   The paged resources assembler to use
      * @return successful response, or one with HTTP error code
      * @throws GenieException For any error
      */
     @RequestMapping(method = RequestMethod.GET, produces = MediaTypes.HAL_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
+    // SUPPRESS CHECKSTYLE ParameterNumber
     public PagedResources<JobSearchResultResource> findJobs(
         @RequestParam(value = "id", required = false)
         final String id,
@@ -426,15 +464,19 @@ public class JobRestController {
         final Long maxFinished,
         @PageableDefault(sort = {"created"}, direction = Sort.Direction.DESC)
         final Pageable page,
+        @RequestParam(value = "after", required = false)
+        final String after,
+        @RequestParam(value = "count", defaultValue = "true")
+        final boolean count,
         final PagedResourcesAssembler<JobSearchResult> assembler
     ) throws GenieException {
         log.info(
             "[getJobs] Called with "
                 + "[id | jobName | user | statuses | clusterName "
-                + "| clusterId | minStarted | maxStarted | minFinished | maxFinished | page]"
+                + "| clusterId | minStarted | maxStarted | minFinished | maxFinished | page | after | count]"
         );
         log.info(
-            "{} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {}",
+            "{} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {} | {}",
             id,
             name,
             user,
@@ -448,7 +490,9 @@ public class JobRestController {
             maxStarted,
             minFinished,
             maxFinished,
-            page
+            page,
+            after,
+            count
         );
 
         Set<JobStatus> enumStatuses = null;
@@ -481,10 +525,33 @@ public class JobRestController {
                         minFinished,
                         maxFinished,
                         page,
+                        after,
+                        count,
                         assembler
                     )
             ).withSelfRel();
 
+        if (after != null) {
+            final JobSearchSlice jobs = this.jobSearchService.findJobsAfter(
+                id,
+                name,
+                user,
+                enumStatuses,
+                tags,
+                clusterName,
+                clusterId,
+                commandName,
+                commandId,
+                minStarted == null ? null : new Date(minStarted),
+                maxStarted == null ? null : new Date(maxStarted),
+                minFinished == null ? null : new Date(minFinished),
+                maxFinished == null ? null : new Date(maxFinished),
+                StringUtils.isEmpty(after) ? null : after,
+                page
+            );
+            return this.toSeekResource(jobs, self);
+        }
+
         return assembler.toResource(
             this.jobSearchService.findJobs(
                 id,
@@ -500,13 +567,50 @@ public class JobRestController {
                 maxStarted == null ? null : new Date(maxStarted),
                 minFinished == null ? null : new Date(minFinished),
                 maxFinished == null ? null : new Date(maxFinished),
-                page
+                page,
+                count
             ),
             this.jobSearchResultResourceAssembler,
             self
         );
     }
 
+    /**
+     * Convert a slice of jobs found by seeking to a resource. The next link of the resource seeks after the cursor of
+     * the slice with the rest of the current request unchanged. The total of the page metadata is a lower bound
+     * which only guarantees whether there is a next page.
+     */
+    private PagedResources<JobSearchResultResource> toSeekResource(
+        final JobSearchSlice jobs,
+        final Link self
+    ) {
+        final List<JobSearchResultResource> content = jobs
+            .getContent()
+            .stream()
+            .map(this.jobSearchResultResourceAssembler::toResource)
+            .collect(Collectors.toList());
+        final PagedResources.PageMetadata metadata = new PagedResources.PageMetadata(
+            jobs.getSize(),
+            0,
+            jobs.getNumberOfElements() + (jobs.hasNext() ? 1 : 0)
+        );
+        final PagedResources<JobSearchResultResource> resources = new PagedResources<>(content, metadata, self);
+        jobs.getNextCursor().ifPresent(
+            cursor -> resources.add(
+                new Link(
+                    ServletUriComponentsBuilder
+                        .fromCurrentRequest()
+                        .replaceQueryParam("after", cursor)
+                        .replaceQueryParam("page")
+                        .build()
+                        .toUriString(),
+                    Link.REL_NEXT
+                )
+            )
+        );
+        return resources;
+    }
+
     /**
      * Kill job based on given job ID.
      *
@@ -692,29 +796,7 @@ public class JobRestController {
             final String jobHostname = this.jobSearchService.getJobHost(id);
             if (!this.hostName.equals(jobHostname)) {
                 log.info("Job {} is not or was not run on this node. Forwarding to {}", id, jobHostname);
-                final String forwardUrl = buildForwardURL(request, jobHostname);
-                try {
-                    this.restTemplate.execute(forwardUrl, HttpMethod.GET,
-                        forwardRequest -> copyRequestHeaders(request, forwardRequest),
-                        new ResponseExtractor<Void>() {
-                            @Override
-                            public Void extractData(final ClientHttpResponse forwardResponse) throws IOException {
-                                response.setStatus(HttpStatus.OK.value());
-                                copyResponseHeaders(response, forwardResponse);
-                                // Documentation I could find pointed to the HttpEntity reading the bytes off
-                                // the stream so this should resolve memory problems if the file returned is large
-                                ByteStreams.copy(forwardResponse.getBody(), response.getOutputStream());
-                                return null;
-                            }
-                        });
-                } catch (HttpStatusCodeException e) {
-                    log.error("Failed getting the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
-                    response.sendError(e.getStatusCode().value(), e.getStatusText());
-                } catch (Exception e) {
-                    log.error("Failed getting the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
-                    response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
-                }
-
+                this.forwardOutputRequest(request, response, jobHostname);
                 //No need to search on this node
                 return;
             }
@@ -733,6 +815,174 @@ public class JobRestController {
         this.resourceHttpRequestHandler.handleRequest(request, response);
     }
 
+    /**
+     * Follow a file in the job output directory. The bytes of the file from the given offset on are streamed back as
+     * the file grows until the job is finished. If the request ends early the client can resume by following again
+     * from the number of bytes it has read so far.
+     *
+     * @param id            The id of the job to follow the output of
+     * @param offset        The offset in bytes into the file to start streaming from
+     * @param forwardedFrom The host this request was forwarded from if present
+     * @param request       the servlet request
+     * @param response      the servlet response
+     * @return The emitter streaming the file or null if forwarding the request to the node running the job failed
+     * @throws IOException    on error sending a forwarding error to the client
+     * @throws GenieException on any Genie internal error
+     */
+    @RequestMapping(
+        value = "/{id}/output/**",
+        method = RequestMethod.GET,
+        params = "follow=true",
+        produces = MediaType.ALL_VALUE
+    )
+    public ResponseBodyEmitter followJobOutput(
+        @PathVariable("id")
+        final String id,
+        @RequestParam(value = "offset", defaultValue = "0")
+        final long offset,
+        @RequestHeader(name = JobConstants.GENIE_FORWARDED_FROM_HEADER, required = false)
+        final String forwardedFrom,
+        final HttpServletRequest request,
+        final HttpServletResponse response
+    ) throws IOException, GenieException {
+        log.info("[followJobOutput] Called for job with id: {} from offset {}", id, offset);
+
+        if (this.jobsProperties.getForwarding().isEnabled() && forwardedFrom == null) {
+            final String jobHostname = this.jobSearchService.getJobHost(id);
+            if (!this.hostName.equals(jobHostname)) {
+                log.info("Job {} is not or was not run on this node. Forwarding follow to {}", id, jobHostname);
+                return this.forwardFollowRequest(request, response, jobHostname);
+            }
+        }
+
+        return this.resourceHttpRequestHandler.handleFollowRequest(
+            id,
+            ControllerUtils.getRemainingPath(request),
+            offset
+        );
+    }
+
+    private void forwardOutputRequest(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final String jobHostname
+    ) throws IOException {
+        final String forwardUrl = buildForwardURL(request, jobHostname);
+        try {
+            this.restTemplate.execute(forwardUrl, HttpMethod.GET,
+                forwardRequest -> copyRequestHeaders(request, forwardRequest),
+                new ResponseExtractor<Void>() {
+                    @Override
+                    public Void extractData(final ClientHttpResponse forwardResponse) throws IOException {
+                        response.setStatus(HttpStatus.OK.value());
+                        copyResponseHeaders(response, forwardResponse);
+                        // Documentation I could find pointed to the HttpEntity reading the bytes off
+                        // the stream so this should resolve memory problems if the file returned is large
+                        ByteStreams.copy(forwardResponse.getBody(), response.getOutputStream());
+                        return null;
+                    }
+                });
+        } catch (HttpStatusCodeException e) {
+            log.error("Failed getting the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
+            sendErrorIfNotCommitted(response, e.getStatusCode().value(), e.getStatusText());
+        } catch (Exception e) {
+            log.error("Failed getting the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
+            sendErrorIfNotCommitted(response, HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+        }
+    }
+
+    private static void sendErrorIfNotCommitted(
+        final HttpServletResponse response,
+        final int status,
+        final String message
+    ) throws IOException {
+        // Once part of the output was streamed the status can't change anymore so all we can do is end the response
+        if (response.isCommitted()) {
+            log.warn("Response already committed. Unable to send error {} to the client.", status);
+        } else {
+            response.sendError(status, message);
+        }
+    }
+
+    private ResponseBodyEmitter forwardFollowRequest(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final String jobHostname
+    ) throws IOException {
+        final String forwardUrl = request.getQueryString() == null
+            ? buildForwardURL(request, jobHostname)
+            : buildForwardURL(request, jobHostname) + "?" + request.getQueryString();
+        // Only wait for the remote follower to answer here. Its stream is passed on by a forwarder task so the
+        // request thread is free again as soon as the emitter is returned.
+        final ClientHttpResponse forwardResponse;
+        try {
+            // Follow streams stay open as long as the job output grows so they can't use the default read timeout
+            final ClientHttpRequest forwardRequest = this.followRestTemplate
+                .getRequestFactory()
+                .createRequest(URI.create(forwardUrl), HttpMethod.GET);
+            copyRequestHeaders(request, forwardRequest);
+            forwardResponse = forwardRequest.execute();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed following the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
+            response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+            return null;
+        }
+        if (forwardResponse.getRawStatusCode() >= HttpStatus.BAD_REQUEST.value()) {
+            log.error(
+                "Failed following the remote job output from {}. Error: {}",
+                forwardUrl,
+                forwardResponse.getStatusText()
+            );
+            response.sendError(forwardResponse.getRawStatusCode(), forwardResponse.getStatusText());
+            forwardResponse.close();
+            return null;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        copyResponseHeaders(response, forwardResponse);
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.followTimeout) {
+            @Override
+            protected void extendResponse(final ServerHttpResponse outputMessage) {
+                super.extendResponse(outputMessage);
+                // Nothing is read until the response is set up so the bytes are written straight to the client
+                try {
+                    JobRestController.this.followForwarders.execute(
+                        () -> forwardFollowedOutput(forwardUrl, forwardResponse, this)
+                    );
+                } catch (final RuntimeException re) {
+                    forwardResponse.close();
+                    this.completeWithError(re);
+                }
+            }
+        };
+        // Closing the remote stream ends the forwarder task if the client went away or the emitter timed out
+        emitter.onCompletion(forwardResponse::close);
+        emitter.onTimeout(forwardResponse::close);
+        return emitter;
+    }
+
+    private static void forwardFollowedOutput(
+        final String forwardUrl,
+        final ClientHttpResponse forwardResponse,
+        final ResponseBodyEmitter emitter
+    ) {
+        try (final InputStream in = forwardResponse.getBody()) {
+            // Pass on each chunk as soon as it arrives instead of when the buffer fills
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                emitter.send(Arrays.copyOf(buffer, read), MediaType.TEXT_PLAIN);
+            }
+            emitter.complete();
+        } catch (IOException | RuntimeException e) {
+            // The status was already sent so all that can be done is end the stream
+            log.error("Failed forwarding the remote job output from {}. Error: {}", forwardUrl, e.getMessage());
+            emitter.completeWithError(e);
+        } finally {
+            forwardResponse.close();
+        }
+    }
+
     private String buildForwardURL(final HttpServletRequest request, final String jobHostname) {
         return this.jobsProperties.getForwarding().getScheme()
             + "://"
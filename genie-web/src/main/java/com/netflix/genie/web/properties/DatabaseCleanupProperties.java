@@ -36,4 +36,6 @@ public class DatabaseCleanupProperties {
     private boolean enabled;
     private String expression = "0 0 0 * * *";
     private int retention = 90;
+    private int batchSize = 1_000;
+    private long batchPause = 500L;
 }
@@ -17,28 +17,40 @@
  */
 package com.netflix.genie.web.resources.handlers;
 
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.tasks.job.JobOutputFollower;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.resource.EncodedResource;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 import org.springframework.web.servlet.resource.VersionedResource;
 
+import javax.annotation.Nullable;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Class extends ResourceHttpRequestHandler to override handling a request to return directory listing if it
  * is a directory otherwise follow default behavior.
+ * <p>
+ * Files are served with an ETag derived from their length and modification time. When the container supports
+ * sendfile whole files are handed to it to write, otherwise their content is transferred from a file channel.
  *
  * @author tgianos
  * @see ResourceHttpRequestHandler
@@ -52,11 +64,15 @@ public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler
     public static final String GENIE_JOB_IS_ROOT_DIRECTORY
         = GenieResourceHttpRequestHandler.class.getName() + ".isRootDirectory";
 
-    private static final Charset UTF_8 = Charset.forName("UTF-8");
     private static final String CONTENT_LENGTH = "Content-Length";
     private static final String BYTES = "bytes";
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
 
     private DirectoryWriter directoryWriter;
+    private JobOutputFollower jobOutputFollower;
 
     /**
      * Constructor.
@@ -64,8 +80,42 @@ public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler
      * @param directoryWriter The class to use to convert directories to representations like HTML
      */
     public GenieResourceHttpRequestHandler(final DirectoryWriter directoryWriter) {
+        this(directoryWriter, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param directoryWriter   The class to use to convert directories to representations like HTML
+     * @param jobOutputFollower The follower to stream job output files with as they grow. Null if not supported.
+     */
+    public GenieResourceHttpRequestHandler(
+        final DirectoryWriter directoryWriter,
+        @Nullable final JobOutputFollower jobOutputFollower
+    ) {
         super();
         this.directoryWriter = directoryWriter;
+        this.jobOutputFollower = jobOutputFollower;
+    }
+
+    /**
+     * Handle a request to follow a file in the output of a job, streaming the file as it grows until the job is done.
+     *
+     * @param jobId  The id of the job
+     * @param path   The path of the file relative to the job directory
+     * @param offset The offset in bytes into the file to start streaming from
+     * @return The emitter the file will be streamed to
+     * @throws GenieException if following isn't supported or the file can't be followed
+     */
+    public ResponseBodyEmitter handleFollowRequest(
+        final String jobId,
+        final String path,
+        final long offset
+    ) throws GenieException {
+        if (this.jobOutputFollower == null) {
+            throw new GeniePreconditionException("Following job output isn't supported by this node");
+        }
+        return this.jobOutputFollower.follow(jobId, path, offset);
     }
 
     /**
@@ -109,35 +159,101 @@ public class GenieResourceHttpRequestHandler extends ResourceHttpRequestHandler
             try {
                 if (accept != null && accept.contains(MediaType.TEXT_HTML_VALUE)) {
                     response.setContentType(MediaType.TEXT_HTML_VALUE);
-                    response
-                        .getOutputStream()
-                        .write(
-                            this.directoryWriter.toHtml(
-                                file,
-                                requestUrl,
-                                !isRootDirectory
-                            ).getBytes(UTF_8)
-                        );
+                    this.directoryWriter.writeHtml(file, requestUrl, !isRootDirectory, response.getOutputStream());
                 } else {
                     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-                    response
-                        .getOutputStream()
-                        .write(
-                            this.directoryWriter.toJson(
-                                file,
-                                requestUrl,
-                                !isRootDirectory
-                            ).getBytes(UTF_8)
-                        );
+                    this.directoryWriter.writeJson(file, requestUrl, !isRootDirectory, response.getOutputStream());
                 }
             } catch (final Exception e) {
                 throw new ServletException(e);
             }
         } else {
+            this.checkRequest(request);
+            // The super class only checks and sets the last modified time so check the entity tag here
+            if (new ServletWebRequest(request, response).checkNotModified(getETag(file))) {
+                return;
+            }
+            if (this.canSendFile(request)) {
+                // Let the super class validate the path and resolve the resource as it would to serve it
+                final Resource validatedResource = this.getResource(request);
+                if (validatedResource != null && validatedResource.isReadable()) {
+                    this.sendFile(request, response, validatedResource);
+                    return;
+                }
+            }
             super.handleRequest(request, response);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Overriding this method to copy files using {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+     * instead of through an intermediate stream.
+     */
+    @Override
+    protected void writeContent(final HttpServletResponse response, final Resource resource) throws IOException {
+        if (!resource.isReadable() || !this.getResourceTransformers().isEmpty()) {
+            super.writeContent(response, resource);
+            return;
+        }
+
+        final File file;
+        try {
+            file = resource.getFile();
+        } catch (final IOException ioe) {
+            // Not backed by a file so nothing to transfer from
+            super.writeContent(response, resource);
+            return;
+        }
+
+        try (final FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final WritableByteChannel outputChannel = Channels.newChannel(response.getOutputStream());
+            final long size = fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += fileChannel.transferTo(position, size - position, outputChannel);
+            }
+        }
+    }
+
+    /**
+     * Get the entity tag of a file derived from its length and last modification time.
+     *
+     * @param file The file to get the entity tag for
+     * @return The entity tag including the surrounding quotes
+     */
+    static String getETag(final File file) {
+        return "\"" + Long.toHexString(file.length()) + "-" + Long.toHexString(file.lastModified()) + "\"";
+    }
+
+    /**
+     * Whether the container can send the whole file in the body of the response itself using sendfile. Range
+     * requests and transformed resources are left to the super class.
+     */
+    private boolean canSendFile(final HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))
+            && METHOD_GET.equals(request.getMethod())
+            && request.getHeader(HttpHeaders.RANGE) == null
+            && this.getResourceTransformers().isEmpty();
+    }
+
+    /**
+     * Have the container write the file as the body of the response using sendfile once this request returns. The
+     * content is never copied through the JVM.
+     */
+    private void sendFile(
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final Resource resource
+    ) throws IOException {
+        this.prepareResponse(response);
+        this.setHeaders(response, resource, this.getMediaType(resource));
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, resource.getFile().getAbsolutePath());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, resource.contentLength());
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -20,6 +20,8 @@ package com.netflix.genie.web.resources.writers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.netflix.genie.common.util.JsonDateDeserializer;
 import com.netflix.genie.common.util.JsonDateSerializer;
@@ -36,17 +38,36 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A default directory writer implementation.
+ * <p>
+ * Rendered listings are cached per directory, request URL and format and reused as long as the modification time of
+ * the directory hasn't changed. As growing files don't change the modification time of their directory cached
+ * listings also expire a short time after being rendered so the sizes they show don't go stale.
  *
  * @author tgianos
  * @since 3.0.0
  */
 public class DefaultDirectoryWriter implements DirectoryWriter {
 
+    /**
+     * The default maximum number of rendered listings to cache.
+     */
+    public static final int DEFAULT_MAX_LISTINGS = 1_000;
+
+    /**
+     * The default number of milliseconds a rendered listing is cached for.
+     */
+    public static final long DEFAULT_LISTING_TTL = 5_000L;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private static final String DEFAULT_CSS =
         "H1 {font-family:Tahoma,Arial,sans-serif;color:white;background-color:#525D76;font-size:22px;} "
             + "H2 {font-family:Tahoma,Arial,sans-serif;color:white;background-color:#525D76;font-size:16px;} "
@@ -58,6 +79,34 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
             + "A.name {color : black;}"
             + ".line {height: 1px; background-color: #525D76; border: none;}";
 
+    private final Cache<ListingKey, Listing> listings;
+
+    /**
+     * Constructor which caches up to {@link #DEFAULT_MAX_LISTINGS} listings for {@link #DEFAULT_LISTING_TTL}
+     * milliseconds.
+     */
+    public DefaultDirectoryWriter() {
+        this(DEFAULT_MAX_LISTINGS, DEFAULT_LISTING_TTL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxListings The maximum number of rendered listings to cache. Zero to disable caching.
+     * @param listingTtl  The number of milliseconds a rendered listing is cached for. Zero to disable caching.
+     */
+    public DefaultDirectoryWriter(final int maxListings, final long listingTtl) {
+        if (maxListings > 0 && listingTtl > 0) {
+            this.listings = CacheBuilder
+                .newBuilder()
+                .maximumSize(maxListings)
+                .expireAfterWrite(listingTtl, TimeUnit.MILLISECONDS)
+                .build();
+        } else {
+            this.listings = null;
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -69,7 +118,85 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         @URL final String requestURL,
         final boolean includeParent
     ) throws IOException {
-        final Directory dir = this.getDirectory(directory, requestURL, includeParent);
+        return new String(this.getListing(directory, requestURL, includeParent, true), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent
+    ) throws Exception {
+        return new String(this.getListing(directory, requestURL, includeParent, false), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeHtml(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final OutputStream outputStream
+    ) throws IOException {
+        outputStream.write(this.getListing(directory, requestURL, includeParent, true));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final OutputStream outputStream
+    ) throws IOException {
+        outputStream.write(this.getListing(directory, requestURL, includeParent, false));
+    }
+
+    private byte[] getListing(
+        final File directory,
+        final String requestUrl,
+        final boolean includeParent,
+        final boolean html
+    ) throws IOException {
+        if (this.listings == null) {
+            return this.render(directory, requestUrl, includeParent, html);
+        }
+
+        // Read the modification time before rendering so changes made while rendering invalidate the listing
+        final long lastModified = directory.lastModified();
+        final ListingKey key = new ListingKey(directory.getAbsolutePath(), requestUrl, includeParent, html);
+        final Listing cached = this.listings.getIfPresent(key);
+        if (cached != null && cached.getLastModified() == lastModified) {
+            return cached.getContent();
+        }
+
+        final byte[] content = this.render(directory, requestUrl, includeParent, html);
+        this.listings.put(key, new Listing(lastModified, content));
+        return content;
+    }
+
+    private byte[] render(
+        final File directory,
+        final String requestUrl,
+        final boolean includeParent,
+        final boolean html
+    ) throws IOException {
+        final Directory dir = this.getDirectory(directory, requestUrl, includeParent);
+        if (html) {
+            return this.renderHtml(directory, dir).getBytes(StandardCharsets.UTF_8);
+        } else {
+            return MAPPER.writeValueAsBytes(dir);
+        }
+    }
+
+    private String renderHtml(final File directory, final Directory dir) {
 
         final StringBuilder builder = new StringBuilder();
 
@@ -141,20 +268,6 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         return builder.toString();
     }
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public String toJson(
-        @NotNull final File directory,
-        @URL final String requestURL,
-        final boolean includeParent
-    ) throws Exception {
-        final Directory dir = this.getDirectory(directory, requestURL, includeParent);
-        final ObjectMapper mapper = new ObjectMapper();
-        return mapper.writeValueAsString(dir);
-    }
-
     private void writeFileHtml(
         final StringBuilder builder,
         final boolean shade,
@@ -239,6 +352,20 @@ public class DefaultDirectoryWriter implements DirectoryWriter {
         return dir;
     }
 
+    @Data
+    private static class ListingKey {
+        private final String path;
+        private final String requestUrl;
+        private final boolean includeParent;
+        private final boolean html;
+    }
+
+    @Data
+    private static class Listing {
+        private final long lastModified;
+        private final byte[] content;
+    }
+
     @Data
     protected static class Directory {
         private Entry parent;
@@ -21,6 +21,8 @@ import org.hibernate.validator.constraints.URL;
 
 import javax.validation.constraints.NotNull;
 import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Interface for methods to convert a directory to various String representations.
@@ -59,4 +61,40 @@ public interface DirectoryWriter {
         @URL final String requestURL,
         final boolean includeParent
     ) throws Exception;
+
+    /**
+     * Write the full valid HTML page representing a given directory to a stream.
+     *
+     * @param directory     The directory to convert. Not null. Is directory.
+     * @param requestURL    The URL of the request that kicked off this process
+     * @param includeParent Whether the conversion should include reference to the parent directory.
+     * @param outputStream  The stream to write the HTML to. Not closed.
+     * @throws Exception for any conversion problem
+     */
+    default void writeHtml(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final OutputStream outputStream
+    ) throws Exception {
+        outputStream.write(this.toHtml(directory, requestURL, includeParent).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write the JSON representing a given directory to a stream.
+     *
+     * @param directory     The directory to convert. Not null. Is directory.
+     * @param requestURL    The URL of the request that kicked off this process
+     * @param includeParent Whether the conversion should include reference to the parent directory.
+     * @param outputStream  The stream to write the JSON to. Not closed.
+     * @throws Exception for any conversion problem
+     */
+    default void writeJson(
+        @NotNull final File directory,
+        @URL final String requestURL,
+        final boolean includeParent,
+        @NotNull final OutputStream outputStream
+    ) throws Exception {
+        outputStream.write(this.toJson(directory, requestURL, includeParent).getBytes(StandardCharsets.UTF_8));
+    }
 }
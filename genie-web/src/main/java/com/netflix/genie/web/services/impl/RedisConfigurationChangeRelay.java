@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.services.impl;
+
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Relays configuration changes made through this node to the other nodes over a Redis channel and republishes the
+ * changes made through the other nodes locally as {@link ConfigurationChangedEvent}s. This lets the caches of
+ * applications, clusters and commands on every node be invalidated as soon as a change is committed rather than when
+ * the cached entries expire.
+ * <p>
+ * Relaying is best effort. A message lost while Redis is unavailable only means the change is seen once the cached
+ * entries expire.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class RedisConfigurationChangeRelay implements MessageListener {
+
+    private static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    private final String hostName;
+    private final Counter sentCounter;
+    private final Counter receivedCounter;
+    private final Counter failedCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param redisTemplate  The Redis template to send changes with
+     * @param eventPublisher The publisher to republish the changes received from other nodes with
+     * @param channel        The Redis channel to relay changes over
+     * @param hostName       The name of this host used to ignore the changes this node sent itself
+     * @param registry       The metrics registry to use
+     */
+    public RedisConfigurationChangeRelay(
+        @NotNull final StringRedisTemplate redisTemplate,
+        @NotNull final ApplicationEventPublisher eventPublisher,
+        @NotNull final String channel,
+        @NotNull final String hostName,
+        @NotNull final Registry registry
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+        this.hostName = hostName;
+        this.sentCounter = registry.counter("genie.services.cache.relay.sent.rate");
+        this.receivedCounter = registry.counter("genie.services.cache.relay.received.rate");
+        this.failedCounter = registry.counter("genie.services.cache.relay.failed.rate");
+    }
+
+    /**
+     * Send a configuration change made through this node to the other nodes. Changes received from the other nodes
+     * are not sent again.
+     *
+     * @param event The event describing the change
+     */
+    @EventListener
+    public void onConfigurationChanged(final ConfigurationChangedEvent event) {
+        if (event.getSource() == this) {
+            return;
+        }
+
+        final String message = this.hostName + SEPARATOR + event.getType().name() + SEPARATOR
+            + event.getId().orElse(StringUtils.EMPTY);
+        try {
+            this.redisTemplate.convertAndSend(this.channel, message);
+            this.sentCounter.increment();
+        } catch (final RuntimeException re) {
+            log.error("Unable to relay change of {} {}", event.getType(), event.getId(), re);
+            this.failedCounter.increment();
+        }
+    }
+
+    /**
+     * Republish a configuration change received from another node locally.
+     *
+     * @param message The message received
+     * @param pattern The pattern matching the channel if any
+     */
+    @Override
+    public void onMessage(final Message message, final byte[] pattern) {
+        final String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        // The id comes last and may contain the separator or be empty when all resources of the type changed
+        final int typeStart = body.indexOf(SEPARATOR);
+        final int idStart = typeStart < 0 ? -1 : body.indexOf(SEPARATOR, typeStart + 1);
+        if (idStart < 0) {
+            log.warn("Ignoring malformed configuration change message {}", body);
+            return;
+        }
+        final String sender = body.substring(0, typeStart);
+        if (this.hostName.equals(sender)) {
+            return;
+        }
+
+        final ConfigurationType type;
+        try {
+            type = ConfigurationType.valueOf(body.substring(typeStart + 1, idStart));
+        } catch (final IllegalArgumentException iae) {
+            log.warn("Ignoring configuration change message {} with unknown type", body);
+            return;
+        }
+        final String id = body.substring(idStart + 1);
+        log.debug("Received change of {} {} from {}", type, id, sender);
+        this.receivedCounter.increment();
+        this.eventPublisher.publishEvent(
+            new ConfigurationChangedEvent(type, StringUtils.isEmpty(id) ? null : id, this)
+        );
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timing wheel. Items are hashed into a fixed number of buckets by the tick their deadline falls in so that
+ * scheduling an item and collecting the items which are due are both constant time per item no matter how many items
+ * are scheduled.
+ * <p>
+ * This class isn't thread safe. Callers are expected to synchronize access.
+ *
+ * @param <T> The type of the items scheduled on the wheel
+ * @author tgianos
+ * @since 3.1.0
+ */
+public class HashedTimingWheel<T> {
+
+    private final long tickDuration;
+    private final List<List<Entry<T>>> buckets;
+    private long lastTick;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param tickDuration How long a tick of the wheel is in milliseconds
+     * @param wheelSize    The number of buckets in the wheel
+     * @param startTime    The time in milliseconds since the epoch the wheel starts turning at
+     */
+    public HashedTimingWheel(@Min(1) final long tickDuration, @Min(1) final int wheelSize, final long startTime) {
+        if (tickDuration < 1) {
+            throw new IllegalArgumentException("Tick duration must be at least one millisecond");
+        }
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("Wheel size must be at least one");
+        }
+        this.tickDuration = tickDuration;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            this.buckets.add(new ArrayList<>());
+        }
+        this.lastTick = startTime / tickDuration;
+    }
+
+    /**
+     * Schedule an item to be returned by the first call to {@link #advance(long)} at or after the given deadline.
+     * Deadlines which have already passed are due on the next tick.
+     *
+     * @param item     The item to schedule
+     * @param deadline The time in milliseconds since the epoch the item is due
+     */
+    public void schedule(@NotNull final T item, final long deadline) {
+        // Round up so items are never returned before their deadline
+        final long tick = Math.max((deadline + this.tickDuration - 1) / this.tickDuration, this.lastTick + 1);
+        this.buckets.get(this.getBucketIndex(tick)).add(new Entry<>(item, tick));
+        this.size++;
+    }
+
+    /**
+     * Turn the wheel up to the given time and remove every item which is now due.
+     *
+     * @param now The current time in milliseconds since the epoch
+     * @return The items which are due
+     */
+    public List<T> advance(final long now) {
+        final long currentTick = now / this.tickDuration;
+        final List<T> due = new ArrayList<>();
+        if (currentTick <= this.lastTick) {
+            return due;
+        }
+
+        // No need to visit a bucket more than once even if the wheel fell several rotations behind
+        final long ticks = Math.min(currentTick - this.lastTick, this.buckets.size());
+        for (long tick = currentTick - ticks + 1; tick <= currentTick; tick++) {
+            final Iterator<Entry<T>> entries = this.buckets.get(this.getBucketIndex(tick)).iterator();
+            while (entries.hasNext()) {
+                final Entry<T> entry = entries.next();
+                if (entry.tick <= currentTick) {
+                    due.add(entry.item);
+                    entries.remove();
+                    this.size--;
+                }
+            }
+        }
+        this.lastTick = currentTick;
+        return due;
+    }
+
+    /**
+     * Get the number of items currently scheduled on the wheel.
+     *
+     * @return The number of scheduled items
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private int getBucketIndex(final long tick) {
+        return (int) (tick % this.buckets.size());
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long tick;
+
+        private Entry(final T item, final long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
+}
@@ -31,11 +31,13 @@ import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.jobs.JobDoneFile;
+import com.netflix.genie.core.properties.JobsCompletionProperties;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobPersistenceService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.MailService;
 import com.netflix.genie.core.services.impl.GenieFileTransferService;
+import com.netflix.genie.core.util.DirectoryArchiver;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
@@ -51,6 +53,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 import java.io.File;
 import java.io.IOException;
@@ -62,6 +65,12 @@ import java.util.stream.Collectors;
 
 /**
  * A class that has the methods to perform various tasks when a job completes.
+ * <p>
+ * By default everything is done in order on the thread handling the job finished event. When the completion pipeline
+ * is enabled the work is split into stages, each with its own queue and threads. Finalizing the status hands the job
+ * to the cleanup and notification stages without ever waiting for them, so a slow upload or mail server never holds up
+ * finalizing the status of other jobs. Cleanup hands the job on to archival and waits for room if archival is full.
+ * Work is never dropped while running and on shutdown the stages are given a timeout to finish their queued work.
  *
  * @author amsharma
  * @author tgianos
@@ -83,6 +92,12 @@ public class JobCompletionService {
     private final boolean deleteArchiveFile;
     private final boolean deleteDependencies;
     private final boolean runAsUserEnabled;
+    private final DirectoryArchiver directoryArchiver;
+    private final JobCompletionStage statusStage;
+    private final JobCompletionStage cleanupStage;
+    private final JobCompletionStage archivalStage;
+    private final JobCompletionStage notificationStage;
+    private final long shutdownTimeout;
 
     // Metrics
     private final Registry registry;
@@ -129,6 +144,19 @@ public class JobCompletionService {
         this.deleteArchiveFile = jobsProperties.getCleanup().isDeleteArchiveFile();
         this.deleteDependencies = jobsProperties.getCleanup().isDeleteDependencies();
         this.runAsUserEnabled = jobsProperties.getUsers().isRunAsUserEnabled();
+        if (jobsProperties.getArchive().isStreamingEnabled() && this.runAsUserEnabled) {
+            // Streaming reads the directory as the Genie user so files only the job user can read would be left out.
+            // tar run through sudo can read everything.
+            log.warn("Streaming archival can't be used when jobs run as their users. Archiving with tar instead.");
+            this.directoryArchiver = null;
+        } else if (jobsProperties.getArchive().isStreamingEnabled()) {
+            this.directoryArchiver = new DirectoryArchiver(
+                jobsProperties.getArchive().getCompressionThreads(),
+                jobsProperties.getArchive().getBlockSize()
+            );
+        } else {
+            this.directoryArchiver = null;
+        }
 
         this.executor = new DefaultExecutor();
         this.executor.setStreamHandler(new PumpStreamHandler(null, null));
@@ -152,6 +180,57 @@ public class JobCompletionService {
         this.deleteDependenciesFailure = registry.counter("genie.jobs.deleteDependenciesFailure.rate");
         // Retry template
         this.retryTemplate = retryTemplate;
+
+        final JobsCompletionProperties completion = jobsProperties.getCompletion();
+        this.shutdownTimeout = completion.getShutdownTimeout();
+        if (completion.isPipelineEnabled()) {
+            this.statusStage = new JobCompletionStage(
+                "status", completion.getStatus().getThreads(), completion.getStatus().getQueueCapacity(), registry
+            );
+            this.cleanupStage = new JobCompletionStage(
+                "cleanup", completion.getCleanup().getThreads(), completion.getCleanup().getQueueCapacity(), registry
+            );
+            this.archivalStage = new JobCompletionStage(
+                "archival",
+                completion.getArchival().getThreads(),
+                completion.getArchival().getQueueCapacity(),
+                registry
+            );
+            this.notificationStage = new JobCompletionStage(
+                "notification",
+                completion.getNotification().getThreads(),
+                completion.getNotification().getQueueCapacity(),
+                registry
+            );
+        } else {
+            this.statusStage = null;
+            this.cleanupStage = null;
+            this.archivalStage = null;
+            this.notificationStage = null;
+        }
+    }
+
+    /**
+     * Stop the completion pipeline stages if they were started. The stages are stopped in order so the work queued by
+     * one stage while it finishes can still be done by the next. All of them share the shutdown timeout. The
+     * compression threads of streaming archival are stopped last.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (this.statusStage != null) {
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.shutdownTimeout);
+            for (final JobCompletionStage stage : new JobCompletionStage[]{
+                this.statusStage,
+                this.cleanupStage,
+                this.archivalStage,
+                this.notificationStage
+            }) {
+                stage.shutdown(Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        }
+        if (this.directoryArchiver != null) {
+            this.directoryArchiver.shutdown();
+        }
     }
 
     /**
@@ -161,6 +240,20 @@ public class JobCompletionService {
      * @throws GenieException If there is any problem
      */
     void handleJobCompletion(final JobFinishedEvent event) throws GenieException {
+        if (this.statusStage != null) {
+            try {
+                // Waits for room so a backlog pushes back on the event threads rather than growing without bound
+                this.statusStage.put(() -> this.completeJob(event));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new GenieServerException("Interrupted queueing completion of job " + event.getId(), ie);
+            }
+        } else {
+            this.completeJob(event);
+        }
+    }
+
+    private void completeJob(final JobFinishedEvent event) {
         final long start = System.nanoTime();
         final String jobId = event.getId();
         final Map<String, String> tags = Maps.newHashMap();
@@ -180,19 +273,23 @@ public class JobCompletionService {
                     finalStatusUpdateFailureRate.increment();
                 }
                 // Things that should be done either way
-                try {
-                    retryTemplate.execute(context -> processJobDir(job));
-                } catch (Exception e) {
-                    log.error("Failed archiving directory for job: {}", jobId, e);
-                    tags.put(ERROR_TAG, "JOB_DIRECTORY_FAILURE");
-                    archivalFailureRate.increment();
-                }
-                try {
-                    retryTemplate.execute(context -> sendEmail(jobId));
-                } catch (Exception e) {
-                    log.error("Failed sending email for job: {}", jobId, e);
-                    tags.put(ERROR_TAG, "SEND_EMAIL_FAILURE");
-                    emailFailureRate.increment();
+                if (this.statusStage != null) {
+                    this.queueJobDirAndEmail(job, jobId);
+                } else {
+                    try {
+                        retryTemplate.execute(context -> processJobDir(job));
+                    } catch (Exception e) {
+                        log.error("Failed archiving directory for job: {}", jobId, e);
+                        tags.put(ERROR_TAG, "JOB_DIRECTORY_FAILURE");
+                        archivalFailureRate.increment();
+                    }
+                    try {
+                        retryTemplate.execute(context -> sendEmail(jobId));
+                    } catch (Exception e) {
+                        log.error("Failed sending email for job: {}", jobId, e);
+                        tags.put(ERROR_TAG, "SEND_EMAIL_FAILURE");
+                        emailFailureRate.increment();
+                    }
                 }
             }
         } catch (Exception e) {
@@ -204,6 +301,57 @@ public class JobCompletionService {
         }
     }
 
+    /**
+     * Hand the job directory and email to their stages. Never waits for room in them so the status stage is never
+     * held up by a slow upload or mail server. Work which doesn't fit is queued past the stage's capacity instead.
+     *
+     * @param job   The job
+     * @param jobId The id of the job
+     */
+    private void queueJobDirAndEmail(final Job job, final String jobId) {
+        this.cleanupStage.enqueue(() -> this.cleanupAndQueueArchival(job, jobId));
+        this.notificationStage.enqueue(() -> this.notifyCompletion(jobId));
+    }
+
+    private void cleanupAndQueueArchival(final Job job, final String jobId) {
+        final File jobDir;
+        try {
+            jobDir = this.retryTemplate.execute(context -> cleanupJobDir(job));
+        } catch (Exception e) {
+            log.error("Failed cleaning up directory for job: {}", jobId, e);
+            this.archivalFailureRate.increment();
+            return;
+        }
+        if (jobDir != null) {
+            try {
+                // Cleanup can wait for archival as it doesn't hold up finalizing the status
+                this.archivalStage.put(() -> this.archive(job, jobId, jobDir));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted queueing archival of directory for job: {}", jobId, ie);
+                this.archivalFailureRate.increment();
+            }
+        }
+    }
+
+    private void archive(final Job job, final String jobId, final File jobDir) {
+        try {
+            this.retryTemplate.execute(context -> archiveJobDir(job, jobDir));
+        } catch (Exception e) {
+            log.error("Failed archiving directory for job: {}", jobId, e);
+            this.archivalFailureRate.increment();
+        }
+    }
+
+    private void notifyCompletion(final String jobId) {
+        try {
+            this.retryTemplate.execute(context -> sendEmail(jobId));
+        } catch (Exception e) {
+            log.error("Failed sending email for job: {}", jobId, e);
+            this.emailFailureRate.increment();
+        }
+    }
+
     private Job getJob(final String jobId) throws GenieException {
         return this.jobSearchService.getJob(jobId);
     }
@@ -423,7 +571,18 @@ public class JobCompletionService {
      */
     private boolean processJobDir(final Job job) throws GenieException, IOException {
         log.debug("Got a job finished event. Will process job directory.");
-        boolean result = false;
+        final File jobDir = this.cleanupJobDir(job);
+        return jobDir != null && this.archiveJobDir(job, jobDir);
+    }
+
+    /**
+     * Deletes the dependencies from the job directory if enabled.
+     *
+     * @param job The job.
+     * @return The job directory if it should be archived or null if not
+     * @throws GenieException if there is any problem
+     */
+    private File cleanupJobDir(final Job job) throws GenieException {
         final Optional<String> oJobId = job.getId();
 
         // The deletion of dependencies and archiving only happens for job requests which are not Invalid.
@@ -435,46 +594,73 @@ public class JobCompletionService {
                 if (this.deleteDependencies) {
                     this.deleteApplicationDependencies(jobId, jobDir);
                 }
+                return jobDir;
+            }
+        }
+        return null;
+    }
 
-                final Optional<String> archiveLocation = job.getArchiveLocation();
-                if (archiveLocation.isPresent() && !Strings.isNullOrEmpty(archiveLocation.get())) {
-                    log.debug("Archiving job directory");
-                    // Create the tar file
-                    final File localArchiveFile = new File(jobDir, "genie/logs/" + jobId + ".tar.gz");
-
-                    final CommandLine commandLine = new CommandLine("sudo");
-                    commandLine.addArgument("tar");
-                    commandLine.addArgument("-c");
-                    commandLine.addArgument("-z");
-                    commandLine.addArgument("-f");
-                    commandLine.addArgument(localArchiveFile.getCanonicalPath());
-                    commandLine.addArgument("./");
-
-                    this.executor.setWorkingDirectory(jobDir);
-
-                    log.debug("Archive command : {}", commandLine.toString());
-                    this.executor.execute(commandLine);
-
-                    // Upload the tar file to remote location
-                    this.genieFileTransferService.putFile(localArchiveFile.getCanonicalPath(), archiveLocation.get());
-
-                    // At this point the archive file is successfully uploaded to archive location specified in the job.
-                    // Now we can delete it from local disk to save space if enabled.
-                    if (this.deleteArchiveFile) {
-                        log.debug("Deleting archive file");
-                        try {
-                            if (!localArchiveFile.delete()) {
-                                log.error("Failed to delete archive file for job: {}", jobId);
-                                this.archiveFileDeletionFailure.increment();
-                            }
-                        } catch (final Exception e) {
-                            log.error("Failed to delete archive file for job: {}", jobId, e);
-                            this.archiveFileDeletionFailure.increment();
-                        }
+    /**
+     * Uploads the job directory to the archive location.
+     *
+     * @param job    The job.
+     * @param jobDir The job working directory
+     * @return true if the directory was archived
+     * @throws GenieException if there is any problem
+     * @throws IOException    if there is a problem reading the directory
+     */
+    private boolean archiveJobDir(final Job job, final File jobDir) throws GenieException, IOException {
+        boolean result = false;
+        final String jobId = jobDir.getName();
+        final Optional<String> archiveLocation = job.getArchiveLocation();
+        if (archiveLocation.isPresent()
+            && !Strings.isNullOrEmpty(archiveLocation.get())
+            && this.directoryArchiver != null) {
+            // Compress the directory straight into the upload so nothing is staged on disk. Runs as the
+            // Genie user which is only enabled when jobs run as it too so it can read everything.
+            log.debug("Streaming archive of job directory");
+            this.genieFileTransferService.putStream(
+                out -> this.directoryArchiver.archive(jobDir, out),
+                archiveLocation.get()
+            );
+            result = true;
+        } else if (archiveLocation.isPresent() && !Strings.isNullOrEmpty(archiveLocation.get())) {
+            log.debug("Archiving job directory");
+            // Create the tar file
+            final File localArchiveFile = new File(jobDir, "genie/logs/" + jobId + ".tar.gz");
+
+            final CommandLine commandLine = new CommandLine("sudo");
+            commandLine.addArgument("tar");
+            commandLine.addArgument("-c");
+            commandLine.addArgument("-z");
+            commandLine.addArgument("-f");
+            commandLine.addArgument(localArchiveFile.getCanonicalPath());
+            // Change directory in tar rather than on the shared executor as several jobs may be archived at once
+            commandLine.addArgument("-C");
+            commandLine.addArgument(jobDir.getCanonicalPath());
+            commandLine.addArgument("./");
+
+            log.debug("Archive command : {}", commandLine.toString());
+            this.executor.execute(commandLine);
+
+            // Upload the tar file to remote location
+            this.genieFileTransferService.putFile(localArchiveFile.getCanonicalPath(), archiveLocation.get());
+
+            // At this point the archive file is successfully uploaded to archive location specified in the job.
+            // Now we can delete it from local disk to save space if enabled.
+            if (this.deleteArchiveFile) {
+                log.debug("Deleting archive file");
+                try {
+                    if (!localArchiveFile.delete()) {
+                        log.error("Failed to delete archive file for job: {}", jobId);
+                        this.archiveFileDeletionFailure.increment();
                     }
-                    result = true;
+                } catch (final Exception e) {
+                    log.error("Failed to delete archive file for job: {}", jobId, e);
+                    this.archiveFileDeletionFailure.increment();
                 }
             }
+            result = true;
         }
         return result;
     }
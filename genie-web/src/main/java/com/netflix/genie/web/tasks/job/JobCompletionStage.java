@@ -0,0 +1,185 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stage of the job completion pipeline. Work for the stage waits in a bounded queue for one of the stage's own
+ * threads so a slow stage only holds up the jobs waiting for it.
+ * <p>
+ * Work can either be put, which waits for room in the queue, or enqueued, which never waits and goes past the
+ * capacity of the queue if it's full. Enqueueing is for stages which must never be held up by the stages after them.
+ * The time spent waiting for room and the work queued past the capacity are both recorded, along with the queue
+ * depth, how long work waited in the queue and how long it took to run. All metrics are tagged with the stage name.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobCompletionStage {
+
+    private static final String STAGE_TAG = "stage";
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore capacity;
+    private final Timer waitTimer;
+    private final Timer processTimer;
+    private final Timer backpressureTimer;
+    private final Counter spilledRate;
+
+    /**
+     * Constructor.
+     *
+     * @param name          The name of the stage
+     * @param threads       The number of threads working on the stage
+     * @param queueCapacity The most work which can wait for a thread
+     * @param registry      The metrics registry to use
+     */
+    public JobCompletionStage(
+        @NotBlank final String name,
+        @Min(1) final int threads,
+        @Min(1) final int queueCapacity,
+        @NotNull final Registry registry
+    ) {
+        this.name = name;
+        // The queue itself is unbounded as the permits bound both the waiting and running work
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("genie-job-completion-" + name + "-%d").setDaemon(true).build()
+        );
+        this.capacity = new Semaphore(threads + queueCapacity);
+
+        this.waitTimer = registry.timer(registry.createId("genie.jobs.completion.stage.wait.timer", STAGE_TAG, name));
+        this.processTimer = registry.timer(registry.createId("genie.jobs.completion.stage.timer", STAGE_TAG, name));
+        this.backpressureTimer
+            = registry.timer(registry.createId("genie.jobs.completion.stage.backpressure.timer", STAGE_TAG, name));
+        this.spilledRate
+            = registry.counter(registry.createId("genie.jobs.completion.stage.spilled.rate", STAGE_TAG, name));
+        registry.gauge(
+            registry.createId("genie.jobs.completion.stage.queue.gauge", STAGE_TAG, name),
+            this.executor,
+            pool -> pool.getQueue().size()
+        );
+    }
+
+    /**
+     * Queue the work for the stage, waiting for room in the queue if it's full.
+     *
+     * @param work The work to do
+     * @throws InterruptedException if interrupted while waiting for room
+     */
+    public void put(@NotNull final Runnable work) throws InterruptedException {
+        if (!this.capacity.tryAcquire()) {
+            final long start = System.nanoTime();
+            try {
+                this.capacity.acquire();
+            } finally {
+                this.backpressureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        this.execute(work, true);
+    }
+
+    /**
+     * Queue the work for the stage without waiting. If the queue is full the work is queued past its capacity rather
+     * than dropped. Work queued past the capacity doesn't take up room so it never holds up work which is put.
+     *
+     * @param work The work to do
+     */
+    public void enqueue(@NotNull final Runnable work) {
+        final boolean withinCapacity = this.capacity.tryAcquire();
+        if (!withinCapacity) {
+            log.debug("Job completion stage {} is full. Queueing past its capacity.", this.name);
+            this.spilledRate.increment();
+        }
+        this.execute(work, withinCapacity);
+    }
+
+    /**
+     * Get the number of items of work waiting for a thread.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Stop the stage. No new work is accepted but the queued work is given until the timeout to finish. Whatever is
+     * left after that is dropped and the running work is interrupted.
+     *
+     * @param timeout How long to wait for the queued work in milliseconds
+     */
+    public void shutdown(@Min(0) final long timeout) {
+        this.executor.shutdown();
+        try {
+            if (this.executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        final int dropped = this.executor.shutdownNow().size();
+        log.warn("Job completion stage {} didn't finish in time. Dropped {} queued items of work", this.name, dropped);
+    }
+
+    private void execute(final Runnable work, final boolean withinCapacity) {
+        final long queued = System.nanoTime();
+        try {
+            this.executor.execute(
+                () -> {
+                    final long start = System.nanoTime();
+                    this.waitTimer.record(start - queued, TimeUnit.NANOSECONDS);
+                    try {
+                        work.run();
+                    } catch (final RuntimeException re) {
+                        log.error("Job completion stage {} failed", this.name, re);
+                    } finally {
+                        this.processTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (withinCapacity) {
+                            this.capacity.release();
+                        }
+                    }
+                }
+            );
+        } catch (final RuntimeException re) {
+            if (withinCapacity) {
+                this.capacity.release();
+            }
+            throw re;
+        }
+    }
+}
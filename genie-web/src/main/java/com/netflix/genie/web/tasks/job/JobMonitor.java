@@ -24,14 +24,13 @@ import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.KillJobEvent;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.util.ProcessChecker;
-import com.netflix.genie.core.util.UnixProcessChecker;
+import com.netflix.genie.core.util.ProcessCheckerFactory;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
 import com.netflix.genie.web.tasks.node.NodeTask;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.exec.ExecuteException;
-import org.apache.commons.exec.Executor;
 import org.apache.commons.lang3.SystemUtils;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
@@ -76,20 +75,20 @@ public class JobMonitor extends NodeTask {
     /**
      * Constructor.
      *
-     * @param execution        The job execution object including the pid
-     * @param stdOut           The std out output file
-     * @param stdErr           The std err output file
-     * @param executor         The process executor to use
-     * @param publisher        The event publisher to use when a job isn't running anymore
-     * @param eventMulticaster The multicaster to send async events
-     * @param registry         The metrics event registry
-     * @param jobsProperties   The properties for jobs
+     * @param execution             The job execution object including the pid
+     * @param stdOut                The std out output file
+     * @param stdErr                The std err output file
+     * @param processCheckerFactory The factory to get the checker for the job process from
+     * @param publisher             The event publisher to use when a job isn't running anymore
+     * @param eventMulticaster      The multicaster to send async events
+     * @param registry              The metrics event registry
+     * @param jobsProperties        The properties for jobs
      */
     public JobMonitor(
         @Valid final JobExecution execution,
         @NotNull final File stdOut,
         @NotNull final File stdErr,
-        @NotNull final Executor executor,
+        @NotNull final ProcessCheckerFactory processCheckerFactory,
         @NotNull final ApplicationEventPublisher publisher,
         @NotNull final ApplicationEventMulticaster eventMulticaster,
         @NotNull final Registry registry,
@@ -107,7 +106,7 @@ public class JobMonitor extends NodeTask {
 
         final int processId = execution.getProcessId().orElseThrow(IllegalArgumentException::new);
         final Date timeout = execution.getTimeout().orElseThrow(IllegalArgumentException::new);
-        this.processChecker = new UnixProcessChecker(processId, executor, timeout);
+        this.processChecker = processCheckerFactory.get(processId, timeout);
 
         this.stdOut = stdOut;
         this.stdErr = stdErr;
@@ -0,0 +1,163 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.core.properties.JobsMonitoringProperties;
+import com.netflix.genie.web.tasks.GenieTaskScheduleType;
+import com.netflix.genie.web.tasks.node.NodeTask;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single task which owns the monitoring of every job running on the node. Rather than scheduling a task per job the
+ * monitors are kept in a hashed timing wheel keyed by the time of their next check and every tick the sweeper runs the
+ * checks of all the jobs which are due in one batch.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobMonitorSweeper extends NodeTask {
+
+    private final HashedTimingWheel<MonitoredJob> wheel;
+    private final long tickDuration;
+
+    // Metrics
+    private final Timer sweepTimer;
+    private final Timer lagTimer;
+    private final AtomicLong backlog;
+
+    /**
+     * Constructor.
+     *
+     * @param monitoringProperties The properties related to job monitoring
+     * @param registry             The metrics registry to use
+     */
+    public JobMonitorSweeper(
+        @NotNull final JobsMonitoringProperties monitoringProperties,
+        @NotNull final Registry registry
+    ) {
+        this.tickDuration = monitoringProperties.getSweeperTickDuration();
+        this.wheel = new HashedTimingWheel<>(
+            this.tickDuration,
+            monitoringProperties.getSweeperWheelSize(),
+            System.currentTimeMillis()
+        );
+
+        this.sweepTimer = registry.timer("genie.jobs.monitoring.sweep.timer");
+        this.lagTimer = registry.timer("genie.jobs.monitoring.sweep.lag.timer");
+        this.backlog = registry.gauge("genie.jobs.monitoring.sweep.backlog.gauge", new AtomicLong());
+        registry.methodValue("genie.jobs.monitoring.monitored.gauge", this, "getNumMonitoredJobs");
+    }
+
+    /**
+     * Start monitoring a job. The first check happens after the check delay of the job has passed.
+     *
+     * @param monitor The monitor of the job
+     * @return A future which stops the monitoring of the job when cancelled
+     */
+    public Future<?> add(@NotNull final JobMonitor monitor) {
+        final MonitoredJob job = new MonitoredJob(monitor);
+        this.schedule(job, System.currentTimeMillis());
+        return job.future;
+    }
+
+    /**
+     * Run the checks of every job which is due and reschedule them for their next check.
+     */
+    @Override
+    public void run() {
+        final long start = System.nanoTime();
+        final long now = System.currentTimeMillis();
+        final List<MonitoredJob> due;
+        synchronized (this.wheel) {
+            due = this.wheel.advance(now);
+        }
+        this.backlog.set(due.size());
+
+        for (final MonitoredJob job : due) {
+            // Cancelled when the job finished so just let it fall off the wheel
+            if (job.future.isDone()) {
+                continue;
+            }
+            this.lagTimer.record(Math.max(now - job.deadline, 0L), TimeUnit.MILLISECONDS);
+            try {
+                job.monitor.run();
+            } catch (final RuntimeException re) {
+                // Don't let one bad check stop the rest of the jobs being checked
+                log.error("Unable to check job with monitor {}", job.monitor, re);
+            }
+            if (!job.future.isDone()) {
+                this.schedule(job, System.currentTimeMillis());
+            }
+        }
+        this.sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the number of jobs currently being monitored by this sweeper.
+     *
+     * @return The number of monitored jobs
+     */
+    public int getNumMonitoredJobs() {
+        synchronized (this.wheel) {
+            return this.wheel.size();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GenieTaskScheduleType getScheduleType() {
+        return GenieTaskScheduleType.FIXED_RATE;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFixedRate() {
+        return this.tickDuration;
+    }
+
+    private void schedule(final MonitoredJob job, final long now) {
+        job.deadline = now + job.monitor.getFixedDelay();
+        synchronized (this.wheel) {
+            this.wheel.schedule(job, job.deadline);
+        }
+    }
+
+    private static final class MonitoredJob {
+        private final JobMonitor monitor;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private long deadline;
+
+        private MonitoredJob(final JobMonitor monitor) {
+            this.monitor = monitor;
+        }
+    }
+}
@@ -17,11 +17,9 @@
  */
 package com.netflix.genie.web.tasks.job;
 
-import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
-import com.netflix.genie.common.exceptions.GenieServerException;
 import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
@@ -30,11 +28,13 @@ import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobSubmitterService;
 import com.netflix.genie.core.services.impl.JobStateServiceImpl;
+import com.netflix.genie.core.util.ProcessCheckerFactory;
+import com.netflix.genie.web.tasks.GenieTask;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.exec.Executor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
@@ -47,9 +47,12 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A Task to monitor running jobs on a Genie node.
@@ -64,25 +67,27 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
     private final String hostName;
     private final JobSearchService jobSearchService;
     private final ApplicationEventMulticaster eventMulticaster;
-    private final Executor executor;
+    private final ProcessCheckerFactory processCheckerFactory;
     private final File jobsDir;
     private final JobsProperties jobsProperties;
+    private final JobMonitorSweeper sweeper;
 
     private final Counter unableToReAttach;
 
     /**
      * Constructor.
      *
-     * @param hostName         The name of the host this Genie process is running on
-     * @param jobSearchService The search service to use to find jobs
-     * @param publisher        The application event publisher to use to publish synchronous events
-     * @param eventMulticaster The event eventMulticaster to use to publish asynchronous events
-     * @param scheduler        The task scheduler to use to register scheduling of job checkers
-     * @param executor         The executor to use to launch processes
-     * @param registry         The metrics registry
-     * @param jobsDir          The directory where job output is stored
-     * @param jobsProperties   The properties pertaining to jobs
+     * @param hostName              The name of the host this Genie process is running on
+     * @param jobSearchService      The search service to use to find jobs
+     * @param publisher             The application event publisher to use to publish synchronous events
+     * @param eventMulticaster      The event eventMulticaster to use to publish asynchronous events
+     * @param scheduler             The task scheduler to use to register scheduling of job checkers
+     * @param processCheckerFactory The factory of the checkers to use to check the job processes
+     * @param registry              The metrics registry
+     * @param jobsDir               The directory where job output is stored
+     * @param jobsProperties        The properties pertaining to jobs
      * @param jobSubmitterService   implementation of the job submitter service
+     * @param jobLaunchExecutor     The executor to set up and launch jobs on
      * @throws IOException on error with the filesystem
      */
     @Autowired
@@ -92,22 +97,32 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
         final ApplicationEventPublisher publisher,
         final ApplicationEventMulticaster eventMulticaster,
         final TaskScheduler scheduler,
-        final Executor executor,
+        final ProcessCheckerFactory processCheckerFactory,
         final Registry registry,
         final Resource jobsDir,
         final JobsProperties jobsProperties,
-        final JobSubmitterService jobSubmitterService
+        final JobSubmitterService jobSubmitterService,
+        @Qualifier("jobLaunchExecutor") final ExecutorService jobLaunchExecutor
     ) throws IOException {
-        super(jobSubmitterService, scheduler, publisher, registry);
+        super(jobSubmitterService, scheduler, jobLaunchExecutor, publisher, registry);
         this.hostName = hostName;
         this.jobSearchService = jobSearchService;
         this.eventMulticaster = eventMulticaster;
-        this.executor = executor;
+        this.processCheckerFactory = processCheckerFactory;
         this.jobsDir = jobsDir.getFile();
         this.jobsProperties = jobsProperties;
 
         // Automatically track the number of jobs running on this node
         this.unableToReAttach = registry.counter("genie.jobs.unableToReAttach.rate");
+
+        if (jobsProperties.getMonitoring().isSweeperEnabled()) {
+            // One task checks every job instead of a task being scheduled per job
+            this.sweeper = new JobMonitorSweeper(jobsProperties.getMonitoring(), registry);
+            this.scheduleTask(this.sweeper);
+            log.info("Monitoring jobs with a single sweeper");
+        } else {
+            this.sweeper = null;
+        }
     }
 
     /**
@@ -149,7 +164,7 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
 
     private void reAttach(final ApplicationEvent event) throws GenieException {
         log.info("Application is ready according to event {}. Attempting to re-attach to any active jobs", event);
-        final Set<Job> jobsOnHost = this.jobSearchService.getAllActiveJobsOnHost(this.hostName);
+        final Map<String, JobStatus> jobsOnHost = this.jobSearchService.getAllActiveJobStatusesOnHost(this.hostName);
         if (jobsOnHost.isEmpty()) {
             log.info("No jobs currently active on this node.");
             return;
@@ -157,27 +172,31 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
             log.info("{} jobs currently active on this node at startup", jobsOnHost.size());
         }
 
-        for (final Job job : jobsOnHost) {
-            final String id = job.getId().orElseThrow(() -> new GenieServerException("Job has no id!"));
+        // Fetch the execution information of all the running jobs at once rather than one query per job
+        final Map<String, JobExecution> runningJobs = this.jobSearchService
+            .getAllRunningJobExecutionsOnHost(this.hostName)
+            .stream()
+            .collect(Collectors.toMap(execution -> execution.getId().orElse(null), Function.identity()));
+
+        for (final Map.Entry<String, JobStatus> job : jobsOnHost.entrySet()) {
+            final String id = job.getKey();
             if (jobExists(id)) {
                 log.info("Job {} is already being tracked. Ignoring.", id);
-            } else if (job.getStatus() != JobStatus.RUNNING) {
+            } else if (job.getValue() != JobStatus.RUNNING) {
                 this.eventMulticaster.multicastEvent(
                     new JobFinishedEvent(id, JobFinishedReason.SYSTEM_CRASH, "System crashed while job starting", this)
                 );
+            } else if (!runningJobs.containsKey(id)) {
+                log.error("Unable to re-attach to job {}.", id);
+                this.eventMulticaster.multicastEvent(
+                    new JobFinishedEvent(id, JobFinishedReason.SYSTEM_CRASH, "Unable to re-attach on startup", this)
+                );
+                this.unableToReAttach.increment();
             } else {
-                try {
-                    final JobExecution jobExecution = this.jobSearchService.getJobExecution(id);
-                    init(id);
-                    setMemoryAndTask(id, jobExecution.getMemory().orElse(0), scheduleMonitor(jobExecution));
-                    log.info("Re-attached a job monitor to job {}", id);
-                } catch (final GenieException ge) {
-                    log.error("Unable to re-attach to job {}.", id);
-                    this.eventMulticaster.multicastEvent(
-                        new JobFinishedEvent(id, JobFinishedReason.SYSTEM_CRASH, "Unable to re-attach on startup", this)
-                    );
-                    this.unableToReAttach.increment();
-                }
+                final JobExecution jobExecution = runningJobs.get(id);
+                init(id);
+                setMemoryAndTask(id, jobExecution.getMemory().orElse(0), scheduleMonitor(jobExecution));
+                log.info("Re-attached a job monitor to job {}", id);
             }
         }
     }
@@ -191,27 +210,27 @@ public class JobMonitoringCoordinator extends JobStateServiceImpl {
             jobExecution,
             stdOut,
             stdErr,
-            this.executor,
+            this.processCheckerFactory,
             this.publisher,
             this.eventMulticaster,
             this.registry,
             this.jobsProperties
         );
-        final ScheduledFuture<?> future;
-        switch (monitor.getScheduleType()) {
+        final Future<?> future = this.sweeper != null ? this.sweeper.add(monitor) : this.scheduleTask(monitor);
+        log.info("Scheduled job monitoring for Job {}", jobExecution.getId());
+        return future;
+    }
+
+    private ScheduledFuture<?> scheduleTask(final GenieTask task) {
+        switch (task.getScheduleType()) {
             case TRIGGER:
-                future = this.scheduler.schedule(monitor, monitor.getTrigger());
-                break;
+                return this.scheduler.schedule(task, task.getTrigger());
             case FIXED_DELAY:
-                future = this.scheduler.scheduleWithFixedDelay(monitor, monitor.getFixedDelay());
-                break;
+                return this.scheduler.scheduleWithFixedDelay(task, task.getFixedDelay());
             case FIXED_RATE:
-                future = this.scheduler.scheduleAtFixedRate(monitor, monitor.getFixedRate());
-                break;
+                return this.scheduler.scheduleAtFixedRate(task, task.getFixedRate());
             default:
-                throw new UnsupportedOperationException("Unknown schedule type: " + monitor.getScheduleType());
+                throw new UnsupportedOperationException("Unknown schedule type: " + task.getScheduleType());
         }
-        log.info("Scheduled job monitoring for Job {}", jobExecution.getId());
-        return future;
     }
 }
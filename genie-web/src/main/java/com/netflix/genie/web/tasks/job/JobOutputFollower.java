@@ -0,0 +1,444 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.common.exceptions.GenieServerException;
+import com.netflix.genie.core.events.JobFinishedEvent;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.spectator.api.Registry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.validation.constraints.NotNull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the output files of jobs running on this node to clients as the files grow.
+ * <p>
+ * Every job being followed has one watch on the directories of its followed files. The watcher thread only notes
+ * which followers have new bytes to read. Each follower is then sent its bytes by a sender task of its own, from
+ * where it left off and a chunk at a time, so a slow or stalled client only ever holds up itself. Nothing is read
+ * until the response of a follower has been set up so the bytes sent are written straight to the client rather than
+ * held in memory. When the job finishes the rest of the files are sent and the streams completed.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Slf4j
+public class JobOutputFollower implements Closeable {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path jobsDir;
+    private final JobStateService jobStateService;
+    private final long timeout;
+    private final WatchService watchService;
+    private final Thread watcher;
+    private final ExecutorService senders;
+    private final Map<String, JobTail> jobTails = new HashMap<>();
+    private final Map<WatchKey, JobTail> watchedJobs = new HashMap<>();
+    private final AtomicInteger numFollowers = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param jobsDir         The directory where job output is stored
+     * @param jobStateService The service tracking which jobs are running on this node
+     * @param timeout         How long in milliseconds a single follow request may stay open before the client has to
+     *                        resume from the offset it got to
+     * @param registry        The metrics registry to use
+     * @throws IOException on error accessing the jobs directory or creating the file watcher
+     */
+    public JobOutputFollower(
+        @NotNull final Resource jobsDir,
+        @NotNull final JobStateService jobStateService,
+        final long timeout,
+        @NotNull final Registry registry
+    ) throws IOException {
+        this.jobsDir = jobsDir.getFile().toPath().toAbsolutePath().normalize();
+        this.jobStateService = jobStateService;
+        this.timeout = timeout;
+        this.watchService = this.jobsDir.getFileSystem().newWatchService();
+        // At most one sender task per follower at a time so the number of threads is bounded by the followers
+        this.senders = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("genie-job-output-sender-%d").setDaemon(true).build()
+        );
+        this.watcher = new Thread(this::watch, "genie-job-output-follower");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+
+        registry.gauge("genie.jobs.output.followers.gauge", this.numFollowers);
+    }
+
+    /**
+     * Start following a file in the output directory of a job.
+     *
+     * @param jobId  The id of the job
+     * @param path   The path of the file relative to the job directory
+     * @param offset The offset in bytes into the file to start streaming from
+     * @return The emitter the file contents will be streamed to. Completed once the job is done and the file fully sent
+     * @throws GenieException if the path is invalid or the file doesn't exist
+     */
+    public ResponseBodyEmitter follow(
+        @NotNull final String jobId,
+        @NotNull final String path,
+        final long offset
+    ) throws GenieException {
+        if (offset < 0) {
+            throw new GeniePreconditionException("Offset must not be negative but was " + offset);
+        }
+        final Path jobDir = this.jobsDir.resolve(jobId).normalize();
+        final Path file = jobDir.resolve(path).normalize();
+        if (!jobDir.startsWith(this.jobsDir) || jobDir.equals(this.jobsDir) || !file.startsWith(jobDir)) {
+            throw new GeniePreconditionException("Invalid output path " + path + " for job " + jobId);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new GenieNotFoundException("No file " + path + " found in the output of job " + jobId);
+        }
+
+        final Subscriber subscriber = new Subscriber(jobId, file, offset);
+        subscriber.emitter = this.createEmitter(this.timeout, () -> this.ready(subscriber));
+        synchronized (this) {
+            JobTail jobTail = this.jobTails.get(jobId);
+            if (jobTail == null) {
+                jobTail = new JobTail();
+                this.jobTails.put(jobId, jobTail);
+            }
+            try {
+                this.subscribe(jobTail, subscriber);
+            } catch (final IOException ioe) {
+                if (jobTail.files.isEmpty()) {
+                    this.jobTails.remove(jobId);
+                }
+                throw new GenieServerException("Unable to watch " + path + " of job " + jobId, ioe);
+            }
+        }
+        subscriber.emitter.onCompletion(() -> this.unsubscribe(subscriber));
+
+        // Whatever is already there is sent once the response is set up. Stop there if the job isn't running.
+        if (!this.jobStateService.jobExists(jobId)) {
+            this.finish(jobId);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Create the emitter a follower's stream is sent through.
+     *
+     * @param emitterTimeout How long in milliseconds the stream may stay open
+     * @param onReady        To run once the emitter is attached to the response and bytes can be sent to the client
+     * @return A new emitter
+     */
+    protected ResponseBodyEmitter createEmitter(final long emitterTimeout, final Runnable onReady) {
+        return new ResponseBodyEmitter(emitterTimeout) {
+            @Override
+            protected void extendResponse(final ServerHttpResponse outputMessage) {
+                super.extendResponse(outputMessage);
+                onReady.run();
+            }
+        };
+    }
+
+    /**
+     * When a job finishes send the rest of its followed files and complete the streams.
+     *
+     * @param event The event of the finished job
+     */
+    @EventListener
+    public void onJobFinished(final JobFinishedEvent event) {
+        this.finish(event.getId());
+    }
+
+    /**
+     * Get the number of clients currently following job output on this node.
+     *
+     * @return The number of followers
+     */
+    public int getNumFollowers() {
+        return this.numFollowers.get();
+    }
+
+    /**
+     * Stop watching files and complete every stream still open once the rest of the files are sent.
+     *
+     * @throws IOException on error closing the file watcher
+     */
+    @Override
+    public void close() throws IOException {
+        final List<String> jobIds;
+        synchronized (this) {
+            jobIds = new ArrayList<>(this.jobTails.keySet());
+        }
+        jobIds.forEach(this::finish);
+        this.senders.shutdown();
+        this.watcher.interrupt();
+        this.watchService.close();
+    }
+
+    // Only called while holding the lock on this follower
+    private void subscribe(final JobTail jobTail, final Subscriber subscriber) throws IOException {
+        final Path dir = subscriber.file.getParent();
+        if (!jobTail.watchKeys.containsKey(dir)) {
+            final WatchKey key = dir.register(
+                this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+            );
+            jobTail.watchKeys.put(dir, key);
+            this.watchedJobs.put(key, jobTail);
+        }
+        Set<Subscriber> subscribers = jobTail.files.get(subscriber.file);
+        if (subscribers == null) {
+            subscribers = new LinkedHashSet<>();
+            jobTail.files.put(subscriber.file, subscribers);
+        }
+        subscribers.add(subscriber);
+        this.numFollowers.incrementAndGet();
+    }
+
+    private void unsubscribe(final Subscriber subscriber) {
+        this.done(subscriber);
+        synchronized (this) {
+            final JobTail jobTail = this.jobTails.get(subscriber.jobId);
+            if (jobTail == null) {
+                return;
+            }
+            final Set<Subscriber> subscribers = jobTail.files.get(subscriber.file);
+            if (subscribers == null || !subscribers.remove(subscriber) || !subscribers.isEmpty()) {
+                return;
+            }
+            jobTail.files.remove(subscriber.file);
+            if (jobTail.files.isEmpty()) {
+                this.jobTails.remove(subscriber.jobId);
+                this.cancel(jobTail);
+            }
+        }
+    }
+
+    private void finish(final String jobId) {
+        final JobTail jobTail;
+        synchronized (this) {
+            jobTail = this.jobTails.remove(jobId);
+            if (jobTail == null) {
+                return;
+            }
+            this.cancel(jobTail);
+        }
+        for (final Set<Subscriber> subscribers : jobTail.files.values()) {
+            for (final Subscriber subscriber : subscribers) {
+                subscriber.finishing = true;
+                this.schedule(subscriber);
+            }
+        }
+    }
+
+    // Only called while holding the lock on this follower
+    private void cancel(final JobTail jobTail) {
+        for (final WatchKey key : jobTail.watchKeys.values()) {
+            key.cancel();
+            this.watchedJobs.remove(key);
+        }
+        jobTail.watchKeys.clear();
+    }
+
+    private void ready(final Subscriber subscriber) {
+        subscriber.ready = true;
+        this.schedule(subscriber);
+    }
+
+    private void schedule(final Subscriber subscriber) {
+        subscriber.dirty = true;
+        if (subscriber.ready && !subscriber.done.get() && subscriber.sending.compareAndSet(false, true)) {
+            try {
+                this.senders.execute(() -> this.send(subscriber));
+            } catch (final RuntimeException re) {
+                log.debug("Unable to schedule sending output of {} to a follower. Dropping it.", subscriber.file, re);
+                subscriber.sending.set(false);
+                this.drop(subscriber, re);
+            }
+        }
+    }
+
+    private void send(final Subscriber subscriber) {
+        while (true) {
+            subscriber.dirty = false;
+            // Read before sending so everything written before the job finished is sent before completing
+            final boolean finishing = subscriber.finishing;
+            try {
+                this.sendAvailable(subscriber);
+            } catch (final IOException | RuntimeException e) {
+                log.debug("Unable to send output of {} to a follower. Dropping it.", subscriber.file, e);
+                this.drop(subscriber, e);
+                return;
+            }
+            if (finishing) {
+                if (this.done(subscriber)) {
+                    subscriber.emitter.complete();
+                }
+                return;
+            }
+            subscriber.sending.set(false);
+            // Changes noted while sending are picked up here unless another task already took them over
+            if (!subscriber.dirty || subscriber.done.get() || !subscriber.sending.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    // Only called by the sender task of the subscriber
+    private void sendAvailable(final Subscriber subscriber) throws IOException {
+        synchronized (subscriber) {
+            if (subscriber.done.get()) {
+                return;
+            }
+            if (subscriber.channel == null) {
+                subscriber.channel = FileChannel.open(subscriber.file, StandardOpenOption.READ);
+            }
+        }
+        final long size = subscriber.channel.size();
+        final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        while (subscriber.offset < size && !subscriber.done.get()) {
+            buffer.clear();
+            final int read = subscriber.channel.read(buffer, subscriber.offset);
+            if (read <= 0) {
+                break;
+            }
+            subscriber.emitter.send(Arrays.copyOf(buffer.array(), read), MediaType.TEXT_PLAIN);
+            subscriber.offset += read;
+        }
+    }
+
+    private void drop(final Subscriber subscriber, final Exception e) {
+        if (this.done(subscriber)) {
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    // Returns true only for the first call for the subscriber
+    private boolean done(final Subscriber subscriber) {
+        if (!subscriber.done.compareAndSet(false, true)) {
+            return false;
+        }
+        this.numFollowers.decrementAndGet();
+        synchronized (subscriber) {
+            if (subscriber.channel != null) {
+                try {
+                    subscriber.channel.close();
+                } catch (final IOException ioe) {
+                    log.debug("Unable to close {}", subscriber.file, ioe);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (final InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            final Path dir = (Path) key.watchable();
+            final Set<Subscriber> changed = new LinkedHashSet<>();
+            synchronized (this) {
+                final JobTail jobTail = this.watchedJobs.get(key);
+                if (jobTail != null) {
+                    for (final WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Events were lost so check everything followed in the directory
+                            jobTail.files
+                                .entrySet()
+                                .stream()
+                                .filter(entry -> dir.equals(entry.getKey().getParent()))
+                                .forEach(entry -> changed.addAll(entry.getValue()));
+                        } else {
+                            final Set<Subscriber> subscribers
+                                = jobTail.files.get(dir.resolve((Path) event.context()));
+                            if (subscribers != null) {
+                                changed.addAll(subscribers);
+                            }
+                        }
+                    }
+                } else {
+                    key.pollEvents();
+                }
+            }
+            // Never sends anything itself so no client can hold up the others
+            changed.forEach(this::schedule);
+            key.reset();
+        }
+    }
+
+    private static final class JobTail {
+        private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+        private final Map<Path, Set<Subscriber>> files = new HashMap<>();
+    }
+
+    private static final class Subscriber {
+        private final String jobId;
+        private final Path file;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile ResponseBodyEmitter emitter;
+        private volatile boolean ready;
+        private volatile boolean dirty;
+        private volatile boolean finishing;
+        // Only used by the sender task of the subscriber
+        private long offset;
+        // Opened by the sender task and closed when done while holding the lock on the subscriber
+        private FileChannel channel;
+
+        private Subscriber(final String jobId, final Path file, final long offset) {
+            this.jobId = jobId;
+            this.file = file;
+            this.offset = offset;
+        }
+    }
+}
@@ -20,7 +20,6 @@ package com.netflix.genie.web.tasks.leader;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.google.common.base.Splitter;
-import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
@@ -146,12 +145,12 @@ public class ClusterCheckerTask extends LeadershipTask {
     }
 
     private void updateJobsToFailedOnHost(final String host) {
-        final Set<Job> jobs = jobSearchService.getAllActiveJobsOnHost(host);
-        jobs.forEach(
-            job -> {
+        final Set<String> jobIds = jobSearchService.getAllActiveJobStatusesOnHost(host).keySet();
+        jobIds.forEach(
+            jobId -> {
                 try {
                     jobPersistenceService.setJobCompletionInformation(
-                        job.getId().orElseThrow(IllegalArgumentException::new),
+                        jobId,
                         JobExecution.LOST_EXIT_CODE,
                         JobStatus.FAILED,
                         "Genie leader can't reach node running job. Assuming node and job are lost.",
@@ -160,7 +159,7 @@ public class ClusterCheckerTask extends LeadershipTask {
                     );
                     lostJobsCounter.increment();
                 } catch (final GenieException ge) {
-                    log.error("Unable to update job {} to failed due to exception", job.getId(), ge);
+                    log.error("Unable to update job {} to failed due to exception", jobId, ge);
                     unableToUpdateJobCounter.increment();
                 }
             }
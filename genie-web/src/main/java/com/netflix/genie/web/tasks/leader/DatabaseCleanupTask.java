@@ -19,10 +19,13 @@ package com.netflix.genie.web.tasks.leader;
 
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.web.properties.DatabaseCleanupProperties;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
 import com.netflix.genie.web.tasks.TaskUtils;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -35,6 +38,7 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -51,26 +55,34 @@ public class DatabaseCleanupTask extends LeadershipTask {
     private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
     private final DatabaseCleanupProperties cleanupProperties;
     private final JobPersistenceService jobPersistenceService;
+    private final JobSearchService jobSearchService;
 
     private final AtomicLong numDeletedJobs;
+    private final Counter deletedJobsRate;
+    private final Timer deleteBatchTimer;
 
     /**
      * Constructor.
      *
      * @param cleanupProperties     The properties to use to configure this task
      * @param jobPersistenceService The persistence service to use to cleanup the data store
+     * @param jobSearchService      The search service to use to check for jobs left to clean up
      * @param registry              The metrics registry
      */
     @Autowired
     public DatabaseCleanupTask(
         @NotNull final DatabaseCleanupProperties cleanupProperties,
         @NotNull final JobPersistenceService jobPersistenceService,
+        @NotNull final JobSearchService jobSearchService,
         @NotNull final Registry registry
     ) {
         this.cleanupProperties = cleanupProperties;
         this.jobPersistenceService = jobPersistenceService;
+        this.jobSearchService = jobSearchService;
 
         this.numDeletedJobs = registry.gauge("genie.tasks.databaseCleanup.numDeletedJobs.gauge", new AtomicLong());
+        this.deletedJobsRate = registry.counter("genie.tasks.databaseCleanup.deletedJobs.rate");
+        this.deleteBatchTimer = registry.timer("genie.tasks.databaseCleanup.deleteBatch.timer");
     }
 
     /**
@@ -83,24 +95,78 @@ public class DatabaseCleanupTask extends LeadershipTask {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The task runs on the configured cron expression. If jobs past the retention limit are still left when the task
+     * is scheduled, because a previous leader lost leadership before finishing its cleanup, the first execution
+     * happens straight away instead so the new leader picks it back up.
      */
     @Override
     public Trigger getTrigger() {
-        return new CronTrigger(this.cleanupProperties.getExpression(), JobConstants.UTC);
+        final CronTrigger cronTrigger = new CronTrigger(this.cleanupProperties.getExpression(), JobConstants.UTC);
+        return triggerContext -> triggerContext.lastScheduledExecutionTime() == null && this.isCleanupUnfinished()
+            ? new Date()
+            : cronTrigger.nextExecutionTime(triggerContext);
     }
 
     /**
-     * Clean out database based on date.
+     * Clean out database based on date. Jobs are deleted in batches, each in its own transaction, with a pause in
+     * between so the tables are never locked for long. As every batch is committed on its own the cleanup can be
+     * interrupted at any point and the next run simply carries on with whatever jobs are left.
      */
     @Override
     public void run() {
+        final Date retentionLimit = this.getRetentionLimit();
+        final int batchSize = this.cleanupProperties.getBatchSize();
+        final long batchPause = this.cleanupProperties.getBatchPause();
+
+        long numberDeletedJobs = 0L;
+        this.numDeletedJobs.set(numberDeletedJobs);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final long start = System.nanoTime();
+                final long deleted
+                    = this.jobPersistenceService.deleteBatchOfJobsCreatedBeforeDate(retentionLimit, batchSize);
+                this.deleteBatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                this.deletedJobsRate.increment(deleted);
+                numberDeletedJobs += deleted;
+                this.numDeletedJobs.set(numberDeletedJobs);
+
+                if (deleted < batchSize) {
+                    log.info(
+                        "Deleted {} jobs from before {}",
+                        numberDeletedJobs,
+                        this.dateFormat.format(retentionLimit)
+                    );
+                    return;
+                }
+                if (batchPause > 0) {
+                    Thread.sleep(batchPause);
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        log.info(
+            "Interrupted after deleting {} jobs from before {}. The next run will resume the cleanup.",
+            numberDeletedJobs,
+            this.dateFormat.format(retentionLimit)
+        );
+    }
+
+    private boolean isCleanupUnfinished() {
+        try {
+            return this.jobSearchService.hasJobsCreatedBefore(this.getRetentionLimit());
+        } catch (final RuntimeException re) {
+            // A run with nothing to delete is cheap so err on the side of running
+            log.error("Unable to check for jobs left to clean up. Cleaning up now.", re);
+            return true;
+        }
+    }
+
+    private Date getRetentionLimit() {
         final Calendar cal = TaskUtils.getMidnightUTC();
         // Move the date back the number of days retention is set for
         TaskUtils.subtractDaysFromDate(cal, this.cleanupProperties.getRetention());
-        final Date retentionLimit = cal.getTime();
-
-        final long numberDeletedJobs = this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(retentionLimit);
-        log.info("Deleted {} jobs from before {}", numberDeletedJobs, this.dateFormat.format(retentionLimit));
-        this.numDeletedJobs.set(numberDeletedJobs);
+        return cal.getTime();
     }
 }
@@ -35,6 +35,9 @@ import org.springframework.core.io.FileSystemResource
 import org.springframework.retry.support.RetryTemplate
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 /**
  * Unit tests for JobCompletionHandler
  *
@@ -104,4 +107,121 @@ class JobCompletionServiceSpec extends Specification{
         1 * jobPersistenceService.updateJobStatus(jobId,_,_)
         1 * mailService.sendEmail('admin@netflix.com',_,_)
     }
+
+    def "Can complete jobs through the pipeline"() {
+        given:
+        def jobId = "1"
+        def properties = new JobsProperties()
+        properties.cleanup.deleteArchiveFile = false
+        properties.cleanup.deleteDependencies = false
+        properties.users.runAsUserEnabled = false
+        properties.completion.pipelineEnabled = true
+        def pipelineService = new JobCompletionService(jobPersistenceService, jobSearchService,
+                genieFileTransferService, new FileSystemResource("/tmp"), mailService, new NoopRegistry(),
+                properties, new RetryTemplate())
+        def emailSent = new CountDownLatch(1)
+
+        when:
+        pipelineService.handleJobCompletion(new JobFinishedEvent(jobId, JobFinishedReason.KILLED, "null", this))
+        def sent = emailSent.await(10, TimeUnit.SECONDS)
+
+        then:
+        sent
+        1 * jobSearchService.getJob(jobId) >> new Job.Builder(NAME, USER, VERSION, COMMAND_ARGS)
+                .withId(jobId).withStatus(JobStatus.RUNNING).build();
+        1 * jobSearchService.getJobRequest(jobId) >> new JobRequest.Builder(NAME, USER, VERSION, COMMAND_ARGS, null, null)
+                .withId(jobId).withEmail('admin@netflix.com').build();
+        1 * jobPersistenceService.updateJobStatus(jobId,_,_)
+        1 * mailService.sendEmail('admin@netflix.com',_,_) >> { emailSent.countDown() }
+
+        cleanup:
+        pipelineService.shutdown()
+    }
+
+    def "Won't drop completion work when a stage is full"() {
+        given:
+        def jobIds = (1..5).collect { it.toString() }
+        def properties = new JobsProperties()
+        properties.cleanup.deleteArchiveFile = false
+        properties.cleanup.deleteDependencies = false
+        properties.users.runAsUserEnabled = false
+        properties.completion.pipelineEnabled = true
+        properties.completion.notification.threads = 1
+        properties.completion.notification.queueCapacity = 1
+        def pipelineService = new JobCompletionService(jobPersistenceService, jobSearchService,
+                genieFileTransferService, new FileSystemResource("/tmp"), mailService, new NoopRegistry(),
+                properties, new RetryTemplate())
+        def emailsSent = new CountDownLatch(jobIds.size())
+
+        when:
+        jobIds.each {
+            pipelineService.handleJobCompletion(new JobFinishedEvent(it, JobFinishedReason.KILLED, "null", this))
+        }
+        def sent = emailsSent.await(10, TimeUnit.SECONDS)
+
+        then:
+        sent
+        5 * jobSearchService.getJob(_) >> { String id ->
+            new Job.Builder(NAME, USER, VERSION, COMMAND_ARGS).withId(id).withStatus(JobStatus.RUNNING).build()
+        }
+        5 * jobSearchService.getJobRequest(_) >> { String id ->
+            new JobRequest.Builder(NAME, USER, VERSION, COMMAND_ARGS, null, null)
+                    .withId(id).withEmail('admin@netflix.com').build()
+        }
+        5 * jobPersistenceService.updateJobStatus(_,_,_)
+        5 * mailService.sendEmail('admin@netflix.com',_,_) >> {
+            // Slow enough for the notification stage to fill up behind it
+            Thread.sleep(100)
+            emailsSent.countDown()
+        }
+
+        cleanup:
+        pipelineService.shutdown()
+    }
+
+    def "Won't hold up finalizing statuses behind a stuck stage"() {
+        given:
+        def jobIds = (1..5).collect { it.toString() }
+        def properties = new JobsProperties()
+        properties.cleanup.deleteArchiveFile = false
+        properties.cleanup.deleteDependencies = false
+        properties.users.runAsUserEnabled = false
+        properties.completion.pipelineEnabled = true
+        properties.completion.notification.threads = 1
+        properties.completion.notification.queueCapacity = 1
+        def pipelineService = new JobCompletionService(jobPersistenceService, jobSearchService,
+                genieFileTransferService, new FileSystemResource("/tmp"), mailService, new NoopRegistry(),
+                properties, new RetryTemplate())
+        def statusesUpdated = new CountDownLatch(jobIds.size())
+        def mailServerUp = new CountDownLatch(1)
+        def emailsSent = new CountDownLatch(jobIds.size())
+
+        when:
+        jobIds.each {
+            pipelineService.handleJobCompletion(new JobFinishedEvent(it, JobFinishedReason.KILLED, "null", this))
+        }
+        def updated = statusesUpdated.await(10, TimeUnit.SECONDS)
+        mailServerUp.countDown()
+        def sent = emailsSent.await(10, TimeUnit.SECONDS)
+
+        then:
+        updated
+        sent
+        5 * jobSearchService.getJob(_) >> { String id ->
+            new Job.Builder(NAME, USER, VERSION, COMMAND_ARGS).withId(id).withStatus(JobStatus.RUNNING).build()
+        }
+        5 * jobSearchService.getJobRequest(_) >> { String id ->
+            new JobRequest.Builder(NAME, USER, VERSION, COMMAND_ARGS, null, null)
+                    .withId(id).withEmail('admin@netflix.com').build()
+        }
+        5 * jobPersistenceService.updateJobStatus(_,_,_) >> { statusesUpdated.countDown() }
+        5 * mailService.sendEmail('admin@netflix.com',_,_) >> {
+            // The mail server is stuck until every status has been finalized
+            mailServerUp.await()
+            emailsSent.countDown()
+        }
+
+        cleanup:
+        pipelineService.shutdown()
+    }
 }
@@ -18,15 +18,20 @@
 package com.netflix.genie.web.configs;
 
 import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.services.JobStateService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.genie.web.resources.writers.DefaultDirectoryWriter;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.tasks.job.JobOutputFollower;
+import com.netflix.spectator.api.DefaultRegistry;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -49,6 +54,12 @@ import java.util.UUID;
 @Category(UnitTest.class)
 public class MvcConfigUnitTests {
 
+    /**
+     * Temporary folder that will be deleted at the end of tests.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private MvcConfig mvcConfig;
 
     /**
@@ -96,12 +107,20 @@ public class MvcConfigUnitTests {
         Assert.assertNotNull(this.mvcConfig.restTemplate(1, 1));
     }
 
+    /**
+     * Make sure we get a valid rest template to forward follow requests with.
+     */
+    @Test
+    public void canGetFollowRestTemplate() {
+        Assert.assertNotNull(this.mvcConfig.followRestTemplate(1));
+    }
+
     /**
      * Make sure the default implementation of a directory writer is used in this default configuration.
      */
     @Test
     public void canGetDirectoryWriter() {
-        Assert.assertTrue(this.mvcConfig.directoryWriter() instanceof DefaultDirectoryWriter);
+        Assert.assertTrue(this.mvcConfig.directoryWriter(10, 1000L) instanceof DefaultDirectoryWriter);
     }
 
     /**
@@ -190,9 +209,36 @@ public class MvcConfigUnitTests {
         final Resource jobsDir = Mockito.mock(Resource.class);
 
         final GenieResourceHttpRequestHandler handler
-            = this.mvcConfig.genieResourceHttpRequestHandler(directoryWriter, context, jobsDir);
+            = this.mvcConfig.genieResourceHttpRequestHandler(
+            directoryWriter,
+            context,
+            jobsDir,
+            Mockito.mock(JobOutputFollower.class)
+        );
         Assert.assertThat(handler.getApplicationContext(), Matchers.is(context));
         Assert.assertThat(handler.getLocations(), Matchers.hasSize(1));
         Assert.assertThat(handler.getLocations(), Matchers.contains(jobsDir));
     }
+
+    /**
+     * Make sure we can get a job output follower.
+     *
+     * @throws IOException for any problem
+     */
+    @Test
+    public void canGetJobOutputFollower() throws IOException {
+        final Resource jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(jobsDir.getFile()).thenReturn(this.folder.getRoot());
+
+        try (
+            final JobOutputFollower follower = this.mvcConfig.jobOutputFollower(
+                jobsDir,
+                Mockito.mock(JobStateService.class),
+                1_000L,
+                new DefaultRegistry()
+            )
+        ) {
+            Assert.assertThat(follower.getNumFollowers(), Matchers.is(0));
+        }
+    }
 }
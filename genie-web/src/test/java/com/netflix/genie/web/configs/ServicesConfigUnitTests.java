@@ -17,6 +17,7 @@
  */
 package com.netflix.genie.web.configs;
 
+import com.google.common.collect.Lists;
 import com.netflix.genie.common.exceptions.GenieException;
 import com.netflix.genie.core.jobs.workflow.WorkflowTask;
 import com.netflix.genie.core.jpa.repositories.JpaApplicationRepository;
@@ -33,23 +34,33 @@ import com.netflix.genie.core.services.ClusterService;
 import com.netflix.genie.core.services.CommandService;
 import com.netflix.genie.core.services.JobKillService;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobQueuePriorityPolicy;
+import com.netflix.genie.core.services.JobQueueService;
+import com.netflix.genie.core.services.JobRoutingService;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobStateService;
+import com.netflix.genie.core.services.impl.ChainedClusterLoadBalancerImpl;
+import com.netflix.genie.core.services.impl.RandomizedClusterLoadBalancerImpl;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Registry;
 import org.apache.commons.exec.Executor;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.core.io.Resource;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -61,6 +72,12 @@ import java.util.UUID;
 @Category(UnitTest.class)
 public class ServicesConfigUnitTests {
 
+    /**
+     * Temporary folder for the tests.
+     */
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private JpaApplicationRepository applicationRepository;
     private JpaClusterRepository clusterRepository;
     private JpaCommandRepository commandRepository;
@@ -91,7 +108,59 @@ public class ServicesConfigUnitTests {
      */
     @Test
     public void canGetClusterLoadBalancer() {
-        Assert.assertNotNull(this.servicesConfig.clusterLoadBalancer());
+        final TaskScheduler scheduler = Mockito.mock(TaskScheduler.class);
+        Assert.assertThat(
+            this.servicesConfig.clusterLoadBalancer(
+                this.jobSearchService,
+                scheduler,
+                new JobsProperties(),
+                Mockito.mock(Registry.class)
+            ),
+            Matchers.instanceOf(RandomizedClusterLoadBalancerImpl.class)
+        );
+        Mockito
+            .verify(scheduler, Mockito.never())
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.anyLong());
+    }
+
+    /**
+     * Confirm we can get a chain of cluster load balancers.
+     */
+    @Test
+    public void canGetChainedClusterLoadBalancer() {
+        final TaskScheduler scheduler = Mockito.mock(TaskScheduler.class);
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getRouting().setLoadBalancers(Lists.newArrayList("leastActiveJobs", "powerOfTwoChoices"));
+
+        Assert.assertThat(
+            this.servicesConfig.clusterLoadBalancer(
+                this.jobSearchService,
+                scheduler,
+                jobsProperties,
+                Mockito.mock(Registry.class)
+            ),
+            Matchers.instanceOf(ChainedClusterLoadBalancerImpl.class)
+        );
+        // Both load aware balancers share the one cache
+        Mockito
+            .verify(scheduler, Mockito.times(1))
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.eq(10_000L));
+    }
+
+    /**
+     * Confirm an unknown cluster load balancer is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantGetUnknownClusterLoadBalancer() {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getRouting().setLoadBalancers(Lists.newArrayList("weighted", "roundRobin"));
+
+        this.servicesConfig.clusterLoadBalancer(
+            this.jobSearchService,
+            Mockito.mock(TaskScheduler.class),
+            jobsProperties,
+            Mockito.mock(Registry.class)
+        );
     }
 
     /**
@@ -130,7 +199,8 @@ public class ServicesConfigUnitTests {
         Assert.assertNotNull(
             this.servicesConfig.applicationService(
                 this.applicationRepository,
-                this.commandRepository
+                this.commandRepository,
+                Mockito.mock(ApplicationEventPublisher.class)
             )
         );
     }
@@ -145,7 +215,8 @@ public class ServicesConfigUnitTests {
             this.servicesConfig.commandService(
                 this.commandRepository,
                 this.applicationRepository,
-                this.clusterRepository
+                this.clusterRepository,
+                Mockito.mock(ApplicationEventPublisher.class)
             )
         );
     }
@@ -158,9 +229,40 @@ public class ServicesConfigUnitTests {
         Assert.assertNotNull(
             this.servicesConfig.clusterService(
                 this.clusterRepository,
-                this.commandRepository
+                this.commandRepository,
+                Mockito.mock(ApplicationEventPublisher.class)
+            )
+        );
+    }
+
+    /**
+     * Can get a bean for the JPA Job Routing Service.
+     */
+    @Test
+    public void canGetJpaJobRoutingServiceBean() {
+        Assert.assertNotNull(this.servicesConfig.jpaJobRoutingService(this.applicationRepository));
+    }
+
+    /**
+     * Can get a bean for the indexed Job Routing Service and it schedules its refresh.
+     */
+    @Test
+    public void canGetIndexedJobRoutingServiceBean() {
+        final TaskScheduler scheduler = Mockito.mock(TaskScheduler.class);
+        Assert.assertNotNull(
+            this.servicesConfig.indexedJobRoutingService(
+                Mockito.mock(ClusterService.class),
+                Mockito.mock(CommandService.class),
+                Mockito.mock(ApplicationService.class),
+                Mockito.mock(JobRoutingService.class),
+                scheduler,
+                new JobsProperties(),
+                Mockito.mock(Registry.class)
             )
         );
+        Mockito
+            .verify(scheduler, Mockito.times(1))
+            .scheduleWithFixedDelay(Mockito.any(Runnable.class), Mockito.anyLong());
     }
 
     /**
@@ -231,16 +333,46 @@ public class ServicesConfigUnitTests {
                 Mockito.mock(JobKillService.class),
                 Mockito.mock(JobStateService.class),
                 new JobsProperties(),
-                Mockito.mock(ApplicationService.class),
-                Mockito.mock(ClusterService.class),
-                Mockito.mock(CommandService.class),
+                Mockito.mock(JobRoutingService.class),
                 Mockito.mock(ClusterLoadBalancer.class),
+                Optional.of(Mockito.mock(JobQueueService.class)),
                 Mockito.mock(Registry.class),
                 UUID.randomUUID().toString()
             )
         );
     }
 
+    /**
+     * Can get a bean for the job queue priority policy.
+     */
+    @Test
+    public void canGetJobQueuePriorityPolicyBean() {
+        Assert.assertNotNull(this.servicesConfig.jobQueuePriorityPolicy());
+    }
+
+    /**
+     * Can get a bean for the Job Queue Service.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canGetJobQueueServiceBean() throws GenieException {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getQueue().setLocation(this.temporaryFolder.getRoot().toURI().toString());
+
+        Assert.assertNotNull(
+            this.servicesConfig.jobQueueService(
+                Mockito.mock(JobStateService.class),
+                Mockito.mock(JobPersistenceService.class),
+                this.jobSearchService,
+                Mockito.mock(JobQueuePriorityPolicy.class),
+                Mockito.mock(TaskScheduler.class),
+                jobsProperties,
+                Mockito.mock(Registry.class)
+            )
+        );
+    }
+
     /**
      * Can get a bean for Job Kill Service.
      */
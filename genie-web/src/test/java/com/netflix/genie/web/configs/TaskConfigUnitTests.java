@@ -18,15 +18,23 @@
 package com.netflix.genie.web.configs;
 
 import com.google.common.collect.Sets;
+import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.util.ProcFileSystemProcessCheckerFactory;
+import com.netflix.genie.core.util.UnixProcessCheckerFactory;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.tasks.leader.LeadershipTask;
+import com.netflix.spectator.api.Registry;
+import org.apache.commons.exec.Executor;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.TaskScheduler;
 
+import java.io.File;
 import java.util.Collection;
 
 /**
@@ -46,6 +54,39 @@ public class TaskConfigUnitTests {
         Assert.assertNotNull(new TaskConfig().processExecutor());
     }
 
+    /**
+     * Make sure the proc file system is used to check processes when it's available.
+     */
+    @Test
+    public void canGetProcFileSystemProcessCheckerFactory() {
+        Assume.assumeTrue(new File(ProcFileSystemProcessCheckerFactory.PROC_DIRECTORY).isDirectory());
+        Assert.assertThat(
+            new TaskConfig().processCheckerFactory(
+                Mockito.mock(Executor.class),
+                new JobsProperties(),
+                Mockito.mock(Registry.class)
+            ),
+            Matchers.instanceOf(ProcFileSystemProcessCheckerFactory.class)
+        );
+    }
+
+    /**
+     * Make sure ps is used to check processes when the proc file system is disabled.
+     */
+    @Test
+    public void canGetUnixProcessCheckerFactory() {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getMonitoring().setProcEnabled(false);
+        Assert.assertThat(
+            new TaskConfig().processCheckerFactory(
+                Mockito.mock(Executor.class),
+                jobsProperties,
+                Mockito.mock(Registry.class)
+            ),
+            Matchers.instanceOf(UnixProcessCheckerFactory.class)
+        );
+    }
+
     /**
      * Make sure we get a valid task scheduler to use.
      */
@@ -17,8 +17,13 @@
  */
 package com.netflix.genie.web.controllers;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.netflix.genie.common.dto.JobStatus;
+import com.netflix.genie.common.dto.search.JobSearchResult;
 import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.core.jobs.JobConstants;
+import com.netflix.genie.core.jobs.JobSearchSlice;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.AttachmentService;
 import com.netflix.genie.core.services.JobCoordinatorService;
@@ -31,6 +36,7 @@ import com.netflix.genie.web.hateoas.assemblers.JobExecutionResourceAssembler;
 import com.netflix.genie.web.hateoas.assemblers.JobRequestResourceAssembler;
 import com.netflix.genie.web.hateoas.assemblers.JobResourceAssembler;
 import com.netflix.genie.web.hateoas.assemblers.JobSearchResultResourceAssembler;
+import com.netflix.genie.web.hateoas.resources.JobSearchResultResource;
 import com.netflix.genie.web.resources.handlers.GenieResourceHttpRequestHandler;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
@@ -40,29 +46,47 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.hamcrest.Matchers;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for the Job rest controller.
@@ -79,8 +103,10 @@ public class JobRestControllerUnitTests {
     private JobSearchService jobSearchService;
     private String hostname;
     private RestTemplate restTemplate;
+    private RestTemplate followRestTemplate;
     private GenieResourceHttpRequestHandler genieResourceHttpRequestHandler;
     private JobsProperties jobsProperties;
+    private JobSearchResultResourceAssembler jobSearchResultResourceAssembler;
 
     private JobRestController controller;
 
@@ -92,8 +118,13 @@ public class JobRestControllerUnitTests {
         this.jobSearchService = Mockito.mock(JobSearchService.class);
         this.hostname = UUID.randomUUID().toString();
         this.restTemplate = Mockito.mock(RestTemplate.class);
+        this.followRestTemplate = Mockito.mock(RestTemplate.class);
         this.genieResourceHttpRequestHandler = Mockito.mock(GenieResourceHttpRequestHandler.class);
         this.jobsProperties = new JobsProperties();
+        this.jobSearchResultResourceAssembler = Mockito.mock(JobSearchResultResourceAssembler.class);
+        Mockito
+            .when(this.jobSearchResultResourceAssembler.toResource(Mockito.any(JobSearchResult.class)))
+            .then(invocation -> new JobSearchResultResource((JobSearchResult) invocation.getArguments()[0]));
 
         final Registry registry = Mockito.mock(Registry.class);
         final Counter counter = Mockito.mock(Counter.class);
@@ -109,15 +140,25 @@ public class JobRestControllerUnitTests {
             Mockito.mock(JobResourceAssembler.class),
             Mockito.mock(JobRequestResourceAssembler.class),
             Mockito.mock(JobExecutionResourceAssembler.class),
-            Mockito.mock(JobSearchResultResourceAssembler.class),
+            this.jobSearchResultResourceAssembler,
             this.hostname,
             this.restTemplate,
+            this.followRestTemplate,
             this.genieResourceHttpRequestHandler,
             this.jobsProperties,
+            600000L,
             registry
         );
     }
 
+    /**
+     * Clean up after the tests.
+     */
+    @After
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     /**
      * Make sure if forwarding isn't enabled we don't even try to forward no matter where the job is running.
      *
@@ -451,8 +492,10 @@ public class JobRestControllerUnitTests {
                 Mockito.mock(JobSearchResultResourceAssembler.class),
                 this.hostname,
                 template,
+                template,
                 this.genieResourceHttpRequestHandler,
-                this.jobsProperties,
+                    this.jobsProperties,
+                600000L,
                 registry
         );
         jobController.getJobOutput(jobId, forwardedFrom, request, response);
@@ -463,4 +506,367 @@ public class JobRestControllerUnitTests {
         Mockito.verify(response, Mockito.never()).sendError(Mockito.anyInt());
         Mockito.verify(this.genieResourceHttpRequestHandler, Mockito.never()).handleRequest(request, response);
     }
+
+    /**
+     * Make sure following output of a job on this node is handled locally.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFollowJobOutputOnThisNode() throws IOException, GenieException {
+        this.jobsProperties.getForwarding().setEnabled(true);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(this.hostname);
+        Mockito
+            .when(request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE))
+            .thenReturn("/api/v3/jobs/" + jobId + "/output/stdout");
+        Mockito
+            .when(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+            .thenReturn("/api/v3/jobs/{id}/output/**");
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        Mockito
+            .when(this.genieResourceHttpRequestHandler.handleFollowRequest(jobId, "stdout", 10L))
+            .thenReturn(emitter);
+
+        Assert.assertThat(
+            this.controller.followJobOutput(jobId, 10L, null, request, response),
+            Matchers.is(emitter)
+        );
+        Mockito.verify(this.restTemplate, Mockito.never())
+            .execute(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Make sure following output of a job on another node is forwarded along with the offset to resume from and
+     * handed back as an emitter instead of being streamed on the request thread.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canForwardFollowJobOutputRequest() throws IOException, GenieException {
+        this.jobsProperties.getForwarding().setEnabled(true);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String jobHostName = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(jobHostName);
+        final String requestURI = "/api/v3/jobs/" + jobId + "/output/stdout";
+        Mockito.when(request.getRequestURI()).thenReturn(requestURI);
+        Mockito.when(request.getQueryString()).thenReturn("follow=true&offset=10");
+        final String requestUrl = UUID.randomUUID().toString();
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(requestUrl));
+
+        final MockClientHttpResponse forwardResponse
+            = new MockClientHttpResponse(UUID.randomUUID().toString().getBytes(UTF_8), HttpStatus.OK);
+        forwardResponse.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        final ClientHttpRequest forwardRequest = this.mockFollowRequest(forwardResponse);
+
+        Assert.assertNotNull(this.controller.followJobOutput(jobId, 10L, null, request, response));
+        Mockito.verify(this.restTemplate, Mockito.never())
+            .execute(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(this.followRestTemplate.getRequestFactory(), Mockito.times(1)).createRequest(
+            Mockito.eq(URI.create("http://" + jobHostName + ":8080" + requestURI + "?follow=true&offset=10")),
+            Mockito.eq(HttpMethod.GET)
+        );
+        Assert.assertThat(
+            forwardRequest.getHeaders().getFirst(JobConstants.GENIE_FORWARDED_FROM_HEADER),
+            Matchers.is(requestUrl)
+        );
+        Mockito.verify(response, Mockito.times(1)).setStatus(HttpStatus.OK.value());
+        Mockito.verify(response, Mockito.times(1)).setHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
+        // Nothing is read from the remote node until the emitter is attached to the response
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+        Mockito.verify(this.genieResourceHttpRequestHandler, Mockito.never())
+            .handleFollowRequest(Mockito.anyString(), Mockito.anyString(), Mockito.anyLong());
+    }
+
+    /**
+     * Make sure an error from the node running the job is passed on to the client of a forwarded follow.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSendErrorWhenForwardedFollowFails() throws IOException, GenieException {
+        this.jobsProperties.getForwarding().setEnabled(true);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String jobHostName = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(jobHostName);
+        Mockito.when(request.getRequestURI()).thenReturn("/api/v3/jobs/" + jobId + "/output/stdout");
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(UUID.randomUUID().toString()));
+        this.mockFollowRequest(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+
+        Assert.assertNull(this.controller.followJobOutput(jobId, 0L, null, request, response));
+        Mockito.verify(response, Mockito.times(1))
+            .sendError(HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND.getReasonPhrase());
+        Mockito.verify(response, Mockito.never()).setStatus(HttpStatus.OK.value());
+    }
+
+    /**
+     * Make sure failing to reach the node running the job ends a forwarded follow with a server error.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canSendErrorWhenForwardedFollowCantConnect() throws IOException, GenieException {
+        this.jobsProperties.getForwarding().setEnabled(true);
+        final String jobId = UUID.randomUUID().toString();
+        final HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        final HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        final String jobHostName = UUID.randomUUID().toString();
+        Mockito.when(this.jobSearchService.getJobHost(jobId)).thenReturn(jobHostName);
+        Mockito.when(request.getRequestURI()).thenReturn("/api/v3/jobs/" + jobId + "/output/stdout");
+        Mockito.when(request.getRequestURL()).thenReturn(new StringBuffer(UUID.randomUUID().toString()));
+        final ClientHttpRequest forwardRequest = this.mockFollowRequest(null);
+        Mockito.when(forwardRequest.execute()).thenThrow(new IOException("Connection refused"));
+
+        Assert.assertNull(this.controller.followJobOutput(jobId, 0L, null, request, response));
+        Mockito.verify(response, Mockito.times(1))
+            .sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Connection refused");
+    }
+
+    /**
+     * Make sure jobs can be found by seeking after a cursor and the next link seeks after the cursor of the page found.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFindJobsAfterJob() throws GenieException {
+        this.bindRequest("user=genie&after=cursor1&size=2&page=3");
+        final Pageable page = new PageRequest(0, 2);
+        final JobSearchResult job2 = this.createJobSearchResult("job2");
+        final JobSearchResult job3 = this.createJobSearchResult("job3");
+        Mockito
+            .when(
+                this.jobSearchService.findJobsAfter(
+                    Mockito.isNull(String.class),
+                    Mockito.isNull(String.class),
+                    Mockito.eq("genie"),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.eq("cursor1"),
+                    Mockito.eq(page)
+                )
+            )
+            .thenReturn(new JobSearchSlice(Lists.newArrayList(job2, job3), page, "cursor3"));
+
+        final PagedResources<JobSearchResultResource> resources = this.controller.findJobs(
+            null,
+            null,
+            "genie",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            page,
+            "cursor1",
+            true,
+            Mockito.mock(PagedResourcesAssembler.class)
+        );
+
+        Assert.assertThat(
+            resources.getContent().stream().map(resource -> resource.getContent().getId()).collect(Collectors.toList()),
+            Matchers.contains("job2", "job3")
+        );
+        Assert.assertThat(resources.getMetadata().getTotalElements(), Matchers.is(3L));
+        final Link next = resources.getLink(Link.REL_NEXT);
+        Assert.assertThat(next, Matchers.notNullValue());
+        Assert.assertThat(next.getHref(), Matchers.containsString("after=cursor3"));
+        Assert.assertThat(next.getHref(), Matchers.containsString("user=genie"));
+        Assert.assertThat(next.getHref(), Matchers.containsString("size=2"));
+        Assert.assertThat(next.getHref(), Matchers.not(Matchers.containsString("page=")));
+        Mockito
+            .verify(this.jobSearchService, Mockito.never())
+            .findJobs(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.anyBoolean()
+            );
+    }
+
+    /**
+     * Make sure an empty job to seek after starts at the first page and the last page has no next link.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canFindFirstJobsBySeeking() throws GenieException {
+        this.bindRequest("after=");
+        final Pageable page = new PageRequest(0, 10);
+        Mockito
+            .when(
+                this.jobSearchService.findJobsAfter(
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.isNull(String.class),
+                    Mockito.eq(page)
+                )
+            )
+            .thenReturn(new JobSearchSlice(Lists.newArrayList(this.createJobSearchResult("job1")), page, null));
+
+        final PagedResources<JobSearchResultResource> resources = this.controller.findJobs(
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            page,
+            "",
+            true,
+            Mockito.mock(PagedResourcesAssembler.class)
+        );
+
+        Assert.assertThat(resources.getContent().size(), Matchers.is(1));
+        Assert.assertThat(resources.getMetadata().getTotalElements(), Matchers.is(1L));
+        Assert.assertNull(resources.getLink(Link.REL_NEXT));
+    }
+
+    /**
+     * Make sure paging by offset can skip counting the jobs.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void canFindJobsWithoutCount() throws GenieException {
+        this.bindRequest("count=false");
+        final Pageable page = new PageRequest(0, 10);
+        final Page<JobSearchResult> jobs = new PageImpl<>(Lists.newArrayList(this.createJobSearchResult("job1")));
+        Mockito
+            .when(
+                this.jobSearchService.findJobs(
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.any(),
+                    Mockito.eq(page),
+                    Mockito.eq(false)
+                )
+            )
+            .thenReturn(jobs);
+        final PagedResourcesAssembler<JobSearchResult> assembler = Mockito.mock(PagedResourcesAssembler.class);
+        final PagedResources<JobSearchResultResource> expected = new PagedResources<>(
+            Lists.newArrayList(),
+            new PagedResources.PageMetadata(10, 0, 1)
+        );
+        Mockito
+            .when(
+                assembler.toResource(Mockito.eq(jobs), Mockito.eq(this.jobSearchResultResourceAssembler), Mockito.any())
+            )
+            .thenReturn(expected);
+
+        Assert.assertThat(
+            this.controller.findJobs(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                page,
+                null,
+                false,
+                assembler
+            ),
+            Matchers.is(expected)
+        );
+    }
+
+    private void bindRequest(final String queryString) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(), "/api/v3/jobs");
+        request.setQueryString(queryString);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private JobSearchResult createJobSearchResult(final String id) {
+        return new JobSearchResult(
+            id,
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            JobStatus.SUCCEEDED,
+            new Date(),
+            new Date(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString()
+        );
+    }
+
+    private ClientHttpRequest mockFollowRequest(final ClientHttpResponse forwardResponse) throws IOException {
+        final ClientHttpRequestFactory factory = Mockito.mock(ClientHttpRequestFactory.class);
+        final ClientHttpRequest forwardRequest = Mockito.mock(ClientHttpRequest.class);
+        final HttpHeaders headers = new HttpHeaders();
+        Mockito.when(forwardRequest.getHeaders()).thenReturn(headers);
+        Mockito.when(forwardRequest.execute()).thenReturn(forwardResponse);
+        Mockito.when(factory.createRequest(Mockito.any(), Mockito.any())).thenReturn(forwardRequest);
+        Mockito.when(this.followRestTemplate.getRequestFactory()).thenReturn(factory);
+        return forwardRequest;
+    }
 }
@@ -18,19 +18,32 @@
 package com.netflix.genie.web.resources.handlers;
 
 import com.google.common.collect.Lists;
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.resources.writers.DirectoryWriter;
+import com.netflix.genie.web.tasks.job.JobOutputFollower;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
@@ -38,7 +51,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.UUID;
 
@@ -51,21 +65,35 @@ import java.util.UUID;
 @Category(UnitTest.class)
 public class GenieResourceHttpRequestHandlerUnitTests {
 
+    /**
+     * Folder the files served in tests are created in.
+     */
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private DirectoryWriter directoryWriter;
     private GenieResourceHttpRequestHandler handler;
+    private GenieResourceHttpRequestHandler fileHandler;
     private Resource location;
 
     /**
      * Setup for the tests.
+     *
+     * @throws Exception on error
      */
     @Before
-    public void setup() {
+    public void setup() throws Exception {
         this.directoryWriter = Mockito.mock(DirectoryWriter.class);
         this.handler = new GenieResourceHttpRequestHandler(this.directoryWriter);
         this.location = Mockito.mock(Resource.class);
 
         final List<Resource> locations = Lists.newArrayList(this.location);
         this.handler.setLocations(locations);
+
+        this.fileHandler = new GenieResourceHttpRequestHandler(this.directoryWriter);
+        this.fileHandler.setLocations(Lists.newArrayList(new FileSystemResource(this.temporaryFolder.getRoot() + "/")));
+        this.fileHandler.setServletContext(new MockServletContext());
+        this.fileHandler.afterPropertiesSet();
     }
 
     /**
@@ -173,12 +201,6 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
 
-        final String html = UUID.randomUUID().toString();
-
-        Mockito.when(
-            this.directoryWriter.toHtml(Mockito.eq(file), Mockito.eq(forwardedUrl), Mockito.eq(false))
-        ).thenReturn(html);
-
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
 
@@ -187,8 +209,7 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.verify(response, Mockito.times(1)).setContentType(MediaType.TEXT_HTML_VALUE);
         Mockito.verify(response, Mockito.times(1)).getOutputStream();
         Mockito.verify(this.directoryWriter, Mockito.times(1))
-            .toHtml(Mockito.eq(file), Mockito.eq(forwardedUrl), Mockito.eq(false));
-        Mockito.verify(os, Mockito.times(1)).write(html.getBytes(Charset.forName("UTF-8")));
+            .writeHtml(Mockito.eq(file), Mockito.eq(forwardedUrl), Mockito.eq(false), Mockito.eq(os));
     }
 
     /**
@@ -212,12 +233,6 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
 
-        final String html = UUID.randomUUID().toString();
-
-        Mockito.when(
-            this.directoryWriter.toJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(false))
-        ).thenReturn(html);
-
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
 
@@ -226,8 +241,7 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.verify(response, Mockito.times(1)).setContentType(MediaType.APPLICATION_JSON_VALUE);
         Mockito.verify(response, Mockito.times(1)).getOutputStream();
         Mockito.verify(this.directoryWriter, Mockito.times(1))
-            .toJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(false));
-        Mockito.verify(os, Mockito.times(1)).write(html.getBytes(Charset.forName("UTF-8")));
+            .writeJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(false), Mockito.eq(os));
     }
 
     /**
@@ -252,13 +266,14 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.when(resource.getFile()).thenReturn(file);
         Mockito.when(file.isDirectory()).thenReturn(true);
 
-        Mockito.when(
-            this.directoryWriter.toHtml(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(true))
-        ).thenThrow(new Exception());
-
         final ServletOutputStream os = Mockito.mock(ServletOutputStream.class);
         Mockito.when(response.getOutputStream()).thenReturn(os);
 
+        Mockito
+            .doThrow(new Exception())
+            .when(this.directoryWriter)
+            .writeJson(Mockito.eq(file), Mockito.eq(requestUrl), Mockito.eq(true), Mockito.eq(os));
+
         this.handler.handleRequest(request, response);
     }
 
@@ -287,4 +302,133 @@ public class GenieResourceHttpRequestHandlerUnitTests {
         Mockito.verify(response, Mockito.times(1)).setContentLengthLong(tooLong);
         Mockito.verify(response, Mockito.times(1)).setContentType(Mockito.anyString());
     }
+
+    /**
+     * Make sure follow requests are rejected when there's nothing to follow the output with.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantHandleFollowRequestWithoutFollower() throws GenieException {
+        this.handler.handleFollowRequest(UUID.randomUUID().toString(), "stdout", 0L);
+    }
+
+    /**
+     * Make sure follow requests are handed to the job output follower.
+     *
+     * @throws GenieException on error
+     */
+    @Test
+    public void canHandleFollowRequest() throws GenieException {
+        final JobOutputFollower follower = Mockito.mock(JobOutputFollower.class);
+        final GenieResourceHttpRequestHandler followingHandler
+            = new GenieResourceHttpRequestHandler(this.directoryWriter, follower);
+        final String jobId = UUID.randomUUID().toString();
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        Mockito.when(follower.follow(jobId, "stderr", 1024L)).thenReturn(emitter);
+
+        Assert.assertThat(followingHandler.handleFollowRequest(jobId, "stderr", 1024L), Matchers.is(emitter));
+    }
+
+    /**
+     * Make sure the entity tag of a file changes as the file does.
+     *
+     * @throws IOException on error
+     */
+    @Test
+    public void canGetETag() throws IOException {
+        final File file = this.temporaryFolder.newFile();
+        final String emptyETag = GenieResourceHttpRequestHandler.getETag(file);
+        Assert.assertThat(emptyETag, Matchers.startsWith("\""));
+        Assert.assertThat(emptyETag, Matchers.endsWith("\""));
+        Assert.assertThat(GenieResourceHttpRequestHandler.getETag(file), Matchers.is(emptyETag));
+
+        Files.write(file.toPath(), UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+        Assert.assertThat(GenieResourceHttpRequestHandler.getETag(file), Matchers.not(emptyETag));
+    }
+
+    /**
+     * Make sure a file isn't sent again if the client already has the current version of it.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canReturnNotModifiedForMatchingETag() throws Exception {
+        final File file = this.createFile();
+        final MockHttpServletRequest request = this.createFileRequest(file);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, GenieResourceHttpRequestHandler.getETag(file));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.fileHandler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.NOT_MODIFIED.value()));
+        Assert.assertThat(response.getContentAsByteArray().length, Matchers.is(0));
+    }
+
+    /**
+     * Make sure a file is handed to the container to send when it supports sendfile.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canSendFile() throws Exception {
+        final File file = this.createFile();
+        final MockHttpServletRequest request = this.createFileRequest(file);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.fileHandler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.OK.value()));
+        Assert.assertThat(response.getContentAsByteArray().length, Matchers.is(0));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.ETAG),
+            Matchers.is(GenieResourceHttpRequestHandler.getETag(file))
+        );
+        Assert.assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH), Matchers.is(String.valueOf(file.length())));
+        Assert.assertThat(
+            request.getAttribute("org.apache.tomcat.sendfile.filename"),
+            Matchers.is(file.getAbsolutePath())
+        );
+        Assert.assertThat(request.getAttribute("org.apache.tomcat.sendfile.start"), Matchers.is(0L));
+        Assert.assertThat(request.getAttribute("org.apache.tomcat.sendfile.end"), Matchers.is(file.length()));
+    }
+
+    /**
+     * Make sure a file is written to the response from its channel when the container doesn't support sendfile.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canWriteFileWithoutSendFile() throws Exception {
+        final File file = this.createFile();
+        final MockHttpServletRequest request = this.createFileRequest(file);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        this.fileHandler.handleRequest(request, response);
+
+        Assert.assertThat(response.getStatus(), Matchers.is(HttpStatus.OK.value()));
+        Assert.assertThat(response.getContentAsByteArray(), Matchers.is(Files.readAllBytes(file.toPath())));
+        Assert.assertThat(
+            response.getHeader(HttpHeaders.ETAG),
+            Matchers.is(GenieResourceHttpRequestHandler.getETag(file))
+        );
+        Assert.assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    private File createFile() throws IOException {
+        final File file = this.temporaryFolder.newFile();
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            builder.append(UUID.randomUUID().toString()).append('\n');
+        }
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private MockHttpServletRequest createFileRequest(final File file) {
+        final MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(), file.getName());
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, file.getName());
+        return request;
+    }
 }
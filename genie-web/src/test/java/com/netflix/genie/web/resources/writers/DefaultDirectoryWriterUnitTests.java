@@ -28,6 +28,7 @@ import org.mockito.Mockito;
 import org.w3c.tidy.Tidy;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -234,6 +235,56 @@ public class DefaultDirectoryWriterUnitTests {
         );
     }
 
+    /**
+     * Make sure listings are rendered once and reused until the directory is modified.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canCacheListings() throws Exception {
+        this.setupWithParent();
+        final long lastModified = new Date().getTime();
+        Mockito.when(this.directory.lastModified()).thenReturn(lastModified);
+
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        this.writer.writeJson(this.directory, REQUEST_URL_WITH_PARENT, true, first);
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        this.writer.writeJson(this.directory, REQUEST_URL_WITH_PARENT, true, second);
+        Assert.assertThat(second.toByteArray(), Matchers.is(first.toByteArray()));
+        Assert.assertThat(
+            this.writer.toJson(this.directory, REQUEST_URL_WITH_PARENT, true),
+            Matchers.is(first.toString("UTF-8"))
+        );
+        Mockito.verify(this.directory, Mockito.times(1)).listFiles();
+
+        // Other formats and request URLs are cached separately
+        this.writer.writeHtml(this.directory, REQUEST_URL_WITH_PARENT, true, new ByteArrayOutputStream());
+        this.writer.writeJson(this.directory, REQUEST_URL_BASE, false, new ByteArrayOutputStream());
+        Mockito.verify(this.directory, Mockito.times(3)).listFiles();
+
+        Mockito.when(this.directory.lastModified()).thenReturn(lastModified + 1);
+        this.writer.writeJson(this.directory, REQUEST_URL_WITH_PARENT, true, new ByteArrayOutputStream());
+        Mockito.verify(this.directory, Mockito.times(4)).listFiles();
+    }
+
+    /**
+     * Make sure listings are rendered on every request when caching is disabled.
+     *
+     * @throws Exception on any problem
+     */
+    @Test
+    public void canDisableListingCache() throws Exception {
+        this.writer = new DefaultDirectoryWriter(0, 0L);
+        this.setupWithParent();
+
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        this.writer.writeHtml(this.directory, REQUEST_URL_WITH_PARENT, true, first);
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        this.writer.writeHtml(this.directory, REQUEST_URL_WITH_PARENT, true, second);
+        Assert.assertThat(second.toByteArray(), Matchers.is(first.toByteArray()));
+        Mockito.verify(this.directory, Mockito.times(2)).listFiles();
+    }
+
     private void setupWithoutParent() {
         Mockito.when(this.directory.listFiles()).thenReturn(null);
     }
@@ -0,0 +1,147 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.services.impl;
+
+import com.netflix.genie.core.events.ConfigurationChangedEvent;
+import com.netflix.genie.core.events.ConfigurationType;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for RedisConfigurationChangeRelay.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class RedisConfigurationChangeRelayUnitTests {
+
+    private static final String CHANNEL = "genie.configuration.changes";
+    private static final String HOST_NAME = "genie1.netflix.com";
+
+    private StringRedisTemplate redisTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private RedisConfigurationChangeRelay relay;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
+        this.relay = new RedisConfigurationChangeRelay(
+            this.redisTemplate,
+            this.eventPublisher,
+            CHANNEL,
+            HOST_NAME,
+            registry
+        );
+    }
+
+    /**
+     * Make sure local changes are sent to the other nodes.
+     */
+    @Test
+    public void canSendLocalChanges() {
+        this.relay.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "prod", this));
+        this.relay.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.APPLICATION, null, this));
+
+        Mockito.verify(this.redisTemplate, Mockito.times(1)).convertAndSend(CHANNEL, HOST_NAME + "|CLUSTER|prod");
+        Mockito.verify(this.redisTemplate, Mockito.times(1)).convertAndSend(CHANNEL, HOST_NAME + "|APPLICATION|");
+    }
+
+    /**
+     * Make sure changes received from other nodes aren't sent back out.
+     */
+    @Test
+    public void wontSendRelayedChanges() {
+        this.relay.onConfigurationChanged(
+            new ConfigurationChangedEvent(ConfigurationType.CLUSTER, "prod", this.relay)
+        );
+
+        Mockito
+            .verify(this.redisTemplate, Mockito.never())
+            .convertAndSend(Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Make sure a failure to send doesn't fail the change.
+     */
+    @Test
+    public void canIgnoreSendFailures() {
+        Mockito
+            .doThrow(new RuntimeException("test"))
+            .when(this.redisTemplate)
+            .convertAndSend(Mockito.anyString(), Mockito.anyString());
+
+        this.relay.onConfigurationChanged(new ConfigurationChangedEvent(ConfigurationType.COMMAND, "pig", this));
+    }
+
+    /**
+     * Make sure changes from other nodes are republished locally.
+     */
+    @Test
+    public void canRepublishRemoteChanges() {
+        this.relay.onMessage(this.message("genie2.netflix.com|COMMAND|pig|13"), null);
+        this.relay.onMessage(this.message("genie2.netflix.com|CLUSTER|"), null);
+
+        final ArgumentCaptor<ConfigurationChangedEvent> captor
+            = ArgumentCaptor.forClass(ConfigurationChangedEvent.class);
+        Mockito.verify(this.eventPublisher, Mockito.times(2)).publishEvent(captor.capture());
+        Assert.assertThat(captor.getAllValues().get(0).getType(), Matchers.is(ConfigurationType.COMMAND));
+        Assert.assertThat(captor.getAllValues().get(0).getId().orElse(null), Matchers.is("pig|13"));
+        Assert.assertThat(captor.getAllValues().get(0).getSource(), Matchers.is(this.relay));
+        Assert.assertThat(captor.getAllValues().get(1).getType(), Matchers.is(ConfigurationType.CLUSTER));
+        Assert.assertFalse(captor.getAllValues().get(1).getId().isPresent());
+    }
+
+    /**
+     * Make sure messages sent by this node and malformed messages are ignored.
+     */
+    @Test
+    public void canIgnoreOwnAndMalformedMessages() {
+        this.relay.onMessage(this.message(HOST_NAME + "|CLUSTER|prod"), null);
+        this.relay.onMessage(this.message("genie2.netflix.com|CLUSTER"), null);
+        this.relay.onMessage(this.message("genie2.netflix.com|JOB|1234"), null);
+
+        Mockito.verify(this.eventPublisher, Mockito.never()).publishEvent(Mockito.any(ConfigurationChangedEvent.class));
+    }
+
+    private DefaultMessage message(final String body) {
+        return new DefaultMessage(
+            CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
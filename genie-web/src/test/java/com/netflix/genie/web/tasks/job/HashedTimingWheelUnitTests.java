@@ -0,0 +1,115 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.test.categories.UnitTest;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Unit tests for HashedTimingWheel.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class HashedTimingWheelUnitTests {
+
+    private static final long TICK = 100L;
+    private static final long START = 1_000_000L;
+
+    private HashedTimingWheel<String> wheel;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.wheel = new HashedTimingWheel<>(TICK, 8, START);
+    }
+
+    /**
+     * Make sure the wheel can't be created with an invalid tick duration.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantConstructWithInvalidTickDuration() {
+        new HashedTimingWheel<String>(0L, 8, START);
+    }
+
+    /**
+     * Make sure the wheel can't be created without buckets.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void cantConstructWithInvalidWheelSize() {
+        new HashedTimingWheel<String>(TICK, 0, START);
+    }
+
+    /**
+     * Make sure items are only returned once their deadline has passed.
+     */
+    @Test
+    public void canAdvanceToDueItems() {
+        this.wheel.schedule("first", START + 150L);
+        this.wheel.schedule("second", START + 300L);
+        Assert.assertThat(this.wheel.size(), Matchers.is(2));
+
+        Assert.assertThat(this.wheel.advance(START + 100L), Matchers.empty());
+        Assert.assertThat(this.wheel.advance(START + 200L), Matchers.contains("first"));
+        Assert.assertThat(this.wheel.size(), Matchers.is(1));
+        Assert.assertThat(this.wheel.advance(START + 200L), Matchers.empty());
+        Assert.assertThat(this.wheel.advance(START + 350L), Matchers.contains("second"));
+        Assert.assertThat(this.wheel.size(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure items further away than one rotation of the wheel wait for their own rotation.
+     */
+    @Test
+    public void canScheduleBeyondOneRotation() {
+        // 8 buckets of 100 ms so this lands in the same bucket as START + 100 one rotation later
+        this.wheel.schedule("later", START + 900L);
+        Assert.assertThat(this.wheel.advance(START + 100L), Matchers.empty());
+        Assert.assertThat(this.wheel.advance(START + 800L), Matchers.empty());
+        Assert.assertThat(this.wheel.advance(START + 900L), Matchers.contains("later"));
+    }
+
+    /**
+     * Make sure items which are already overdue are returned on the next tick.
+     */
+    @Test
+    public void canScheduleOverdueItems() {
+        this.wheel.schedule("overdue", START - 5_000L);
+        Assert.assertThat(this.wheel.advance(START + 50L), Matchers.empty());
+        Assert.assertThat(this.wheel.advance(START + 100L), Matchers.contains("overdue"));
+    }
+
+    /**
+     * Make sure nothing is lost when the wheel falls several rotations behind.
+     */
+    @Test
+    public void canCatchUpAfterFallingBehind() {
+        this.wheel.schedule("first", START + 100L);
+        this.wheel.schedule("second", START + 500L);
+        this.wheel.schedule("third", START + 1_500L);
+        Assert.assertThat(this.wheel.advance(START + 10_000L), Matchers.containsInAnyOrder("first", "second", "third"));
+        Assert.assertThat(this.wheel.size(), Matchers.is(0));
+    }
+}
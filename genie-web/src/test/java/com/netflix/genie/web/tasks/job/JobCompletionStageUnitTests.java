@@ -0,0 +1,228 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for JobCompletionStage.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobCompletionStageUnitTests {
+
+    private Registry registry;
+    private JobCompletionStage stage;
+    private CountDownLatch release;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        this.registry = new DefaultRegistry();
+        this.stage = new JobCompletionStage("test", 1, 1, this.registry);
+        this.release = new CountDownLatch(1);
+    }
+
+    /**
+     * Clean up after the tests.
+     */
+    @After
+    public void cleanup() {
+        this.release.countDown();
+        this.stage.shutdown(1_000L);
+    }
+
+    /**
+     * Make sure queued work is run.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canRunWork() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(2);
+
+        this.stage.put(done::countDown);
+        this.stage.enqueue(done::countDown);
+
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Make sure enqueued work goes past the capacity instead of waiting once the threads are busy and the queue is full.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canEnqueuePastCapacity() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        this.stage.put(this.blockingWork(started));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        this.stage.enqueue(() -> { });
+        Assert.assertThat(this.stage.getQueueDepth(), Matchers.is(1));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        this.stage.enqueue(done::countDown);
+        Assert.assertThat(this.stage.getQueueDepth(), Matchers.is(2));
+        Assert.assertThat(
+            this.registry
+                .counter(this.registry.createId("genie.jobs.completion.stage.spilled.rate", "stage", "test"))
+                .count(),
+            Matchers.is(1L)
+        );
+
+        this.release.countDown();
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Make sure putting work waits for room once the stage is full.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canWaitForRoom() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        this.stage.put(this.blockingWork(started));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        this.stage.put(() -> { });
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread producer = new Thread(
+            () -> {
+                try {
+                    this.stage.put(
+                        () -> {
+                            ran.set(true);
+                            done.countDown();
+                        }
+                    );
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        );
+        producer.start();
+        producer.join(200L);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertFalse(ran.get());
+
+        this.release.countDown();
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        producer.join(10_000L);
+        Assert.assertThat(
+            this.registry
+                .timer(this.registry.createId("genie.jobs.completion.stage.backpressure.timer", "stage", "test"))
+                .count(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Make sure work which fails doesn't use up room in the stage.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canRecoverFromFailedWork() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            this.stage.put(
+                () -> {
+                    throw new IllegalStateException("failed");
+                }
+            );
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        this.stage.put(done::countDown);
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Make sure queued work is finished on shutdown.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canFinishQueuedWorkOnShutdown() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        this.stage.put(this.blockingWork(started));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        final AtomicBoolean ran = new AtomicBoolean();
+        this.stage.enqueue(() -> ran.set(true));
+
+        new Thread(
+            () -> {
+                try {
+                    Thread.sleep(100L);
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                this.release.countDown();
+            }
+        ).start();
+        this.stage.shutdown(10_000L);
+
+        Assert.assertTrue(ran.get());
+    }
+
+    /**
+     * Make sure queued work which can't finish before the timeout is dropped on shutdown.
+     *
+     * @throws InterruptedException on error
+     */
+    @Test
+    public void canDropQueuedWorkAfterShutdownTimeout() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        this.stage.put(this.blockingWork(started));
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+        final AtomicBoolean ran = new AtomicBoolean();
+        this.stage.enqueue(() -> ran.set(true));
+
+        this.stage.shutdown(100L);
+
+        Assert.assertThat(this.stage.getQueueDepth(), Matchers.is(0));
+        Assert.assertFalse(ran.get());
+    }
+
+    private Runnable blockingWork(final CountDownLatch started) {
+        return () -> {
+            started.countDown();
+            try {
+                this.release.await();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+}
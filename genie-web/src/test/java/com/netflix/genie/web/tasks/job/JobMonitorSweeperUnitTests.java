@@ -0,0 +1,163 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.core.properties.JobsMonitoringProperties;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.genie.web.tasks.GenieTaskScheduleType;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for JobMonitorSweeper.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobMonitorSweeperUnitTests {
+
+    private static final long TICK = 10L;
+
+    private JobMonitorSweeper sweeper;
+    private Timer sweepTimer;
+    private Timer lagTimer;
+    private AtomicLong backlog;
+
+    /**
+     * Setup for the tests.
+     */
+    @Before
+    public void setup() {
+        final JobsMonitoringProperties properties = new JobsMonitoringProperties();
+        properties.setSweeperTickDuration(TICK);
+        properties.setSweeperWheelSize(16);
+        final Registry registry = Mockito.mock(Registry.class);
+        this.sweepTimer = Mockito.mock(Timer.class);
+        this.lagTimer = Mockito.mock(Timer.class);
+        this.backlog = new AtomicLong();
+        Mockito.when(registry.timer("genie.jobs.monitoring.sweep.timer")).thenReturn(this.sweepTimer);
+        Mockito.when(registry.timer("genie.jobs.monitoring.sweep.lag.timer")).thenReturn(this.lagTimer);
+        Mockito
+            .when(
+                registry.gauge(Mockito.eq("genie.jobs.monitoring.sweep.backlog.gauge"), Mockito.any(AtomicLong.class))
+            )
+            .thenReturn(this.backlog);
+        this.sweeper = new JobMonitorSweeper(properties, registry);
+    }
+
+    /**
+     * Make sure the sweeper is scheduled at the rate of a tick.
+     */
+    @Test
+    public void canGetSchedule() {
+        Assert.assertThat(this.sweeper.getScheduleType(), Matchers.is(GenieTaskScheduleType.FIXED_RATE));
+        Assert.assertThat(this.sweeper.getFixedRate(), Matchers.is(TICK));
+    }
+
+    /**
+     * Make sure due jobs are checked in a sweep and rescheduled for their next check.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the job to be due
+     */
+    @Test
+    public void canCheckDueJobs() throws InterruptedException {
+        final JobMonitor monitor = Mockito.mock(JobMonitor.class);
+        Mockito.when(monitor.getFixedDelay()).thenReturn(1L);
+        final Future<?> future = this.sweeper.add(monitor);
+        Assert.assertThat(this.sweeper.getNumMonitoredJobs(), Matchers.is(1));
+        Assert.assertFalse(future.isDone());
+
+        Thread.sleep(3 * TICK);
+        this.sweeper.run();
+
+        Mockito.verify(monitor, Mockito.times(1)).run();
+        Assert.assertThat(this.backlog.get(), Matchers.is(1L));
+        Assert.assertThat(this.sweeper.getNumMonitoredJobs(), Matchers.is(1));
+        Mockito.verify(this.lagTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS));
+        Mockito.verify(this.sweepTimer, Mockito.times(1)).record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure jobs which aren't due yet aren't checked.
+     */
+    @Test
+    public void wontCheckJobsNotDue() {
+        final JobMonitor monitor = Mockito.mock(JobMonitor.class);
+        Mockito.when(monitor.getFixedDelay()).thenReturn(TimeUnit.HOURS.toMillis(1L));
+        this.sweeper.add(monitor);
+
+        this.sweeper.run();
+
+        Mockito.verify(monitor, Mockito.never()).run();
+        Assert.assertThat(this.backlog.get(), Matchers.is(0L));
+        Assert.assertThat(this.sweeper.getNumMonitoredJobs(), Matchers.is(1));
+    }
+
+    /**
+     * Make sure cancelled jobs are dropped from the wheel without being checked.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the job to be due
+     */
+    @Test
+    public void canStopMonitoringCancelledJobs() throws InterruptedException {
+        final JobMonitor monitor = Mockito.mock(JobMonitor.class);
+        Mockito.when(monitor.getFixedDelay()).thenReturn(1L);
+        final Future<?> future = this.sweeper.add(monitor);
+        Assert.assertTrue(future.cancel(true));
+
+        Thread.sleep(3 * TICK);
+        this.sweeper.run();
+
+        Mockito.verify(monitor, Mockito.never()).run();
+        Assert.assertThat(this.sweeper.getNumMonitoredJobs(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure a failing check doesn't stop the other jobs from being checked.
+     *
+     * @throws InterruptedException if the test is interrupted while waiting for the jobs to be due
+     */
+    @Test
+    public void canCheckJobsAfterFailedCheck() throws InterruptedException {
+        final JobMonitor monitor1 = Mockito.mock(JobMonitor.class);
+        Mockito.when(monitor1.getFixedDelay()).thenReturn(1L);
+        Mockito.doThrow(new IllegalStateException()).when(monitor1).run();
+        final JobMonitor monitor2 = Mockito.mock(JobMonitor.class);
+        Mockito.when(monitor2.getFixedDelay()).thenReturn(1L);
+        this.sweeper.add(monitor1);
+        this.sweeper.add(monitor2);
+
+        Thread.sleep(3 * TICK);
+        this.sweeper.run();
+
+        Mockito.verify(monitor1, Mockito.times(1)).run();
+        Mockito.verify(monitor2, Mockito.times(1)).run();
+        Assert.assertThat(this.sweeper.getNumMonitoredJobs(), Matchers.is(2));
+    }
+}
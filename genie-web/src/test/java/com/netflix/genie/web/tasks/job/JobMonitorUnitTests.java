@@ -22,6 +22,7 @@ import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.KillJobEvent;
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.properties.JobsProperties;
+import com.netflix.genie.core.util.UnixProcessCheckerFactory;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
 import com.netflix.spectator.api.Counter;
@@ -128,7 +129,7 @@ public class JobMonitorUnitTests {
             this.jobExecution,
             this.stdOut,
             this.stdErr,
-            this.executor,
+            new UnixProcessCheckerFactory(this.executor),
             this.publisher,
             this.eventMulticaster,
             this.registry,
@@ -281,7 +282,7 @@ public class JobMonitorUnitTests {
             this.jobExecution,
             this.stdOut,
             this.stdErr,
-            this.executor,
+            new UnixProcessCheckerFactory(this.executor),
             this.publisher,
             this.eventMulticaster,
             this.registry,
@@ -17,12 +17,11 @@
  */
 package com.netflix.genie.web.tasks.job;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.netflix.genie.common.dto.Job;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
-import com.netflix.genie.common.exceptions.GenieNotFoundException;
 import com.netflix.genie.core.events.JobFinishedEvent;
 import com.netflix.genie.core.events.JobFinishedReason;
 import com.netflix.genie.core.events.JobStartedEvent;
@@ -30,10 +29,12 @@ import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.properties.JobsProperties;
 import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.core.services.JobSubmitterService;
+import com.netflix.genie.core.util.ProcessCheckerFactory;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Measurement;
 import com.netflix.spectator.api.Registry;
-import org.apache.commons.exec.Executor;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
@@ -52,10 +53,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
 
 /**
  * Tests for the JobMonitoringCoordinator.
@@ -76,6 +81,7 @@ public class JobMonitoringCoordinatorUnitTests {
     public TemporaryFolder folder = new TemporaryFolder();
 
     private TaskScheduler scheduler;
+    private ExecutorService jobLaunchExecutor;
     private JobMonitoringCoordinator coordinator;
     private JobSubmitterService jobSubmitterService;
     private JobSearchService jobSearchService;
@@ -95,8 +101,9 @@ public class JobMonitoringCoordinatorUnitTests {
         this.tomorrow = cal.getTime();
         this.jobSearchService = Mockito.mock(JobSearchService.class);
         this.jobSubmitterService = Mockito.mock(JobSubmitterService.class);
-        final Executor executor = Mockito.mock(Executor.class);
+        final ProcessCheckerFactory processCheckerFactory = Mockito.mock(ProcessCheckerFactory.class);
         this.scheduler = Mockito.mock(TaskScheduler.class);
+        this.jobLaunchExecutor = Mockito.mock(ExecutorService.class);
         this.eventMulticaster = Mockito.mock(ApplicationEventMulticaster.class);
         final Registry registry = Mockito.mock(Registry.class);
         this.unableToCancel = Mockito.mock(Counter.class);
@@ -112,11 +119,12 @@ public class JobMonitoringCoordinatorUnitTests {
             Mockito.mock(ApplicationEventPublisher.class),
             this.eventMulticaster,
             this.scheduler,
-            executor,
+            processCheckerFactory,
             registry,
             jobsDir,
             new JobsProperties(),
-            jobSubmitterService
+            jobSubmitterService,
+            this.jobLaunchExecutor
         );
     }
 
@@ -130,7 +138,7 @@ public class JobMonitoringCoordinatorUnitTests {
     public void canAttachToRunningJobs() throws GenieException {
         final ContextRefreshedEvent event = Mockito.mock(ContextRefreshedEvent.class);
 
-        Mockito.when(this.jobSearchService.getAllActiveJobsOnHost(HOSTNAME)).thenReturn(Sets.newHashSet());
+        Mockito.when(this.jobSearchService.getAllActiveJobStatusesOnHost(HOSTNAME)).thenReturn(Maps.newHashMap());
         this.coordinator.onStartup(event);
         Mockito
             .verify(this.scheduler, Mockito.never())
@@ -166,30 +174,21 @@ public class JobMonitoringCoordinatorUnitTests {
             .verify(this.scheduler, Mockito.times(1))
             .scheduleWithFixedDelay(Mockito.any(JobMonitor.class), Mockito.eq(DELAY));
 
-        final Job j1 = Mockito.mock(Job.class);
-        Mockito.when(j1.getId()).thenReturn(Optional.of(job1Id));
-        Mockito.when(j1.getStatus()).thenReturn(JobStatus.RUNNING);
-        final Job j2 = Mockito.mock(Job.class);
-        Mockito.when(j2.getId()).thenReturn(Optional.of(job2Id));
-        Mockito.when(j2.getStatus()).thenReturn(JobStatus.RUNNING);
-        final Job j3 = Mockito.mock(Job.class);
-        Mockito.when(j3.getId()).thenReturn(Optional.of(job3Id));
-        Mockito.when(j3.getStatus()).thenReturn(JobStatus.RUNNING);
-        final Job j4 = Mockito.mock(Job.class);
-        Mockito.when(j4.getId()).thenReturn(Optional.of(job4Id));
-        Mockito.when(j4.getStatus()).thenReturn(JobStatus.RUNNING);
-        final Job j5 = Mockito.mock(Job.class);
-        Mockito.when(j5.getId()).thenReturn(Optional.of(job5Id));
-        Mockito.when(j5.getStatus()).thenReturn(JobStatus.INIT);
-        final Set<Job> jobs = Sets.newHashSet(j1, j2, j3, j4, j5);
-        Mockito.when(this.jobSearchService.getAllActiveJobsOnHost(HOSTNAME)).thenReturn(jobs);
-        Mockito.when(this.jobSearchService.getJobExecution(job1Id)).thenReturn(job1);
-        Mockito.when(this.jobSearchService.getJobExecution(job2Id)).thenReturn(job2);
-        Mockito.when(this.jobSearchService.getJobExecution(job3Id)).thenReturn(job3);
-        Mockito.when(this.jobSearchService.getJobExecution(job4Id)).thenThrow(new GenieNotFoundException("blah"));
+        final Map<String, JobStatus> jobs = Maps.newHashMap();
+        jobs.put(job1Id, JobStatus.RUNNING);
+        jobs.put(job2Id, JobStatus.RUNNING);
+        jobs.put(job3Id, JobStatus.RUNNING);
+        jobs.put(job4Id, JobStatus.RUNNING);
+        jobs.put(job5Id, JobStatus.INIT);
+        Mockito.when(this.jobSearchService.getAllActiveJobStatusesOnHost(HOSTNAME)).thenReturn(jobs);
+        // Job 4 finished between the two queries so its execution information isn't returned
+        Mockito
+            .when(this.jobSearchService.getAllRunningJobExecutionsOnHost(HOSTNAME))
+            .thenReturn(Sets.newHashSet(job1, job2, job3));
         this.coordinator.onStartup(event);
 
         Mockito.verify(this.eventMulticaster, Mockito.times(2)).multicastEvent(Mockito.any(JobFinishedEvent.class));
+        Mockito.verify(this.jobSearchService, Mockito.never()).getJobExecution(Mockito.anyString());
         Mockito
             .verify(this.scheduler, Mockito.times(3))
             .scheduleWithFixedDelay(Mockito.any(JobMonitor.class), Mockito.eq(DELAY));
@@ -266,6 +265,60 @@ public class JobMonitoringCoordinatorUnitTests {
             .scheduleWithFixedDelay(Mockito.any(JobMonitor.class), Mockito.eq(DELAY));
     }
 
+    /**
+     * Make sure when the sweeper is enabled started jobs are handed to it instead of being scheduled individually.
+     *
+     * @throws IOException    on error
+     * @throws GenieException on error
+     */
+    @Test
+    public void canMonitorJobsWithSweeper() throws IOException, GenieException {
+        final JobsProperties jobsProperties = new JobsProperties();
+        jobsProperties.getMonitoring().setSweeperEnabled(true);
+        final Registry registry = Mockito.mock(Registry.class);
+        Mockito.when(registry.counter(Mockito.anyString())).thenReturn(this.unableToCancel);
+        final Resource jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(jobsDir.getFile()).thenReturn(this.folder.newFolder());
+
+        final JobMonitoringCoordinator sweepingCoordinator = new JobMonitoringCoordinator(
+            HOSTNAME,
+            this.jobSearchService,
+            Mockito.mock(ApplicationEventPublisher.class),
+            this.eventMulticaster,
+            this.scheduler,
+            Mockito.mock(ProcessCheckerFactory.class),
+            registry,
+            jobsDir,
+            jobsProperties,
+            this.jobSubmitterService,
+            this.jobLaunchExecutor
+        );
+        Mockito
+            .verify(this.scheduler, Mockito.times(1))
+            .scheduleAtFixedRate(Mockito.any(JobMonitorSweeper.class), Mockito.eq(1_000L));
+
+        final String jobId = UUID.randomUUID().toString();
+        final JobExecution job = new JobExecution.Builder(UUID.randomUUID().toString())
+            .withProcessId(2818)
+            .withCheckDelay(DELAY)
+            .withMemory(1024)
+            .withTimeout(this.tomorrow)
+            .withId(jobId)
+            .build();
+        sweepingCoordinator.init(jobId);
+        sweepingCoordinator.onJobStarted(new JobStartedEvent(job, this));
+        Assert.assertThat(sweepingCoordinator.getNumActiveJobs(), Matchers.is(1));
+        Mockito
+            .verify(this.scheduler, Mockito.never())
+            .scheduleWithFixedDelay(Mockito.any(JobMonitor.class), Mockito.anyLong());
+
+        sweepingCoordinator.onJobFinished(
+            new JobFinishedEvent(jobId, JobFinishedReason.PROCESS_COMPLETED, "something", this)
+        );
+        Assert.assertThat(sweepingCoordinator.getNumActiveJobs(), Matchers.is(0));
+        Mockito.verify(this.unableToCancel, Mockito.never()).increment();
+    }
+
     /**
      * Make sure when a {@link com.netflix.genie.core.events.JobFinishedEvent} is sent the monitor is cancelled.
      *
@@ -363,7 +416,7 @@ public class JobMonitoringCoordinatorUnitTests {
             = new JobFinishedEvent(jobId, JobFinishedReason.FAILED_TO_INIT, "something", this);
         Mockito.when(task.isDone()).thenReturn(true).thenReturn(false).thenReturn(false);
         Mockito.when(task.cancel(true)).thenReturn(true).thenReturn(false);
-        Mockito.when(scheduler.schedule(Mockito.any(), Mockito.any(Date.class))).thenReturn(task);
+        Mockito.doReturn(task).when(this.jobLaunchExecutor).submit(Mockito.any(Runnable.class));
         Assert.assertThat(this.coordinator.getNumActiveJobs(), Matchers.is(0));
         Assert.assertThat(this.coordinator.getUsedMemory(), Matchers.is(0));
         coordinator.init(jobId);
@@ -390,4 +443,99 @@ public class JobMonitoringCoordinatorUnitTests {
 
         Mockito.verify(this.unableToCancel, Mockito.times(1)).increment();
     }
+
+    /**
+     * Make sure jobs are launched on the launch executor instead of the scheduler and the time they spend queued is
+     * recorded.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canLaunchJobsOnLaunchExecutor() throws Exception {
+        final Registry registry = new DefaultRegistry();
+        final Resource jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(jobsDir.getFile()).thenReturn(this.folder.newFolder());
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final JobMonitoringCoordinator launchingCoordinator = new JobMonitoringCoordinator(
+                HOSTNAME,
+                this.jobSearchService,
+                Mockito.mock(ApplicationEventPublisher.class),
+                this.eventMulticaster,
+                this.scheduler,
+                Mockito.mock(ProcessCheckerFactory.class),
+                registry,
+                jobsDir,
+                new JobsProperties(),
+                this.jobSubmitterService,
+                executor
+            );
+
+            final String jobId = UUID.randomUUID().toString();
+            launchingCoordinator.init(jobId);
+            launchingCoordinator.schedule(jobId, null, null, null, null, 1024);
+            Assert.assertThat(launchingCoordinator.getNumActiveJobs(), Matchers.is(1));
+
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            Mockito
+                .verify(this.jobSubmitterService, Mockito.times(1))
+                .submitJob(null, null, null, null, 1024);
+            Mockito
+                .verify(this.scheduler, Mockito.never())
+                .schedule(Mockito.any(Runnable.class), Mockito.any(Date.class));
+            Assert.assertThat(
+                registry.timer("genie.jobs.submit.localRunner.launchQueue.timer").count(),
+                Matchers.is(1L)
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make sure a launch cancelled before it leaves the queue doesn't stay counted as queued.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canCancelQueuedLaunch() throws Exception {
+        final Registry registry = new DefaultRegistry();
+        final Resource jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(jobsDir.getFile()).thenReturn(this.folder.newFolder());
+        final JobMonitoringCoordinator launchingCoordinator = new JobMonitoringCoordinator(
+            HOSTNAME,
+            this.jobSearchService,
+            Mockito.mock(ApplicationEventPublisher.class),
+            this.eventMulticaster,
+            this.scheduler,
+            Mockito.mock(ProcessCheckerFactory.class),
+            registry,
+            jobsDir,
+            new JobsProperties(),
+            this.jobSubmitterService,
+            this.jobLaunchExecutor
+        );
+        final Future<?> task = Mockito.mock(Future.class);
+        Mockito.when(task.cancel(true)).thenReturn(true);
+        Mockito.doReturn(task).when(this.jobLaunchExecutor).submit(Mockito.any(Runnable.class));
+
+        final String jobId = UUID.randomUUID().toString();
+        launchingCoordinator.init(jobId);
+        launchingCoordinator.schedule(jobId, null, null, null, null, 1024);
+        Assert.assertThat(this.getGauge(registry, "genie.jobs.submit.localRunner.launchQueue.gauge"), Matchers.is(1.0));
+        launchingCoordinator.onJobFinished(new JobFinishedEvent(jobId, JobFinishedReason.KILLED, "killed", this));
+        Mockito.verify(task, Mockito.times(1)).cancel(true);
+        Assert.assertThat(this.getGauge(registry, "genie.jobs.submit.localRunner.launchQueue.gauge"), Matchers.is(0.0));
+        Assert.assertThat(launchingCoordinator.getNumActiveJobs(), Matchers.is(0));
+    }
+
+    private double getGauge(final Registry registry, final String name) {
+        return StreamSupport
+            .stream(registry.spliterator(), false)
+            .filter(meter -> meter.id().name().equals(name))
+            .flatMap(meter -> StreamSupport.stream(meter.measure().spliterator(), false))
+            .mapToDouble(Measurement::value)
+            .sum();
+    }
 }
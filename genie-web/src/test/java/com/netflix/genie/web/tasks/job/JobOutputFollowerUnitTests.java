@@ -0,0 +1,277 @@
+/*
+ *
+ *  Copyright 2016 Netflix, Inc.
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ *
+ */
+package com.netflix.genie.web.tasks.job;
+
+import com.netflix.genie.common.exceptions.GenieException;
+import com.netflix.genie.common.exceptions.GenieNotFoundException;
+import com.netflix.genie.common.exceptions.GeniePreconditionException;
+import com.netflix.genie.core.events.JobFinishedEvent;
+import com.netflix.genie.core.events.JobFinishedReason;
+import com.netflix.genie.core.services.JobStateService;
+import com.netflix.genie.test.categories.UnitTest;
+import com.netflix.spectator.api.DefaultRegistry;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Unit tests for the JobOutputFollower class.
+ *
+ * @author tgianos
+ * @since 3.1.0
+ */
+@Category(UnitTest.class)
+public class JobOutputFollowerUnitTests {
+
+    /**
+     * Temporary folder that will be deleted at the end of tests.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JobStateService jobStateService;
+    private JobOutputFollower follower;
+    private String jobId;
+    private Path stdout;
+
+    /**
+     * Setup for the tests.
+     *
+     * @throws IOException on error
+     */
+    @Before
+    public void setup() throws IOException {
+        this.jobId = UUID.randomUUID().toString();
+        this.stdout = this.folder.newFolder(this.jobId).toPath().resolve("stdout");
+        Files.write(this.stdout, "0123456789".getBytes(StandardCharsets.UTF_8));
+        final Resource jobsDir = Mockito.mock(Resource.class);
+        Mockito.when(jobsDir.getFile()).thenReturn(this.folder.getRoot());
+        this.jobStateService = Mockito.mock(JobStateService.class);
+        this.follower = new JobOutputFollower(jobsDir, this.jobStateService, 60_000L, new DefaultRegistry()) {
+            @Override
+            protected ResponseBodyEmitter createEmitter(final long emitterTimeout, final Runnable onReady) {
+                return new CapturingEmitter(onReady);
+            }
+        };
+    }
+
+    /**
+     * Clean up after the tests.
+     *
+     * @throws IOException on error
+     */
+    @After
+    public void cleanup() throws IOException {
+        this.follower.close();
+    }
+
+    /**
+     * Make sure following the output of a job which isn't running sends the rest of the file and completes.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFollowOutputOfFinishedJob() throws Exception {
+        Mockito.when(this.jobStateService.jobExists(this.jobId)).thenReturn(false);
+
+        final CapturingEmitter emitter = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 4L);
+        emitter.ready();
+        this.await(emitter::isCompleted);
+        Assert.assertThat(emitter.getContents(), Matchers.is("456789"));
+        Assert.assertThat(this.follower.getNumFollowers(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure nothing is read or sent until the response of the follower is set up.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void wontSendBeforeReady() throws Exception {
+        Mockito.when(this.jobStateService.jobExists(this.jobId)).thenReturn(true);
+
+        final CapturingEmitter emitter = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 0L);
+        Thread.sleep(200L);
+        Assert.assertThat(emitter.getContents(), Matchers.is(""));
+
+        emitter.ready();
+        this.await(() -> emitter.getContents().equals("0123456789"));
+    }
+
+    /**
+     * Make sure followers of a running job get the new bytes as the file grows and are completed when it finishes.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFollowOutputOfRunningJob() throws Exception {
+        Mockito.when(this.jobStateService.jobExists(this.jobId)).thenReturn(true);
+
+        final CapturingEmitter first = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 0L);
+        final CapturingEmitter second = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 8L);
+        first.ready();
+        second.ready();
+        this.await(() -> first.getContents().equals("0123456789") && second.getContents().equals("89"));
+        Assert.assertThat(this.follower.getNumFollowers(), Matchers.is(2));
+
+        Files.write(this.stdout, "abc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        this.await(() -> first.getContents().endsWith("abc") && second.getContents().endsWith("abc"));
+        Assert.assertThat(first.getContents(), Matchers.is("0123456789abc"));
+        Assert.assertThat(second.getContents(), Matchers.is("89abc"));
+        Assert.assertFalse(first.isCompleted());
+
+        this.follower.onJobFinished(new JobFinishedEvent(this.jobId, JobFinishedReason.PROCESS_COMPLETED, "", this));
+        this.await(() -> first.isCompleted() && second.isCompleted());
+        Assert.assertThat(this.follower.getNumFollowers(), Matchers.is(0));
+    }
+
+    /**
+     * Make sure a follower whose client stalls doesn't hold up the other followers.
+     *
+     * @throws Exception on error
+     */
+    @Test
+    public void canFollowWhileAnotherFollowerStalls() throws Exception {
+        Mockito.when(this.jobStateService.jobExists(this.jobId)).thenReturn(true);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CapturingEmitter stalled = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 0L);
+        stalled.stallUntil(release);
+        final CapturingEmitter other = (CapturingEmitter) this.follower.follow(this.jobId, "stdout", 0L);
+        stalled.ready();
+        other.ready();
+        try {
+            this.await(() -> other.getContents().equals("0123456789"));
+            Files.write(this.stdout, "abc".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            this.await(() -> other.getContents().equals("0123456789abc"));
+            Assert.assertThat(stalled.getContents(), Matchers.is(""));
+        } finally {
+            release.countDown();
+        }
+        this.await(() -> stalled.getContents().equals("0123456789abc"));
+    }
+
+    /**
+     * Make sure files outside of the job directory can't be followed.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantFollowOutsideJobDirectory() throws GenieException {
+        this.follower.follow(this.jobId, "../" + this.jobId + "-other/stdout", 0L);
+    }
+
+    /**
+     * Make sure a negative offset is rejected.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GeniePreconditionException.class)
+    public void cantFollowFromNegativeOffset() throws GenieException {
+        this.follower.follow(this.jobId, "stdout", -1L);
+    }
+
+    /**
+     * Make sure a file that doesn't exist can't be followed.
+     *
+     * @throws GenieException on error
+     */
+    @Test(expected = GenieNotFoundException.class)
+    public void cantFollowMissingFile() throws GenieException {
+        this.follower.follow(this.jobId, "stderr", 0L);
+    }
+
+    private void await(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 30_000L;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20L);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * An emitter which keeps everything sent through it.
+     */
+    private static class CapturingEmitter extends ResponseBodyEmitter {
+        private final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        private final Runnable onReady;
+        private volatile CountDownLatch stall;
+        private volatile boolean completed;
+
+        CapturingEmitter(final Runnable onReady) {
+            this.onReady = onReady;
+        }
+
+        @Override
+        public void send(final Object object, final MediaType mediaType) throws IOException {
+            final CountDownLatch latch = this.stall;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (final InterruptedException ie) {
+                    throw new IOException(ie);
+                }
+            }
+            synchronized (this.contents) {
+                this.contents.write((byte[]) object);
+            }
+        }
+
+        @Override
+        public void complete() {
+            this.completed = true;
+        }
+
+        private void ready() {
+            this.onReady.run();
+        }
+
+        private void stallUntil(final CountDownLatch latch) {
+            this.stall = latch;
+        }
+
+        private String getContents() {
+            synchronized (this.contents) {
+                return new String(this.contents.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+
+        private boolean isCompleted() {
+            return this.completed;
+        }
+    }
+}
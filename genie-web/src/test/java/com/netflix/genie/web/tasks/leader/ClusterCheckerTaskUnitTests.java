@@ -18,8 +18,7 @@
 package com.netflix.genie.web.tasks.leader;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
-import com.netflix.genie.common.dto.Job;
+import com.google.common.collect.Maps;
 import com.netflix.genie.common.dto.JobExecution;
 import com.netflix.genie.common.dto.JobStatus;
 import com.netflix.genie.common.exceptions.GenieException;
@@ -45,7 +44,7 @@ import org.springframework.web.client.RestTemplate;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -146,25 +145,19 @@ public class ClusterCheckerTaskUnitTests {
         final List<String> hostsRunningJobs = Lists.newArrayList(this.hostName, host1, host2, host3);
         Mockito.when(this.jobSearchService.getAllHostsWithActiveJobs()).thenReturn(hostsRunningJobs);
 
-        final Job job1 = Mockito.mock(Job.class);
         final String job1Id = UUID.randomUUID().toString();
-        Mockito.when(job1.getId()).thenReturn(Optional.of(job1Id));
-        final Job job2 = Mockito.mock(Job.class);
         final String job2Id = UUID.randomUUID().toString();
-        Mockito.when(job2.getId()).thenReturn(Optional.of(job2Id));
-        final Job job3 = Mockito.mock(Job.class);
         final String job3Id = UUID.randomUUID().toString();
-        Mockito.when(job3.getId()).thenReturn(Optional.of(job3Id));
-        final Job job4 = Mockito.mock(Job.class);
         final String job4Id = UUID.randomUUID().toString();
-        Mockito.when(job4.getId()).thenReturn(Optional.of(job4Id));
 
-        Mockito
-            .when(this.jobSearchService.getAllActiveJobsOnHost(host2))
-            .thenReturn(Sets.newHashSet(job1, job2));
-        Mockito
-            .when(this.jobSearchService.getAllActiveJobsOnHost(host3))
-            .thenReturn(Sets.newHashSet(job3, job4));
+        final Map<String, JobStatus> host2Jobs = Maps.newHashMap();
+        host2Jobs.put(job1Id, JobStatus.RUNNING);
+        host2Jobs.put(job2Id, JobStatus.INIT);
+        final Map<String, JobStatus> host3Jobs = Maps.newHashMap();
+        host3Jobs.put(job3Id, JobStatus.RUNNING);
+        host3Jobs.put(job4Id, JobStatus.RUNNING);
+        Mockito.when(this.jobSearchService.getAllActiveJobStatusesOnHost(host2)).thenReturn(host2Jobs);
+        Mockito.when(this.jobSearchService.getAllActiveJobStatusesOnHost(host3)).thenReturn(host3Jobs);
 
         Mockito
             .doThrow(new RuntimeException("blah"))
@@ -19,10 +19,13 @@ package com.netflix.genie.web.tasks.leader;
 
 import com.netflix.genie.core.jobs.JobConstants;
 import com.netflix.genie.core.services.JobPersistenceService;
+import com.netflix.genie.core.services.JobSearchService;
 import com.netflix.genie.test.categories.UnitTest;
 import com.netflix.genie.web.properties.DatabaseCleanupProperties;
 import com.netflix.genie.web.tasks.GenieTaskScheduleType;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
@@ -30,10 +33,13 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -45,10 +51,15 @@ import java.util.concurrent.atomic.AtomicLong;
 @Category(UnitTest.class)
 public class DatabaseCleanupTaskUnitTests {
 
+    private static final int BATCH_SIZE = 100;
+
     private DatabaseCleanupProperties cleanupProperties;
     private JobPersistenceService jobPersistenceService;
+    private JobSearchService jobSearchService;
     private DatabaseCleanupTask task;
     private AtomicLong numDeletedJobs;
+    private Counter deletedJobsRate;
+    private Timer deleteBatchTimer;
 
     /**
      * Setup for the tests.
@@ -57,6 +68,7 @@ public class DatabaseCleanupTaskUnitTests {
     public void setup() {
         this.cleanupProperties = Mockito.mock(DatabaseCleanupProperties.class);
         this.jobPersistenceService = Mockito.mock(JobPersistenceService.class);
+        this.jobSearchService = Mockito.mock(JobSearchService.class);
         this.numDeletedJobs = new AtomicLong();
         final Registry registry = Mockito.mock(Registry.class);
         Mockito
@@ -66,7 +78,21 @@ public class DatabaseCleanupTaskUnitTests {
                     Mockito.any(AtomicLong.class)
                 )
             ).thenReturn(this.numDeletedJobs);
-        this.task = new DatabaseCleanupTask(this.cleanupProperties, this.jobPersistenceService, registry);
+        this.deletedJobsRate = Mockito.mock(Counter.class);
+        Mockito
+            .when(registry.counter("genie.tasks.databaseCleanup.deletedJobs.rate"))
+            .thenReturn(this.deletedJobsRate);
+        this.deleteBatchTimer = Mockito.mock(Timer.class);
+        Mockito
+            .when(registry.timer("genie.tasks.databaseCleanup.deleteBatch.timer"))
+            .thenReturn(this.deleteBatchTimer);
+        Mockito.when(this.cleanupProperties.getBatchSize()).thenReturn(BATCH_SIZE);
+        this.task = new DatabaseCleanupTask(
+            this.cleanupProperties,
+            this.jobPersistenceService,
+            this.jobSearchService,
+            registry
+        );
     }
 
     /**
@@ -78,12 +104,43 @@ public class DatabaseCleanupTaskUnitTests {
     }
 
     /**
-     * Make sure the trigger returned is accurate.
+     * Make sure the trigger fires straight away the first time if jobs are left to clean up and then follows the cron
+     * expression.
      */
     @Test
     public void canGetTrigger() {
         Mockito.when(this.cleanupProperties.getExpression()).thenReturn("0 0 0 * * *");
-        Assert.assertTrue(this.task.getTrigger() instanceof CronTrigger);
+        Mockito.when(this.jobSearchService.hasJobsCreatedBefore(Mockito.any(Date.class))).thenReturn(true);
+        final Trigger trigger = this.task.getTrigger();
+
+        final Date before = new Date();
+        final Date first = trigger.nextExecutionTime(new SimpleTriggerContext());
+        Assert.assertThat(first, Matchers.greaterThanOrEqualTo(before));
+        Assert.assertThat(first, Matchers.lessThanOrEqualTo(new Date()));
+
+        final SimpleTriggerContext context = new SimpleTriggerContext(first, first, first);
+        final Date next = trigger.nextExecutionTime(context);
+        Assert.assertThat(
+            next,
+            Matchers.is(new CronTrigger("0 0 0 * * *", JobConstants.UTC).nextExecutionTime(context))
+        );
+    }
+
+    /**
+     * Make sure the trigger follows the cron expression from the start if the last cleanup finished.
+     */
+    @Test
+    public void canGetTriggerWhenCleanupFinished() {
+        Mockito.when(this.cleanupProperties.getExpression()).thenReturn("0 0 0 * * *");
+        Mockito.when(this.jobSearchService.hasJobsCreatedBefore(Mockito.any(Date.class))).thenReturn(false);
+        final Trigger trigger = this.task.getTrigger();
+
+        final SimpleTriggerContext context = new SimpleTriggerContext();
+        final Date first = trigger.nextExecutionTime(context);
+        Assert.assertThat(
+            first,
+            Matchers.is(new CronTrigger("0 0 0 * * *", JobConstants.UTC).nextExecutionTime(context))
+        );
     }
 
     /**
@@ -100,7 +157,10 @@ public class DatabaseCleanupTaskUnitTests {
         final long deletedCount1 = 6L;
         final long deletedCount2 = 18L;
         Mockito
-            .when(this.jobPersistenceService.deleteAllJobsCreatedBeforeDate(Mockito.any(Date.class)))
+            .when(
+                this.jobPersistenceService
+                    .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE))
+            )
             .thenReturn(deletedCount1)
             .thenReturn(deletedCount2);
 
@@ -115,7 +175,7 @@ public class DatabaseCleanupTaskUnitTests {
         if (before.get(Calendar.DAY_OF_YEAR) == after.get(Calendar.DAY_OF_YEAR)) {
             Mockito
                 .verify(this.jobPersistenceService, Mockito.times(2))
-                .deleteAllJobsCreatedBeforeDate(argument.capture());
+                .deleteBatchOfJobsCreatedBeforeDate(argument.capture(), Mockito.eq(BATCH_SIZE));
             final Calendar date = Calendar.getInstance(JobConstants.UTC);
             date.set(Calendar.HOUR_OF_DAY, 0);
             date.set(Calendar.MINUTE, 0);
@@ -126,4 +186,65 @@ public class DatabaseCleanupTaskUnitTests {
             Assert.assertThat(argument.getAllValues().get(1), Matchers.is(date.getTime()));
         }
     }
+
+    /**
+     * Make sure the run method keeps deleting batches until there are no more expired jobs.
+     */
+    @Test
+    public void canRunInBatches() {
+        Mockito.when(this.cleanupProperties.getRetention()).thenReturn(90);
+        Mockito
+            .when(
+                this.jobPersistenceService
+                    .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE))
+            )
+            .thenReturn((long) BATCH_SIZE)
+            .thenReturn((long) BATCH_SIZE)
+            .thenReturn(12L);
+
+        this.task.run();
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(3))
+            .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE));
+        Assert.assertThat(this.numDeletedJobs.get(), Matchers.is(2L * BATCH_SIZE + 12L));
+        Mockito.verify(this.deletedJobsRate, Mockito.times(2)).increment(BATCH_SIZE);
+        Mockito.verify(this.deletedJobsRate, Mockito.times(1)).increment(12L);
+        Mockito
+            .verify(this.deleteBatchTimer, Mockito.times(3))
+            .record(Mockito.anyLong(), Mockito.eq(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Make sure the run method stops deleting batches once the thread is interrupted.
+     */
+    @Test
+    public void canStopWhenInterrupted() {
+        Mockito.when(this.cleanupProperties.getRetention()).thenReturn(90);
+        Mockito.when(this.cleanupProperties.getBatchPause()).thenReturn(10_000L);
+        Mockito
+            .when(
+                this.jobPersistenceService
+                    .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE))
+            )
+            .thenAnswer(
+                invocation -> {
+                    Thread.currentThread().interrupt();
+                    return (long) BATCH_SIZE;
+                }
+            );
+
+        try {
+            this.task.run();
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            // Clear the flag so it doesn't leak into other tests
+            Thread.interrupted();
+        }
+
+        Mockito
+            .verify(this.jobPersistenceService, Mockito.times(1))
+            .deleteBatchOfJobsCreatedBeforeDate(Mockito.any(Date.class), Mockito.eq(BATCH_SIZE));
+        Assert.assertThat(this.numDeletedJobs.get(), Matchers.is((long) BATCH_SIZE));
+    }
 }